@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of a {@link Cache} that many threads are reading from and
+ * occasionally writing to, for each {@link Cache.EvictionPolicy}. With
+ * {@link Cache.EvictionPolicy#LRU} every hit contends on the LRU lock.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class CacheContentionBenchmark {
+    private static final int KEYS = 100_000;
+    private static final int TRACE_LENGTH = 1 << 20;
+
+    @Param({ "LRU", "TINY_LFU" })
+    private String policy;
+
+    @Param({ "10000" })
+    private int maximumWeight;
+
+    /**
+     * The percentage of operations that write to the cache.
+     */
+    @Param({ "0", "10" })
+    private int writePercent;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .setEvictionPolicy(Cache.EvictionPolicy.valueOf(policy))
+            .build();
+        for (int key : CacheHitRateBenchmark.zipfTrace(KEYS, 0.9, maximumWeight * 10, new Random(0))) {
+            cache.put(key, key);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger SEEDS = new AtomicInteger();
+
+        private int[] keys;
+        private boolean[] writes;
+        private int next;
+
+        @Setup
+        public void setup(CacheContentionBenchmark benchmark) {
+            Random random = new Random(SEEDS.incrementAndGet());
+            keys = CacheHitRateBenchmark.zipfTrace(KEYS, 0.9, TRACE_LENGTH, random);
+            writes = new boolean[TRACE_LENGTH];
+            for (int i = 0; i < TRACE_LENGTH; i++) {
+                writes[i] = random.nextInt(100) < benchmark.writePercent;
+            }
+        }
+    }
+
+    @Benchmark
+    public Integer run(ThreadState state) {
+        int i = state.next++ & (TRACE_LENGTH - 1);
+        Integer key = state.keys[i];
+        if (state.writes[i]) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+}
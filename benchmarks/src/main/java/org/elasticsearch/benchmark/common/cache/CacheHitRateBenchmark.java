@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a trace of keys against a {@link Cache} and reports the hits and misses
+ * of each {@link Cache.EvictionPolicy}. Divide {@code hits} by {@code hits + misses}
+ * to get the hit rate. The time is mostly interesting as a sanity check.
+ */
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class CacheHitRateBenchmark {
+    private static final int KEYS = 1_000_000;
+    private static final int TRACE_LENGTH = 2_000_000;
+
+    @Param({ "LRU", "TINY_LFU" })
+    private String policy;
+
+    @Param({ "10000" })
+    private int maximumWeight;
+
+    /**
+     * {@code zipf} draws keys from a zipf distribution. {@code zipf_with_scans}
+     * interrupts that every so often with a scan over keys that are never seen
+     * again, like a big query would.
+     */
+    @Param({ "zipf", "zipf_with_scans" })
+    private String trace;
+
+    private int[] keys;
+
+    @Setup
+    public void setupTrace() {
+        Random random = new Random(0);
+        keys = zipfTrace(KEYS, 0.9, TRACE_LENGTH, random);
+        if (trace.equals("zipf_with_scans")) {
+            int scanKey = KEYS;
+            for (int start = 0; start < keys.length; start += 100 * maximumWeight) {
+                int end = Math.min(keys.length, start + maximumWeight);
+                for (int i = start; i < end; i++) {
+                    keys[i] = scanKey++;
+                }
+            }
+        } else if (trace.equals("zipf") == false) {
+            throw new IllegalArgumentException("unknown trace [" + trace + "]");
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Benchmark
+    public Cache<Integer, Integer> replay(Counters counters) {
+        Cache<Integer, Integer> cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .setEvictionPolicy(Cache.EvictionPolicy.valueOf(policy))
+            .build();
+        for (int key : keys) {
+            if (cache.get(key) == null) {
+                counters.misses++;
+                cache.put(key, key);
+            } else {
+                counters.hits++;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Build a trace of keys in {@code [0, keyCount)} where the {@code n}th most popular
+     * key is drawn with a probability proportional to {@code 1 / n^exponent}.
+     */
+    static int[] zipfTrace(int keyCount, double exponent, int length, Random random) {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int key = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = key < 0 ? -key - 1 : key;
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.grok;
+
+import org.elasticsearch.grok.Grok;
+import org.elasticsearch.grok.GrokBuiltinPatterns;
+import org.elasticsearch.grok.MatcherWatchdog;
+import org.elasticsearch.grok.MultiGrok;
+import org.elasticsearch.grok.PatternBank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares matching a line against a list of the ECS grok patterns by joining the
+ * patterns into a single alternation, which is what the grok processor used to do,
+ * with {@link MultiGrok}, which only runs the patterns whose literals are in the line.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class MultiGrokBenchmark {
+    private static final List<String> PATTERNS = List.of(
+        "%{HAPROXYHTTP}",
+        "%{MONGO3_LOG}",
+        "%{REDISLOG}",
+        "%{JAVASTACKTRACEPART}",
+        "%{CRONLOG}",
+        "%{SYSLOGPAMSESSION}",
+        "%{HTTPD_COMBINEDLOG}",
+        "%{SYSLOGLINE}"
+    );
+
+    private static final Map<String, String> LINES = Map.of(
+        "haproxy",
+        "Sep 14 02:01:37 lb haproxy[630]: 127.0.0.1:33135 [14/Sep/2014:02:01:37.452] public nginx/server1 0/0/0/5/5 404 "
+            + "324 - - ---- 1/1/0/0/0 0/0 \"GET /favicon.ico HTTP/1.1\"",
+        "redis",
+        "[4018] 14 Nov 07:01:22.119 *",
+        "cron",
+        "Oct 17 10:00:01 myhost CRON[1234]: (root) CMD (run-parts /etc/cron.hourly)",
+        "apache",
+        "83.149.9.216 - - [24/Feb/2015:23:13:42 +0000] \"GET /presentations/logstash-monitorama-2013/images/kibana-search.png "
+            + "HTTP/1.1\" 200 203023 \"http://semicomplete.com/presentations/logstash-monitorama-2013/\" \"Mozilla/5.0 "
+            + "(Macintosh; Intel Mac OS X 10_9_1) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/32.0.1700.77 Safari/537.36\"",
+        "syslog",
+        "Oct 17 10:00:00 myhost sshd[1234]: Accepted publickey for alice from 10.0.0.1 port 51234 ssh2",
+        "nomatch",
+        "this line doesn't match any of the patterns and has to be rejected by every one of them"
+    );
+
+    @Param({ "haproxy", "redis", "cron", "apache", "syslog", "nomatch" })
+    private String line;
+
+    private String text;
+    private Grok alternation;
+    private MultiGrok multiGrok;
+
+    @Setup
+    public void setup() {
+        PatternBank bank = GrokBuiltinPatterns.ecsV1Patterns();
+        text = LINES.get(line);
+        String combined = PATTERNS.stream().map(p -> "(?:" + p + ")").collect(Collectors.joining("|"));
+        alternation = new Grok(bank, combined, MatcherWatchdog.noop(), s -> {});
+        multiGrok = new MultiGrok(bank, PATTERNS, MatcherWatchdog.noop(), s -> {});
+    }
+
+    @Benchmark
+    public Map<String, Object> alternation() {
+        return alternation.captures(text);
+    }
+
+    @Benchmark
+    public MultiGrok.Match multiGrok() {
+        return multiGrok.captures(text);
+    }
+}
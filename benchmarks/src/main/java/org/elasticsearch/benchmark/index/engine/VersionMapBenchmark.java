@@ -0,0 +1,121 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.engine.CompactVersionMap;
+import org.elasticsearch.index.engine.IndexVersionValue;
+import org.elasticsearch.index.engine.LiveVersionMap;
+import org.elasticsearch.index.engine.VersionValue;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.translog.Translog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the concurrent map of {@link VersionValue}s of the live version map with the {@link CompactVersionMap} on the upserts and
+ * lookups of a refresh interval. The memory that each map uses for the ids is printed while setting up.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VersionMapBenchmark {
+
+    @Param({ "concurrent", "compact" })
+    private String type;
+
+    @Param({ "100000" })
+    private int numIds;
+
+    @Param({ "500000" })
+    private int numOps;
+
+    private BytesRef[] uids;
+    private int[] ops;
+    private Map<BytesRef, VersionValue> filled;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        uids = new BytesRef[numIds];
+        for (int i = 0; i < numIds; i++) {
+            uids[i] = Uid.encodeId(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        ops = new int[numOps];
+        for (int i = 0; i < numOps; i++) {
+            ops[i] = random.nextInt(numIds);
+        }
+        filled = upsertAll();
+
+        CompactVersionMap compactMap = new CompactVersionMap();
+        upsertAll(compactMap);
+        long concurrentMapBytes = 0;
+        for (Map.Entry<BytesRef, VersionValue> entry : filled.entrySet()) {
+            concurrentMapBytes += LiveVersionMap.VersionLookup.mapEntryBytesUsed(entry.getKey(), entry.getValue());
+        }
+        System.out.printf(
+            Locale.ROOT,
+            "%n[%d] ids take [%d] bytes in a concurrent map and [%d] bytes in a compact map%n",
+            filled.size(),
+            concurrentMapBytes,
+            compactMap.ramBytesUsed()
+        );
+    }
+
+    private Map<BytesRef, VersionValue> newMap() {
+        return switch (type) {
+            case "concurrent" -> ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+            case "compact" -> new CompactVersionMap();
+            default -> throw new IllegalArgumentException("unexpected map type [" + type + "]");
+        };
+    }
+
+    private Map<BytesRef, VersionValue> upsertAll() {
+        return upsertAll(newMap());
+    }
+
+    private Map<BytesRef, VersionValue> upsertAll(Map<BytesRef, VersionValue> map) {
+        for (int i = 0; i < ops.length; i++) {
+            map.put(uids[ops[i]], new IndexVersionValue(new Translog.Location(1, i * 100L, 100), i, i, 1));
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<BytesRef, VersionValue> upsert() {
+        return upsertAll();
+    }
+
+    @Benchmark
+    public void get(Blackhole bh) {
+        for (int op : ops) {
+            bh.consume(filled.get(uids[op]));
+        }
+    }
+}
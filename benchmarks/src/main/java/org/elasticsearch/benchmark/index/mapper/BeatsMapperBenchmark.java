@@ -48,12 +48,14 @@ public class BeatsMapperBenchmark {
     private Random random;
     private MapperService mapperService;
     private SourceToParse[] sources;
+    private SourceToParse[] sourcesWithArrays;
 
     @Setup
     public void setUp() throws IOException {
         this.random = new Random(seed);
         this.mapperService = MapperServiceFactory.create(readSampleMapping());
         this.sources = generateRandomDocuments(10_000);
+        this.sourcesWithArrays = generateRandomDocumentsWithArrays(10_000);
     }
 
     private static String readSampleMapping() throws IOException {
@@ -76,6 +78,42 @@ public class BeatsMapperBenchmark {
         return docs;
     }
 
+    private SourceToParse[] generateRandomDocumentsWithArrays(int count) {
+        var docs = new SourceToParse[count];
+        for (int i = 0; i < count; i++) {
+            docs[i] = generateRandomDocumentWithArrays();
+        }
+        return docs;
+    }
+
+    private SourceToParse generateRandomDocumentWithArrays() {
+        return new SourceToParse(
+            UUIDs.randomBase64UUID(),
+            new BytesArray(
+                "{    \"@timestamp\": "
+                    + System.currentTimeMillis()
+                    + ",    \"tags\": [\""
+                    + randomFrom("production", "staging")
+                    + "\", \""
+                    + randomFrom("eu-west-1", "us-east-1")
+                    + "\", \"beats_input_codec_plain_applied\"]"
+                    + ",    \"event.category\": [\"web\", \"network\"]"
+                    + ",    \"event.type\": [\"access\", \""
+                    + randomFrom("info", "error")
+                    + "\"]"
+                    + ",    \"related.ip\": [\""
+                    + randomIp()
+                    + "\", \""
+                    + randomIp()
+                    + "\"]"
+                    + ",    \"http.request.method\": \""
+                    + randomFrom("GET", "POST")
+                    + "\"}"
+            ),
+            XContentType.JSON
+        );
+    }
+
     private SourceToParse generateRandomDocument() {
         return new SourceToParse(
             UUIDs.randomBase64UUID(),
@@ -133,4 +171,9 @@ public class BeatsMapperBenchmark {
     public List<LuceneDocument> benchmarkParseKeywordFields() {
         return mapperService.documentMapper().parse(randomFrom(sources)).docs();
     }
+
+    @Benchmark
+    public List<LuceneDocument> benchmarkParseKeywordArrays() {
+        return mapperService.documentMapper().parse(randomFrom(sourcesWithArrays)).docs();
+    }
 }
@@ -53,11 +53,16 @@ public class DynamicMapperBenchmark {
 
     private Random random;
     private SourceToParse[] sources;
+    private MapperService mappedFieldsMapperService;
 
     @Setup
-    public void setUp() {
+    public void setUp() throws Exception {
         this.random = new Random(seed);
         this.sources = generateRandomDocuments(500);
+        this.mappedFieldsMapperService = MapperServiceFactory.create("{}");
+        for (SourceToParse source : sources) {
+            parseAndMergeMappingUpdate(mappedFieldsMapperService, source);
+        }
     }
 
     private SourceToParse[] generateRandomDocuments(int count) {
@@ -183,24 +188,36 @@ public class DynamicMapperBenchmark {
     public List<LuceneDocument> benchmarkDynamicallyCreatedFields() throws Exception {
         MapperService mapperService = MapperServiceFactory.create("{}");
         for (int i = 0; i < 25; i++) {
-            DocumentMapper documentMapper = mapperService.documentMapper();
-            Mapping mapping = null;
-            if (documentMapper == null) {
-                documentMapper = DocumentMapper.createEmpty(mapperService);
-                mapping = documentMapper.mapping();
-            }
-            ParsedDocument doc = documentMapper.parse(randomFrom(sources));
-            if (mapping != null) {
-                doc.addDynamicMappingsUpdate(mapping);
-            }
-            if (doc.dynamicMappingsUpdate() != null) {
-                mapperService.merge(
-                    "_doc",
-                    new CompressedXContent(XContentHelper.toXContent(doc.dynamicMappingsUpdate(), XContentType.JSON, false)),
-                    MapperService.MergeReason.MAPPING_UPDATE
-                );
-            }
+            parseAndMergeMappingUpdate(mapperService, randomFrom(sources));
         }
         return mapperService.documentMapper().parse(randomFrom(sources)).docs();
     }
+
+    /**
+     * Parses documents whose fields were all mapped by earlier documents, like most documents of an index with a stable schema.
+     */
+    @Benchmark
+    public List<LuceneDocument> benchmarkMappedFields() {
+        return mappedFieldsMapperService.documentMapper().parse(randomFrom(sources)).docs();
+    }
+
+    private static void parseAndMergeMappingUpdate(MapperService mapperService, SourceToParse source) throws Exception {
+        DocumentMapper documentMapper = mapperService.documentMapper();
+        Mapping mapping = null;
+        if (documentMapper == null) {
+            documentMapper = DocumentMapper.createEmpty(mapperService);
+            mapping = documentMapper.mapping();
+        }
+        ParsedDocument doc = documentMapper.parse(source);
+        if (mapping != null) {
+            doc.addDynamicMappingsUpdate(mapping);
+        }
+        if (doc.dynamicMappingsUpdate() != null) {
+            mapperService.merge(
+                "_doc",
+                new CompressedXContent(XContentHelper.toXContent(doc.dynamicMappingsUpdate(), XContentType.JSON, false)),
+                MapperService.MergeReason.MAPPING_UPDATE
+            );
+        }
+    }
 }
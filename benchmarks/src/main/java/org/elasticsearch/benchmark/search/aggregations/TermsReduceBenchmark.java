@@ -18,6 +18,7 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
@@ -71,7 +72,7 @@ public class TermsReduceBenchmark {
     private final SearchPhaseController controller = new SearchPhaseController((task, req) -> new AggregationReduceContext.Builder() {
         @Override
         public AggregationReduceContext forPartialReduction() {
-            return new AggregationReduceContext.ForPartial(null, null, task, builder);
+            return new AggregationReduceContext.ForPartial(BigArrays.NON_RECYCLING_INSTANCE, null, task, builder);
         }
 
         @Override
@@ -80,7 +81,14 @@ public class TermsReduceBenchmark {
                 Integer.MAX_VALUE,
                 new NoneCircuitBreakerService().getBreaker(CircuitBreaker.REQUEST)
             );
-            return new AggregationReduceContext.ForFinal(null, null, task, builder, bucketConsumer, PipelineAggregator.PipelineTree.EMPTY);
+            return new AggregationReduceContext.ForFinal(
+                BigArrays.NON_RECYCLING_INSTANCE,
+                null,
+                task,
+                builder,
+                bucketConsumer,
+                PipelineAggregator.PipelineTree.EMPTY
+            );
         }
     });
 
@@ -98,6 +106,9 @@ public class TermsReduceBenchmark {
         @Param({ "1", "10", "100" })
         int cardinalityFactor;
 
+        @Param({ "true", "false" })
+        boolean withSubAggs;
+
         List<InternalAggregations> aggsList;
 
         @Setup
@@ -110,7 +121,7 @@ public class TermsReduceBenchmark {
                 dict[i] = new BytesRef(Long.toString(rand.nextLong()));
             }
             for (int i = 0; i < numShards; i++) {
-                aggsList.add(InternalAggregations.from(Collections.singletonList(newTerms(rand, dict, true))));
+                aggsList.add(InternalAggregations.from(Collections.singletonList(newTerms(rand, dict, withSubAggs))));
             }
         }
 
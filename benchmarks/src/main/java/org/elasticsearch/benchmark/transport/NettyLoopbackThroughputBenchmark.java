@@ -0,0 +1,171 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.transport.netty4.Netty4Transport;
+import org.elasticsearch.transport.netty4.NettyAllocator;
+import org.elasticsearch.transport.netty4.NettyIoTransport;
+import org.elasticsearch.transport.netty4.SharedGroupFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the NIO and the native epoll netty transports on loopback. Each operation sends
+ * {@code messagesPerOperation} messages of {@code messageSize} bytes in one flush and waits for the server to acknowledge all
+ * of them, so the bytes per second are the operations per second times {@code messageSize * messagesPerOperation}.
+ * <p>
+ * The event loops and channel types come from {@link SharedGroupFactory} just like they do for the transport and http layers.
+ * The {@code epoll} variant fails to set up where the native transport isn't available rather than silently measuring NIO.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NettyLoopbackThroughputBenchmark {
+
+    @Param({ "nio", "epoll" })
+    public String transport;
+
+    @Param({ "1024", "65536", "1048576" })
+    public int messageSize;
+
+    @Param({ "32" })
+    public int messagesPerOperation;
+
+    private SharedGroupFactory.SharedGroup group;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private ByteBuf message;
+    private volatile CountDownLatch pendingAcks;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        Settings settings = Settings.builder()
+            .put(NettyIoTransport.USE_EPOLL_SETTING.getKey(), transport.equals("epoll"))
+            .put(Netty4Transport.WORKER_COUNT.getKey(), 2)
+            .build();
+        SharedGroupFactory groupFactory = new SharedGroupFactory(settings);
+        NettyIoTransport ioTransport = groupFactory.getIoTransport();
+        if (ioTransport != NettyIoTransport.valueOf(transport.toUpperCase(Locale.ROOT))) {
+            throw new IllegalStateException("the [" + transport + "] transport is not available, got [" + ioTransport + "]");
+        }
+        group = groupFactory.getTransportGroup();
+
+        serverChannel = new ServerBootstrap().group(group.getLowLevelGroup())
+            .channel(ioTransport.serverChannelType())
+            .childOption(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator())
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childHandler(new ChannelInitializer<>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new AckingHandler(messageSize));
+                }
+            })
+            .bind(InetAddress.getLoopbackAddress(), 0)
+            .sync()
+            .channel();
+
+        clientChannel = new Bootstrap().group(group.getLowLevelGroup())
+            .channel(ioTransport.channelType())
+            .option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ByteBuf acks = (ByteBuf) msg;
+                    try {
+                        CountDownLatch latch = pendingAcks;
+                        for (int i = 0; i < acks.readableBytes(); i++) {
+                            latch.countDown();
+                        }
+                    } finally {
+                        acks.release();
+                    }
+                }
+            })
+            .connect(serverChannel.localAddress())
+            .sync()
+            .channel();
+
+        message = NettyAllocator.getAllocator().buffer(messageSize).writeZero(messageSize);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        clientChannel.close().sync();
+        serverChannel.close().sync();
+        message.release();
+        group.shutdown();
+    }
+
+    @Benchmark
+    public void sendMessages() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(messagesPerOperation);
+        pendingAcks = latch;
+        for (int i = 0; i < messagesPerOperation; i++) {
+            clientChannel.write(message.retainedDuplicate());
+        }
+        clientChannel.flush();
+        latch.await();
+    }
+
+    /**
+     * Acknowledges every {@code messageSize} bytes it receives with a single byte.
+     */
+    private static final class AckingHandler extends ChannelInboundHandlerAdapter {
+        private final int messageSize;
+        private long received;
+
+        AckingHandler(int messageSize) {
+            this.messageSize = messageSize;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                long acked = received / messageSize;
+                received += buf.readableBytes();
+                int acks = Math.toIntExact(received / messageSize - acked);
+                if (acks > 0) {
+                    ctx.writeAndFlush(ctx.alloc().buffer(acks).writeZero(acks));
+                }
+            } finally {
+                buf.release();
+            }
+        }
+    }
+}
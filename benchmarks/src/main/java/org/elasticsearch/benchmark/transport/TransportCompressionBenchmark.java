@@ -0,0 +1,135 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.Streams;
+import org.elasticsearch.transport.BytesRefRecycler;
+import org.elasticsearch.transport.Compression;
+import org.elasticsearch.transport.DeflateTransportDecompressor;
+import org.elasticsearch.transport.Lz4TransportDecompressor;
+import org.elasticsearch.transport.TransportDecompressor;
+import org.elasticsearch.transport.ZstdTransportDecompressor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the transport compression schemes on messages that look like the documents of a bulk request. The compressed size of
+ * each scheme is printed during setup since JMH only reports times.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TransportCompressionBenchmark {
+
+    @Param({ "deflate", "lz4", "zstd" })
+    public String scheme;
+
+    @Param({ "16384", "1048576" })
+    public int messageSize;
+
+    private final Recycler<BytesRef> recycler = new BytesRefRecycler(new PageCacheRecycler(Settings.EMPTY));
+
+    private BytesReference message;
+    private BytesReference compressed;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(messageSize);
+        for (int i = 0; builder.length() < messageSize; i++) {
+            builder.append(
+                String.format(
+                    Locale.ROOT,
+                    "{\"@timestamp\":\"2023-06-%02dT%02d:%02d:%02dZ\",\"host\":{\"name\":\"host-%d\"},\"http\":{\"status\":%d},"
+                        + "\"bytes\":%d,\"message\":\"GET /products/%d HTTP/1.1\"}\n",
+                    1 + random.nextInt(28),
+                    random.nextInt(24),
+                    random.nextInt(60),
+                    random.nextInt(60),
+                    random.nextInt(20),
+                    random.nextBoolean() ? 200 : 404,
+                    random.nextInt(100_000),
+                    i
+                )
+            );
+        }
+        message = new BytesArray(builder.substring(0, messageSize).getBytes(StandardCharsets.UTF_8));
+        compressed = compress();
+        System.out.println(scheme + " compresses [" + messageSize + "] bytes to [" + compressed.length() + "] bytes");
+    }
+
+    @Benchmark
+    public BytesReference compress() throws IOException {
+        BytesStreamOutput output = new BytesStreamOutput(messageSize);
+        try (OutputStream stream = compressedStream(Streams.noCloseStream(output))) {
+            message.writeTo(stream);
+        }
+        return output.bytes();
+    }
+
+    @Benchmark
+    public void decompress(Blackhole bh) throws IOException {
+        try (TransportDecompressor decompressor = newDecompressor()) {
+            int consumed = decompressor.decompress(compressed);
+            assert consumed == compressed.length();
+            ReleasableBytesReference page;
+            while ((page = decompressor.pollDecompressedPage(true)) != null) {
+                bh.consume(page.length());
+                page.close();
+            }
+        }
+    }
+
+    private OutputStream compressedStream(OutputStream out) throws IOException {
+        return switch (scheme) {
+            case "deflate" -> CompressorFactory.COMPRESSOR.threadLocalOutputStream(out);
+            case "lz4" -> Compression.Scheme.lz4OutputStream(out);
+            case "zstd" -> Compression.Scheme.zstdOutputStream(out);
+            default -> throw new IllegalArgumentException("unknown scheme [" + scheme + "]");
+        };
+    }
+
+    private TransportDecompressor newDecompressor() {
+        return switch (scheme) {
+            case "deflate" -> new DeflateTransportDecompressor(recycler);
+            case "lz4" -> new Lz4TransportDecompressor(recycler);
+            case "zstd" -> new ZstdTransportDecompressor(recycler);
+            default -> throw new IllegalArgumentException("unknown scheme [" + scheme + "]");
+        };
+    }
+}
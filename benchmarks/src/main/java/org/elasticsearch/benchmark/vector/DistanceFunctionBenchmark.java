@@ -39,9 +39,11 @@ import java.util.function.Consumer;
  * For individual local tests it may be useful to increase
  * fork, measurement, and operations per invocation. (Note
  * to also update the benchmark loop if operations per invocation
- * is increased.)
+ * is increased.) The benchmarks fork with the vector incubator
+ * module like the distribution's jvm.options, so that the vectorized
+ * implementations of Lucene and {@code ESVectorUtil} are measured.
  */
-@Fork(1)
+@Fork(value = 1, jvmArgsPrepend = { "--add-modules=jdk.incubator.vector" })
 @Warmup(iterations = 1)
 @Measurement(iterations = 2)
 @BenchmarkMode(Mode.AverageTime)
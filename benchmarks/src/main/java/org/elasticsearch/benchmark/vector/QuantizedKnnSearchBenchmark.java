@@ -0,0 +1,217 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.vector;
+
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.search.vectors.ESKnnFloatVectorQuery;
+import org.elasticsearch.search.vectors.RescoreKnnVectorQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of kNN searches on float and int8 quantized HNSW graphs, with and without rescoring oversampled candidates
+ * with the full precision vectors. The recall of each configuration against an exact search is computed while setting up and printed,
+ * so that latency and recall can be compared side by side:
+ * <pre>
+ * ./gradlew -p benchmarks run --args 'QuantizedKnnSearchBenchmark'
+ * </pre>
+ */
+@Fork(value = 1, jvmArgsPrepend = { "--add-modules=jdk.incubator.vector" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QuantizedKnnSearchBenchmark {
+    private static final String FIELD = "vector";
+    private static final int NUM_QUERIES = 100;
+
+    @Param({ "hnsw", "int8_hnsw" })
+    private String indexType;
+
+    @Param({ "1", "2", "4" })
+    private float oversample;
+
+    @Param({ "100000" })
+    private int numDocs;
+
+    @Param({ "256" })
+    private int dims;
+
+    @Param({ "10" })
+    private int k;
+
+    @Param({ "50" })
+    private int numCandidates;
+
+    private Path path;
+    private Directory directory;
+    private IndexReader reader;
+    private IndexSearcher searcher;
+    private float[][] vectors;
+    private float[][] queries;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        vectors = new float[numDocs][];
+        for (int i = 0; i < numDocs; i++) {
+            vectors[i] = randomVector(random);
+        }
+        queries = new float[NUM_QUERIES][];
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            queries[i] = randomVector(random);
+        }
+
+        path = Path.of(System.getProperty("tests.index")).resolve("knn-" + indexType);
+        IOUtils.rm(path);
+        directory = new MMapDirectory(path);
+        KnnVectorsFormat format = switch (indexType) {
+            case "hnsw" -> new Lucene99HnswVectorsFormat();
+            case "int8_hnsw" -> new Lucene99HnswScalarQuantizedVectorsFormat();
+            default -> throw new IllegalArgumentException("unexpected index type [" + indexType + "]");
+        };
+        IndexWriterConfig config = new IndexWriterConfig().setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+            // merges adjacent segments so that doc ids match the order of the vectors
+            .setMergePolicy(new LogByteSizeMergePolicy())
+            .setRAMBufferSizeMB(256)
+            .setCodec(new Lucene99Codec() {
+                @Override
+                public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                    return format;
+                }
+            });
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (float[] vector : vectors) {
+                Document doc = new Document();
+                doc.add(new KnnFloatVectorField(FIELD, vector, VectorSimilarityFunction.EUCLIDEAN));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(null);
+
+        double recall = 0;
+        for (float[] query : queries) {
+            Set<Integer> expected = exactTopK(query);
+            int found = 0;
+            for (ScoreDoc scoreDoc : searcher.search(query(query), k).scoreDocs) {
+                if (expected.contains(scoreDoc.doc)) {
+                    found++;
+                }
+            }
+            recall += (double) found / k;
+        }
+        System.out.printf(
+            Locale.ROOT,
+            "%nrecall@%d of [%s] with [%d] candidates and oversample [%.1f]: %.3f%n",
+            k,
+            indexType,
+            numCandidates,
+            oversample,
+            recall / NUM_QUERIES
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, directory);
+        IOUtils.rm(path);
+    }
+
+    @Benchmark
+    public TopDocs search() throws IOException {
+        float[] query = queries[nextQuery];
+        nextQuery = (nextQuery + 1) % NUM_QUERIES;
+        return searcher.search(query(query), k);
+    }
+
+    private Query query(float[] query) {
+        if (oversample <= 1) {
+            return new ESKnnFloatVectorQuery(FIELD, query, numCandidates, null);
+        }
+        int candidates = (int) Math.ceil(numCandidates * oversample);
+        return new RescoreKnnVectorQuery(
+            FIELD,
+            query,
+            VectorSimilarityFunction.EUCLIDEAN,
+            numCandidates,
+            new ESKnnFloatVectorQuery(FIELD, query, candidates, null),
+            candidates
+        );
+    }
+
+    private Set<Integer> exactTopK(float[] query) {
+        // min heap of the best k scores
+        PriorityQueue<ScoreDoc> queue = new PriorityQueue<>(k, (a, b) -> Float.compare(a.score, b.score));
+        for (int doc = 0; doc < vectors.length; doc++) {
+            float score = VectorSimilarityFunction.EUCLIDEAN.compare(query, vectors[doc]);
+            if (queue.size() < k) {
+                queue.add(new ScoreDoc(doc, score));
+            } else if (score > queue.peek().score) {
+                queue.poll();
+                queue.add(new ScoreDoc(doc, score));
+            }
+        }
+        Set<Integer> topK = new HashSet<>();
+        for (ScoreDoc scoreDoc : queue) {
+            topK.add(scoreDoc.doc);
+        }
+        return topK;
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+}
@@ -53,6 +53,7 @@ public final class Grok {
     private static final int MAX_TO_REGEX_ITERATIONS = 100_000; // sanity limit
 
     private final boolean namedCaptures;
+    private final String expression;
     private final Regex compiledExpression;
     private final MatcherWatchdog matcherWatchdog;
     private final List<GrokCaptureConfig> captureConfig;
@@ -79,7 +80,7 @@ public final class Grok {
         this.namedCaptures = namedCaptures;
         this.matcherWatchdog = matcherWatchdog;
 
-        String expression = toRegex(patternBank, grokPattern);
+        this.expression = toRegex(patternBank, grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(
             expressionBytes,
@@ -225,11 +226,25 @@ public final class Grok {
      * @throws RuntimeException if there was a timeout
      */
     public boolean match(byte[] utf8Bytes, int offset, int length, GrokCaptureExtracter extracter) {
+        Region region = search(utf8Bytes, offset, length, offset + length);
+        if (region == null) {
+            return false;
+        }
+        extracter.extract(utf8Bytes, offset, region);
+        return true;
+    }
+
+    /**
+     * Searches for a match that starts at or before {@code range}.
+     * @return the region of the match, with the start of the match in {@code region.beg[0]}, or null if there wasn't a match
+     * @throws RuntimeException if there was a timeout
+     */
+    Region search(byte[] utf8Bytes, int offset, int length, int range) {
         Matcher matcher = compiledExpression.matcher(utf8Bytes, offset, offset + length);
         int result;
         try {
             matcherWatchdog.register(matcher);
-            result = matcher.search(offset, offset + length, Option.DEFAULT);
+            result = matcher.search(offset, range, Option.DEFAULT);
         } finally {
             matcherWatchdog.unregister(matcher);
         }
@@ -239,10 +254,9 @@ public final class Grok {
             );
         }
         if (result == Matcher.FAILED) {
-            return false;
+            return null;
         }
-        extracter.extract(utf8Bytes, offset, matcher.getEagerRegion());
-        return true;
+        return matcher.getEagerRegion();
     }
 
     /**
@@ -252,6 +266,13 @@ public final class Grok {
         return captureConfig;
     }
 
+    /**
+     * The regular expression that the grok pattern compiles to.
+     */
+    String expression() {
+        return expression;
+    }
+
     public Regex getCompiledExpression() {
         return compiledExpression;
     }
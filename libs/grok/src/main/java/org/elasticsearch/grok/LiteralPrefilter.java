@@ -0,0 +1,210 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the patterns that might match a text by finding all of the literals that
+ * the patterns require in a single pass over the text. The literals are compiled
+ * into an Aho-Corasick automaton which is then flattened into a DFA over the bytes
+ * that appear in any literal so each byte of the text costs a single table lookup.
+ */
+final class LiteralPrefilter {
+    /**
+     * The maximum number of literals to use for each pattern. More literals rule out more
+     * patterns but make the automaton larger.
+     */
+    static final int MAX_LITERALS_PER_PATTERN = 2;
+    /**
+     * The maximum length of each literal. Longer literals are truncated.
+     */
+    static final int MAX_LITERAL_LENGTH = 16;
+
+    /**
+     * Maps each byte to its column in {@link #transitions}. Bytes that don't appear in
+     * any literal share column {@code 0}.
+     */
+    private final int[] byteClasses;
+    private final int classCount;
+    /**
+     * The next state for each state and byte class, flattened.
+     */
+    private final int[] transitions;
+    /**
+     * The literals found when entering each state, as a bitset, or {@code null} if there aren't any.
+     */
+    private final long[][] outputs;
+    /**
+     * The literals that each pattern requires, as a bitset.
+     */
+    private final long[][] required;
+    private final int words;
+
+    private LiteralPrefilter(int[] byteClasses, int classCount, int[] transitions, long[][] outputs, long[][] required, int words) {
+        this.byteClasses = byteClasses;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.required = required;
+        this.words = words;
+    }
+
+    /**
+     * Build a prefilter for patterns.
+     *
+     * @param regexes the regular expressions that grok patterns compile to
+     * @return the prefilter or {@code null} if none of the patterns have literals we can use
+     */
+    static LiteralPrefilter build(List<String> regexes) {
+        Map<String, Integer> literalIds = new LinkedHashMap<>();
+        int[][] literalsPerPattern = new int[regexes.size()][];
+        for (int p = 0; p < regexes.size(); p++) {
+            List<String> literals = RequiredLiterals.longest(
+                RequiredLiterals.of(regexes.get(p)),
+                MAX_LITERALS_PER_PATTERN,
+                MAX_LITERAL_LENGTH
+            );
+            literalsPerPattern[p] = new int[literals.size()];
+            for (int l = 0; l < literals.size(); l++) {
+                literalsPerPattern[p][l] = literalIds.computeIfAbsent(literals.get(l), k -> literalIds.size());
+            }
+        }
+        if (literalIds.isEmpty()) {
+            return null;
+        }
+        int words = (literalIds.size() + 63) / 64;
+        long[][] required = new long[regexes.size()][words];
+        for (int p = 0; p < regexes.size(); p++) {
+            for (int id : literalsPerPattern[p]) {
+                required[p][id >> 6] |= 1L << id;
+            }
+        }
+
+        // Assign a column to every byte that appears in a literal
+        int[] byteClasses = new int[256];
+        int classCount = 1;
+        List<byte[]> literals = new ArrayList<>(literalIds.size());
+        for (String literal : literalIds.keySet()) {
+            byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+            literals.add(bytes);
+            for (byte b : bytes) {
+                if (byteClasses[b & 0xFF] == 0) {
+                    byteClasses[b & 0xFF] = classCount++;
+                }
+            }
+        }
+
+        // Build the trie
+        List<int[]> gotos = new ArrayList<>();
+        List<long[]> outputs = new ArrayList<>();
+        gotos.add(newRow(classCount));
+        outputs.add(null);
+        for (int id = 0; id < literals.size(); id++) {
+            int state = 0;
+            for (byte b : literals.get(id)) {
+                int column = byteClasses[b & 0xFF];
+                if (gotos.get(state)[column] < 0) {
+                    gotos.get(state)[column] = gotos.size();
+                    gotos.add(newRow(classCount));
+                    outputs.add(null);
+                }
+                state = gotos.get(state)[column];
+            }
+            long[] output = outputs.get(state);
+            if (output == null) {
+                output = new long[words];
+                outputs.set(state, output);
+            }
+            output[id >> 6] |= 1L << id;
+        }
+
+        // Resolve the failure links breadth first, turning the trie into a DFA
+        int[] transitions = new int[gotos.size() * classCount];
+        int[] failure = new int[gotos.size()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < classCount; column++) {
+            int next = gotos.get(0)[column];
+            transitions[column] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        while (queue.isEmpty() == false) {
+            int state = queue.poll();
+            long[] inherited = outputs.get(failure[state]);
+            if (inherited != null) {
+                long[] output = outputs.get(state);
+                output = output == null ? new long[words] : output;
+                for (int w = 0; w < words; w++) {
+                    output[w] |= inherited[w];
+                }
+                outputs.set(state, output);
+            }
+            for (int column = 0; column < classCount; column++) {
+                int next = gotos.get(state)[column];
+                int fallback = transitions[failure[state] * classCount + column];
+                if (next < 0) {
+                    transitions[state * classCount + column] = fallback;
+                } else {
+                    transitions[state * classCount + column] = next;
+                    failure[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+        return new LiteralPrefilter(byteClasses, classCount, transitions, outputs.toArray(long[][]::new), required, words);
+    }
+
+    private static int[] newRow(int classCount) {
+        int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Find all literals in the text.
+     *
+     * @return a bitset of the literals that were found
+     */
+    long[] scan(byte[] utf8Bytes, int offset, int length) {
+        long[] found = new long[words];
+        int state = 0;
+        for (int i = offset; i < offset + length; i++) {
+            state = transitions[state * classCount + byteClasses[utf8Bytes[i] & 0xFF]];
+            long[] output = outputs[state];
+            if (output != null) {
+                for (int w = 0; w < words; w++) {
+                    found[w] |= output[w];
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Might the pattern match a text in which {@link #scan} found {@code found}?
+     */
+    boolean mightMatch(int pattern, long[] found) {
+        long[] requiredByPattern = required[pattern];
+        for (int w = 0; w < words; w++) {
+            if ((requiredByPattern[w] & ~found[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
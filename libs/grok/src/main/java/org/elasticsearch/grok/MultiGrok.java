@@ -0,0 +1,145 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.joni.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Matches text against a list of grok patterns, returning the captures of the pattern that matches.
+ * <p>
+ * This matches the same way as joining the patterns into a single alternation like
+ * {@code (?:p0)|(?:p1)|...}: the match that starts first wins and when two patterns match
+ * at the same position the first of them wins. But rather than running every pattern at
+ * every position of the text it first finds all of the literals that the patterns require
+ * in a single pass over the text and only runs the patterns whose literals are all there.
+ * Text that doesn't match the first patterns is therefore not scanned again and again.
+ */
+public final class MultiGrok {
+
+    private final List<Grok> groks;
+    /**
+     * Picks the patterns that might match, {@code null} if no pattern has literals to look for.
+     */
+    private final LiteralPrefilter prefilter;
+
+    public MultiGrok(PatternBank patternBank, List<String> grokPatterns, MatcherWatchdog matcherWatchdog, Consumer<String> logCallBack) {
+        this(patternBank, grokPatterns, matcherWatchdog, logCallBack, logCallBack);
+    }
+
+    /**
+     * Build from a list of patterns, sending the warnings joni emits while compiling each pattern and while
+     * matching it for the first time to {@code warningCallBack}. Joni emits the same warnings on every match,
+     * which is too verbose for anything but {@code logCallBack}.
+     */
+    public MultiGrok(
+        PatternBank patternBank,
+        List<String> grokPatterns,
+        MatcherWatchdog matcherWatchdog,
+        Consumer<String> logCallBack,
+        Consumer<String> warningCallBack
+    ) {
+        if (grokPatterns.isEmpty()) {
+            throw new IllegalArgumentException("at least one grok pattern is required");
+        }
+        AtomicReference<Consumer<String>> callBack = new AtomicReference<>(warningCallBack);
+        List<Grok> groks = new ArrayList<>(grokPatterns.size());
+        List<String> expressions = new ArrayList<>(grokPatterns.size());
+        for (String grokPattern : grokPatterns) {
+            Grok grok = new Grok(patternBank, grokPattern, matcherWatchdog, message -> callBack.get().accept(message));
+            grok.match("___nomatch___");
+            groks.add(grok);
+            expressions.add(grok.expression());
+        }
+        callBack.set(logCallBack);
+        this.groks = List.copyOf(groks);
+        this.prefilter = LiteralPrefilter.build(expressions);
+    }
+
+    /**
+     * The result of a match.
+     *
+     * @param patternIndex the index of the pattern that matched
+     * @param captures the named captures of the pattern that matched
+     */
+    public record Match(int patternIndex, Map<String, Object> captures) {}
+
+    /**
+     * Checks whether a specific text matches any of the patterns.
+     *
+     * @param text the string to match
+     * @return true if any pattern matches text, false otherwise.
+     */
+    public boolean match(String text) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        long[] found = prefilter == null ? null : prefilter.scan(utf8Bytes, 0, utf8Bytes.length);
+        for (int i = 0; i < groks.size(); i++) {
+            if (mightMatch(i, found) && groks.get(i).search(utf8Bytes, 0, utf8Bytes.length, utf8Bytes.length) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches and returns any named captures.
+     *
+     * @param text the text to match and extract values from.
+     * @return the index of the pattern that matched and its named captures or null if no pattern matched
+     * @throws RuntimeException if there was a timeout
+     */
+    public Match captures(String text) {
+        byte[] utf8Bytes = text.getBytes(StandardCharsets.UTF_8);
+        long[] found = prefilter == null ? null : prefilter.scan(utf8Bytes, 0, utf8Bytes.length);
+        int matchIndex = -1;
+        Region matchRegion = null;
+        for (int i = 0; i < groks.size(); i++) {
+            if (mightMatch(i, found) == false) {
+                continue;
+            }
+            // later patterns only win if they start matching before the best match so far
+            int range = matchRegion == null ? utf8Bytes.length : matchRegion.beg[0];
+            Region region = groks.get(i).search(utf8Bytes, 0, utf8Bytes.length, range);
+            if (region != null && (matchRegion == null || region.beg[0] < matchRegion.beg[0])) {
+                matchIndex = i;
+                matchRegion = region;
+                if (region.beg[0] == 0) {
+                    // nothing can start earlier
+                    break;
+                }
+            }
+        }
+        if (matchRegion == null) {
+            return null;
+        }
+        GrokCaptureExtracter.MapExtracter extracter = new GrokCaptureExtracter.MapExtracter(
+            groks.get(matchIndex).captureConfig(),
+            cfg -> cfg::objectExtracter
+        );
+        extracter.extract(utf8Bytes, 0, matchRegion);
+        return new Match(matchIndex, extracter.result());
+    }
+
+    private boolean mightMatch(int pattern, long[] found) {
+        return prefilter == null || prefilter.mightMatch(pattern, found);
+    }
+
+    /**
+     * The compiled patterns, in order.
+     */
+    public List<Grok> groks() {
+        return groks;
+    }
+}
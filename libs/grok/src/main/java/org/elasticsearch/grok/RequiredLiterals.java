@@ -0,0 +1,358 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the literal strings that must appear in any text that a regular expression matches.
+ * <p>
+ * This is deliberately conservative: it only understands enough of the joni syntax to be sure
+ * that a literal is required and gives up on anything else. Giving up only means that we find
+ * fewer literals, never that we find a literal that isn't required. Only ASCII literals are
+ * returned and expressions that change matching options, like {@code (?i)}, have no literals.
+ */
+final class RequiredLiterals {
+
+    private RequiredLiterals() {}
+
+    /**
+     * The literals that must appear in anything that {@code regex} matches.
+     */
+    static Set<String> of(String regex) {
+        Parser parser = new Parser(regex);
+        try {
+            Set<String> literals = parser.alternation();
+            if (parser.pos != regex.length()) {
+                // unbalanced parentheses. joni will reject it.
+                return Set.of();
+            }
+            return literals;
+        } catch (UnsupportedSyntax e) {
+            return Set.of();
+        }
+    }
+
+    /**
+     * Thrown when we find syntax that we don't understand well enough to extract literals.
+     */
+    private static final class UnsupportedSyntax extends Exception {
+        UnsupportedSyntax() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private int pos;
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        /**
+         * Parse branches separated by {@code |}. Only literals that are required by every branch are required by the whole.
+         */
+        Set<String> alternation() throws UnsupportedSyntax {
+            Set<String> literals = sequence();
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                Set<String> branch = sequence();
+                literals.retainAll(branch);
+            }
+            return literals;
+        }
+
+        private Set<String> sequence() throws UnsupportedSyntax {
+            Set<String> literals = new LinkedHashSet<>();
+            StringBuilder run = new StringBuilder();
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                int literal = -1;
+                Set<String> group = null;
+                switch (c) {
+                    case '(' -> group = group();
+                    case '[' -> characterClass();
+                    case '\\' -> literal = escape();
+                    case '.', '^', '$' -> pos++;
+                    case '*', '+', '?' -> throw new UnsupportedSyntax();
+                    case '{' -> {
+                        if (interval() >= 0) {
+                            // an interval with nothing to repeat
+                            throw new UnsupportedSyntax();
+                        }
+                        literal = c;
+                        pos++;
+                    }
+                    default -> {
+                        if (c < 0x80) {
+                            literal = c;
+                            pos++;
+                        } else {
+                            pos += Character.charCount(regex.codePointAt(pos));
+                        }
+                    }
+                }
+
+                int min = quantifiers();
+                if (literal >= 0 && min == 1) {
+                    run.append((char) literal);
+                    continue;
+                }
+                flush(run, literals);
+                if (min == 0) {
+                    continue;
+                }
+                if (literal >= 0) {
+                    // repeated at least once so the literal is required but can't be joined with what follows
+                    run.append((char) literal);
+                    flush(run, literals);
+                } else if (group != null) {
+                    literals.addAll(group);
+                }
+            }
+            flush(run, literals);
+            return literals;
+        }
+
+        private static void flush(StringBuilder run, Set<String> literals) {
+            if (run.length() > 0) {
+                literals.add(run.toString());
+                run.setLength(0);
+            }
+        }
+
+        /**
+         * Parse a group, returning the literals it requires.
+         */
+        private Set<String> group() throws UnsupportedSyntax {
+            pos++;
+            boolean lookaround = false;
+            if (pos < regex.length() && regex.charAt(pos) == '?') {
+                pos++;
+                char kind = charAt(pos);
+                switch (kind) {
+                    case ':', '>' -> pos++;
+                    case '=', '!' -> {
+                        lookaround = true;
+                        pos++;
+                    }
+                    case '<', '\'' -> {
+                        char next = charAt(pos + 1);
+                        if (kind == '<' && (next == '=' || next == '!')) {
+                            lookaround = true;
+                            pos += 2;
+                        } else {
+                            skipPast(kind == '<' ? '>' : '\'');
+                        }
+                    }
+                    case 'P' -> {
+                        pos++;
+                        if (charAt(pos) != '<') {
+                            throw new UnsupportedSyntax();
+                        }
+                        skipPast('>');
+                    }
+                    case '#' -> {
+                        skipPast(')');
+                        return Set.of();
+                    }
+                    // option changes like (?i) and anything we don't recognize
+                    default -> throw new UnsupportedSyntax();
+                }
+            }
+            Set<String> literals = alternation();
+            if (charAt(pos) != ')') {
+                throw new UnsupportedSyntax();
+            }
+            pos++;
+            return lookaround ? Set.of() : literals;
+        }
+
+        private void characterClass() throws UnsupportedSyntax {
+            int depth = 0;
+            do {
+                char c = charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                    continue;
+                }
+                if (c == '[') {
+                    depth++;
+                    pos++;
+                    // a ] right after the opening bracket, or after the negation, is a literal ]
+                    if (charAt(pos) == '^') {
+                        pos++;
+                    }
+                    if (charAt(pos) == ']') {
+                        pos++;
+                    }
+                    continue;
+                }
+                if (c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        }
+
+        /**
+         * Parse an escape sequence.
+         *
+         * @return the escaped literal character or {@code -1} if the escape isn't a literal
+         */
+        private int escape() throws UnsupportedSyntax {
+            pos++;
+            char c = charAt(pos);
+            pos++;
+            if (c >= '0' && c <= '9') {
+                // back reference or octal
+                while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                    pos++;
+                }
+                return -1;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                switch (c) {
+                    case 'k', 'g' -> {
+                        char open = charAt(pos);
+                        if (open == '<' || open == '\'') {
+                            skipPast(open == '<' ? '>' : '\'');
+                        }
+                    }
+                    case 'p', 'P', 'x' -> {
+                        if (charAt(pos) == '{') {
+                            skipPast('}');
+                        } else if (c == 'x') {
+                            for (int i = 0; i < 2 && pos < regex.length() && Character.digit(regex.charAt(pos), 16) >= 0; i++) {
+                                pos++;
+                            }
+                        } else {
+                            throw new UnsupportedSyntax();
+                        }
+                    }
+                    case 'u' -> pos += 4;
+                    case 'c' -> pos++;
+                    // \Q..\E quoting and \C-x, \M-x control and meta sequences
+                    case 'Q', 'E', 'C', 'M' -> throw new UnsupportedSyntax();
+                    default -> {
+                        // character types like \d and anchors like \b
+                    }
+                }
+                return -1;
+            }
+            return c < 0x80 ? c : -1;
+        }
+
+        /**
+         * Parse any quantifiers following an atom.
+         *
+         * @return {@code 1} if the atom must appear exactly once, {@code 2} if it must appear
+         *         at least once and {@code 0} if it might not appear at all
+         */
+        private int quantifiers() {
+            int min = 1;
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+                int atLeast;
+                switch (c) {
+                    case '?', '*', '+' -> {
+                        atLeast = c == '+' ? 1 : 0;
+                        pos++;
+                        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                            // reluctant or possessive
+                            pos++;
+                        }
+                    }
+                    case '{' -> {
+                        atLeast = interval();
+                        if (atLeast < 0) {
+                            return min;
+                        }
+                    }
+                    default -> {
+                        return min;
+                    }
+                }
+                min = min == 0 || atLeast == 0 ? 0 : 2;
+            }
+            return min;
+        }
+
+        /**
+         * Parse an interval quantifier like {@code {1,3}}.
+         *
+         * @return the minimum number of repetitions or {@code -1} if this isn't an interval,
+         *         in which case the {@code {} is a literal
+         */
+        private int interval() {
+            int end = regex.indexOf('}', pos);
+            if (end < 0) {
+                return -1;
+            }
+            String body = regex.substring(pos + 1, end);
+            int comma = body.indexOf(',');
+            String lower = comma < 0 ? body : body.substring(0, comma);
+            String upper = comma < 0 ? "" : body.substring(comma + 1);
+            if ((lower.isEmpty() && upper.isEmpty()) || isDigits(lower) == false || isDigits(upper) == false) {
+                return -1;
+            }
+            pos = end + 1;
+            return lower.isEmpty() ? 0 : Integer.parseInt(lower);
+        }
+
+        private static boolean isDigits(String s) {
+            if (s.length() > 9) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipPast(char c) throws UnsupportedSyntax {
+            int end = regex.indexOf(c, pos + 1);
+            if (end < 0) {
+                throw new UnsupportedSyntax();
+            }
+            pos = end + 1;
+        }
+
+        private char charAt(int index) throws UnsupportedSyntax {
+            if (index >= regex.length()) {
+                throw new UnsupportedSyntax();
+            }
+            return regex.charAt(index);
+        }
+    }
+
+    /**
+     * The longest {@code max} literals, each truncated to {@code maxLength} chars. Substrings of
+     * required literals are required too so truncating is safe.
+     */
+    static List<String> longest(Set<String> literals, int max, int maxLength) {
+        List<String> sorted = new ArrayList<>(literals);
+        sorted.sort((lhs, rhs) -> Integer.compare(rhs.length(), lhs.length()));
+        List<String> result = new ArrayList<>(Math.min(max, sorted.size()));
+        for (int i = 0; i < sorted.size() && result.size() < max; i++) {
+            String literal = sorted.get(i);
+            result.add(literal.length() > maxLength ? literal.substring(0, maxLength) : literal);
+        }
+        return result;
+    }
+}
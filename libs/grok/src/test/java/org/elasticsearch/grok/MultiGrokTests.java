@@ -0,0 +1,118 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MultiGrokTests extends ESTestCase {
+
+    private static final List<String> PATTERNS = List.of(
+        "%{IP:client} \\[%{HTTPDATE:timestamp}\\] \"GET %{URIPATH:path}\"",
+        "%{IP:client} \\[%{HTTPDATE:timestamp}\\] \"POST %{URIPATH:path}\"",
+        "^%{SYSLOGTIMESTAMP:timestamp} %{SYSLOGHOST:host} sshd\\[%{POSINT:pid:int}\\]: %{GREEDYDATA:message}",
+        "user=%{USERNAME:user}",
+        "%{WORD:first} %{WORD:second}",
+        "%{NUMBER:number:int}",
+        "(?i)error: %{GREEDYDATA:error}"
+    );
+
+    private static final List<String> TEXTS = List.of(
+        "10.0.0.1 [17/Oct/2026:10:00:00 +0000] \"GET /index.html\"",
+        "10.0.0.1 [17/Oct/2026:10:00:00 +0000] \"POST /login\"",
+        "Oct 17 10:00:00 myhost sshd[1234]: Accepted publickey for user=alice",
+        "prefix user=bob",
+        "hello world",
+        "12 monkeys",
+        "ERROR: it broke",
+        "error: it broke at 10.0.0.1",
+        "",
+        "!!!"
+    );
+
+    public void testPrefersFirstPatternAtSamePosition() {
+        MultiGrok grok = new MultiGrok(
+            GrokBuiltinPatterns.legacyPatterns(),
+            List.of("%{WORD:word}", "%{NUMBER:number}"),
+            MatcherWatchdog.noop(),
+            logger::warn
+        );
+        assertThat(grok.captures("123 abc"), equalTo(new MultiGrok.Match(0, Map.of("word", "123"))));
+        assertThat(grok.captures("!! 123"), equalTo(new MultiGrok.Match(0, Map.of("word", "123"))));
+        assertThat(grok.captures("!!"), nullValue());
+    }
+
+    public void testPrefersEarliestMatch() {
+        MultiGrok grok = new MultiGrok(
+            GrokBuiltinPatterns.legacyPatterns(),
+            List.of("b=%{WORD:b}", "a=%{WORD:a}"),
+            MatcherWatchdog.noop(),
+            logger::warn
+        );
+        assertThat(grok.captures("a=1 b=2"), equalTo(new MultiGrok.Match(1, Map.of("a", "1"))));
+        assertThat(grok.captures("b=2 a=1"), equalTo(new MultiGrok.Match(0, Map.of("b", "2"))));
+        assertThat(grok.captures("c=3"), nullValue());
+        assertTrue(grok.match("xa=1"));
+        assertFalse(grok.match("c=3"));
+    }
+
+    public void testWarningsWhileBuilding() {
+        List<String> warnings = new ArrayList<>();
+        List<String> logged = new ArrayList<>();
+        MultiGrok grok = new MultiGrok(
+            GrokBuiltinPatterns.legacyPatterns(),
+            List.of("%{WORD:word}", ".*\\[.*%{SPACE}*\\].*"),
+            MatcherWatchdog.noop(),
+            logged::add,
+            warnings::add
+        );
+        // this message comes from Joni, so updates to Joni may change the expectation
+        assertThat(warnings, hasItem(containsString("regular expression has redundant nested repeat operator")));
+        assertThat(logged, empty());
+
+        // anything Joni emits while matching later isn't worth a warning
+        int warningCount = warnings.size();
+        assertThat(grok.captures("!! [foo]"), equalTo(new MultiGrok.Match(1, Map.of())));
+        assertThat(warnings.size(), equalTo(warningCount));
+    }
+
+    /**
+     * {@link MultiGrok} must match exactly the same way as joining all the patterns into an alternation.
+     */
+    public void testSameAsAlternation() {
+        for (boolean ecsCompatibility : new boolean[] { false, true }) {
+            PatternBank bank = GrokBuiltinPatterns.get(ecsCompatibility);
+            List<String> patterns = new ArrayList<>(randomSubsetOf(between(1, PATTERNS.size()), PATTERNS));
+            MultiGrok multiGrok = new MultiGrok(bank, patterns, MatcherWatchdog.noop(), logger::warn);
+            String alternation = patterns.stream().map(p -> "(?:" + p + ")").collect(Collectors.joining("|"));
+            Grok grok = new Grok(bank, alternation, logger::warn);
+            for (String text : TEXTS) {
+                MultiGrok.Match match = multiGrok.captures(text);
+                Map<String, Object> expected = grok.captures(text);
+                String description = patterns + " " + text;
+                assertThat(description, match == null ? null : match.captures(), equalTo(expected));
+                if (match != null) {
+                    Grok matched = new Grok(bank, patterns.get(match.patternIndex()), logger::warn);
+                    assertThat(description, matched.captures(text), equalTo(expected));
+                }
+                assertThat(description, multiGrok.match(text), equalTo(expected != null));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.grok;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+public class RequiredLiteralsTests extends ESTestCase {
+
+    public void testLiterals() {
+        assertThat(RequiredLiterals.of("foo"), equalTo(Set.of("foo")));
+        assertThat(RequiredLiterals.of("foo\\d+bar"), equalTo(Set.of("foo", "bar")));
+        assertThat(RequiredLiterals.of("foo\\.bar\\[x\\]"), equalTo(Set.of("foo.bar[x]")));
+        assertThat(RequiredLiterals.of("^GET /$"), equalTo(Set.of("GET /")));
+        assertThat(RequiredLiterals.of("a{b"), equalTo(Set.of("a{b")));
+    }
+
+    public void testQuantifiers() {
+        assertThat(RequiredLiterals.of("fooo?"), equalTo(Set.of("foo")));
+        assertThat(RequiredLiterals.of("foo*bar"), equalTo(Set.of("fo", "bar")));
+        assertThat(RequiredLiterals.of("fo+bar"), equalTo(Set.of("f", "o", "bar")));
+        assertThat(RequiredLiterals.of("ab{2,3}c"), equalTo(Set.of("a", "b", "c")));
+        assertThat(RequiredLiterals.of("ab{0,3}c"), equalTo(Set.of("a", "c")));
+        assertThat(RequiredLiterals.of("ab{,3}c"), equalTo(Set.of("a", "c")));
+        assertThat(RequiredLiterals.of("ab+?c"), equalTo(Set.of("a", "b", "c")));
+        assertThat(RequiredLiterals.of("ab{2}?c"), equalTo(Set.of("a", "c")));
+    }
+
+    public void testGroups() {
+        assertThat(RequiredLiterals.of("(?<name>foo)bar"), equalTo(Set.of("foo", "bar")));
+        assertThat(RequiredLiterals.of("(?:foo)?bar"), equalTo(Set.of("bar")));
+        assertThat(RequiredLiterals.of("(foo)+bar"), equalTo(Set.of("foo", "bar")));
+        assertThat(RequiredLiterals.of("(?:foo|bar)baz"), equalTo(Set.of("baz")));
+        assertThat(RequiredLiterals.of("(?:xfoo|yfoo)"), empty());
+        assertThat(RequiredLiterals.of("(?:a\\d|a\\d)"), equalTo(Set.of("a")));
+        assertThat(RequiredLiterals.of("(?=foo)bar"), equalTo(Set.of("bar")));
+        assertThat(RequiredLiterals.of("(?<!foo)bar"), equalTo(Set.of("bar")));
+        assertThat(RequiredLiterals.of("(?#comment)bar"), equalTo(Set.of("bar")));
+        assertThat(RequiredLiterals.of("foo|bar"), empty());
+    }
+
+    public void testCharacterClasses() {
+        assertThat(RequiredLiterals.of("a[bc]d"), equalTo(Set.of("a", "d")));
+        assertThat(RequiredLiterals.of("a[]x]d"), equalTo(Set.of("a", "d")));
+        assertThat(RequiredLiterals.of("a[^]x]d"), equalTo(Set.of("a", "d")));
+        assertThat(RequiredLiterals.of("a[[:alpha:]\\]]d"), equalTo(Set.of("a", "d")));
+        assertThat(RequiredLiterals.of("a\\sb\\x41c\\p{Alpha}d\\k<n>e"), equalTo(Set.of("a", "b", "c", "d", "e")));
+        assertThat(RequiredLiterals.of("cafés"), equalTo(Set.of("caf", "s")));
+    }
+
+    public void testUnsupported() {
+        assertThat(RequiredLiterals.of("(?i)foo"), empty());
+        assertThat(RequiredLiterals.of("(?i:foo)bar"), empty());
+        assertThat(RequiredLiterals.of("\\Qfoo\\E"), empty());
+        assertThat(RequiredLiterals.of("foo)"), empty());
+        assertThat(RequiredLiterals.of("(foo"), empty());
+        assertThat(RequiredLiterals.of("[foo"), empty());
+        assertThat(RequiredLiterals.of("foo\\"), empty());
+    }
+
+    public void testGrokPatterns() {
+        String pattern = "%{IP:client} \\[%{HTTPDATE:timestamp}\\] \"GET %{URIPATH:path}\"";
+        Grok grok = new Grok(GrokBuiltinPatterns.legacyPatterns(), pattern, logger::warn);
+        Set<String> literals = RequiredLiterals.of(grok.expression());
+        assertTrue(literals.toString(), literals.contains(" ["));
+        assertTrue(literals.toString(), literals.contains("] \"GET "));
+    }
+
+    public void testLongest() {
+        assertThat(RequiredLiterals.longest(Set.of("a", "abcdef", "abc"), 2, 4), equalTo(List.of("abcd", "abc")));
+        assertThat(RequiredLiterals.longest(Set.of(), 2, 4), empty());
+    }
+}
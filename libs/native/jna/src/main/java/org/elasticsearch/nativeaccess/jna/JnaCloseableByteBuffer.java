@@ -0,0 +1,54 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link CloseableByteBuffer} allocated with {@code malloc} and freed with {@code free}. Nothing
+ * protects the memory once it is freed so {@link #buffer()} and {@link #close()} check that they
+ * aren't called after it is closed rather than reading or freeing the memory again.
+ */
+class JnaCloseableByteBuffer implements CloseableByteBuffer {
+    private final long peer;
+    private final AtomicReference<ByteBuffer> bufferView;
+
+    JnaCloseableByteBuffer(int len) {
+        this.peer = Native.malloc(len);
+        if (peer == 0) {
+            throw new OutOfMemoryError("failed to allocate [" + len + "] bytes of native memory");
+        }
+        Pointer pointer = new Pointer(peer);
+        pointer.setMemory(0, len, (byte) 0);
+        this.bufferView = new AtomicReference<>(pointer.getByteBuffer(0, len));
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        ByteBuffer buffer = bufferView.get();
+        if (buffer == null) {
+            throw new IllegalStateException("buffer already closed");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        if (bufferView.getAndSet(null) == null) {
+            throw new IllegalStateException("buffer already closed");
+        }
+        Native.free(peer);
+    }
+}
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.nativeaccess.jna;
 
+import org.elasticsearch.nativeaccess.lib.JavaLibrary;
 import org.elasticsearch.nativeaccess.lib.NativeLibraryProvider;
 import org.elasticsearch.nativeaccess.lib.PosixCLibrary;
 
@@ -15,6 +16,6 @@ import java.util.Map;
 
 public class JnaNativeLibraryProvider extends NativeLibraryProvider {
     public JnaNativeLibraryProvider() {
-        super("jna", Map.of(PosixCLibrary.class, JnaPosixCLibrary::new));
+        super("jna", Map.of(JavaLibrary.class, JnaJavaLibrary::new, PosixCLibrary.class, JnaPosixCLibrary::new));
     }
 }
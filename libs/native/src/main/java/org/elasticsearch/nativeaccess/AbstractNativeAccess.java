@@ -10,18 +10,36 @@ package org.elasticsearch.nativeaccess;
 
 import org.elasticsearch.logging.LogManager;
 import org.elasticsearch.logging.Logger;
+import org.elasticsearch.nativeaccess.lib.JavaLibrary;
+import org.elasticsearch.nativeaccess.lib.NativeLibraryProvider;
 
 abstract class AbstractNativeAccess implements NativeAccess {
 
     protected static final Logger logger = LogManager.getLogger(NativeAccess.class);
 
     private final String name;
+    private final JavaLibrary javaLib;
 
-    protected AbstractNativeAccess(String name) {
+    protected AbstractNativeAccess(String name, NativeLibraryProvider libraryProvider) {
         this.name = name;
+        this.javaLib = libraryProvider.getLibrary(JavaLibrary.class);
+    }
+
+    /**
+     * For {@link NoopNativeAccess} which can't rely on any {@link NativeLibraryProvider}.
+     */
+    AbstractNativeAccess(String name) {
+        this.name = name;
+        this.javaLib = null;
     }
 
     String getName() {
         return name;
     }
+
+    @Override
+    public CloseableByteBuffer newBuffer(int len) {
+        assert len > 0;
+        return javaLib.newBuffer(len);
+    }
 }
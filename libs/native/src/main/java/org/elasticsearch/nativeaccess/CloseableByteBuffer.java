@@ -0,0 +1,29 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteBuffer} of native memory that is freed when this is {@link #close() closed}
+ * rather than when the buffer is garbage collected.
+ */
+public interface CloseableByteBuffer extends AutoCloseable {
+
+    /**
+     * The buffer. It must not be used after this is {@link #close() closed}.
+     */
+    ByteBuffer buffer();
+
+    /**
+     * Free the native memory backing the {@link #buffer()}.
+     */
+    @Override
+    void close();
+}
@@ -26,4 +26,13 @@ public interface NativeAccess {
      * @return true if running as root, or false if unsure
      */
     boolean definitelyRunningAsRoot();
+
+    /**
+     * Creates a new {@link java.nio.ByteBuffer} of zeroed native memory. The memory is freed when the returned
+     * {@link CloseableByteBuffer} is closed rather than when the buffer is garbage collected.
+     *
+     * @param len the number of bytes the buffer should hold
+     * @return a new native buffer
+     */
+    CloseableByteBuffer newBuffer(int len);
 }
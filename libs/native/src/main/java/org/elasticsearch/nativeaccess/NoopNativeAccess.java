@@ -8,6 +8,8 @@
 
 package org.elasticsearch.nativeaccess;
 
+import java.nio.ByteBuffer;
+
 class NoopNativeAccess extends AbstractNativeAccess {
 
     NoopNativeAccess() {
@@ -19,4 +21,15 @@ class NoopNativeAccess extends AbstractNativeAccess {
         logger.warn("Cannot check if running as root because native access is not available");
         return false;
     }
+
+    @Override
+    public CloseableByteBuffer newBuffer(int len) {
+        // without native access we fall back to direct buffers which are only freed when they are garbage collected
+        return new DirectBuffer(ByteBuffer.allocateDirect(len));
+    }
+
+    private record DirectBuffer(ByteBuffer buffer) implements CloseableByteBuffer {
+        @Override
+        public void close() {}
+    }
 }
@@ -0,0 +1,22 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.lib;
+
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+
+/**
+ * Native memory management that the JDK provides for us, but only in some versions.
+ */
+public non-sealed interface JavaLibrary extends NativeLibrary {
+
+    /**
+     * Allocate {@code len} bytes of zeroed native memory.
+     */
+    CloseableByteBuffer newBuffer(int len);
+}
@@ -9,4 +9,4 @@
 package org.elasticsearch.nativeaccess.lib;
 
 /** A marker interface for libraries that can be loaded by {@link org.elasticsearch.nativeaccess.lib.NativeLibraryProvider} */
-public sealed interface NativeLibrary permits PosixCLibrary {}
+public sealed interface NativeLibrary permits JavaLibrary, PosixCLibrary {}
@@ -0,0 +1,50 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.jdk;
+
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link CloseableByteBuffer} backed by a slice of a {@link JdkJavaLibrary.Slab}. Closing it gives
+ * the slice back to the slab which hands it out again or frees its memory once all of its slices are closed.
+ */
+class JdkCloseableByteBuffer implements CloseableByteBuffer {
+    private final JdkJavaLibrary library;
+    private final JdkJavaLibrary.Slab slab;
+    private final MemorySegment segment;
+    private final ByteBuffer bufferView;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    JdkCloseableByteBuffer(JdkJavaLibrary library, JdkJavaLibrary.Slab slab, MemorySegment segment) {
+        this.library = library;
+        this.slab = slab;
+        this.segment = segment;
+        this.bufferView = segment.asByteBuffer();
+    }
+
+    @Override
+    public ByteBuffer buffer() {
+        if (closed.get()) {
+            throw new IllegalStateException("buffer already closed");
+        }
+        return bufferView;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true) == false) {
+            throw new IllegalStateException("buffer already closed");
+        }
+        library.release(slab, segment);
+    }
+}
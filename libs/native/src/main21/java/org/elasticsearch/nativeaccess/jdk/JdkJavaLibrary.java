@@ -0,0 +1,149 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.jdk;
+
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.lib.JavaLibrary;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+class JdkJavaLibrary implements JavaLibrary {
+    /**
+     * Buffers are sliced out of slabs of this size so we only pay for creating and closing
+     * a shared {@link Arena}, which has to synchronize with every thread, once per slab.
+     */
+    static final long SLAB_SIZE = 1 << 20;
+
+    /**
+     * The slab that new slices are cut from.
+     */
+    private Slab current;
+    /**
+     * Slabs with slices that were closed and can be handed out again. A slab is only freed once
+     * all of its slices are closed, so a single long lived buffer keeps the whole slab around. Its
+     * other slices are reused rather than allocating more slabs, which bounds the memory held by
+     * slabs to what was in use at the peak.
+     */
+    private final Set<Slab> withFreeSlices = new LinkedHashSet<>();
+
+    @Override
+    public CloseableByteBuffer newBuffer(int len) {
+        assert len > 0;
+        if (len > SLAB_SIZE / 4) {
+            // a slab of its own which is freed as soon as the buffer is closed
+            Slab slab = new Slab(len);
+            synchronized (this) {
+                return new JdkCloseableByteBuffer(this, slab, slab.slice(len));
+            }
+        }
+        synchronized (this) {
+            Iterator<Slab> itr = withFreeSlices.iterator();
+            while (itr.hasNext()) {
+                Slab slab = itr.next();
+                MemorySegment segment = slab.reuse(len);
+                if (slab.free.isEmpty()) {
+                    itr.remove();
+                }
+                if (segment != null) {
+                    return new JdkCloseableByteBuffer(this, slab, segment);
+                }
+            }
+            MemorySegment segment = current == null ? null : current.slice(len);
+            if (segment == null) {
+                Slab full = current;
+                current = new Slab(SLAB_SIZE);
+                if (full != null && full.live == 0) {
+                    withFreeSlices.remove(full);
+                    full.close();
+                }
+                segment = current.slice(len);
+            }
+            return new JdkCloseableByteBuffer(this, current, segment);
+        }
+    }
+
+    /**
+     * Give a closed slice back to its slab. It is handed out again unless it was the last open
+     * slice of a slab that doesn't hand out new slices anymore, in which case the slab is freed.
+     */
+    void release(Slab slab, MemorySegment segment) {
+        // buffers are handed out zeroed
+        segment.fill((byte) 0);
+        synchronized (this) {
+            assert slab.live > 0;
+            slab.live--;
+            if (slab.live == 0 && slab != current) {
+                withFreeSlices.remove(slab);
+                slab.close();
+            } else {
+                slab.free.push(segment);
+                withFreeSlices.add(slab);
+            }
+        }
+    }
+
+    /**
+     * A shared {@link Arena} that hands out zeroed slices of a single allocation and is closed,
+     * freeing all of them at once, when none of its slices are open and it doesn't hand out new
+     * slices anymore. Only accessed while holding the lock on the {@link JdkJavaLibrary}.
+     */
+    static final class Slab {
+        private final Arena arena = Arena.ofShared();
+        private final MemorySegment segment;
+        /**
+         * Slices that were closed and can be handed out again.
+         */
+        private final ArrayDeque<MemorySegment> free = new ArrayDeque<>();
+        private long offset;
+        private int live;
+
+        Slab(long size) {
+            this.segment = arena.allocate(size, Long.BYTES);
+        }
+
+        /**
+         * Slice off {@code len} bytes that were never handed out or return {@code null} if there isn't room.
+         */
+        MemorySegment slice(long len) {
+            long start = (offset + Long.BYTES - 1) & -Long.BYTES;
+            if (start + len > segment.byteSize()) {
+                return null;
+            }
+            offset = start + len;
+            live++;
+            return segment.asSlice(start, len);
+        }
+
+        /**
+         * Hand out a closed slice of {@code len} bytes again or return {@code null} if there isn't one.
+         */
+        MemorySegment reuse(long len) {
+            Iterator<MemorySegment> itr = free.iterator();
+            while (itr.hasNext()) {
+                MemorySegment slice = itr.next();
+                if (slice.byteSize() == len) {
+                    itr.remove();
+                    live++;
+                    return slice;
+                }
+            }
+            return null;
+        }
+
+        void close() {
+            free.clear();
+            arena.close();
+        }
+    }
+}
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.nativeaccess.jdk;
 
+import org.elasticsearch.nativeaccess.lib.JavaLibrary;
 import org.elasticsearch.nativeaccess.lib.NativeLibraryProvider;
 import org.elasticsearch.nativeaccess.lib.PosixCLibrary;
 
@@ -16,6 +17,6 @@ import java.util.Map;
 public class JdkNativeLibraryProvider extends NativeLibraryProvider {
 
     public JdkNativeLibraryProvider() {
-        super("jdk", Map.of(PosixCLibrary.class, JdkPosixCLibrary::new));
+        super("jdk", Map.of(JavaLibrary.class, JdkJavaLibrary::new, PosixCLibrary.class, JdkPosixCLibrary::new));
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec;
+
+import org.elasticsearch.vec.internal.VectorUtilSupport;
+import org.elasticsearch.vec.internal.VectorUtilSupportLoader;
+
+/**
+ * Vector distance functions that Lucene's {@code VectorUtil} doesn't provide. They use the Panama Vector API on Java 21+ when the
+ * {@code jdk.incubator.vector} module is available, like the distribution enables in its {@code jvm.options}, and fall back to scalar
+ * loops otherwise.
+ */
+public final class ESVectorUtil {
+
+    private static final VectorUtilSupport IMPL = VectorUtilSupportLoader.load();
+
+    private ESVectorUtil() {}
+
+    /**
+     * The sum of the absolute differences of the components of two vectors.
+     *
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public static double l1Norm(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+        }
+        return IMPL.l1Norm(a, b);
+    }
+
+    /**
+     * The sum of the absolute differences of the components of two byte vectors.
+     *
+     * @throws IllegalArgumentException if the vectors have different dimensions
+     */
+    public static int l1Norm(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("vector dimensions differ: " + a.length + "!=" + b.length);
+        }
+        return IMPL.l1Norm(a, b);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec.internal;
+
+/**
+ * Scalar implementation, used before Java 21 or when the {@code jdk.incubator.vector} module isn't available.
+ */
+final class DefaultVectorUtilSupport implements VectorUtilSupport {
+
+    static final DefaultVectorUtilSupport INSTANCE = new DefaultVectorUtilSupport();
+
+    private DefaultVectorUtilSupport() {}
+
+    @Override
+    public double l1Norm(float[] a, float[] b) {
+        double result = 0;
+        for (int i = 0; i < a.length; i++) {
+            result += Math.abs(a[i] - b[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int l1Norm(byte[] a, byte[] b) {
+        int result = 0;
+        for (int i = 0; i < a.length; i++) {
+            result += Math.abs(a[i] - b[i]);
+        }
+        return result;
+    }
+}
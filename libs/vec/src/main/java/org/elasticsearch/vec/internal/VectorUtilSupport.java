@@ -0,0 +1,20 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec.internal;
+
+/**
+ * The implementation of the functions of {@link org.elasticsearch.vec.ESVectorUtil}, which have already checked that the vectors have
+ * the same dimensions.
+ */
+public interface VectorUtilSupport {
+
+    double l1Norm(float[] a, float[] b);
+
+    int l1Norm(byte[] a, byte[] b);
+}
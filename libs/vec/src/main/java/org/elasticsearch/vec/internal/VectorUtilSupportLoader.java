@@ -0,0 +1,57 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec.internal;
+
+import org.elasticsearch.logging.LogManager;
+import org.elasticsearch.logging.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+
+/**
+ * Picks the {@link VectorUtilSupport} for the running JVM, the same way as Lucene's {@code VectorizationProvider}.
+ */
+public final class VectorUtilSupportLoader {
+
+    private static final Logger logger = LogManager.getLogger(VectorUtilSupportLoader.class);
+
+    private VectorUtilSupportLoader() {}
+
+    public static VectorUtilSupport load() {
+        final int runtimeVersion = Runtime.version().feature();
+        if (runtimeVersion < 21) {
+            return DefaultVectorUtilSupport.INSTANCE;
+        }
+        final Optional<Module> vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vectorModule.isEmpty()) {
+            logger.debug("Java vector incubator module is not readable, using scalar vector functions");
+            return DefaultVectorUtilSupport.INSTANCE;
+        }
+        VectorUtilSupportLoader.class.getModule().addReads(vectorModule.get());
+        try {
+            var lookup = MethodHandles.lookup();
+            var clazz = lookup.findClass("org.elasticsearch.vec.internal.PanamaVectorUtilSupport");
+            var constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+            try {
+                return (VectorUtilSupport) constructor.invoke();
+            } catch (UnsupportedOperationException e) {
+                // the vectors are too small to be worth it, for instance on a CPU without SIMD instructions or with C2 disabled
+                logger.debug("using scalar vector functions: {}", e.getMessage());
+                return DefaultVectorUtilSupport.INSTANCE;
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new LinkageError("VectorUtilSupport for Java " + runtimeVersion + " has a bad constructor", e);
+        } catch (ClassNotFoundException cnfe) {
+            throw new LinkageError("VectorUtilSupport is missing for Java " + runtimeVersion, cnfe);
+        }
+    }
+}
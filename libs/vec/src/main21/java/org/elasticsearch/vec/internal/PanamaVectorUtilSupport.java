@@ -0,0 +1,86 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec.internal;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation on top of the Panama Vector API, with scalar loops for the tails that don't fill a whole vector.
+ */
+final class PanamaVectorUtilSupport implements VectorUtilSupport {
+
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    /**
+     * How many floats {@link #l1Norm(float[], float[])} sums up in float lanes before it adds them to its double result, which bounds
+     * how far it strays from the scalar implementation that sums up in double.
+     */
+    private static final int FLOAT_CHUNK_SIZE = FLOAT_SPECIES.length() * 64;
+    /**
+     * Bytes are widened to ints before they are subtracted, so they are loaded with as many lanes as an int vector has.
+     */
+    private static final VectorSpecies<Byte> BYTE_SPECIES = INT_SPECIES.vectorBitSize() >= 256
+        ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.length() * Byte.SIZE))
+        : null;
+
+    PanamaVectorUtilSupport() {
+        // Lucene's threshold: smaller vectors are slower than scalar loops, and the preferred species is tiny without C2
+        if (FLOAT_SPECIES.vectorBitSize() < 128) {
+            throw new UnsupportedOperationException("preferred vector size [" + FLOAT_SPECIES.vectorBitSize() + "] bits is too small");
+        }
+    }
+
+    @Override
+    public double l1Norm(float[] a, float[] b) {
+        int i = 0;
+        double result = 0;
+        if (a.length >= FLOAT_SPECIES.length()) {
+            final int bound = FLOAT_SPECIES.loopBound(a.length);
+            while (i < bound) {
+                final int chunkBound = Math.min(bound, i + FLOAT_CHUNK_SIZE);
+                FloatVector acc = FloatVector.zero(FLOAT_SPECIES);
+                for (; i < chunkBound; i += FLOAT_SPECIES.length()) {
+                    final FloatVector va = FloatVector.fromArray(FLOAT_SPECIES, a, i);
+                    final FloatVector vb = FloatVector.fromArray(FLOAT_SPECIES, b, i);
+                    acc = acc.add(va.sub(vb).abs());
+                }
+                result += acc.reduceLanes(VectorOperators.ADD);
+            }
+        }
+        for (; i < a.length; i++) {
+            result += Math.abs(a[i] - b[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public int l1Norm(byte[] a, byte[] b) {
+        int i = 0;
+        int result = 0;
+        if (BYTE_SPECIES != null && a.length >= BYTE_SPECIES.length()) {
+            IntVector acc = IntVector.zero(INT_SPECIES);
+            final int bound = BYTE_SPECIES.loopBound(a.length);
+            for (; i < bound; i += BYTE_SPECIES.length()) {
+                final IntVector va = (IntVector) ByteVector.fromArray(BYTE_SPECIES, a, i).convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+                final IntVector vb = (IntVector) ByteVector.fromArray(BYTE_SPECIES, b, i).convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+                acc = acc.add(va.sub(vb).abs());
+            }
+            result = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < a.length; i++) {
+            result += Math.abs(a[i] - b[i]);
+        }
+        return result;
+    }
+}
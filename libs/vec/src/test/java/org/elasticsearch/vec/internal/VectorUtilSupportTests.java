@@ -0,0 +1,89 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.vec.internal;
+
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.vec.ESVectorUtil;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class VectorUtilSupportTests extends ESTestCase {
+
+    private static final VectorUtilSupport SCALAR = DefaultVectorUtilSupport.INSTANCE;
+    private static final VectorUtilSupport LOADED = VectorUtilSupportLoader.load();
+
+    public void testLoadsPanamaOnJava21() {
+        // the tests run with the incubator module like the distribution does
+        if (Runtime.version().feature() >= 21) {
+            assertThat(LOADED.getClass().getSimpleName(), equalTo("PanamaVectorUtilSupport"));
+        } else {
+            assertSame(SCALAR, LOADED);
+        }
+    }
+
+    public void testFloatL1Norm() {
+        // random dims so that both the vectorized loop and the tail are exercised
+        int dims = between(1, 1024);
+        float[] a = new float[dims];
+        float[] b = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            a[i] = randomFloat() * 100 - 50;
+            b[i] = randomFloat() * 100 - 50;
+        }
+        double expected = SCALAR.l1Norm(a, b);
+        assertThat(LOADED.l1Norm(a, b), closeTo(expected, expected * 1e-5));
+        assertThat(ESVectorUtil.l1Norm(a, b), closeTo(expected, expected * 1e-5));
+        assertThat(SCALAR.l1Norm(a, a), equalTo(0.0));
+        assertThat(LOADED.l1Norm(a, a), equalTo(0.0));
+    }
+
+    public void testFloatL1NormOfLongVectors() {
+        // long enough for float lanes to lose precision if they summed up the whole vector before adding up into a double
+        int dims = between(50_000, 200_000);
+        float[] a = new float[dims];
+        float[] b = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            a[i] = randomFloat() * 100 - 50;
+            b[i] = randomFloat() * 100 - 50;
+        }
+        double expected = SCALAR.l1Norm(a, b);
+        assertThat(LOADED.l1Norm(a, b), closeTo(expected, expected * 1e-6));
+    }
+
+    public void testByteL1Norm() {
+        int dims = between(1, 1024);
+        byte[] a = randomByteArrayOfLength(dims);
+        byte[] b = randomByteArrayOfLength(dims);
+        int expected = SCALAR.l1Norm(a, b);
+        assertThat(LOADED.l1Norm(a, b), equalTo(expected));
+        assertThat(ESVectorUtil.l1Norm(a, b), equalTo(expected));
+
+        // the largest differences don't overflow
+        byte[] min = new byte[dims];
+        byte[] max = new byte[dims];
+        for (int i = 0; i < dims; i++) {
+            min[i] = Byte.MIN_VALUE;
+            max[i] = Byte.MAX_VALUE;
+        }
+        assertThat(LOADED.l1Norm(min, max), equalTo(255 * dims));
+        assertThat(LOADED.l1Norm(max, min), equalTo(255 * dims));
+    }
+
+    public void testDifferentDimensions() {
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> ESVectorUtil.l1Norm(new float[] { 1f, 2f }, new float[] { 1f })
+        );
+        assertThat(e.getMessage(), containsString("vector dimensions differ: 2!=1"));
+        e = expectThrows(IllegalArgumentException.class, () -> ESVectorUtil.l1Norm(new byte[] { 1 }, new byte[] { 1, 2 }));
+        assertThat(e.getMessage(), containsString("vector dimensions differ: 1!=2"));
+    }
+}
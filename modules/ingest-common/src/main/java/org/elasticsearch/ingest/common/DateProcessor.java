@@ -9,19 +9,21 @@
 package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ExceptionsHelper;
-import org.elasticsearch.common.settings.SettingsException;
+import org.elasticsearch.common.cache.Cache.EvictionPolicy;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.util.LocaleUtils;
-import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
 import org.elasticsearch.ingest.IngestDocument;
+import org.elasticsearch.ingest.IngestStats;
 import org.elasticsearch.ingest.Processor;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.script.TemplateScript;
 
-import java.lang.ref.SoftReference;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -29,7 +31,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -47,6 +49,9 @@ public final class DateProcessor extends AbstractProcessor {
     private final List<String> formats;
     private final List<Function<Map<String, Object>, Function<String, ZonedDateTime>>> dateParsers;
     private final String outputFormat;
+    private final boolean usesCache;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
 
     DateProcessor(
         String tag,
@@ -69,6 +74,24 @@ public final class DateProcessor extends AbstractProcessor {
         List<String> formats,
         String targetField,
         String outputFormat
+    ) {
+        this(tag, description, timezone, locale, field, formats, targetField, outputFormat, timezone == null && locale == null);
+    }
+
+    /**
+     * @param constantTimezoneAndLocale are the timezone and locale the same for every document? If so then the date parsers
+     *                                  are built up front rather than looked up in the {@link Cache} for every document.
+     */
+    DateProcessor(
+        String tag,
+        String description,
+        @Nullable TemplateScript.Factory timezone,
+        @Nullable TemplateScript.Factory locale,
+        String field,
+        List<String> formats,
+        String targetField,
+        String outputFormat,
+        boolean constantTimezoneAndLocale
     ) {
         super(tag, description);
         this.timezone = timezone;
@@ -78,21 +101,55 @@ public final class DateProcessor extends AbstractProcessor {
         this.formats = formats;
         this.dateParsers = new ArrayList<>(this.formats.size());
 
+        boolean usesCache = false;
         for (String format : formats) {
             DateFormat dateFormat = DateFormat.fromString(format);
+            Function<String, ZonedDateTime> constantParser = constantTimezoneAndLocale
+                ? buildConstantParser(dateFormat, format, timezone, locale)
+                : null;
+            if (constantParser != null) {
+                dateParsers.add(params -> constantParser);
+                continue;
+            }
+            usesCache = true;
             dateParsers.add((params) -> {
                 var documentTimezone = timezone == null ? null : timezone.newInstance(params).execute();
                 var documentLocale = locale == null ? null : locale.newInstance(params).execute();
                 return Cache.INSTANCE.getOrCompute(
                     new Cache.Key(format, documentTimezone, documentLocale),
-                    () -> dateFormat.getFunction(format, newDateTimeZone(documentTimezone), newLocale(documentLocale))
+                    () -> dateFormat.getFunction(format, newDateTimeZone(documentTimezone), newLocale(documentLocale)),
+                    cacheHits,
+                    cacheMisses
                 );
             });
         }
+        this.usesCache = usesCache;
         this.outputFormat = outputFormat;
         formatter = DateFormatter.forPattern(this.outputFormat);
     }
 
+    /**
+     * Build the parser for a format with a constant timezone and locale.
+     *
+     * @return the parser or {@code null} if it can't be built, in which case it is built, and fails, for each document
+     *         just like parsers that depend on the document
+     */
+    @Nullable
+    private static Function<String, ZonedDateTime> buildConstantParser(
+        DateFormat dateFormat,
+        String format,
+        @Nullable TemplateScript.Factory timezone,
+        @Nullable TemplateScript.Factory locale
+    ) {
+        try {
+            var constantTimezone = timezone == null ? null : timezone.newInstance(Map.of()).execute();
+            var constantLocale = locale == null ? null : locale.newInstance(Map.of()).execute();
+            return dateFormat.getFunction(format, newDateTimeZone(constantTimezone), newLocale(constantLocale));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private static ZoneId newDateTimeZone(String timezone) {
         return timezone == null ? ZoneOffset.UTC : ZoneId.of(timezone);
     }
@@ -135,6 +192,11 @@ public final class DateProcessor extends AbstractProcessor {
         return TYPE;
     }
 
+    @Override
+    public IngestStats.CacheStats getCacheStats() {
+        return usesCache ? new IngestStats.CacheStats(cacheHits.sum(), cacheMisses.sum()) : null;
+    }
+
     TemplateScript.Factory getTimezone() {
         return timezone;
     }
@@ -207,54 +269,97 @@ public final class DateProcessor extends AbstractProcessor {
                 field,
                 formats,
                 targetField,
-                outputFormat
+                outputFormat,
+                isConstant(timezoneString) && isConstant(localeString)
             );
         }
+
+        /**
+         * Is the value the same for every document? Templates are only compiled if they contain {@code {{}.
+         */
+        private static boolean isConstant(@Nullable String templateValue) {
+            return templateValue == null || templateValue.contains("{{") == false;
+        }
     }
 
     /**
-     * An ad-hoc cache class that just throws away the cached values once it's full because we don't want to affect the performance
-     * while applying eviction policies when adding new values or retrieving them.
+     * A bounded cache of date parsers, shared by all date processors on the node. Building a parser means building a
+     * {@link DateFormatter} which is too expensive to do for every document. Every document looks up a parser so the
+     * cache uses {@link EvictionPolicy#TINY_LFU} which, unlike the LRU policy, doesn't take a global lock on every hit.
      */
     static final class Cache {
 
-        private static final String CACHE_CAPACITY_SETTING = "es.ingest.date_processor.cache_capacity";
-        static final Cache INSTANCE;
+        /**
+         * The capacity used to come from this system property so it is still respected as the default of {@link #CAPACITY_SETTING}.
+         */
+        private static final String CACHE_CAPACITY_PROPERTY = "es.ingest.date_processor.cache_capacity";
 
-        static {
-            var cacheSizeStr = System.getProperty(CACHE_CAPACITY_SETTING, "256");
-            try {
-                INSTANCE = new Cache(Integer.parseInt(cacheSizeStr));
-            } catch (NumberFormatException e) {
-                throw new SettingsException("{} must be a valid number but was [{}]", CACHE_CAPACITY_SETTING, cacheSizeStr);
-            }
-        }
-        private final ConcurrentMap<Key, SoftReference<Function<String, ZonedDateTime>>> map;
-        private final int capacity;
+        static final Setting<Integer> CAPACITY_SETTING = new Setting<>(
+            "ingest.date_processor.cache.capacity",
+            s -> System.getProperty(CACHE_CAPACITY_PROPERTY, "256"),
+            s -> Setting.parseInt(s, 1, "ingest.date_processor.cache.capacity"),
+            Setting.Property.NodeScope,
+            Setting.Property.Dynamic
+        );
+
+        static final Cache INSTANCE = new Cache(CAPACITY_SETTING.get(Settings.EMPTY));
+
+        private volatile org.elasticsearch.common.cache.Cache<Key, Function<String, ZonedDateTime>> cache;
 
         Cache(int capacity) {
+            setCapacity(capacity);
+        }
+
+        /**
+         * Resize the cache. The cached parsers are dropped.
+         */
+        void setCapacity(int capacity) {
             if (capacity <= 0) {
                 throw new IllegalArgumentException("cache capacity must be a value greater than 0 but was " + capacity);
             }
-            this.capacity = capacity;
-            this.map = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(this.capacity);
+            this.cache = CacheBuilder.<Key, Function<String, ZonedDateTime>>builder()
+                .setMaximumWeight(capacity)
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU)
+                .build();
         }
 
         Function<String, ZonedDateTime> getOrCompute(Key key, Supplier<Function<String, ZonedDateTime>> supplier) {
-            Function<String, ZonedDateTime> fn;
-            var element = map.get(key);
-            // element exist and wasn't GCed
-            if (element != null && (fn = element.get()) != null) {
+            return getOrCompute(key, supplier, null, null);
+        }
+
+        /**
+         * Get the parser for a key, building it if it isn't cached.
+         *
+         * @param hits incremented if the parser was cached
+         * @param misses incremented if the parser had to be built
+         */
+        Function<String, ZonedDateTime> getOrCompute(
+            Key key,
+            Supplier<Function<String, ZonedDateTime>> supplier,
+            @Nullable LongAdder hits,
+            @Nullable LongAdder misses
+        ) {
+            var current = cache;
+            Function<String, ZonedDateTime> fn = current.get(key);
+            if (fn != null) {
+                if (hits != null) {
+                    hits.increment();
+                }
                 return fn;
             }
-            if (map.size() >= capacity) {
-                map.clear();
+            if (misses != null) {
+                misses.increment();
             }
+            // concurrent misses might build the same parser more than once but that's cheaper than coordinating them
             fn = supplier.get();
-            map.put(key, new SoftReference<>(fn));
+            current.put(key, fn);
             return fn;
         }
 
+        int count() {
+            return cache.count();
+        }
+
         record Key(String format, String zoneId, String locale) {}
     }
 }
@@ -10,16 +10,15 @@ package org.elasticsearch.ingest.common;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.elasticsearch.grok.Grok;
 import org.elasticsearch.grok.GrokBuiltinPatterns;
 import org.elasticsearch.grok.MatcherWatchdog;
+import org.elasticsearch.grok.MultiGrok;
 import org.elasticsearch.grok.PatternBank;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,7 +35,7 @@ public final class GrokProcessor extends AbstractProcessor {
 
     private final String matchField;
     private final List<String> matchPatterns;
-    private final Grok grok;
+    private final MultiGrok grok;
     private final boolean traceMatch;
     private final boolean ignoreMissing;
 
@@ -53,12 +52,11 @@ public final class GrokProcessor extends AbstractProcessor {
         super(tag, description);
         this.matchField = matchField;
         this.matchPatterns = matchPatterns;
-        this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::debug);
+        // Joni emits its warnings on every attempt to match, which is too verbose, so we only log the warnings
+        // emitted while building each pattern at warn level and the rest at debug level.
+        this.grok = new MultiGrok(patternBank, matchPatterns, matcherWatchdog, logger::debug, logger::warn);
         this.traceMatch = traceMatch;
         this.ignoreMissing = ignoreMissing;
-        // Joni warnings are only emitted on an attempt to match, and the warning emitted for every call to match which is too verbose
-        // so here we emit a warning (if there is one) to the logfile at warn level on construction / processor creation.
-        new Grok(patternBank, combinePatterns(matchPatterns, traceMatch), matcherWatchdog, logger::warn).match("___nomatch___");
     }
 
     @Override
@@ -71,21 +69,15 @@ public final class GrokProcessor extends AbstractProcessor {
             throw new IllegalArgumentException("field [" + matchField + "] is null, cannot process it.");
         }
 
-        Map<String, Object> matches = grok.captures(fieldValue);
-        if (matches == null) {
+        MultiGrok.Match match = grok.captures(fieldValue);
+        if (match == null) {
             throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
         }
 
-        matches.forEach(ingestDocument::setFieldValue);
+        match.captures().forEach(ingestDocument::setFieldValue);
 
         if (traceMatch) {
-            if (matchPatterns.size() > 1) {
-                @SuppressWarnings("unchecked")
-                HashMap<String, String> matchMap = (HashMap<String, String>) ingestDocument.getFieldValue(PATTERN_MATCH_KEY, Object.class);
-                matchMap.keySet().stream().findFirst().ifPresent((index) -> { ingestDocument.setFieldValue(PATTERN_MATCH_KEY, index); });
-            } else {
-                ingestDocument.setFieldValue(PATTERN_MATCH_KEY, "0");
-            }
+            ingestDocument.setFieldValue(PATTERN_MATCH_KEY, Integer.toString(match.patternIndex()));
         }
         return ingestDocument;
     }
@@ -95,7 +87,7 @@ public final class GrokProcessor extends AbstractProcessor {
         return TYPE;
     }
 
-    Grok getGrok() {
+    MultiGrok getGrok() {
         return grok;
     }
 
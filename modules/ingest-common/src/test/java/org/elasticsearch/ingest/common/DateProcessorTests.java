@@ -10,6 +10,7 @@ package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.core.Strings;
 import org.elasticsearch.ingest.IngestDocument;
+import org.elasticsearch.ingest.IngestStats;
 import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.ingest.TestTemplateService;
 import org.elasticsearch.script.TemplateScript;
@@ -29,6 +30,8 @@ import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -391,4 +394,64 @@ public class DateProcessorTests extends ESTestCase {
         verify(supplier1, times(3)).get();
         verify(supplier2, times(2)).get();
     }
+
+    public void testCacheStats() {
+        DateProcessor dateProcessor = new DateProcessor(
+            randomAlphaOfLength(10),
+            null,
+            templatize(ZoneId.of("Europe/Amsterdam")),
+            templatize(Locale.ENGLISH),
+            "date_as_string",
+            List.of("yyyy dd MM HH:mm:ss"),
+            "date_as_date"
+        );
+        int documents = between(1, 10);
+        for (int i = 0; i < documents; i++) {
+            Map<String, Object> document = new HashMap<>();
+            document.put("date_as_string", "2010 12 06 11:05:15");
+            dateProcessor.execute(RandomDocumentPicks.randomIngestDocument(random(), document));
+        }
+        IngestStats.CacheStats stats = dateProcessor.getCacheStats();
+        assertThat(stats.hits() + stats.misses(), equalTo((long) documents));
+        // the parser might already be cached by another test
+        assertThat(stats.misses(), lessThanOrEqualTo(1L));
+    }
+
+    public void testConstantTimezoneAndLocaleSkipCache() {
+        DateProcessor dateProcessor = new DateProcessor(
+            randomAlphaOfLength(10),
+            null,
+            templatize(ZoneId.of("Europe/Amsterdam")),
+            templatize(Locale.ENGLISH),
+            "date_as_string",
+            List.of("yyyy dd MM HH:mm:ss"),
+            "date_as_date",
+            DateProcessor.DEFAULT_OUTPUT_FORMAT,
+            true
+        );
+        Map<String, Object> document = new HashMap<>();
+        document.put("date_as_string", "2010 12 06 11:05:15");
+        IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), document);
+        dateProcessor.execute(ingestDocument);
+        assertThat(ingestDocument.getFieldValue("date_as_date", String.class), equalTo("2010-06-12T11:05:15.000+02:00"));
+        assertThat(dateProcessor.getCacheStats(), nullValue());
+    }
+
+    public void testCacheCapacityUpdate() {
+        var cache = new DateProcessor.Cache(1);
+        var key1 = new DateProcessor.Cache.Key("format-1", ZoneId.systemDefault().toString(), Locale.ROOT.toString());
+        var key2 = new DateProcessor.Cache.Key("format-2", ZoneId.systemDefault().toString(), Locale.ROOT.toString());
+        Function<String, ZonedDateTime> function = str -> ZonedDateTime.now();
+        cache.getOrCompute(key1, () -> function);
+        cache.getOrCompute(key2, () -> function);
+        assertThat(cache.count(), equalTo(1));
+
+        cache.setCapacity(2);
+        assertThat(cache.count(), equalTo(0));
+        cache.getOrCompute(key1, () -> function);
+        cache.getOrCompute(key2, () -> function);
+        assertThat(cache.count(), equalTo(2));
+
+        expectThrows(IllegalArgumentException.class, () -> cache.setCapacity(0));
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+
+import java.util.function.Predicate;
+
+/**
+ * An {@link HttpObjectAggregator} that passes the requests that match a predicate through without aggregating them so that
+ * {@link Netty4HttpPipeliningHandler} can stream their bodies to the rest layer as they arrive. Requests that failed to decode
+ * are always aggregated so they are rejected the usual way.
+ */
+class Netty4HttpAggregator extends HttpObjectAggregator {
+
+    private final Predicate<HttpRequest> streamContent;
+    private boolean aggregating = true;
+
+    Netty4HttpAggregator(int maxContentLength, Predicate<HttpRequest> streamContent) {
+        super(maxContentLength);
+        this.streamContent = streamContent;
+    }
+
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (msg instanceof HttpRequest request) {
+            aggregating = request.decoderResult().isSuccess() == false || streamContent.test(request) == false;
+        }
+        // the content of a streamed request passes through until the next request starts
+        return aggregating && super.acceptInboundMessage(msg);
+    }
+}
@@ -9,18 +9,25 @@
 package org.elasticsearch.http.netty4;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.compression.JdkZlibEncoder;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.PromiseCombiner;
@@ -84,6 +91,14 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     private final Netty4HttpServerTransport serverTransport;
 
+    /**
+     * The body of the last request that wasn't aggregated, and the sequence number of that request, if any. See
+     * {@link Netty4HttpAggregator}.
+     */
+    @Nullable
+    private Netty4HttpRequestBodyStream currentBodyStream;
+    private int currentBodyStreamSequence = -1;
+
     /**
      * Construct a new pipelining handler; this handler should be used downstream of HTTP decoding/aggregation.
      *
@@ -98,7 +113,10 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     @Override
     public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-        assert msg instanceof FullHttpRequest : "Should have fully aggregated message already but saw [" + msg + "]";
+        if (msg instanceof FullHttpRequest == false) {
+            channelReadStreamed(ctx, (HttpObject) msg);
+            return;
+        }
         final FullHttpRequest fullHttpRequest = (FullHttpRequest) msg;
         final Netty4HttpRequest netty4HttpRequest;
         if (fullHttpRequest.decoderResult().isFailure()) {
@@ -117,6 +135,38 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         handlePipelinedRequest(ctx, netty4HttpRequest);
     }
 
+    /**
+     * Handle the parts of a request that {@link Netty4HttpAggregator} didn't aggregate: the start of the request is dispatched
+     * right away with a {@link Netty4HttpRequestBodyStream} that its content is then passed to as it arrives.
+     */
+    private void channelReadStreamed(final ChannelHandlerContext ctx, final HttpObject msg) {
+        if (msg instanceof HttpRequest request) {
+            assert msg instanceof HttpContent == false : "streamed requests are split into the start and the content";
+            assert currentBodyStream == null || currentBodyStream.holdsReads() == false : "previous request is still streaming";
+            if (HttpUtil.is100ContinueExpected(request)) {
+                // the aggregator usually takes care of this
+                ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE, Unpooled.EMPTY_BUFFER));
+            }
+            currentBodyStream = new Netty4HttpRequestBodyStream(ctx.channel());
+            currentBodyStreamSequence = readSequence;
+            handlePipelinedRequest(ctx, new Netty4HttpRequest(readSequence++, request, currentBodyStream));
+        } else {
+            assert msg instanceof HttpContent : "Should have received content of a streamed request but saw [" + msg + "]";
+            assert currentBodyStream != null : "received content without a request";
+            currentBodyStream.onContent((HttpContent) msg);
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        if (currentBodyStream != null && currentBodyStream.holdsReads()) {
+            // the header validator turns auto-read back on whenever it passes on a message, but while a body is streamed we only
+            // read when the handler of the body asks for more
+            ctx.channel().config().setAutoRead(false);
+        }
+        ctx.fireChannelReadComplete();
+    }
+
     // protected so tests can override it
     protected void handlePipelinedRequest(ChannelHandlerContext ctx, Netty4HttpRequest pipelinedRequest) {
         final Netty4HttpChannel channel = ctx.channel().attr(Netty4HttpServerTransport.HTTP_CHANNEL_KEY).get();
@@ -139,6 +189,11 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         boolean success = false;
         try {
             final Netty4HttpResponse restResponse = (Netty4HttpResponse) msg;
+            if (currentBodyStream != null && restResponse.getSequence() == currentBodyStreamSequence) {
+                // nobody is listening to the rest of the body anymore
+                currentBodyStream.discard();
+                currentBodyStream = null;
+            }
             if (restResponse.getSequence() != writeSequence) {
                 assert restResponse.getSequence() > writeSequence
                     : "response sequence [" + restResponse.getSequence() + "] we below write sequence [" + writeSequence + "]";
@@ -273,6 +328,10 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (currentBodyStream != null) {
+            currentBodyStream.close();
+            currentBodyStream = null;
+        }
         doFlush(ctx);
         super.channelInactive(ctx);
     }
@@ -11,6 +11,7 @@ package org.elasticsearch.http.netty4;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -19,7 +20,9 @@ import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.http.HttpResponse;
 import org.elasticsearch.rest.ChunkedRestResponseBody;
@@ -45,17 +48,40 @@ public class Netty4HttpRequest implements HttpRequest {
     private final Exception inboundException;
     private final boolean pooled;
     private final int sequence;
+    private final HttpContentStream contentStream;
 
     Netty4HttpRequest(int sequence, FullHttpRequest request) {
         this(sequence, request, new AtomicBoolean(false), true, Netty4Utils.toBytesReference(request.content()));
     }
 
     Netty4HttpRequest(int sequence, FullHttpRequest request, Exception inboundException) {
-        this(sequence, request, new AtomicBoolean(false), true, Netty4Utils.toBytesReference(request.content()), inboundException);
+        this(sequence, request, new AtomicBoolean(false), true, Netty4Utils.toBytesReference(request.content()), inboundException, null);
+    }
+
+    /**
+     * A request whose body is streamed through {@code contentStream} rather than aggregated.
+     */
+    Netty4HttpRequest(int sequence, io.netty.handler.codec.http.HttpRequest request, HttpContentStream contentStream) {
+        this(
+            sequence,
+            new DefaultFullHttpRequest(
+                request.protocolVersion(),
+                request.method(),
+                request.uri(),
+                Unpooled.EMPTY_BUFFER,
+                request.headers(),
+                EmptyHttpHeaders.INSTANCE
+            ),
+            new AtomicBoolean(false),
+            false,
+            BytesArray.EMPTY,
+            null,
+            contentStream
+        );
     }
 
     private Netty4HttpRequest(int sequence, FullHttpRequest request, AtomicBoolean released, boolean pooled, BytesReference content) {
-        this(sequence, request, released, pooled, content, null);
+        this(sequence, request, released, pooled, content, null, null);
     }
 
     private Netty4HttpRequest(
@@ -64,7 +90,8 @@ public class Netty4HttpRequest implements HttpRequest {
         AtomicBoolean released,
         boolean pooled,
         BytesReference content,
-        Exception inboundException
+        Exception inboundException,
+        HttpContentStream contentStream
     ) {
         this.sequence = sequence;
         this.request = request;
@@ -73,6 +100,7 @@ public class Netty4HttpRequest implements HttpRequest {
         this.pooled = pooled;
         this.released = released;
         this.inboundException = inboundException;
+        this.contentStream = contentStream;
     }
 
     @Override
@@ -91,6 +119,11 @@ public class Netty4HttpRequest implements HttpRequest {
         return content;
     }
 
+    @Override
+    public HttpContentStream contentStream() {
+        return contentStream;
+    }
+
     @Override
     public void release() {
         if (pooled && released.compareAndSet(false, true)) {
@@ -167,7 +200,7 @@ public class Netty4HttpRequest implements HttpRequest {
             copiedHeadersWithout,
             copiedTrailingHeadersWithout
         );
-        return new Netty4HttpRequest(sequence, requestWithoutHeader, released, pooled, content);
+        return new Netty4HttpRequest(sequence, requestWithoutHeader, released, pooled, content, null, contentStream);
     }
 
     @Override
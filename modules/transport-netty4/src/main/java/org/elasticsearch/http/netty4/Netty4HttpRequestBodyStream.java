@@ -0,0 +1,143 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.util.ArrayDeque;
+
+/**
+ * The body of a request that {@link Netty4HttpAggregator} didn't aggregate. The chunks are queued as they arrive and handed to the
+ * {@link HttpContentStream.Handler} one at a time as it asks for them. While the body is arriving the channel is only read when the
+ * handler asks for a chunk that isn't queued yet, which is what pushes back on the client when the handler can't keep up.
+ * <p>
+ * Everything but {@link #setHandler} and {@link #next} runs on the channel's event loop.
+ */
+final class Netty4HttpRequestBodyStream implements HttpContentStream {
+
+    private final Channel channel;
+    private final ArrayDeque<HttpContent> chunks = new ArrayDeque<>(4);
+    private volatile Handler handler;
+    /**
+     * Did the handler ask for a chunk that it didn't get yet?
+     */
+    private boolean requested;
+    /**
+     * Is the rest of the body still to arrive from the channel?
+     */
+    private boolean receiving = true;
+    /**
+     * Are we done handing chunks to the handler, because it got the last one, it stopped listening or the channel closed?
+     */
+    private boolean done;
+
+    Netty4HttpRequestBodyStream(Channel channel) {
+        this.channel = channel;
+        channel.config().setAutoRead(false);
+    }
+
+    @Override
+    public void setHandler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void next() {
+        // always fork so a handler that asks for the next chunk from onNext doesn't recurse
+        channel.eventLoop().execute(() -> {
+            requested = true;
+            deliver();
+        });
+    }
+
+    /**
+     * Should the channel only be read when the handler asks for more?
+     */
+    boolean holdsReads() {
+        return receiving && done == false;
+    }
+
+    /**
+     * Called with each chunk of the body as it arrives. Takes ownership of {@code content}.
+     */
+    void onContent(HttpContent content) {
+        assert channel.eventLoop().inEventLoop();
+        assert receiving : "received content after the last content";
+        if (content instanceof LastHttpContent) {
+            receiving = false;
+            channel.config().setAutoRead(true);
+        }
+        if (done) {
+            content.release();
+            return;
+        }
+        chunks.add(content);
+        deliver();
+    }
+
+    private void deliver() {
+        if (done || requested == false) {
+            return;
+        }
+        final HttpContent content = chunks.poll();
+        if (content == null) {
+            if (receiving) {
+                channel.read();
+            }
+            return;
+        }
+        requested = false;
+        final boolean isLast = content instanceof LastHttpContent;
+        done = isLast;
+        handler.onNext(new ReleasableBytesReference(Netty4Utils.toBytesReference(content.content()), content::release), isLast);
+    }
+
+    /**
+     * Stop handing chunks to the handler, usually because it already responded. The rest of the body is dropped as it arrives.
+     */
+    void discard() {
+        assert channel.eventLoop().inEventLoop();
+        if (done == false) {
+            done = true;
+            releaseChunks();
+            if (receiving) {
+                channel.config().setAutoRead(true);
+            }
+        }
+    }
+
+    /**
+     * The channel was closed, no more chunks are coming.
+     */
+    void close() {
+        assert channel.eventLoop().inEventLoop();
+        receiving = false;
+        if (done == false) {
+            done = true;
+            releaseChunks();
+            final Handler toClose = handler;
+            if (toClose != null) {
+                toClose.close();
+            }
+        }
+    }
+
+    private void releaseChunks() {
+        HttpContent content;
+        while ((content = chunks.poll()) != null) {
+            content.release();
+        }
+    }
+}
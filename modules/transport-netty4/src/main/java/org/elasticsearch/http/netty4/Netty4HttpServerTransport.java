@@ -18,12 +18,12 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.FixedRecvByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
-import io.netty.channel.socket.nio.NioChannelOption;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseEncoder;
@@ -58,10 +58,10 @@ import org.elasticsearch.http.netty4.internal.HttpValidator;
 import org.elasticsearch.telemetry.tracing.Tracer;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.netty4.AcceptChannelHandler;
-import org.elasticsearch.transport.netty4.NetUtils;
 import org.elasticsearch.transport.netty4.Netty4Utils;
 import org.elasticsearch.transport.netty4.Netty4WriteThrottlingHandler;
 import org.elasticsearch.transport.netty4.NettyAllocator;
+import org.elasticsearch.transport.netty4.NettyIoTransport;
 import org.elasticsearch.transport.netty4.NettyByteBufSizer;
 import org.elasticsearch.transport.netty4.SSLExceptionHelper;
 import org.elasticsearch.transport.netty4.SharedGroupFactory;
@@ -140,7 +140,19 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
         Property.NodeScope
     );
 
+    /**
+     * Stream the bodies of bulk requests to the rest layer as they arrive rather than buffering them in full first. Only requests
+     * whose handler reads the body as it arrives, see {@link org.elasticsearch.rest.RestHandler#supportsHttpContentStream()}, are
+     * streamed.
+     */
+    public static final Setting<Boolean> SETTING_HTTP_NETTY_STREAM_BULK_REQUESTS = Setting.boolSetting(
+        "http.netty.stream_bulk_requests",
+        false,
+        Property.NodeScope
+    );
+
     private final int pipeliningMaxEvents;
+    private final boolean streamBulkRequests;
 
     private final SharedGroupFactory sharedGroupFactory;
     private final RecvByteBufAllocator recvByteBufAllocator;
@@ -185,6 +197,7 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
         this.httpValidator = httpValidator;
 
         this.pipeliningMaxEvents = SETTING_PIPELINING_MAX_EVENTS.get(settings);
+        this.streamBulkRequests = SETTING_HTTP_NETTY_STREAM_BULK_REQUESTS.get(settings);
 
         this.maxCompositeBufferComponents = SETTING_HTTP_NETTY_MAX_COMPOSITE_BUFFER_COMPONENTS.get(settings);
 
@@ -219,8 +232,9 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
 
             serverBootstrap.group(sharedGroup.getLowLevelGroup());
 
-            // NettyAllocator will return the channel type designed to work with the configuredAllocator
-            serverBootstrap.channel(NettyAllocator.getServerChannelType());
+            // the channel type must match the event loop group, for NIO it is the one designed to work with the configured allocator
+            final NettyIoTransport ioTransport = sharedGroupFactory.getIoTransport();
+            serverBootstrap.channel(ioTransport.serverChannelType());
 
             // Set the allocators for both the server channel and the child channels created
             serverBootstrap.option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
@@ -236,22 +250,13 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
                 // Netty logs a warning if it can't set the option, so try this only on supported platforms
                 if (IOUtils.LINUX || IOUtils.MAC_OS_X) {
                     if (SETTING_HTTP_TCP_KEEP_IDLE.get(settings) >= 0) {
-                        serverBootstrap.childOption(
-                            NioChannelOption.of(NetUtils.getTcpKeepIdleSocketOption()),
-                            SETTING_HTTP_TCP_KEEP_IDLE.get(settings)
-                        );
+                        serverBootstrap.childOption(ioTransport.tcpKeepIdleOption(), SETTING_HTTP_TCP_KEEP_IDLE.get(settings));
                     }
                     if (SETTING_HTTP_TCP_KEEP_INTERVAL.get(settings) >= 0) {
-                        serverBootstrap.childOption(
-                            NioChannelOption.of(NetUtils.getTcpKeepIntervalSocketOption()),
-                            SETTING_HTTP_TCP_KEEP_INTERVAL.get(settings)
-                        );
+                        serverBootstrap.childOption(ioTransport.tcpKeepIntervalOption(), SETTING_HTTP_TCP_KEEP_INTERVAL.get(settings));
                     }
                     if (SETTING_HTTP_TCP_KEEP_COUNT.get(settings) >= 0) {
-                        serverBootstrap.childOption(
-                            NioChannelOption.of(NetUtils.getTcpKeepCountSocketOption()),
-                            SETTING_HTTP_TCP_KEEP_COUNT.get(settings)
-                        );
+                        serverBootstrap.childOption(ioTransport.tcpKeepCountOption(), SETTING_HTTP_TCP_KEEP_COUNT.get(settings));
                     }
                 }
             }
@@ -410,7 +415,10 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
                     );
             }
             // combines the HTTP message pieces into a single full HTTP request (with headers and body)
-            final HttpObjectAggregator aggregator = new HttpObjectAggregator(handlingSettings.maxContentLength());
+            final HttpObjectAggregator aggregator = new Netty4HttpAggregator(
+                handlingSettings.maxContentLength(),
+                transport.streamBulkRequests ? transport::supportsHttpContentStream : request -> false
+            );
             aggregator.setMaxCumulationBufferComponents(transport.maxCompositeBufferComponents);
             ch.pipeline()
                 .addLast("decoder_compress", new HttpContentDecompressor()) // this handles request body decompression
@@ -441,6 +449,13 @@ public class Netty4HttpServerTransport extends AbstractHttpServerTransport {
         }
     }
 
+    /**
+     * Is this the start of a request whose handler reads the body as it arrives? Only the bodies of those requests are streamed.
+     */
+    boolean supportsHttpContentStream(HttpRequest request) {
+        return dispatcher.supportsHttpContentStream(HttpHeadersAuthenticatorUtils.asHttpPreRequest(request));
+    }
+
     @ChannelHandler.Sharable
     private static class ServerChannelExceptionHandler extends ChannelInboundHandlerAdapter {
 
@@ -99,6 +99,7 @@ public class Netty4Transport extends TcpTransport {
     public static final ChannelOption<Integer> OPTION_TCP_KEEP_COUNT = NioChannelOption.of(NetUtils.getTcpKeepCountSocketOption());
 
     private final SharedGroupFactory sharedGroupFactory;
+    private final NettyIoTransport ioTransport;
     private final RecvByteBufAllocator recvByteBufAllocator;
     private final ByteSizeValue receivePredictorMin;
     private final ByteSizeValue receivePredictorMax;
@@ -121,6 +122,7 @@ public class Netty4Transport extends TcpTransport {
         Netty4Utils.setAvailableProcessors(EsExecutors.allocatedProcessors(settings));
         NettyAllocator.logAllocatorDescriptionIfNeeded();
         this.sharedGroupFactory = sharedGroupFactory;
+        this.ioTransport = sharedGroupFactory.getIoTransport();
 
         // See AdaptiveReceiveBufferSizePredictor#DEFAULT_XXX for default values in netty..., we can use higher ones for us, even fixed one
         this.receivePredictorMin = NETTY_RECEIVE_PREDICTOR_MIN.get(settings);
@@ -166,9 +168,8 @@ public class Netty4Transport extends TcpTransport {
         final Bootstrap bootstrap = new Bootstrap();
         bootstrap.group(sharedGroupForBootstrap.getLowLevelGroup());
 
-        // NettyAllocator will return the channel type designed to work with the configured allocator
-        assert Netty4NioSocketChannel.class.isAssignableFrom(NettyAllocator.getChannelType());
-        bootstrap.channel(NettyAllocator.getChannelType());
+        // the channel type must match the event loop group, for NIO it is the one designed to work with the configured allocator
+        bootstrap.channel(ioTransport.channelType());
         bootstrap.option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
 
         // The TCP options are re-configured for client connections to RCS remote clusters
@@ -179,13 +180,13 @@ public class Netty4Transport extends TcpTransport {
         if (TransportSettings.TCP_KEEP_ALIVE.get(settings)) {
             // Note that Netty logs a warning if it can't set the option
             if (TransportSettings.TCP_KEEP_IDLE.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_IDLE, TransportSettings.TCP_KEEP_IDLE.get(settings));
+                bootstrap.option(ioTransport.tcpKeepIdleOption(), TransportSettings.TCP_KEEP_IDLE.get(settings));
             }
             if (TransportSettings.TCP_KEEP_INTERVAL.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_INTERVAL, TransportSettings.TCP_KEEP_INTERVAL.get(settings));
+                bootstrap.option(ioTransport.tcpKeepIntervalOption(), TransportSettings.TCP_KEEP_INTERVAL.get(settings));
             }
             if (TransportSettings.TCP_KEEP_COUNT.get(settings) >= 0) {
-                bootstrap.option(OPTION_TCP_KEEP_COUNT, TransportSettings.TCP_KEEP_COUNT.get(settings));
+                bootstrap.option(ioTransport.tcpKeepCountOption(), TransportSettings.TCP_KEEP_COUNT.get(settings));
             }
         }
 
@@ -226,8 +227,8 @@ public class Netty4Transport extends TcpTransport {
 
         serverBootstrap.group(sharedGroupForServerBootstrap.getLowLevelGroup());
 
-        // NettyAllocator will return the channel type designed to work with the configuredAllocator
-        serverBootstrap.channel(NettyAllocator.getServerChannelType());
+        // the channel type must match the event loop group, for NIO it is the one designed to work with the configured allocator
+        serverBootstrap.channel(ioTransport.serverChannelType());
 
         // Set the allocators for both the server channel and the child channels created
         serverBootstrap.option(ChannelOption.ALLOCATOR, NettyAllocator.getAllocator());
@@ -241,16 +242,13 @@ public class Netty4Transport extends TcpTransport {
         if (profileSettings.tcpKeepAlive) {
             // Note that Netty logs a warning if it can't set the option
             if (profileSettings.tcpKeepIdle >= 0) {
-                serverBootstrap.childOption(NioChannelOption.of(NetUtils.getTcpKeepIdleSocketOption()), profileSettings.tcpKeepIdle);
+                serverBootstrap.childOption(ioTransport.tcpKeepIdleOption(), profileSettings.tcpKeepIdle);
             }
             if (profileSettings.tcpKeepInterval >= 0) {
-                serverBootstrap.childOption(
-                    NioChannelOption.of(NetUtils.getTcpKeepIntervalSocketOption()),
-                    profileSettings.tcpKeepInterval
-                );
+                serverBootstrap.childOption(ioTransport.tcpKeepIntervalOption(), profileSettings.tcpKeepInterval);
             }
             if (profileSettings.tcpKeepCount >= 0) {
-                serverBootstrap.childOption(NioChannelOption.of(NetUtils.getTcpKeepCountSocketOption()), profileSettings.tcpKeepCount);
+                serverBootstrap.childOption(ioTransport.tcpKeepCountOption(), profileSettings.tcpKeepCount);
             }
         }
 
@@ -336,8 +334,7 @@ public class Netty4Transport extends TcpTransport {
         @Override
         protected void initChannel(Channel ch) throws Exception {
             addClosedExceptionLogger(ch);
-            assert ch instanceof Netty4NioSocketChannel;
-            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) ch).javaChannel());
+            ioTransport.tryEnsureReasonableKeepAliveConfig(ch);
             setupPipeline(ch, false);
         }
 
@@ -361,8 +358,7 @@ public class Netty4Transport extends TcpTransport {
         @Override
         protected void initChannel(Channel ch) throws Exception {
             addClosedExceptionLogger(ch);
-            assert ch instanceof Netty4NioSocketChannel;
-            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) ch).javaChannel());
+            ioTransport.tryEnsureReasonableKeepAliveConfig(ch);
             Netty4TcpChannel nettyTcpChannel = new Netty4TcpChannel(ch, true, name, rstOnClose, ch.newSucceededFuture());
             ch.attr(CHANNEL_KEY).set(nettyTcpChannel);
             setupPipeline(ch, isRemoteClusterServerChannel);
@@ -0,0 +1,246 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport.netty4;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannelConfig;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.Constants;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.PathUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The netty I/O transport that the transport and http layers run on. {@link #NIO} works everywhere and is the default. {@link #EPOLL}
+ * uses netty's native Linux transport which is edge-triggered and needs fewer syscalls and fewer copies per read and write. It is
+ * opt-in with {@link #USE_EPOLL_SETTING} and we fall back to {@link #NIO} if it isn't available on this platform.
+ * <p>
+ * Channels must be registered with an event loop group of the same transport, which is why the {@link SharedGroupFactory} picks the
+ * transport once for all groups it creates.
+ */
+public enum NettyIoTransport {
+
+    NIO {
+        @Override
+        EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new NioEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends Channel> channelType() {
+            return NettyAllocator.getChannelType();
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelType() {
+            return NettyAllocator.getServerChannelType();
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepIdleOption() {
+            return Netty4Transport.OPTION_TCP_KEEP_IDLE;
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepIntervalOption() {
+            return Netty4Transport.OPTION_TCP_KEEP_INTERVAL;
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepCountOption() {
+            return Netty4Transport.OPTION_TCP_KEEP_COUNT;
+        }
+
+        @Override
+        public void tryEnsureReasonableKeepAliveConfig(Channel channel) {
+            assert channel instanceof Netty4NioSocketChannel : channel;
+            NetUtils.tryEnsureReasonableKeepAliveConfig(((Netty4NioSocketChannel) channel).javaChannel());
+        }
+    },
+
+    EPOLL {
+        @Override
+        EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+
+        @Override
+        public Class<? extends Channel> channelType() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelType() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepIdleOption() {
+            return EpollChannelOption.TCP_KEEPIDLE;
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepIntervalOption() {
+            return EpollChannelOption.TCP_KEEPINTVL;
+        }
+
+        @Override
+        public ChannelOption<Integer> tcpKeepCountOption() {
+            return EpollChannelOption.TCP_KEEPCNT;
+        }
+
+        @Override
+        public void tryEnsureReasonableKeepAliveConfig(Channel channel) {
+            assert channel instanceof EpollSocketChannel : channel;
+            final EpollSocketChannelConfig config = ((EpollSocketChannel) channel).config();
+            try {
+                // same as NetUtils#tryEnsureReasonableKeepAliveConfig, see there for why
+                if (config.isKeepAlive()) {
+                    if (config.getTcpKeepIdle() > 300) {
+                        config.setTcpKeepIdle(300);
+                    }
+                    if (config.getTcpKeepIntvl() > 300) {
+                        config.setTcpKeepIntvl(300);
+                    }
+                }
+            } catch (Exception e) {
+                // Getting an exception here should be ok when concurrently closing the channel
+                logger.trace("failed to configure keep-alive for [{}]", channel, e);
+            }
+        }
+    };
+
+    private static final Logger logger = LogManager.getLogger(NettyIoTransport.class);
+
+    // set by bootstrap to a directory in the temp directory that only this process uses, see Security#createNativeLibrariesDirectory
+    private static final String NATIVE_LIBRARIES_DIR_PROPERTY = "es.native_libraries.dir";
+
+    public static final Setting<Boolean> USE_EPOLL_SETTING = Setting.boolSetting("transport.netty.use_epoll", false, Property.NodeScope);
+
+    /**
+     * The transport to use with the given settings, falling back to {@link #NIO} if {@link #EPOLL} is requested but can't be used.
+     */
+    public static NettyIoTransport fromSettings(Settings settings) {
+        if (USE_EPOLL_SETTING.get(settings) == false) {
+            return NIO;
+        }
+        loadNativeLibrary();
+        if (Epoll.isAvailable() == false) {
+            logger.warn(
+                () -> "[" + USE_EPOLL_SETTING.getKey() + "] is set but the native epoll transport is not available, falling back to NIO",
+                Epoll.unavailabilityCause()
+            );
+            return NIO;
+        }
+        if (NettyAllocator.getAllocator() instanceof NettyAllocator.NoDirectBuffers) {
+            // the native transport reads and writes straight from and to direct buffers
+            logger.warn(
+                "[{}] is set but the native epoll transport needs direct buffers which the configured allocator [{}] doesn't provide, "
+                    + "falling back to NIO",
+                USE_EPOLL_SETTING.getKey(),
+                NettyAllocator.getAllocatorDescription()
+            );
+            return NIO;
+        }
+        return EPOLL;
+    }
+
+    /**
+     * Netty extracts its native library to a file with a random name in the temp directory and loads it from there, which would need
+     * permissions to write and load any file in the temp directory. Instead we extract it to a file with a fixed name in the directory
+     * that bootstrap creates for this process only, so that other nodes sharing the temp directory can't replace or delete it while we
+     * load it, and load it ourselves so that the permissions can be limited to that file. Netty then finds the library loaded already.
+     * If this fails netty tries loading it itself, which the security manager denies, and we fall back to {@link #NIO}.
+     */
+    private static void loadNativeLibrary() {
+        final String arch = switch (Constants.OS_ARCH) {
+            case "amd64", "x86_64" -> "x86_64";
+            case "aarch64" -> "aarch_64";
+            default -> null;
+        };
+        if (Constants.LINUX == false || arch == null) {
+            return;
+        }
+        final String libraryName = "libnetty_transport_native_epoll_" + arch + ".so";
+        AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+            // must match the path that plugin-security.policy grants access to
+            final String directoryPath = System.getProperty(NATIVE_LIBRARIES_DIR_PROPERTY);
+            if (directoryPath == null) {
+                logger.debug("[{}] is not set, not loading native library [{}]", NATIVE_LIBRARIES_DIR_PROPERTY, libraryName);
+                return null;
+            }
+            final String libraryPath = directoryPath + File.separator + libraryName;
+            final Path library = PathUtils.get(libraryPath);
+            try (InputStream in = NettyIoTransport.class.getClassLoader().getResourceAsStream("META-INF/native/" + libraryName)) {
+                if (in == null) {
+                    logger.debug("native library [{}] not found", libraryName);
+                    return null;
+                }
+                // bootstrap created the directory but it is removed again once the library is loaded
+                Files.createDirectories(library.getParent());
+                Files.copy(in, library);
+                System.load(libraryPath);
+            } catch (IOException | UnsatisfiedLinkError e) {
+                logger.debug(() -> "failed to load native library [" + libraryName + "]", e);
+            } finally {
+                try {
+                    Files.deleteIfExists(library);
+                    Files.deleteIfExists(library.getParent());
+                } catch (IOException e) {
+                    logger.debug(() -> "failed to delete native library [" + library + "]", e);
+                }
+            }
+            return null;
+        });
+    }
+
+    abstract EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory);
+
+    /**
+     * The type of the client channels, which must be registered with an event loop group of this transport.
+     */
+    public abstract Class<? extends Channel> channelType();
+
+    /**
+     * The type of the server channels, which must be registered with an event loop group of this transport.
+     */
+    public abstract Class<? extends ServerChannel> serverChannelType();
+
+    public abstract ChannelOption<Integer> tcpKeepIdleOption();
+
+    public abstract ChannelOption<Integer> tcpKeepIntervalOption();
+
+    public abstract ChannelOption<Integer> tcpKeepCountOption();
+
+    /**
+     * Lowers the keep-alive idle time and interval of a channel of this transport to 5 minutes if they are higher.
+     */
+    public abstract void tryEnsureReasonableKeepAliveConfig(Channel channel);
+}
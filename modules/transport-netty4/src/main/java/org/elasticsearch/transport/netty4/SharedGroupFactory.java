@@ -9,7 +9,6 @@
 package org.elasticsearch.transport.netty4;
 
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.Future;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,6 +38,7 @@ public final class SharedGroupFactory {
     private final Settings settings;
     private final int workerCount;
     private final int httpWorkerCount;
+    private final NettyIoTransport ioTransport;
 
     private RefCountedGroup genericGroup;
     private SharedGroup dedicatedHttpGroup;
@@ -47,6 +47,7 @@ public final class SharedGroupFactory {
         this.settings = settings;
         this.workerCount = Netty4Transport.WORKER_COUNT.get(settings);
         this.httpWorkerCount = Netty4HttpServerTransport.SETTING_HTTP_WORKER_COUNT.get(settings);
+        this.ioTransport = NettyIoTransport.fromSettings(settings);
     }
 
     public Settings getSettings() {
@@ -57,6 +58,13 @@ public final class SharedGroupFactory {
         return workerCount;
     }
 
+    /**
+     * The I/O transport of all groups that this factory creates. Channels registered with these groups must be of its channel types.
+     */
+    public NettyIoTransport getIoTransport() {
+        return ioTransport;
+    }
+
     public synchronized SharedGroup getTransportGroup() {
         return getGenericGroup();
     }
@@ -66,7 +74,7 @@ public final class SharedGroupFactory {
             return getGenericGroup();
         } else {
             if (dedicatedHttpGroup == null) {
-                NioEventLoopGroup eventLoopGroup = new NioEventLoopGroup(
+                EventLoopGroup eventLoopGroup = ioTransport.newEventLoopGroup(
                     httpWorkerCount,
                     daemonThreadFactory(settings, HttpServerTransport.HTTP_SERVER_WORKER_THREAD_NAME_PREFIX)
                 );
@@ -78,7 +86,7 @@ public final class SharedGroupFactory {
 
     private SharedGroup getGenericGroup() {
         if (genericGroup == null) {
-            EventLoopGroup eventLoopGroup = new NioEventLoopGroup(
+            EventLoopGroup eventLoopGroup = ioTransport.newEventLoopGroup(
                 workerCount,
                 EsExecutors.daemonThreadFactory(settings, TcpTransport.TRANSPORT_WORKER_THREAD_NAME_PREFIX)
             );
@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class Netty4HttpAggregatorTests extends ESTestCase {
+
+    public void testAggregatesRequestsThatAreNotStreamed() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> false));
+        writeRequest(channel, "/_bulk", "foo", "bar");
+
+        final FullHttpRequest request = channel.readInbound();
+        try {
+            assertEquals("/_bulk", request.uri());
+            assertEquals("foobar", request.content().toString(StandardCharsets.UTF_8));
+        } finally {
+            request.release();
+        }
+        assertNull(channel.readInbound());
+    }
+
+    public void testPassesStreamedRequestsThrough() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> request.uri().equals("/stream")));
+        final HttpRequest start = new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/stream");
+        final HttpContent chunk = new DefaultHttpContent(Unpooled.copiedBuffer("foo", StandardCharsets.UTF_8));
+        final LastHttpContent last = new DefaultLastHttpContent(Unpooled.copiedBuffer("bar", StandardCharsets.UTF_8));
+        channel.writeInbound(start, chunk, last);
+
+        final Object readStart = channel.readInbound();
+        assertThat(readStart, sameInstance(start));
+        assertThat(readStart, not(instanceOf(FullHttpRequest.class)));
+        final HttpContent readChunk = channel.readInbound();
+        assertThat(readChunk, sameInstance(chunk));
+        final HttpContent readLast = channel.readInbound();
+        assertThat(readLast, sameInstance(last));
+        readChunk.release();
+        readLast.release();
+
+        // the next request starts aggregating again
+        writeRequest(channel, "/other", "baz");
+        final FullHttpRequest request = channel.readInbound();
+        try {
+            assertEquals("/other", request.uri());
+            assertEquals("baz", request.content().toString(StandardCharsets.UTF_8));
+        } finally {
+            request.release();
+        }
+        assertNull(channel.readInbound());
+    }
+
+    public void testAggregatesRequestsThatFailedToDecode() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> true));
+        final HttpRequest start = new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk");
+        final Exception cause = new ElasticsearchException("Boom");
+        start.setDecoderResult(DecoderResult.failure(cause));
+        channel.writeInbound(start);
+
+        final FullHttpRequest request = channel.readInbound();
+        try {
+            assertTrue(request.decoderResult().isFailure());
+            assertThat(request.decoderResult().cause(), sameInstance(cause));
+            assertEquals(0, request.content().readableBytes());
+        } finally {
+            request.release();
+        }
+        assertNull(channel.readInbound());
+    }
+
+    private static void writeRequest(EmbeddedChannel channel, String uri, String... chunks) {
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, uri));
+        for (int i = 0; i < chunks.length; i++) {
+            final var content = Unpooled.wrappedBuffer(chunks[i].getBytes(StandardCharsets.UTF_8));
+            channel.writeInbound(i == chunks.length - 1 ? new DefaultLastHttpContent(content) : new DefaultHttpContent(content));
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.elasticsearch.http.netty4;
 
 import io.netty.buffer.ByteBufHolder;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
@@ -18,10 +19,15 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.DecoderResult;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
@@ -34,6 +40,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.bytes.ZeroBytesReference;
 import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpResponse;
 import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestStatus;
@@ -52,6 +59,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -472,6 +480,111 @@ public class Netty4HttpPipeliningHandlerTests extends ESTestCase {
         assertThat(messagesSeen.get(1), instanceOf(DefaultHttpContent.class));
     }
 
+    public void testStreamedRequestHoldsReadsUntilLastContent() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(getTestHttpHandler());
+        embeddedChannel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = embeddedChannel.readInbound();
+        assertNotNull(request.contentStream());
+        assertFalse(embeddedChannel.config().isAutoRead());
+
+        final List<HttpContent> chunks = new ArrayList<>();
+        for (int i = 0; i < randomIntBetween(1, 5); i++) {
+            // the header validator turns auto-read back on whenever it passes on a message
+            embeddedChannel.config().setAutoRead(true);
+            final HttpContent chunk = new DefaultHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+            chunks.add(chunk);
+            embeddedChannel.writeInbound(chunk);
+            assertFalse(embeddedChannel.config().isAutoRead());
+        }
+        final HttpContent last = new DefaultLastHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+        chunks.add(last);
+        embeddedChannel.writeInbound(last);
+        assertTrue(embeddedChannel.config().isAutoRead());
+        assertNull("the body isn't passed on as separate messages", embeddedChannel.readInbound());
+
+        embeddedChannel.close().syncUninterruptibly();
+        for (HttpContent chunk : chunks) {
+            assertEquals(0, chunk.refCnt());
+        }
+    }
+
+    public void testResponseDiscardsRestOfStreamedBody() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(getTestHttpHandler());
+        embeddedChannel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = embeddedChannel.readInbound();
+        final HttpContent queued = new DefaultHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+        embeddedChannel.writeInbound(queued);
+        assertFalse(embeddedChannel.config().isAutoRead());
+
+        final ChannelPromise promise = embeddedChannel.newPromise();
+        embeddedChannel.writeAndFlush(request.createResponse(RestStatus.OK, BytesArray.EMPTY), promise);
+        assertTrue(promise.isDone());
+        assertEquals(0, queued.refCnt());
+        assertTrue(embeddedChannel.config().isAutoRead());
+
+        final HttpContent later = new DefaultHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+        embeddedChannel.writeInbound(later);
+        assertEquals(0, later.refCnt());
+        assertTrue(embeddedChannel.config().isAutoRead());
+        final HttpContent last = new DefaultLastHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+        embeddedChannel.writeInbound(last);
+        assertEquals(0, last.refCnt());
+
+        // the next request is handled as usual
+        embeddedChannel.writeInbound(createHttpRequest("/next"));
+        final Netty4HttpRequest next = embeddedChannel.readInbound();
+        assertEquals("/next", next.uri());
+        assertNull(next.contentStream());
+        assertTrue(embeddedChannel.config().isAutoRead());
+    }
+
+    public void testSends100ContinueForStreamedRequest() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(getTestHttpHandler());
+        final boolean expectContinue = randomBoolean();
+        final DefaultHttpRequest start = new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk");
+        if (expectContinue) {
+            start.headers().set(HttpHeaderNames.EXPECT, HttpHeaderValues.CONTINUE);
+        }
+        embeddedChannel.writeInbound(start);
+        assertNotNull(embeddedChannel.readInbound());
+
+        final FullHttpResponse continueResponse = embeddedChannel.readOutbound();
+        if (expectContinue) {
+            assertNotNull(continueResponse);
+            assertEquals(HttpResponseStatus.CONTINUE, continueResponse.status());
+            assertEquals(0, continueResponse.content().readableBytes());
+            continueResponse.release();
+        } else {
+            assertNull(continueResponse);
+        }
+        embeddedChannel.close().syncUninterruptibly();
+    }
+
+    public void testChannelCloseClosesStreamedBody() {
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(getTestHttpHandler());
+        embeddedChannel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = embeddedChannel.readInbound();
+        final AtomicInteger closes = new AtomicInteger();
+        request.contentStream().setHandler(new HttpContentStream.Handler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                chunk.close();
+                fail("no chunk was requested");
+            }
+
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        });
+        final HttpContent queued = new DefaultHttpContent(Unpooled.wrappedBuffer(randomByteArrayOfLength(between(1, 100))));
+        embeddedChannel.writeInbound(queued);
+
+        embeddedChannel.close().syncUninterruptibly();
+        assertEquals(1, closes.get());
+        assertEquals(0, queued.refCnt());
+    }
+
     // assert that a message of the given number of repeated chunks is found at the given index in the list and each chunk is equal to
     // the given BytesReference
     private static void assertChunkedMessageAtIndex(List<Object> messagesSeen, int index, int chunks, BytesReference chunkBytes) {
@@ -0,0 +1,195 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Netty4HttpRequestBodyStreamTests extends ESTestCase {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+        @Override
+        public void read(ChannelHandlerContext ctx) throws Exception {
+            reads.incrementAndGet();
+            super.read(ctx);
+        }
+    });
+    private final List<ReleasableBytesReference> chunks = new ArrayList<>();
+    private final List<Boolean> isLasts = new ArrayList<>();
+    private final AtomicInteger closes = new AtomicInteger();
+
+    public void testTurnsOffAutoReadUntilTheLastContentArrives() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        assertFalse(channel.config().isAutoRead());
+        assertTrue(stream.holdsReads());
+
+        stream.onContent(chunk("foo"));
+        assertFalse(channel.config().isAutoRead());
+        assertTrue(stream.holdsReads());
+
+        stream.onContent(lastChunk("bar"));
+        assertTrue(channel.config().isAutoRead());
+        assertFalse(stream.holdsReads());
+        stream.discard();
+    }
+
+    public void testDeliversOneChunkPerRequest() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        final HttpContent first = chunk("foo");
+        final HttpContent second = chunk("bar");
+        final HttpContent last = lastChunk("baz");
+        stream.onContent(first);
+        stream.onContent(second);
+        stream.onContent(last);
+        assertEquals(0, chunks.size());
+
+        for (int i = 1; i <= 3; i++) {
+            stream.next();
+            assertEquals("chunks are only delivered on the event loop", i - 1, chunks.size());
+            channel.runPendingTasks();
+            assertEquals(i, chunks.size());
+        }
+        assertEquals(List.of(new BytesArray("foo"), new BytesArray("bar"), new BytesArray("baz")), chunks);
+        assertEquals(List.of(false, false, true), isLasts);
+
+        chunks.forEach(ReleasableBytesReference::close);
+        assertEquals(0, first.refCnt());
+        assertEquals(0, second.refCnt());
+        assertEquals(0, last.refCnt());
+        assertEquals(0, closes.get());
+    }
+
+    public void testReadsOnlyWhenAChunkIsRequestedAndNoneIsQueued() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        reads.set(0);
+
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(1, reads.get());
+
+        stream.onContent(chunk("foo"));
+        assertEquals(1, chunks.size());
+        stream.onContent(chunk("bar"));
+        assertEquals("nobody asked for the second chunk", 1, chunks.size());
+
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(2, chunks.size());
+        assertEquals("the second chunk was already queued", 1, reads.get());
+
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(2, reads.get());
+
+        stream.onContent(lastChunk("baz"));
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(false, false, true), isLasts);
+        assertTrue(channel.config().isAutoRead());
+
+        // turning auto-read back on reads the next request, the stream itself doesn't read anymore
+        final int readsAfterLast = reads.get();
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(readsAfterLast, reads.get());
+        chunks.forEach(ReleasableBytesReference::close);
+    }
+
+    public void testDiscardReleasesQueuedAndLaterChunks() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        final HttpContent queued = chunk("foo");
+        stream.onContent(queued);
+
+        stream.discard();
+        assertEquals(0, queued.refCnt());
+        assertTrue(channel.config().isAutoRead());
+        assertFalse(stream.holdsReads());
+
+        final HttpContent later = chunk("bar");
+        stream.onContent(later);
+        assertEquals(0, later.refCnt());
+        final HttpContent last = lastChunk("baz");
+        stream.onContent(last);
+        assertEquals(0, last.refCnt());
+
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(0, chunks.size());
+        assertEquals(0, closes.get());
+    }
+
+    public void testCloseReleasesQueuedChunksAndClosesHandler() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        final HttpContent queued = chunk("foo");
+        stream.onContent(queued);
+
+        stream.close();
+        assertEquals(0, queued.refCnt());
+        assertEquals(1, closes.get());
+        assertFalse(stream.holdsReads());
+
+        stream.close();
+        assertEquals(1, closes.get());
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(0, chunks.size());
+    }
+
+    public void testCloseAfterLastChunkDoesNotCloseHandler() {
+        final Netty4HttpRequestBodyStream stream = newStream();
+        stream.onContent(lastChunk("foo"));
+        stream.next();
+        channel.runPendingTasks();
+        assertEquals(List.of(true), isLasts);
+
+        stream.close();
+        assertEquals(0, closes.get());
+        chunks.forEach(ReleasableBytesReference::close);
+    }
+
+    private Netty4HttpRequestBodyStream newStream() {
+        final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(channel);
+        stream.setHandler(new HttpContentStream.Handler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                chunks.add(chunk);
+                isLasts.add(isLast);
+            }
+
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        });
+        return stream;
+    }
+
+    private static HttpContent chunk(String content) {
+        return new DefaultHttpContent(Unpooled.copiedBuffer(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static HttpContent lastChunk(String content) {
+        return new DefaultLastHttpContent(Unpooled.copiedBuffer(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -8,10 +8,16 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.http.netty4.Netty4HttpServerTransport;
 import org.elasticsearch.test.ESTestCase;
 
+import static org.hamcrest.Matchers.instanceOf;
+
 public final class SharedGroupFactoryTests extends ESTestCase {
 
     public void testSharedEventLoops() throws Exception {
@@ -60,4 +66,37 @@ public final class SharedGroupFactoryTests extends ESTestCase {
             assertTrue(transportGroup.getLowLevelGroup().terminationFuture().isDone());
         }
     }
+
+    public void testNioByDefault() {
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(Settings.EMPTY);
+        assertSame(NettyIoTransport.NIO, sharedGroupFactory.getIoTransport());
+        SharedGroupFactory.SharedGroup transportGroup = sharedGroupFactory.getTransportGroup();
+        try {
+            assertThat(transportGroup.getLowLevelGroup(), instanceOf(NioEventLoopGroup.class));
+        } finally {
+            transportGroup.shutdown();
+        }
+    }
+
+    public void testEpollEventLoops() {
+        Settings settings = Settings.builder()
+            .put(NettyIoTransport.USE_EPOLL_SETTING.getKey(), true)
+            .put(Netty4HttpServerTransport.SETTING_HTTP_WORKER_COUNT.getKey(), randomIntBetween(0, 2))
+            .build();
+        SharedGroupFactory sharedGroupFactory = new SharedGroupFactory(settings);
+        boolean epollUsable = Epoll.isAvailable() && NettyAllocator.getAllocator() instanceof NettyAllocator.NoDirectBuffers == false;
+        NettyIoTransport expected = epollUsable ? NettyIoTransport.EPOLL : NettyIoTransport.NIO;
+        assertSame(expected, sharedGroupFactory.getIoTransport());
+
+        SharedGroupFactory.SharedGroup httpGroup = sharedGroupFactory.getHttpGroup();
+        SharedGroupFactory.SharedGroup transportGroup = sharedGroupFactory.getTransportGroup();
+        try {
+            Class<?> groupType = epollUsable ? EpollEventLoopGroup.class : NioEventLoopGroup.class;
+            assertThat(httpGroup.getLowLevelGroup(), instanceOf(groupType));
+            assertThat(transportGroup.getLowLevelGroup(), instanceOf(groupType));
+        } finally {
+            httpGroup.shutdown();
+            transportGroup.shutdown();
+        }
+    }
 }
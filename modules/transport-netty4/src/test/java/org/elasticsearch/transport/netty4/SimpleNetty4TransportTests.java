@@ -74,13 +74,13 @@ public class SimpleNetty4TransportTests extends AbstractSimpleTransportTestCase
                 DiscoveryNode node,
                 TcpChannel channel,
                 ConnectionProfile profile,
-                ActionListener<TransportVersion> listener
+                ActionListener<HandshakeResult> listener
             ) {
                 if (doHandshake) {
                     super.executeHandshake(node, channel, profile, listener);
                 } else {
                     assert getVersion().equals(TransportVersion.current());
-                    listener.onResponse(TransportVersions.MINIMUM_COMPATIBLE);
+                    listener.onResponse(new HandshakeResult(TransportVersions.MINIMUM_COMPATIBLE, null));
                 }
             }
         };
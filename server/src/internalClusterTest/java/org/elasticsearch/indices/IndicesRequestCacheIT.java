@@ -20,6 +20,7 @@ import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuil
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram.Bucket;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.hamcrest.ElasticsearchAssertions;
 
@@ -604,14 +605,57 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         }
     }
 
+    public void testCacheTopDocs() throws Exception {
+        Client client = client();
+        assertAcked(
+            indicesAdmin().prepareCreate("index")
+                .setMapping("k", "type=keyword", "n", "type=long")
+                .setSettings(indexSettings(1, 0).put(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING.getKey(), true))
+        );
+        indexRandom(
+            true,
+            false,
+            List.of(
+                client.prepareIndex("index").setId("1").setSource("k", "hello", "n", 1),
+                client.prepareIndex("index").setId("2").setSource("k", "hello", "n", 2),
+                client.prepareIndex("index").setId("3").setSource("k", "world", "n", 3)
+            )
+        );
+        // Force merge the index to ensure there can be no background merges during the subsequent searches that would invalidate the cache
+        ElasticsearchAssertions.assertAllSuccessful(indicesAdmin().prepareForceMerge("index").setFlush(true).get());
+        refresh();
+
+        for (int i = 0; i < 3; i++) {
+            assertNoFailuresAndResponse(
+                client.prepareSearch("index").setSize(1).addSort("n", SortOrder.DESC).setQuery(QueryBuilders.termQuery("k", "hello")),
+                response -> {
+                    assertThat(response.getHits().getTotalHits().value, equalTo(2L));
+                    assertThat(response.getHits().getHits()[0].getId(), equalTo("2"));
+                    assertThat(response.getHits().getHits()[0].getSortValues()[0], equalTo(2L));
+                }
+            );
+            RequestCacheStats stats = requestCacheStats(client, "index");
+            assertEquals(List.of((long) i, 1L), List.of(stats.getTopDocsHitCount(), stats.getTopDocsMissCount()));
+            assertThat(stats.getTopDocsMemorySizeInBytes(), greaterThan(0L));
+            // the shared cache isn't used
+            assertEquals(List.of(0L, 0L, 0L), List.of(stats.getHitCount(), stats.getMissCount(), stats.getMemorySizeInBytes()));
+        }
+
+        // a refresh with new documents invalidates the cached top docs
+        indexRandom(true, false, List.of(client.prepareIndex("index").setId("4").setSource("k", "hello", "n", 4)));
+        assertNoFailuresAndResponse(
+            client.prepareSearch("index").setSize(1).addSort("n", SortOrder.DESC).setQuery(QueryBuilders.termQuery("k", "hello")),
+            response -> assertThat(response.getHits().getHits()[0].getId(), equalTo("4"))
+        );
+        assertEquals(2L, requestCacheStats(client, "index").getTopDocsMissCount());
+    }
+
+    private static RequestCacheStats requestCacheStats(Client client, String index) {
+        return client.admin().indices().prepareStats(index).setRequestCache(true).get().getTotal().getRequestCache();
+    }
+
     private static void assertCacheState(Client client, String index, long expectedHits, long expectedMisses) {
-        RequestCacheStats requestCacheStats = client.admin()
-            .indices()
-            .prepareStats(index)
-            .setRequestCache(true)
-            .get()
-            .getTotal()
-            .getRequestCache();
+        RequestCacheStats requestCacheStats = requestCacheStats(client, index);
         // Check the hit count and miss count together so if they are not
         // correct we can see both values
         assertEquals(
@@ -31,6 +31,7 @@ module org.elasticsearch.server {
     requires org.elasticsearch.plugin.analysis;
     requires org.elasticsearch.grok;
     requires org.elasticsearch.tdigest;
+    requires org.elasticsearch.vec;
 
     requires com.sun.jna;
     requires hppc;
@@ -38,6 +39,7 @@ module org.elasticsearch.server {
     requires jopt.simple;
     requires log4j2.ecs.layout;
     requires org.lz4.java;
+    requires com.github.luben.zstd_jni;
 
     requires org.apache.logging.log4j;
     requires org.apache.logging.log4j.core;
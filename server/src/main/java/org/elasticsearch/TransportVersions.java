@@ -130,6 +130,13 @@ public class TransportVersions {
     public static final TransportVersion FIELD_CAPS_FIELD_HAS_VALUE = def(8_590_00_0);
     public static final TransportVersion ML_INFERENCE_REQUEST_INPUT_TYPE_CLASS_CLUSTER_ADDED = def(8_591_00_0);
     public static final TransportVersion ML_DIMENSIONS_SET_BY_USER_ADDED = def(8_592_00_0);
+    public static final TransportVersion INGEST_PROCESSOR_CACHE_STATS = def(8_593_00_0);
+    public static final TransportVersion ZSTD_COMPRESSION = def(8_594_00_0);
+    public static final TransportVersion TRANSPORT_ACTION_BYTES_COPIED = def(8_595_00_0);
+    public static final TransportVersion TOP_DOCS_REQUEST_CACHE_STATS = def(8_596_00_0);
+    public static final TransportVersion KNN_OVERSAMPLE_ADDED = def(8_597_00_0);
+    public static final TransportVersion NODE_STATS_MERGE_BUDGET = def(8_598_00_0);
+    public static final TransportVersion FS_IO_STATS_READ_WRITE_TIME = def(8_599_00_0);
 
     /*
      * STOP! READ THIS FIRST! No, really,
@@ -15,13 +15,22 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.replication.ReplicatedWriteRequest;
 import org.elasticsearch.action.support.replication.ReplicationRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.FilterStreamInput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.transport.RawIndexingDataTransportRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public final class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest>
@@ -33,14 +42,41 @@ public final class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequ
 
     private final BulkItemRequest[] items;
 
+    /**
+     * Releases the document sources that were read as retained slices of the network buffer, {@code null} if they were copied.
+     */
+    @Nullable
+    private final RefCounted refCounted;
+
     public BulkShardRequest(StreamInput in) throws IOException {
         super(in);
-        items = in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
+        if (in.supportReadAllToReleasableBytesReference()) {
+            // the items hold on to slices of the network buffer rather than copies of their sources until this request is released
+            final RetainingStreamInput retainingIn = new RetainingStreamInput(in);
+            boolean success = false;
+            try {
+                items = readItems(retainingIn, shardId);
+                success = true;
+            } finally {
+                if (success == false) {
+                    Releasables.close(retainingIn.retained);
+                }
+            }
+            refCounted = AbstractRefCounted.of(() -> Releasables.close(retainingIn.retained));
+        } else {
+            items = readItems(in, shardId);
+            refCounted = null;
+        }
+    }
+
+    private static BulkItemRequest[] readItems(StreamInput in, ShardId shardId) throws IOException {
+        return in.readArray(i -> i.readOptionalWriteable(inpt -> new BulkItemRequest(shardId, inpt)), BulkItemRequest[]::new);
     }
 
     public BulkShardRequest(ShardId shardId, RefreshPolicy refreshPolicy, BulkItemRequest[] items) {
         super(shardId);
         this.items = items;
+        this.refCounted = null;
         setRefreshPolicy(refreshPolicy);
     }
 
@@ -154,4 +190,45 @@ public final class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequ
         }
         return sum;
     }
+
+    @Override
+    public void incRef() {
+        if (refCounted != null) {
+            refCounted.incRef();
+        }
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted == null || refCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return refCounted != null && refCounted.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return refCounted == null || refCounted.hasReferences();
+    }
+
+    /**
+     * Reads bytes references, such as the sources of index requests, as retained slices of the underlying buffer.
+     */
+    private static final class RetainingStreamInput extends FilterStreamInput {
+
+        private final List<ReleasableBytesReference> retained = new ArrayList<>();
+
+        RetainingStreamInput(StreamInput delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public BytesReference readBytesReference() throws IOException {
+            final ReleasableBytesReference bytes = delegate.readReleasableBytesReference();
+            retained.add(bytes);
+            return bytes;
+        }
+    }
 }
@@ -48,6 +48,8 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import static org.elasticsearch.action.get.TransportGetAction.getCurrentNodeOfPrimary;
@@ -148,6 +150,9 @@ public class TransportShardMultiGetAction extends TransportSingleShardAction<Mul
     protected MultiGetShardResponse shardOperation(MultiGetShardRequest request, ShardId shardId) {
         MultiGetShardResponse response = new MultiGetShardResponse();
         getIndexShard(shardId).mget(mget -> {
+            if (request.realtime()) {
+                prepareRealtimeGets(shardId, mget, request);
+            }
             for (int i = 0; i < request.locations.size(); i++) {
                 getAndAddToResponse(shardId, mget, i, request, response);
             }
@@ -155,6 +160,22 @@ public class TransportShardMultiGetAction extends TransportSingleShardAction<Mul
         return response;
     }
 
+    private void prepareRealtimeGets(ShardId shardId, MultiEngineGet mget, MultiGetShardRequest request) {
+        final List<String> ids = new ArrayList<>(request.items.size());
+        for (MultiGetRequest.Item item : request.items) {
+            ids.add(item.id());
+        }
+        try {
+            mget.prepareRealtimeGets(ids);
+        } catch (RuntimeException e) {
+            if (TransportActions.isShardNotAvailableException(e)) {
+                throw e;
+            }
+            // each get reports its own failure if the problem persists
+            logger.debug(() -> format("%s failed to prepare realtime multi_get of [%d] items", shardId, ids.size()), e);
+        }
+    }
+
     @Override
     protected Executor getExecutor(MultiGetShardRequest request, ShardId shardId) {
         final ClusterState clusterState = clusterService.state();
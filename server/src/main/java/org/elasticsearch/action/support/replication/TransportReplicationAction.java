@@ -337,7 +337,12 @@ public abstract class TransportReplicationAction<
 
     private void handleOperationRequest(final Request request, final TransportChannel channel, Task task) {
         Releasable releasable = checkOperationLimits(request);
-        ActionListener<Response> listener = ActionListener.runBefore(new ChannelActionListener<>(channel), releasable::close);
+        // requests may hold on to the network buffer they were read from, keep it until the operation completes
+        request.mustIncRef();
+        ActionListener<Response> listener = ActionListener.runBefore(
+            new ChannelActionListener<>(channel),
+            () -> Releasables.close(releasable, request::decRef)
+        );
         runReroutePhase(task, request, listener, false);
     }
 
@@ -351,7 +356,11 @@ public abstract class TransportReplicationAction<
             request.sentFromLocalReroute(),
             request.localRerouteInitiatedByNodeClient()
         );
-        ActionListener<Response> listener = ActionListener.runBefore(new ChannelActionListener<>(channel), releasable::close);
+        request.mustIncRef();
+        ActionListener<Response> listener = ActionListener.runBefore(
+            new ChannelActionListener<>(channel),
+            () -> Releasables.close(releasable, request::decRef)
+        );
 
         try {
             new AsyncPrimaryAction(request, listener, (ReplicationTask) task).run();
@@ -592,7 +601,11 @@ public abstract class TransportReplicationAction<
         final Task task
     ) {
         Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
-        ActionListener<ReplicaResponse> listener = ActionListener.runBefore(new ChannelActionListener<>(channel), releasable::close);
+        replicaRequest.mustIncRef();
+        ActionListener<ReplicaResponse> listener = ActionListener.runBefore(
+            new ChannelActionListener<>(channel),
+            () -> Releasables.close(releasable, replicaRequest::decRef)
+        );
 
         try {
             new AsyncReplicaAction(replicaRequest, listener, (ReplicationTask) task).run();
@@ -1406,6 +1419,26 @@ public abstract class TransportReplicationAction<
             return primaryTerm;
         }
 
+        @Override
+        public void incRef() {
+            request.incRef();
+        }
+
+        @Override
+        public boolean tryIncRef() {
+            return request.tryIncRef();
+        }
+
+        @Override
+        public boolean decRef() {
+            return request.decRef();
+        }
+
+        @Override
+        public boolean hasReferences() {
+            return request.hasReferences();
+        }
+
         @Override
         public boolean isRawIndexingData() {
             if (request instanceof RawIndexingDataTransportRequest) {
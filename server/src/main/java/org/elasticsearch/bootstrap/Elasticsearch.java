@@ -19,6 +19,7 @@ import org.elasticsearch.Build;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.support.SubscribableListener;
 import org.elasticsearch.common.ReferenceDocs;
+import org.elasticsearch.common.compress.ZstdCompressor;
 import org.elasticsearch.common.filesystem.FileSystemNatives;
 import org.elasticsearch.common.io.stream.InputStreamStreamInput;
 import org.elasticsearch.common.logging.LogConfigurator;
@@ -192,9 +193,14 @@ class Elasticsearch {
             SubscribableListener.class,
             RunOnce.class,
             // We eagerly initialize to work around log4j permissions & JDK-8309727
-            VectorUtil.class
+            VectorUtil.class,
+            // Loads the native zstd library which extracts it to a temporary file first, zstd-jni has no permissions to do it later
+            ZstdCompressor.class
         );
 
+        // the policy files refer to this directory so it must exist before they are read
+        org.elasticsearch.bootstrap.Security.createNativeLibrariesDirectory(nodeEnv.tmpFile());
+
         // install SM after natives, shutdown hooks, etc.
         org.elasticsearch.bootstrap.Security.configure(
             nodeEnv,
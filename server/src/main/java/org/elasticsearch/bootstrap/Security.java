@@ -102,6 +102,9 @@ final class Security {
         prepopulateSecurityCaller();
     }
 
+    /** the property with the directory that {@link #createNativeLibrariesDirectory} creates */
+    static final String NATIVE_LIBRARIES_DIR_PROPERTY = "es.native_libraries.dir";
+
     /** no instantiation */
     private Security() {}
 
@@ -337,6 +340,17 @@ final class Security {
         }
     }
 
+    /**
+     * Creates a directory in the temp directory that only this process uses, for modules to extract their native libraries to before
+     * loading them, and exposes it to the policy files as {@code ${es.native_libraries.dir}}. Extracting to a fixed name in the temp
+     * directory itself would race with other nodes sharing it, and a random name cannot be granted to load.
+     */
+    @SuppressForbidden(reason = "sets the property that the policy files refer to")
+    static void createNativeLibrariesDirectory(Path tmpFile) throws IOException {
+        final Path directory = Files.createTempDirectory(tmpFile, "native-libraries-");
+        System.setProperty(NATIVE_LIBRARIES_DIR_PROPERTY, directory.toString());
+    }
+
     /** Simple checks that everything is ok */
     @SuppressForbidden(reason = "accesses jvm default tempdir as a self-test")
     static void selfTest() throws IOException {
@@ -230,14 +230,15 @@ public class PublicationTransportHandler {
         }
     }
 
-    private ReleasableBytesReference serializeFullClusterState(ClusterState clusterState, DiscoveryNode node, TransportVersion version) {
+    private ReleasableBytesReference serializeFullClusterState(ClusterState clusterState, DiscoveryNode node, SerializationKey key) {
+        final TransportVersion version = key.version();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
         try {
             final long uncompressedBytes;
             try (
                 StreamOutput stream = new PositionTrackingOutputStreamStreamOutput(
-                    CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(bytesStream))
+                    key.compressor().threadLocalOutputStream(Streams.flushOnCloseStream(bytesStream))
                 )
             ) {
                 stream.setTransportVersion(version);
@@ -268,8 +269,9 @@ public class PublicationTransportHandler {
         ClusterState newState,
         Diff<ClusterState> diff,
         DiscoveryNode node,
-        TransportVersion version
+        SerializationKey key
     ) {
+        final TransportVersion version = key.version();
         final long clusterStateVersion = newState.version();
         final RecyclerBytesStreamOutput bytesStream = transportService.newNetworkBytesStream();
         boolean success = false;
@@ -277,7 +279,7 @@ public class PublicationTransportHandler {
             final long uncompressedBytes;
             try (
                 StreamOutput stream = new PositionTrackingOutputStreamStreamOutput(
-                    CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.flushOnCloseStream(bytesStream))
+                    key.compressor().threadLocalOutputStream(Streams.flushOnCloseStream(bytesStream))
                 )
             ) {
                 stream.setTransportVersion(version);
@@ -308,6 +310,19 @@ public class PublicationTransportHandler {
         }
     }
 
+    /**
+     * The serializations of a cluster state (or diff) that can be shared between nodes: those with the same transport version and
+     * that can decompress the same compression.
+     */
+    private record SerializationKey(TransportVersion version, Compressor compressor) {
+        static SerializationKey of(Transport.Connection connection) {
+            return new SerializationKey(
+                connection.getTransportVersion(),
+                CompressorFactory.compressorFor(connection.getZstdDictionaryId() != null)
+            );
+        }
+    }
+
     /**
      * Publishing a cluster state typically involves sending the same cluster state (or diff) to every node, so the work of diffing,
      * serializing, and compressing the state can be done once and the results shared across publish requests. The
@@ -325,8 +340,8 @@ public class PublicationTransportHandler {
 
         private final Map<DiscoveryNode, Transport.Connection> nodeConnections = new HashMap<>();
         // All the values of these maps have one ref for the context (while it's open) and one for each in-flight message.
-        private final Map<TransportVersion, ReleasableBytesReference> serializedStates = new ConcurrentHashMap<>();
-        private final Map<TransportVersion, ReleasableBytesReference> serializedDiffs = new HashMap<>();
+        private final Map<SerializationKey, ReleasableBytesReference> serializedStates = new ConcurrentHashMap<>();
+        private final Map<SerializationKey, ReleasableBytesReference> serializedDiffs = new HashMap<>();
 
         PublicationContext(ClusterStatePublicationEvent clusterStatePublicationEvent) {
             discoveryNodes = clusterStatePublicationEvent.getNewState().nodes();
@@ -358,11 +373,11 @@ public class PublicationTransportHandler {
 
                 nodeConnections.put(node, connection);
                 if (sendFullVersion || previousState.nodes().nodeExists(node) == false) {
-                    serializedStates.computeIfAbsent(connection.getTransportVersion(), v -> serializeFullClusterState(newState, node, v));
+                    serializedStates.computeIfAbsent(SerializationKey.of(connection), k -> serializeFullClusterState(newState, node, k));
                 } else {
                     serializedDiffs.computeIfAbsent(
-                        connection.getTransportVersion(),
-                        v -> serializeDiffClusterState(newState, diffSupplier.getOrCompute(), node, v)
+                        SerializationKey.of(connection),
+                        k -> serializeDiffClusterState(newState, diffSupplier.getOrCompute(), node, k)
                     );
                 }
             }
@@ -432,11 +447,11 @@ public class PublicationTransportHandler {
                 return;
             }
 
-            var version = connection.getTransportVersion();
-            ReleasableBytesReference bytes = serializedStates.get(version);
+            var key = SerializationKey.of(connection);
+            ReleasableBytesReference bytes = serializedStates.get(key);
             if (bytes == null) {
                 try {
-                    bytes = serializedStates.computeIfAbsent(version, v -> serializeFullClusterState(newState, destination, v));
+                    bytes = serializedStates.computeIfAbsent(key, k -> serializeFullClusterState(newState, destination, k));
                 } catch (Exception e) {
                     logger.warn(() -> format("failed to serialize cluster state before publishing it to node %s", destination), e);
                     listener.onFailure(e);
@@ -454,7 +469,7 @@ public class PublicationTransportHandler {
                 return;
             }
 
-            final ReleasableBytesReference bytes = serializedDiffs.get(connection.getTransportVersion());
+            final ReleasableBytesReference bytes = serializedDiffs.get(SerializationKey.of(connection));
             assert bytes != null
                 : "failed to find serialized diff for node " + destination + " of version [" + connection.getTransportVersion() + "]";
 
@@ -12,6 +12,7 @@ import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.Tuple;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -52,6 +53,11 @@ import java.util.function.ToLongBiFunction;
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
+ * <p>
+ * Caches built with {@link EvictionPolicy#TINY_LFU} avoid taking the LRU lock on reads. Reads are recorded in striped,
+ * lossy ring buffers and applied by whichever thread next holds the LRU lock; readers only ever try to take it. Those
+ * caches also keep new entries in a small admission window and only let them replace an entry in the main LRU list if
+ * a frequency sketch says they've been used more often than the entry they'd replace.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -91,6 +97,18 @@ public class Cache<K, V> {
     // the removal callback
     private RemovalListener<K, V> removalListener = notification -> {};
 
+    // how entries are picked for eviction
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    // buffered reads, only used by TINY_LFU
+    private ReadBuffer<Entry<K, V>> readBuffer;
+
+    // access frequencies, only used by TINY_LFU
+    private FrequencySketch sketch;
+
+    // the weight of the entries in the admission window, only used by TINY_LFU
+    private long windowWeight = 0;
+
     // use CacheBuilder to construct
     Cache() {}
 
@@ -137,6 +155,42 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        this.evictionPolicy = evictionPolicy;
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            this.readBuffer = ReadBuffer.forAvailableProcessors();
+            this.sketch = new FrequencySketch();
+        } else {
+            this.readBuffer = null;
+            this.sketch = null;
+        }
+    }
+
+    // pkg-private for testing
+    EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * How a cache picks the entries to evict when it exceeds its maximum weight.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evict the least recently used entries. Every read moves the entry to the head of the LRU list while holding
+         * the LRU lock. This is the default.
+         */
+        LRU,
+        /**
+         * A W-TinyLFU style policy. New entries enter an LRU admission window that holds about one percent of the maximum
+         * weight. Entries pushed out of the window only stay in the cache if they've been used more often than the least
+         * recently used entry of the main LRU list, which is evicted in their place. Reads are buffered rather than
+         * applied under the LRU lock so concurrent readers don't contend on it. Time based expiration works the same
+         * as with {@link #LRU}.
+         */
+        TINY_LFU
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -163,6 +217,8 @@ public class Cache<K, V> {
         Entry<K, V> before;
         Entry<K, V> after;
         State state = State.NEW;
+        // true if the entry is in the admission window rather than the main LRU list
+        boolean inWindow;
 
         Entry(K key, V value, long writeTime) {
             this.key = key;
@@ -332,6 +388,10 @@ public class Cache<K, V> {
     Entry<K, V> head;
     Entry<K, V> tail;
 
+    // the admission window used by TINY_LFU, null otherwise
+    Entry<K, V> windowHead;
+    Entry<K, V> windowTail;
+
     // lock protecting mutations to the LRU list
     private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
@@ -351,11 +411,29 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            if (readBuffer == null) {
+                promote(entry, now);
+            } else {
+                afterRead(entry, now);
+            }
             return entry.value;
         }
     }
 
+    /**
+     * Record a read in the {@link #readBuffer} and, if it is filling up, apply the buffered reads unless another thread
+     * holds the LRU lock. Readers never wait for the LRU lock.
+     */
+    private void afterRead(Entry<K, V> entry, long now) {
+        if (readBuffer.record(entry)) {
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    evict(now);
+                }
+            }
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -519,26 +597,33 @@ public class Cache<K, V> {
      */
     public void invalidateAll() {
         Entry<K, V> h;
+        Entry<K, V> w;
 
         boolean[] haveSegmentLock = new boolean[NUMBER_OF_SEGMENTS];
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             try {
                 for (int i = 0; i < NUMBER_OF_SEGMENTS; i++) {
                     segments[i].segmentLock.writeLock().lock();
                     haveSegmentLock[i] = true;
                 }
                 h = head;
+                w = windowHead;
                 for (CacheSegment segment : segments) {
                     segment.map = null;
                 }
-                Entry<K, V> current = head;
-                while (current != null) {
-                    current.state = State.DELETED;
-                    current = current.after;
+                for (Entry<K, V> first : Arrays.asList(head, windowHead)) {
+                    Entry<K, V> current = first;
+                    while (current != null) {
+                        current.state = State.DELETED;
+                        current = current.after;
+                    }
                 }
                 head = tail = null;
+                windowHead = windowTail = null;
                 count = 0;
                 weight = 0;
+                windowWeight = 0;
             } finally {
                 for (int i = NUMBER_OF_SEGMENTS - 1; i >= 0; i--) {
                     if (haveSegmentLock[i]) {
@@ -551,6 +636,10 @@ public class Cache<K, V> {
             removalListener.onRemoval(new RemovalNotification<>(h.key, h.value, RemovalNotification.RemovalReason.INVALIDATED));
             h = h.after;
         }
+        while (w != null) {
+            removalListener.onRemoval(new RemovalNotification<>(w.key, w.value, RemovalNotification.RemovalReason.INVALIDATED));
+            w = w.after;
+        }
     }
 
     /**
@@ -590,7 +679,7 @@ public class Cache<K, V> {
      */
     public Iterable<K> keys() {
         return () -> new Iterator<K>() {
-            private final CacheIterator iterator = new CacheIterator(head);
+            private final CacheIterator iterator = new CacheIterator(windowHead, head);
 
             @Override
             public boolean hasNext() {
@@ -618,7 +707,7 @@ public class Cache<K, V> {
      */
     public Iterable<V> values() {
         return () -> new Iterator<V>() {
-            private final CacheIterator iterator = new CacheIterator(head);
+            private final CacheIterator iterator = new CacheIterator(windowHead, head);
 
             @Override
             public boolean hasNext() {
@@ -668,10 +757,16 @@ public class Cache<K, V> {
     private class CacheIterator implements Iterator<Entry<K, V>> {
         private Entry<K, V> current;
         private Entry<K, V> next;
+        private Entry<K, V> nextList;
 
-        CacheIterator(Entry<K, V> head) {
+        CacheIterator(Entry<K, V> windowHead, Entry<K, V> head) {
             current = null;
-            next = head;
+            if (windowHead == null) {
+                next = head;
+            } else {
+                next = windowHead;
+                nextList = head;
+            }
         }
 
         @Override
@@ -683,6 +778,10 @@ public class Cache<K, V> {
         public Entry<K, V> next() {
             current = next;
             next = next.after;
+            if (next == null) {
+                next = nextList;
+                nextList = null;
+            }
             return current;
         }
 
@@ -735,27 +834,99 @@ public class Cache<K, V> {
     }
 
     private void promote(Entry<K, V> entry, long now) {
-        boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
-            switch (entry.state) {
-                case DELETED -> promoted = false;
-                case EXISTING -> relinkAtHead(entry);
-                case NEW -> linkAtHead(entry);
-            }
-            if (promoted) {
+            drainReadBuffer();
+            if (touch(entry)) {
                 evict(now);
             }
         }
     }
 
+    /**
+     * Move an entry to the head of its LRU list, linking it if it is new.
+     *
+     * @return false if the entry has already been deleted
+     */
+    private boolean touch(Entry<K, V> entry) {
+        assert lruLock.isHeldByCurrentThread();
+
+        boolean touched = true;
+        switch (entry.state) {
+            case DELETED -> touched = false;
+            case EXISTING -> relinkAtHead(entry);
+            case NEW -> linkAtHead(entry, evictionPolicy == EvictionPolicy.TINY_LFU);
+        }
+        if (touched && sketch != null) {
+            sketch.ensureCapacity(count);
+            sketch.increment(entry.key.hashCode());
+        }
+        return touched;
+    }
+
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (readBuffer != null) {
+            readBuffer.drainTo(this::touch);
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            drainReadBuffer();
+            evictTinyLfu(now);
+            return;
+        }
         while (tail != null && shouldPrune(tail, now)) {
             evictEntry(tail);
         }
     }
 
+    private void evictTinyLfu(long now) {
+        assert lruLock.isHeldByCurrentThread();
+
+        while (windowTail != null && isExpired(windowTail, now)) {
+            evictEntry(windowTail);
+        }
+        while (tail != null && isExpired(tail, now)) {
+            evictEntry(tail);
+        }
+        if (maximumWeight == -1) {
+            return;
+        }
+        long maximumWindowWeight = Math.max(1, maximumWeight / 100);
+        while (windowTail != null && windowWeight > maximumWindowWeight) {
+            Entry<K, V> candidate = windowTail;
+            unlink(candidate);
+            linkAtHead(candidate, false);
+            admit(candidate);
+        }
+        while (exceedsWeight()) {
+            evictEntry(tail != null ? tail : windowTail);
+        }
+    }
+
+    /**
+     * Make room for a candidate that was just moved from the admission window to the head of the main LRU list. While
+     * the cache is too heavy, the least recently used entry of the main list is evicted if the candidate has been used
+     * more often. Otherwise the candidate is evicted.
+     */
+    private void admit(Entry<K, V> candidate) {
+        assert lruLock.isHeldByCurrentThread();
+
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        while (exceedsWeight()) {
+            Entry<K, V> victim = tail;
+            if (victim == candidate || candidateFrequency <= sketch.frequency(victim.key.hashCode())) {
+                evictEntry(candidate);
+                return;
+            }
+            evictEntry(victim);
+        }
+    }
+
     private void evictEntry(Entry<K, V> entry) {
         assert lruLock.isHeldByCurrentThread();
 
@@ -796,10 +967,15 @@ public class Cache<K, V> {
 
             if (before == null) {
                 // removing the head
-                assert head == entry;
-                head = after;
-                if (head != null) {
-                    head.before = null;
+                if (entry.inWindow) {
+                    assert windowHead == entry;
+                    windowHead = after;
+                } else {
+                    assert head == entry;
+                    head = after;
+                }
+                if (after != null) {
+                    after.before = null;
                 }
             } else {
                 // removing inner element
@@ -809,10 +985,15 @@ public class Cache<K, V> {
 
             if (after == null) {
                 // removing tail
-                assert tail == entry;
-                tail = before;
-                if (tail != null) {
-                    tail.after = null;
+                if (entry.inWindow) {
+                    assert windowTail == entry;
+                    windowTail = before;
+                } else {
+                    assert tail == entry;
+                    tail = before;
+                }
+                if (before != null) {
+                    before.after = null;
                 }
             } else {
                 // removing inner element
@@ -821,7 +1002,11 @@ public class Cache<K, V> {
             }
 
             count--;
-            weight -= weigher.applyAsLong(entry.key, entry.value);
+            long entryWeight = weigher.applyAsLong(entry.key, entry.value);
+            weight -= entryWeight;
+            if (entry.inWindow) {
+                windowWeight -= entryWeight;
+            }
             entry.state = State.DELETED;
             return true;
         } else {
@@ -829,30 +1014,44 @@ public class Cache<K, V> {
         }
     }
 
-    private void linkAtHead(Entry<K, V> entry) {
+    private void linkAtHead(Entry<K, V> entry, boolean window) {
         assert lruLock.isHeldByCurrentThread();
 
-        Entry<K, V> h = head;
+        Entry<K, V> h = window ? windowHead : head;
         entry.before = null;
-        entry.after = head;
-        head = entry;
+        entry.after = h;
+        if (window) {
+            windowHead = entry;
+        } else {
+            head = entry;
+        }
         if (h == null) {
-            tail = entry;
+            if (window) {
+                windowTail = entry;
+            } else {
+                tail = entry;
+            }
         } else {
             h.before = entry;
         }
 
         count++;
-        weight += weigher.applyAsLong(entry.key, entry.value);
+        long entryWeight = weigher.applyAsLong(entry.key, entry.value);
+        weight += entryWeight;
+        if (window) {
+            windowWeight += entryWeight;
+        }
+        entry.inWindow = window;
         entry.state = State.EXISTING;
     }
 
     private void relinkAtHead(Entry<K, V> entry) {
         assert lruLock.isHeldByCurrentThread();
 
-        if (head != entry) {
+        if (head != entry && windowHead != entry) {
+            boolean window = entry.inWindow;
             unlink(entry);
-            linkAtHead(entry);
+            linkAtHead(entry, window);
         }
     }
 
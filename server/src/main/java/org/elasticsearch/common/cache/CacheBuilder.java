@@ -19,6 +19,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private Cache.EvictionPolicy evictionPolicy;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -78,6 +79,16 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets how the cache picks the entries to evict once it exceeds its maximum weight. Defaults to
+     * {@link Cache.EvictionPolicy#LRU}.
+     */
+    public CacheBuilder<K, V> setEvictionPolicy(Cache.EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -95,6 +106,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (evictionPolicy != null) {
+            cache.setEvictionPolicy(evictionPolicy);
+        }
         return cache;
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.apache.lucene.util.hppc.BitMixer;
+
+/**
+ * An approximate count of how often each key has been used recently, backing the admission decisions of
+ * {@link Cache.EvictionPolicy#TINY_LFU}.
+ * <p>
+ * This is a count-min sketch with four 4-bit counters per key, packed sixteen to a {@code long}. The estimate for a key
+ * is the smallest of its four counters, so it can overestimate but never underestimate. Once the number of increments
+ * reaches ten times the number of {@code long}s in the table every counter is halved so the estimates favor recent
+ * history over old history.
+ * <p>
+ * This class is not thread safe; {@link Cache} only uses it while holding its LRU lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch() {
+        table = new long[MIN_TABLE_SIZE];
+        tableMask = MIN_TABLE_SIZE - 1;
+        sampleSize = 10 * MIN_TABLE_SIZE;
+    }
+
+    /**
+     * Grow the sketch so it can track about {@code expectedKeys} keys. Each key's counters live at an index made from the
+     * low bits of its hashes so every slot in the bigger table starts as a copy of the slot it used to map to. That keeps
+     * every estimate, including its error, which shrinks as new increments spread out over the bigger table.
+     */
+    void ensureCapacity(long expectedKeys) {
+        if (table.length >= expectedKeys || table.length == MAX_TABLE_SIZE) {
+            return;
+        }
+        int wanted = (int) Math.min(expectedKeys, MAX_TABLE_SIZE);
+        int length = Integer.highestOneBit(wanted - 1) << 1;
+        long[] grown = new long[length];
+        for (int i = 0; i < length; i++) {
+            grown[i] = table[i & tableMask];
+        }
+        table = grown;
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+    }
+
+    /**
+     * The estimated number of times the key with this {@code hashCode} was {@link #increment incremented}, at most {@code 15}.
+     */
+    int frequency(int hashCode) {
+        int hash = BitMixer.mix(hashCode);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record a use of the key with this {@code hashCode}.
+     */
+    void increment(int hashCode) {
+        int hash = BitMixer.mix(hashCode);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    /**
+     * Halve every counter. Counters that were odd lose their low bit which we account for in {@link #size}.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.apache.lucene.util.hppc.BitMixer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy buffer of reads from a {@link Cache} waiting to be applied to its LRU lists. Reads are recorded into one of
+ * several ring buffers, picked by the reading thread, so concurrent readers rarely touch the same memory. If the ring
+ * buffer is full, or another thread is racing to record into the same slot, the read is dropped. That's fine because
+ * reads only reorder entries and feed the frequency sketch, both of which are approximations anyway.
+ * <p>
+ * Any number of threads may {@link #record} reads but only one thread at a time may {@link #drainTo drain} them.
+ * {@link Cache} drains while holding its LRU lock.
+ */
+final class ReadBuffer<E> {
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private final Stripe<E>[] stripes;
+    private final int stripesMask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("stripeCount must be a power of two but was [" + stripeCount + "]");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        stripesMask = stripeCount - 1;
+    }
+
+    /**
+     * A {@link ReadBuffer} with about as many stripes as there are processors.
+     */
+    static <E> ReadBuffer<E> forAvailableProcessors() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        return new ReadBuffer<>(Integer.highestOneBit(Math.max(processors - 1, 1)) << 1);
+    }
+
+    /**
+     * Record a read, possibly dropping it.
+     *
+     * @return {@code true} if the buffer is filling up and should be drained soon
+     */
+    boolean record(E e) {
+        return stripes[BitMixer.mix(System.identityHashCode(Thread.currentThread())) & stripesMask].record(e);
+    }
+
+    /**
+     * Pass every recorded read to {@code consumer}, in the order they were recorded within each stripe.
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static final class Stripe<E> {
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        // only written by the draining thread
+        private volatile long readCounter;
+
+        boolean record(E e) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long size = tail - head;
+            if (size >= STRIPE_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & STRIPE_MASK), e);
+                return size + 1 >= STRIPE_SIZE / 2;
+            }
+            return false;
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & STRIPE_MASK);
+                E e = buffer.get(index);
+                if (e == null) {
+                    // the writer claimed this slot but hasn't filled it yet, pick it up next time
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(e);
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.elasticsearch.common.compress;
 
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.Booleans;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xcontent.XContentType;
 
@@ -20,6 +21,40 @@ public class CompressorFactory {
 
     public static final Compressor COMPRESSOR = new DeflateCompressor();
 
+    /**
+     * Whether {@link #compressorFor} returns zstd for peers that support it, it is opt-in as it depends on a native library.
+     */
+    private static final boolean USE_ZSTD = Booleans.parseBoolean(System.getProperty("es.compression.zstd", "false"));
+
+    // holder so that the native library is only loaded once zstd is used
+    private static final class ZstdHolder {
+        private static final ZstdCompressor COMPRESSOR = new ZstdCompressor();
+    }
+
+    /**
+     * The zstd compressor, without dictionary.
+     *
+     * @throws IllegalStateException if zstd is not available on this platform
+     */
+    public static Compressor zstdCompressor() {
+        return ZstdHolder.COMPRESSOR;
+    }
+
+    /**
+     * The compressor to use for bytes sent over the wire to another node, {@link #COMPRESSOR} unless zstd is enabled and available
+     * on this node and the other node said that it can decompress zstd in the transport handshake. Bytes that are persisted, like
+     * {@link CompressedXContent}, must stay on {@link #COMPRESSOR} as they may be read back by nodes that can't load zstd.
+     *
+     * @param remoteReadsZstd whether the other node advertised that it can decompress zstd, see
+     *                        {@link org.elasticsearch.transport.Transport.Connection#getZstdDictionaryId()}
+     */
+    public static Compressor compressorFor(boolean remoteReadsZstd) {
+        if (USE_ZSTD && remoteReadsZstd && ZstdCompressor.isAvailable()) {
+            return ZstdHolder.COMPRESSOR;
+        }
+        return COMPRESSOR;
+    }
+
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
     }
@@ -33,6 +68,10 @@ public class CompressorFactory {
             assert XContentHelper.xContentType(bytes) == null;
             return COMPRESSOR;
         }
+        if (ZstdCompressor.isZstd(bytes)) {
+            assert XContentHelper.xContentType(bytes) == null;
+            return ZstdHolder.COMPRESSOR;
+        }
 
         XContentType contentType = XContentHelper.xContentType(bytes);
         if (contentType == null) {
@@ -0,0 +1,466 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.util.Native;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Streams;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * {@link Compressor} implementation based on the Zstandard compression algorithm.
+ * <p>
+ * The stream is a header followed by blocks of at most {@link #MAX_BLOCK_SIZE} uncompressed bytes each, and an empty block
+ * that marks the end. Each block starts with its compressed length, its uncompressed length and the id of the dictionary it
+ * was compressed with (or {@code 0}), all as big-endian ints, followed by a single zstd frame. Compressing independent blocks
+ * rather than one long frame is what allows the transport layer to decompress messages as they arrive from the network
+ * without having to buffer them first, see {@code ZstdTransportDecompressor}.
+ * <p>
+ * The zstd library is native. {@link #isAvailable()} tells whether it could be loaded on this platform.
+ */
+public class ZstdCompressor implements Compressor {
+
+    private static final Logger logger = LogManager.getLogger(ZstdCompressor.class);
+
+    // An arbitrary header that we use to identify compressed streams
+    // It needs to be different from other compressors and to not be specific
+    // enough so that no stream starting with these bytes could be detected as
+    // a XContent
+    private static final byte[] HEADER = new byte[] { 'Z', 'S', 'T', '\0' };
+
+    public static final int HEADER_SIZE = HEADER.length;
+
+    /**
+     * Length of the header of each block: compressed length, uncompressed length and dictionary id.
+     */
+    public static final int BLOCK_HEADER_SIZE = 3 * Integer.BYTES;
+
+    public static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    // 3 is zstd's default and a good trade-off between speed and compression ratio
+    public static final int DEFAULT_LEVEL = 3;
+
+    private static final boolean AVAILABLE;
+
+    static {
+        AVAILABLE = AccessController.doPrivileged((PrivilegedAction<Boolean>) () -> {
+            try {
+                Native.load();
+                return true;
+            } catch (Throwable t) {
+                logger.debug("failed to load the zstd native library, zstd compression is not available", t);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Whether the native zstd library could be loaded on this platform.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private final int level;
+    private final int blockSize;
+    @Nullable
+    private final byte[] dictionary;
+    private final int dictionaryId;
+
+    private final ThreadLocal<ZstdCompressCtx> compressCtx;
+    private final ThreadLocal<ZstdDecompressCtx> decompressCtx;
+    private final ThreadLocal<ZstdDecompressCtx> dictionaryDecompressCtx;
+
+    public ZstdCompressor() {
+        this(DEFAULT_LEVEL, DEFAULT_BLOCK_SIZE, null);
+    }
+
+    /**
+     * @param level      the zstd compression level
+     * @param blockSize  the maximum number of uncompressed bytes per block
+     * @param dictionary a dictionary trained with {@code zstd --train} to compress with, or {@code null} to compress without. Streams
+     *                   compressed with a dictionary can only be decompressed by a compressor with the same dictionary.
+     */
+    public ZstdCompressor(int level, int blockSize, @Nullable byte[] dictionary) {
+        if (blockSize < 1024 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("zstd block size must be >= 1KB and <= " + MAX_BLOCK_SIZE + " but was [" + blockSize + "]");
+        }
+        ensureAvailable();
+        if (level < Zstd.minCompressionLevel() || level > Zstd.maxCompressionLevel()) {
+            throw new IllegalArgumentException(
+                "zstd compression level must be between ["
+                    + Zstd.minCompressionLevel()
+                    + "] and ["
+                    + Zstd.maxCompressionLevel()
+                    + "] but was ["
+                    + level
+                    + "]"
+            );
+        }
+        this.level = level;
+        this.blockSize = blockSize;
+        if (dictionary != null) {
+            final long id = Zstd.getDictIdFromDict(dictionary);
+            if (id == 0) {
+                throw new IllegalArgumentException("not a zstd dictionary, dictionaries must be trained with [zstd --train]");
+            }
+            this.dictionary = dictionary.clone();
+            this.dictionaryId = (int) id;
+        } else {
+            this.dictionary = null;
+            this.dictionaryId = 0;
+        }
+        this.compressCtx = ThreadLocal.withInitial(() -> {
+            final ZstdCompressCtx ctx = new ZstdCompressCtx();
+            ctx.setLevel(level);
+            if (this.dictionary != null) {
+                ctx.loadDict(this.dictionary);
+            }
+            return ctx;
+        });
+        this.decompressCtx = ThreadLocal.withInitial(ZstdDecompressCtx::new);
+        this.dictionaryDecompressCtx = ThreadLocal.withInitial(() -> {
+            final ZstdDecompressCtx ctx = new ZstdDecompressCtx();
+            ctx.loadDict(this.dictionary);
+            return ctx;
+        });
+    }
+
+    private static void ensureAvailable() {
+        if (AVAILABLE == false) {
+            throw new IllegalStateException("zstd compression is not available on this platform");
+        }
+    }
+
+    public int level() {
+        return level;
+    }
+
+    /**
+     * The id of the dictionary that this compressor compresses with, {@code 0} if it doesn't use a dictionary.
+     */
+    public int dictionaryId() {
+        return dictionaryId;
+    }
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        return isZstd(bytes);
+    }
+
+    /**
+     * Whether {@code bytes} start with the header of a stream compressed by any {@link ZstdCompressor}.
+     */
+    public static boolean isZstd(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public InputStream threadLocalInputStream(InputStream in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        final int len = Streams.readFully(in, headerBytes);
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with ZSTD!");
+        }
+        return new BlockInputStream(in);
+    }
+
+    @Override
+    public OutputStream threadLocalOutputStream(OutputStream out) throws IOException {
+        out.write(HEADER);
+        return new BlockOutputStream(out);
+    }
+
+    @Override
+    public BytesReference uncompress(BytesReference bytesReference) throws IOException {
+        final BytesStreamOutput buffer = new BytesStreamOutput();
+        try (InputStream in = threadLocalInputStream(bytesReference.streamInput())) {
+            in.transferTo(buffer);
+        }
+        return buffer.bytes();
+    }
+
+    @Override
+    public BytesReference compress(BytesReference bytesReference) throws IOException {
+        final BytesStreamOutput buffer = new BytesStreamOutput();
+        try (OutputStream out = threadLocalOutputStream(buffer)) {
+            bytesReference.writeTo(out);
+        }
+        return buffer.bytes();
+    }
+
+    /**
+     * Validates the header of a block and returns its compressed length.
+     *
+     * @throws IllegalStateException if the header is invalid or the block was compressed with a dictionary that this compressor
+     *                               doesn't have
+     */
+    public int validateBlockHeader(int compressedLength, int uncompressedLength, int blockDictionaryId) {
+        if (uncompressedLength < 0 || uncompressedLength > MAX_BLOCK_SIZE) {
+            throw new IllegalStateException(
+                String.format(Locale.ROOT, "invalid uncompressed length: %d (expected: 0-%d)", uncompressedLength, MAX_BLOCK_SIZE)
+            );
+        }
+        final long maxCompressedLength = Zstd.compressBound(uncompressedLength);
+        if (compressedLength < 0 || compressedLength > maxCompressedLength || (uncompressedLength == 0) != (compressedLength == 0)) {
+            throw new IllegalStateException(
+                String.format(
+                    Locale.ROOT,
+                    "stream corrupted: compressed length (%d) and uncompressed length (%d) mismatch",
+                    compressedLength,
+                    uncompressedLength
+                )
+            );
+        }
+        if (blockDictionaryId != 0 && blockDictionaryId != dictionaryId) {
+            throw new IllegalStateException(
+                "stream was compressed with zstd dictionary ["
+                    + Integer.toUnsignedString(blockDictionaryId)
+                    + "] but this node has "
+                    + (dictionaryId == 0 ? "no dictionary" : "dictionary [" + Integer.toUnsignedString(dictionaryId) + "]")
+            );
+        }
+        return compressedLength;
+    }
+
+    /**
+     * Decompresses a single block whose header was validated with {@link #validateBlockHeader}.
+     */
+    public void decompressBlock(
+        int blockDictionaryId,
+        byte[] src,
+        int srcOffset,
+        int srcLength,
+        byte[] dst,
+        int dstOffset,
+        int uncompressedLength
+    ) {
+        final ZstdDecompressCtx ctx = blockDictionaryId == 0 ? decompressCtx.get() : dictionaryDecompressCtx.get();
+        final int decompressed;
+        try {
+            decompressed = ctx.decompressByteArray(dst, dstOffset, uncompressedLength, src, srcOffset, srcLength);
+        } catch (ZstdException e) {
+            throw new IllegalStateException("zstd stream corrupted", e);
+        }
+        if (decompressed != uncompressedLength) {
+            throw new IllegalStateException(
+                String.format(
+                    Locale.ROOT,
+                    "stream corrupted: expected [%d] uncompressed bytes but got [%d]",
+                    uncompressedLength,
+                    decompressed
+                )
+            );
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+            | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private final class BlockOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] block = new byte[blockSize];
+        private final byte[] compressed = new byte[BLOCK_HEADER_SIZE + Math.toIntExact(Zstd.compressBound(blockSize))];
+        private int blockLength;
+        private boolean closed;
+
+        BlockOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            if (blockLength == block.length) {
+                writeBlock();
+            }
+            block[blockLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                if (blockLength == block.length) {
+                    writeBlock();
+                }
+                final int toCopy = Math.min(len, block.length - blockLength);
+                System.arraycopy(b, off, block, blockLength, toCopy);
+                blockLength += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockLength == 0) {
+                return;
+            }
+            final int compressedLength;
+            try {
+                compressedLength = compressCtx.get()
+                    .compressByteArray(compressed, BLOCK_HEADER_SIZE, compressed.length - BLOCK_HEADER_SIZE, block, 0, blockLength);
+            } catch (ZstdException e) {
+                throw new IOException("failed to compress block", e);
+            }
+            writeInt(compressed, 0, compressedLength);
+            writeInt(compressed, Integer.BYTES, blockLength);
+            writeInt(compressed, 2 * Integer.BYTES, dictionaryId);
+            out.write(compressed, 0, BLOCK_HEADER_SIZE + compressedLength);
+            blockLength = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (out) {
+                writeBlock();
+                // an empty block marks the end of the stream
+                Arrays.fill(compressed, 0, BLOCK_HEADER_SIZE, (byte) 0);
+                out.write(compressed, 0, BLOCK_HEADER_SIZE);
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+        }
+    }
+
+    private final class BlockInputStream extends InputStream {
+        private final InputStream in;
+        private final byte[] header = new byte[BLOCK_HEADER_SIZE];
+        private byte[] compressed = new byte[0];
+        private byte[] block = new byte[0];
+        private int blockOffset;
+        private int blockLength;
+        private boolean finished;
+
+        BlockInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (ensureBlock() == false) {
+                return -1;
+            }
+            return block[blockOffset++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (ensureBlock() == false) {
+                return -1;
+            }
+            final int toCopy = Math.min(len, blockLength - blockOffset);
+            System.arraycopy(block, blockOffset, b, off, toCopy);
+            blockOffset += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return blockLength - blockOffset;
+        }
+
+        /**
+         * Makes sure there are bytes left in the current block, reading the next one if needed.
+         *
+         * @return {@code false} if the end of the stream was reached
+         */
+        private boolean ensureBlock() throws IOException {
+            while (blockOffset == blockLength) {
+                if (finished) {
+                    return false;
+                }
+                readFully(header, BLOCK_HEADER_SIZE);
+                final int uncompressedLength = readInt(header, Integer.BYTES);
+                final int blockDictionaryId = readInt(header, 2 * Integer.BYTES);
+                final int compressedLength = validateBlockHeader(readInt(header, 0), uncompressedLength, blockDictionaryId);
+                if (uncompressedLength == 0) {
+                    finished = true;
+                    return false;
+                }
+                if (compressed.length < compressedLength) {
+                    compressed = new byte[compressedLength];
+                }
+                if (block.length < uncompressedLength) {
+                    block = new byte[uncompressedLength];
+                }
+                readFully(compressed, compressedLength);
+                decompressBlock(blockDictionaryId, compressed, 0, compressedLength, block, 0, uncompressedLength);
+                blockOffset = 0;
+                blockLength = uncompressedLength;
+            }
+            return true;
+        }
+
+        private void readFully(byte[] buffer, int length) throws IOException {
+            if (Streams.readFully(in, buffer, 0, length) != length) {
+                throw new EOFException("unexpected end of zstd stream");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
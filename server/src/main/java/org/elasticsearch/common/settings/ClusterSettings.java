@@ -81,10 +81,12 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesRequestCache;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.MergeRateController;
 import org.elasticsearch.indices.ShardLimitValidator;
 import org.elasticsearch.indices.analysis.HunspellService;
 import org.elasticsearch.indices.breaker.BreakerSettings;
@@ -108,6 +110,7 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.readiness.ReadinessService;
 import org.elasticsearch.repositories.fs.FsRepository;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.action.document.RestBulkAction;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.search.SearchService;
@@ -428,7 +431,10 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_SIZE_KEY,
         IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_EXPIRE,
         IndicesRequestCache.INDICES_CACHE_QUERY_SIZE,
+        IndicesRequestCache.INDICES_CACHE_TOP_DOCS_SIZE,
         IndicesRequestCache.INDICES_CACHE_QUERY_EXPIRE,
+        TranslogSyncCoordinator.WINDOW_SETTING,
+        TranslogSyncCoordinator.MAX_CONCURRENT_SYNCS_SETTING,
         HunspellService.HUNSPELL_LAZY_LOAD,
         HunspellService.HUNSPELL_IGNORE_CASE,
         HunspellService.HUNSPELL_DICTIONARY_OPTIONS,
@@ -463,6 +469,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         NodeRoleSettings.NODE_ROLES_SETTING,
         AutoCreateIndex.AUTO_CREATE_INDEX_SETTING,
         BaseRestHandler.MULTI_ALLOW_EXPLICIT_INDEX,
+        RestBulkAction.STREAMING_BATCH_SIZE_SETTING,
         ClusterName.CLUSTER_NAME_SETTING,
         Client.CLIENT_TYPE_SETTING_S,
         ClusterModule.SHARDS_ALLOCATOR_TYPE_SETTING,
@@ -482,6 +489,8 @@ public final class ClusterSettings extends AbstractScopedSettings {
         JvmGcMonitorService.GC_OVERHEAD_INFO_SETTING,
         JvmGcMonitorService.GC_OVERHEAD_DEBUG_SETTING,
         PageCacheRecycler.LIMIT_HEAP_SETTING,
+        PageCacheRecycler.OFF_HEAP_SETTING,
+        PageCacheRecycler.LIMIT_OFF_HEAP_SETTING,
         PageCacheRecycler.WEIGHT_BYTES_SETTING,
         PageCacheRecycler.WEIGHT_INT_SETTING,
         PageCacheRecycler.WEIGHT_LONG_SETTING,
@@ -497,6 +506,10 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndexingMemoryController.MAX_INDEX_BUFFER_SIZE_SETTING,
         IndexingMemoryController.SHARD_INACTIVE_TIME_SETTING,
         IndexingMemoryController.SHARD_MEMORY_INTERVAL_TIME_SETTING,
+        MergeRateController.ADAPTIVE_MERGE_THROTTLE_ENABLED_SETTING,
+        MergeRateController.TARGET_IO_LATENCY_SETTING,
+        MergeRateController.MIN_MERGE_RATE_SETTING,
+        MergeRateController.INTERVAL_SETTING,
         ResourceWatcherService.ENABLED,
         ResourceWatcherService.RELOAD_INTERVAL_HIGH,
         ResourceWatcherService.RELOAD_INTERVAL_MEDIUM,
@@ -505,6 +518,8 @@ public final class ClusterSettings extends AbstractScopedSettings {
         SearchModule.INDICES_MAX_NESTED_DEPTH_SETTING,
         SearchService.SEARCH_WORKER_THREADS_ENABLED,
         SearchService.QUERY_PHASE_PARALLEL_COLLECTION_ENABLED,
+        SearchService.FETCH_PHASE_PARALLEL_ENABLED,
+        SearchService.COST_BASED_SLICING_ENABLED,
         ThreadPool.ESTIMATED_TIME_INTERVAL_SETTING,
         ThreadPool.LATE_TIME_INTERVAL_WARN_THRESHOLD_SETTING,
         ThreadPool.SLOW_SCHEDULER_TASK_WARN_THRESHOLD_SETTING,
@@ -12,8 +12,10 @@ import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -110,6 +112,20 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    /**
+     * Obtain a page of native memory from the recycler. Only valid if the recycler {@link PageCacheRecycler#hasOffHeapPages()}.
+     */
+    protected final ByteBuffer newOffHeapBytePage(int page) {
+        assert recycler != null && recycler.hasOffHeapPages();
+        final Recycler.V<CloseableByteBuffer> v = recycler.offHeapBytePage(clearOnResize);
+        cache = grow(cache, page + 1);
+        assert cache[page] == null;
+        cache[page] = v;
+        final ByteBuffer buffer = v.v().buffer();
+        assert buffer.capacity() == PageCacheRecycler.BYTE_PAGE_SIZE;
+        return buffer;
+    }
+
     protected final Object[] newObjectPage(int page) {
         if (recycler != null) {
             final Recycler.V<Object[]> v = recycler.objectPage();
@@ -127,7 +143,7 @@ abstract class AbstractBigArray extends AbstractArray {
     }
 
     @Override
-    protected final void doClose() {
+    protected void doClose() {
         if (recycler != null) {
             Releasables.close(cache);
             cache = null;
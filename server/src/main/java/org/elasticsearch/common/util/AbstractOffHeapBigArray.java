@@ -0,0 +1,97 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.BYTE_PAGE_SIZE;
+
+/**
+ * Base class for big arrays whose pages are native memory from {@link PageCacheRecycler#offHeapBytePage}
+ * rather than {@code byte[]}s on the heap. Every page is {@link PageCacheRecycler#BYTE_PAGE_SIZE} bytes,
+ * just like the on-heap implementations, so they estimate the same memory for the circuit breakers.
+ */
+abstract class AbstractOffHeapBigArray extends AbstractBigArray {
+
+    protected ByteBuffer[] pages;
+
+    protected AbstractOffHeapBigArray(int pageSize, long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(pageSize, bigArrays, clearOnResize);
+        this.size = size;
+        pages = new ByteBuffer[numPages(size)];
+        for (int i = 0; i < pages.length; ++i) {
+            pages[i] = newOffHeapBytePage(i);
+        }
+    }
+
+    /** Change the size of this array. Content between indexes <code>0</code> and <code>min(size(), newSize)</code> will be preserved. */
+    @Override
+    public final void resize(long newSize) {
+        final int numPages = numPages(newSize);
+        if (numPages > pages.length) {
+            pages = Arrays.copyOf(pages, ArrayUtil.oversize(numPages, RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        }
+        for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
+            pages[i] = newOffHeapBytePage(i);
+        }
+        for (int i = numPages; i < pages.length && pages[i] != null; ++i) {
+            pages[i] = null;
+            releasePage(i);
+        }
+        this.size = newSize;
+    }
+
+    @Override
+    protected final void doClose() {
+        // Released pages may be freed or handed to another array so we drop them. Using
+        // this array after it is closed then throws instead of touching that memory.
+        pages = null;
+        super.doClose();
+    }
+
+    /**
+     * Bulk copy {@code len} values, serialized as bytes in {@code buf} starting at value {@code offset}, into
+     * this array starting at {@code index}. Each value is {@code 1 << shift} bytes.
+     */
+    protected final void set(long index, byte[] buf, int offset, int len, int shift) {
+        assert index + len <= size();
+        int pageIndex = pageIndex(index);
+        int indexInPage = indexInPage(index);
+        while (len > 0) {
+            final int copyLen = Math.min(len, pageSize() - indexInPage);
+            pages[pageIndex].put(indexInPage << shift, buf, offset << shift, copyLen << shift);
+            ++pageIndex;
+            indexInPage = 0;
+            offset += copyLen;
+            len -= copyLen;
+        }
+    }
+
+    /**
+     * Write the first {@code size} values, each {@code bytesPerValue} bytes, in the same format
+     * as the on-heap implementations so either can read it.
+     */
+    protected final void writePages(StreamOutput out, int bytesPerValue) throws IOException {
+        int remaining = Math.toIntExact(size) * bytesPerValue;
+        out.writeVInt(remaining);
+        final byte[] scratch = new byte[Math.min(remaining, BYTE_PAGE_SIZE)];
+        for (int i = 0; remaining > 0; i++) {
+            final int len = Math.min(remaining, BYTE_PAGE_SIZE);
+            pages[i].get(0, scratch, 0, len);
+            out.write(scratch, 0, len);
+            remaining -= len;
+        }
+    }
+}
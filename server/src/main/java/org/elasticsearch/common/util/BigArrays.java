@@ -518,6 +518,13 @@ public class BigArrays {
         return array;
     }
 
+    /**
+     * Should big byte, long and double arrays use pages of native memory? See {@link PageCacheRecycler#OFF_HEAP_SETTING}.
+     */
+    private boolean offHeapPages() {
+        return recycler != null && recycler.hasOffHeapPages();
+    }
+
     private <T extends BigArray> T validate(T array) {
         boolean success = false;
         try {
@@ -541,6 +548,9 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigByteArray.estimateRamBytes(size), false);
+            if (offHeapPages()) {
+                return new OffHeapBigByteArray(size, this, clearOnResize);
+            }
             return new BigByteArray(size, this, clearOnResize);
         } else if (size >= PageCacheRecycler.BYTE_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<byte[]> page = recycler.bytePage(clearOnResize);
@@ -562,6 +572,8 @@ public class BigArrays {
     public ByteArray resize(ByteArray array, long size) {
         if (array instanceof BigByteArray) {
             return resizeInPlace((BigByteArray) array, size);
+        } else if (array instanceof OffHeapBigByteArray) {
+            return resizeInPlace((OffHeapBigByteArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final ByteArray newArray = newByteArray(size, arr.clearOnResize);
@@ -672,6 +684,9 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigLongArray.estimateRamBytes(size), false);
+            if (offHeapPages()) {
+                return new OffHeapBigLongArray(size, this, clearOnResize);
+            }
             return new BigLongArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsLongArrayWrapper(this, size, clearOnResize));
@@ -690,6 +705,8 @@ public class BigArrays {
     public LongArray resize(LongArray array, long size) {
         if (array instanceof BigLongArray) {
             return resizeInPlace((BigLongArray) array, size);
+        } else if (array instanceof OffHeapBigLongArray) {
+            return resizeInPlace((OffHeapBigLongArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -719,6 +736,9 @@ public class BigArrays {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigDoubleArray.estimateRamBytes(size), false);
+            if (offHeapPages()) {
+                return new OffHeapBigDoubleArray(size, this, clearOnResize);
+            }
             return new BigDoubleArray(size, this, clearOnResize);
         } else {
             return validate(new ByteArrayAsDoubleArrayWrapper(this, size, clearOnResize));
@@ -734,6 +754,8 @@ public class BigArrays {
     public DoubleArray resize(DoubleArray array, long size) {
         if (array instanceof BigDoubleArray) {
             return resizeInPlace((BigDoubleArray) array, size);
+        } else if (array instanceof OffHeapBigDoubleArray) {
+            return resizeInPlace((OffHeapBigDoubleArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
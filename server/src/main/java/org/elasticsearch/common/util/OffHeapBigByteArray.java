@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.BYTE_PAGE_SIZE;
+
+/**
+ * Byte array abstraction able to support more than 2B values, backed by pages of native memory.
+ * See {@link PageCacheRecycler#OFF_HEAP_SETTING}. Unlike {@link BigByteArray} this can never
+ * share its pages with a {@link BytesRef} so {@link #get(long, int, BytesRef)} always copies.
+ */
+final class OffHeapBigByteArray extends AbstractOffHeapBigArray implements ByteArray {
+
+    OffHeapBigByteArray(long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(BYTE_PAGE_SIZE, size, bigArrays, clearOnResize);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        writePages(out, Byte.BYTES);
+    }
+
+    @Override
+    public byte get(long index) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex].get(indexInPage);
+    }
+
+    @Override
+    public byte set(long index, byte value) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        final byte ret = pages[pageIndex].get(indexInPage);
+        pages[pageIndex].put(indexInPage, value);
+        return ret;
+    }
+
+    @Override
+    public boolean get(long index, int len, BytesRef ref) {
+        assert index + len <= size();
+        if (len == 0) {
+            ref.length = 0;
+            return false;
+        }
+        // a fresh array like BigByteArray does when it has to copy, callers may hold on to the bytes
+        ref.bytes = new byte[len];
+        ref.offset = 0;
+        ref.length = 0;
+        int pageIndex = pageIndex(index);
+        int indexInPage = indexInPage(index);
+        while (ref.length < len) {
+            final int copyLength = Math.min(pageSize() - indexInPage, len - ref.length);
+            pages[pageIndex].get(indexInPage, ref.bytes, ref.length, copyLength);
+            ref.length += copyLength;
+            ++pageIndex;
+            indexInPage = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public void set(long index, byte[] buf, int offset, int len) {
+        set(index, buf, offset, len, 0);
+    }
+
+    @Override
+    public void fill(long fromIndex, long toIndex, byte value) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = fromIndex; i < toIndex; i++) {
+            pages[pageIndex(i)].put(indexInPage(i), value);
+        }
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] array() {
+        assert false;
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected int numBytesPerElement() {
+        return 1;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.LONG_PAGE_SIZE;
+
+/**
+ * Long array abstraction able to support more than 2B values, backed by pages of native memory.
+ * See {@link PageCacheRecycler#OFF_HEAP_SETTING}.
+ */
+final class OffHeapBigLongArray extends AbstractOffHeapBigArray implements LongArray {
+
+    static final VarHandle VH_PLATFORM_NATIVE_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    OffHeapBigLongArray(long size, BigArrays bigArrays, boolean clearOnResize) {
+        super(LONG_PAGE_SIZE, size, bigArrays, clearOnResize);
+    }
+
+    @Override
+    public long get(long index) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return (long) VH_PLATFORM_NATIVE_LONG.get(pages[pageIndex], indexInPage << 3);
+    }
+
+    @Override
+    public long set(long index, long value) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        final ByteBuffer page = pages[pageIndex];
+        final long ret = (long) VH_PLATFORM_NATIVE_LONG.get(page, indexInPage << 3);
+        VH_PLATFORM_NATIVE_LONG.set(page, indexInPage << 3, value);
+        return ret;
+    }
+
+    @Override
+    public long increment(long index, long inc) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        final ByteBuffer page = pages[pageIndex];
+        final long newVal = (long) VH_PLATFORM_NATIVE_LONG.get(page, indexInPage << 3) + inc;
+        VH_PLATFORM_NATIVE_LONG.set(page, indexInPage << 3, newVal);
+        return newVal;
+    }
+
+    @Override
+    protected int numBytesPerElement() {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void fill(long fromIndex, long toIndex, long value) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = fromIndex; i < toIndex; i++) {
+            VH_PLATFORM_NATIVE_LONG.set(pages[pageIndex(i)], indexInPage(i) << 3, value);
+        }
+    }
+
+    @Override
+    public void set(long index, byte[] buf, int offset, int len) {
+        set(index, buf, offset, len, 3);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        writePages(out, Long.BYTES);
+    }
+}
@@ -16,7 +16,10 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -67,6 +70,17 @@ public class PageCacheRecycler {
         Property.NodeScope
     );
 
+    /**
+     * Back large {@link BigArrays} byte, long and double arrays with pages of native memory instead of
+     * heap allocated {@code byte[]}s. They are accounted to the same circuit breakers.
+     */
+    public static final Setting<Boolean> OFF_HEAP_SETTING = Setting.boolSetting("cache.recycler.page.off_heap", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> LIMIT_OFF_HEAP_SETTING = Setting.memorySizeSetting(
+        "cache.recycler.page.limit.off_heap",
+        "10%",
+        Property.NodeScope
+    );
+
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
     public static final int OBJECT_PAGE_SIZE = PAGE_SIZE_IN_BYTES / RamUsageEstimator.NUM_BYTES_OBJECT_REF;
@@ -78,6 +92,10 @@ public class PageCacheRecycler {
 
     private final Recycler<byte[]> bytePage;
     private final Recycler<Object[]> objectPage;
+    // null unless OFF_HEAP_SETTING is enabled
+    private final Recycler<CloseableByteBuffer> offHeapBytePage;
+
+    private static final byte[] ZERO_PAGE = new byte[BYTE_PAGE_SIZE];
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -125,6 +143,37 @@ public class PageCacheRecycler {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxObjectPageCount) <= limit;
+
+        if (OFF_HEAP_SETTING.get(settings)) {
+            final NativeAccess nativeAccess = NativeAccess.instance();
+            final long offHeapLimit = LIMIT_OFF_HEAP_SETTING.get(settings).getBytes();
+            final int maxOffHeapPageCount = (int) Math.min(Integer.MAX_VALUE, offHeapLimit / PAGE_SIZE_IN_BYTES);
+            final Recycler.C<CloseableByteBuffer> offHeapC = new AbstractRecyclerC<>() {
+                @Override
+                public CloseableByteBuffer newInstance() {
+                    return nativeAccess.newBuffer(BYTE_PAGE_SIZE);
+                }
+
+                @Override
+                public void recycle(CloseableByteBuffer value) {
+                    // nothing to do
+                }
+
+                @Override
+                public void destroy(CloseableByteBuffer value) {
+                    // the page didn't fit in the recycler so we give the memory back
+                    value.close();
+                }
+            };
+            if (type == Type.NONE || maxOffHeapPageCount == 0) {
+                // a recycler that never keeps pages, unlike the none recycler, still destroys them so the memory is freed
+                offHeapBytePage = concurrentDeque(offHeapC, 0);
+            } else {
+                offHeapBytePage = type.build(offHeapC, maxOffHeapPageCount, allocatedProcessors);
+            }
+        } else {
+            offHeapBytePage = null;
+        }
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -135,6 +184,26 @@ public class PageCacheRecycler {
         return v;
     }
 
+    /**
+     * Are {@link #offHeapBytePage} available?
+     */
+    public boolean hasOffHeapPages() {
+        return offHeapBytePage != null;
+    }
+
+    /**
+     * Obtain a page of native memory. Only available if {@link #hasOffHeapPages()}.
+     */
+    public Recycler.V<CloseableByteBuffer> offHeapBytePage(boolean clear) {
+        final Recycler.V<CloseableByteBuffer> v = offHeapBytePage.obtain();
+        if (v.isRecycled() && clear) {
+            ByteBuffer buffer = v.v().buffer();
+            assert buffer.capacity() == BYTE_PAGE_SIZE;
+            buffer.put(0, ZERO_PAGE);
+        }
+        return v;
+    }
+
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
         return objectPage.obtain();
@@ -0,0 +1,47 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+
+/**
+ * The body of an http request that is handed to the rest layer chunk by chunk as it arrives rather than after it was buffered
+ * in full. Chunks are pulled by the consumer with {@link #next()} which is how the consumer applies backpressure to the client:
+ * implementations must not read more of the body from the network than they need to serve the chunks that were requested.
+ */
+public interface HttpContentStream {
+
+    /**
+     * Set the handler that receives the chunks of the body. Must be called before the first call to {@link #next()}.
+     */
+    void setHandler(Handler handler);
+
+    /**
+     * Request the next chunk of the body. Each call delivers at most one chunk to the {@link Handler}, possibly on another thread.
+     * May be called from any thread.
+     */
+    void next();
+
+    interface Handler {
+
+        /**
+         * Called with the next chunk of the body. The handler takes ownership of {@code chunk} and must release it.
+         *
+         * @param chunk the next chunk of the body
+         * @param isLast whether this is the last chunk of the body
+         */
+        void onNext(ReleasableBytesReference chunk, boolean isLast);
+
+        /**
+         * Called if the stream is closed, for instance because the channel was closed, before the last chunk was delivered.
+         * No further chunks are delivered.
+         */
+        default void close() {}
+    }
+}
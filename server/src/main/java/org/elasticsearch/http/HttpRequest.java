@@ -29,6 +29,15 @@ public interface HttpRequest extends HttpPreRequest {
 
     BytesReference content();
 
+    /**
+     * The body of the request if it is streamed to the handler as it arrives, in which case {@link #content()} is empty, or
+     * {@code null} if the body was received in full.
+     */
+    @Nullable
+    default HttpContentStream contentStream() {
+        return null;
+    }
+
     List<String> strictCookies();
 
     HttpVersion protocolVersion();
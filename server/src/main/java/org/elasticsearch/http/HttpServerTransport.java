@@ -54,6 +54,16 @@ public interface HttpServerTransport extends LifecycleComponent, ReportingServic
          */
         void dispatchBadRequest(RestChannel channel, ThreadContext threadContext, Throwable cause);
 
+        /**
+         * Whether the request would be dispatched to a handler that reads the body as it arrives, so that the transport may stream
+         * the body rather than buffer it in full first.
+         *
+         * @param request the request, of which only the method, uri and headers have been received
+         */
+        default boolean supportsHttpContentStream(HttpPreRequest request) {
+            return false;
+        }
+
         default Map<String, HttpRouteStats> getStats() {
             return Map.of();
         }
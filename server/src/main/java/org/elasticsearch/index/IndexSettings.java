@@ -366,6 +366,20 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * The number of threads of the write thread pool that replay the operations of the translog when a shard recovers from its local
+     * store, for instance after an unclean restart. Operations on the same document are replayed by the same thread in the order of the
+     * translog. Defaults to replaying all operations one after the other on the recovery thread.
+     */
+    public static final Setting<Integer> INDEX_TRANSLOG_RECOVERY_CONCURRENCY_SETTING = Setting.intSetting(
+        "index.translog.recovery_concurrency",
+        1,
+        1,
+        64,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     /**
      * The minimum size of a merge that triggers a flush in order to free resources
      */
@@ -709,6 +723,7 @@ public final class IndexSettings {
     private final boolean fastRefresh;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile TimeValue flushThresholdAge;
+    private volatile int translogRecoveryConcurrency;
     private volatile ByteSizeValue generationThresholdSize;
     private volatile ByteSizeValue flushAfterMergeThresholdSize;
     private final MergeSchedulerConfig mergeSchedulerConfig;
@@ -869,6 +884,7 @@ public final class IndexSettings {
         }
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         flushThresholdAge = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_AGE_SETTING);
+        translogRecoveryConcurrency = scopedSettings.get(INDEX_TRANSLOG_RECOVERY_CONCURRENCY_SETTING);
         generationThresholdSize = scopedSettings.get(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING);
         flushAfterMergeThresholdSize = scopedSettings.get(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING);
         mergeSchedulerConfig = new MergeSchedulerConfig(this);
@@ -961,6 +977,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_GC_DELETES_SETTING, this::setGCDeletes);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING, this::setTranslogFlushThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_FLUSH_THRESHOLD_AGE_SETTING, this::setTranslogFlushThresholdAge);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_RECOVERY_CONCURRENCY_SETTING, this::setTranslogRecoveryConcurrency);
         scopedSettings.addSettingsUpdateConsumer(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING, this::setFlushAfterMergeThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING, this::setGenerationThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
@@ -1001,6 +1018,10 @@ public final class IndexSettings {
         this.flushThresholdAge = timeValue;
     }
 
+    private void setTranslogRecoveryConcurrency(int translogRecoveryConcurrency) {
+        this.translogRecoveryConcurrency = translogRecoveryConcurrency;
+    }
+
     private void setFlushAfterMergeThresholdSize(ByteSizeValue byteSizeValue) {
         this.flushAfterMergeThresholdSize = byteSizeValue;
     }
@@ -1235,6 +1256,13 @@ public final class IndexSettings {
         return flushThresholdAge;
     }
 
+    /**
+     * Returns the number of threads that replay the translog when recovering from the local store.
+     */
+    public int getTranslogRecoveryConcurrency() {
+        return translogRecoveryConcurrency;
+    }
+
     /**
      * Returns the merge threshold size when to forcefully flush the index and free resources.
      */
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -24,6 +25,10 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long topDocsMemorySize;
+    private long topDocsEvictions;
+    private long topDocsHitCount;
+    private long topDocsMissCount;
 
     public RequestCacheStats() {}
 
@@ -32,13 +37,36 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.TOP_DOCS_REQUEST_CACHE_STATS)) {
+            topDocsMemorySize = in.readVLong();
+            topDocsEvictions = in.readVLong();
+            topDocsHitCount = in.readVLong();
+            topDocsMissCount = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0, 0, 0, 0);
+    }
+
+    public RequestCacheStats(
+        long memorySize,
+        long evictions,
+        long hitCount,
+        long missCount,
+        long topDocsMemorySize,
+        long topDocsEvictions,
+        long topDocsHitCount,
+        long topDocsMissCount
+    ) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.topDocsMemorySize = topDocsMemorySize;
+        this.topDocsEvictions = topDocsEvictions;
+        this.topDocsHitCount = topDocsHitCount;
+        this.topDocsMissCount = topDocsMissCount;
     }
 
     public void add(RequestCacheStats stats) {
@@ -49,6 +77,10 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.topDocsMemorySize += stats.topDocsMemorySize;
+        this.topDocsEvictions += stats.topDocsEvictions;
+        this.topDocsHitCount += stats.topDocsHitCount;
+        this.topDocsMissCount += stats.topDocsMissCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -71,12 +103,41 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The memory used by cached top docs, which have their own budget and are not part of {@link #getMemorySizeInBytes()}.
+     */
+    public long getTopDocsMemorySizeInBytes() {
+        return this.topDocsMemorySize;
+    }
+
+    public ByteSizeValue getTopDocsMemorySize() {
+        return ByteSizeValue.ofBytes(topDocsMemorySize);
+    }
+
+    public long getTopDocsEvictions() {
+        return this.topDocsEvictions;
+    }
+
+    public long getTopDocsHitCount() {
+        return this.topDocsHitCount;
+    }
+
+    public long getTopDocsMissCount() {
+        return this.topDocsMissCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.TOP_DOCS_REQUEST_CACHE_STATS)) {
+            out.writeVLong(topDocsMemorySize);
+            out.writeVLong(topDocsEvictions);
+            out.writeVLong(topDocsHitCount);
+            out.writeVLong(topDocsMissCount);
+        }
     }
 
     @Override
@@ -84,12 +145,28 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RequestCacheStats that = (RequestCacheStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && hitCount == that.hitCount && missCount == that.missCount;
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && topDocsMemorySize == that.topDocsMemorySize
+            && topDocsEvictions == that.topDocsEvictions
+            && topDocsHitCount == that.topDocsHitCount
+            && topDocsMissCount == that.topDocsMissCount;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, hitCount, missCount);
+        return Objects.hash(
+            memorySize,
+            evictions,
+            hitCount,
+            missCount,
+            topDocsMemorySize,
+            topDocsEvictions,
+            topDocsHitCount,
+            topDocsMissCount
+        );
     }
 
     @Override
@@ -99,6 +176,12 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.startObject(Fields.TOP_DOCS);
+        builder.humanReadableField(Fields.MEMORY_SIZE_IN_BYTES, Fields.MEMORY_SIZE, getTopDocsMemorySize());
+        builder.field(Fields.EVICTIONS, getTopDocsEvictions());
+        builder.field(Fields.HIT_COUNT, getTopDocsHitCount());
+        builder.field(Fields.MISS_COUNT, getTopDocsMissCount());
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -110,5 +193,6 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String TOP_DOCS = "top_docs";
     }
 }
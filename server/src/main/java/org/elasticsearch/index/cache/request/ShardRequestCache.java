@@ -11,6 +11,7 @@ package org.elasticsearch.index.cache.request;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.core.Nullable;
 
 /**
  * Tracks the portion of the request cache in use for a particular shard.
@@ -22,8 +23,37 @@ public final class ShardRequestCache {
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
 
+    @Nullable
+    private final ShardRequestCache topDocs;
+
+    public ShardRequestCache() {
+        this.topDocs = new ShardRequestCache(null);
+    }
+
+    private ShardRequestCache(@Nullable ShardRequestCache topDocs) {
+        this.topDocs = topDocs;
+    }
+
+    /**
+     * Tracks the portion of the separate cache for top docs in use for this shard, see
+     * {@link org.elasticsearch.indices.IndicesRequestCache#INDEX_CACHE_REQUEST_TOP_DOCS_SETTING}.
+     */
+    public ShardRequestCache topDocs() {
+        assert topDocs != null : "top docs aren't tracked separately within top docs";
+        return topDocs;
+    }
+
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            topDocs.totalMetric.count(),
+            topDocs.evictionsMetric.count(),
+            topDocs.hitCount.count(),
+            topDocs.missCount.count()
+        );
     }
 
     public void onHit() {
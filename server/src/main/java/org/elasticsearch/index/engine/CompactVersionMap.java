@@ -0,0 +1,291 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A map of _uid to {@link VersionValue} that stores its entries in {@link BigArrays} rather than in a set of objects per entry. The
+ * _uid bytes are added to a {@link BytesRefHash} and the version, sequence number, primary term and translog location of each _uid
+ * are stored in primitive arrays indexed by the id that the hash assigned to it. This takes about half of the heap of a
+ * {@link java.util.concurrent.ConcurrentHashMap} entry and its objects. Values are materialized on {@link #get}.
+ * <p>
+ * The keys are spread over stripes that have their own lock, so that concurrent writes to different _uids rarely contend. A
+ * removed _uid stays in its hash and is only marked as removed, since the map is dropped as a whole on the next refresh.
+ * Pages are not recycled since a lookup may still read a map that a concurrent refresh swapped out.
+ */
+public final class CompactVersionMap extends AbstractMap<BytesRef, VersionValue> implements Accountable {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(CompactVersionMap.class);
+
+    private static final int STRIPE_BITS = 4;
+    private static final int NUM_STRIPES = 1 << STRIPE_BITS;
+
+    // translog generations of the entries that don't have a translog location
+    private static final long NO_LOCATION = -1;
+    private static final long DELETE = -2;
+    private static final long REMOVED = -3;
+
+    private final Stripe[] stripes = new Stripe[NUM_STRIPES];
+
+    public CompactVersionMap() {
+        this(0);
+    }
+
+    public CompactVersionMap(int expectedSize) {
+        final long capacity = Math.max(1, expectedSize / NUM_STRIPES);
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    private Stripe stripe(int hash) {
+        // the top bits pick the stripe, the hash of each stripe mixes the whole hash code to find a slot
+        return stripes[hash >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        if (key instanceof BytesRef uid) {
+            final int hash = uid.hashCode();
+            return stripe(hash).get(uid, hash);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef uid, VersionValue value) {
+        Objects.requireNonNull(value);
+        final int hash = uid.hashCode();
+        return stripe(hash).put(uid, hash, value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        if (key instanceof BytesRef uid) {
+            final int hash = uid.hashCode();
+            return stripe(hash).remove(uid, hash);
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Returns a point in time snapshot of the entries. Like the iterators of a concurrent map, it reflects the entries of each stripe
+     * at the time it was read and doesn't fail on concurrent changes.
+     */
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        final List<Entry<BytesRef, VersionValue>> entries = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.collect(entries);
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<BytesRef, VersionValue>> iterator() {
+                return Collections.unmodifiableList(entries).iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = SHALLOW_SIZE + RamUsageEstimator.shallowSizeOf(stripes);
+        for (Stripe stripe : stripes) {
+            ramBytesUsed += stripe.ramBytesUsed;
+        }
+        return ramBytesUsed;
+    }
+
+    private static final class Stripe {
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Stripe.class);
+
+        private final BigArrays bigArrays = BigArrays.NON_RECYCLING_INSTANCE;
+        private final BytesRefHash uids;
+        private LongArray versions;
+        private LongArray seqNos;
+        private LongArray terms;
+        // the translog generation of the entry, or one of the markers above
+        private LongArray generations;
+        // the translog location of the entry, or the timestamp of deletes
+        private LongArray locations;
+        private IntArray sizes;
+        private int size;
+        private volatile long ramBytesUsed;
+
+        Stripe(long capacity) {
+            uids = new BytesRefHash(capacity, bigArrays);
+            versions = bigArrays.newLongArray(capacity, false);
+            seqNos = bigArrays.newLongArray(capacity, false);
+            terms = bigArrays.newLongArray(capacity, false);
+            generations = bigArrays.newLongArray(capacity, false);
+            locations = bigArrays.newLongArray(capacity, false);
+            sizes = bigArrays.newIntArray(capacity, false);
+            updateRamBytesUsed();
+        }
+
+        synchronized VersionValue get(BytesRef uid, int hash) {
+            final long id = uids.find(uid, hash);
+            return id < 0 ? null : valueAt(id);
+        }
+
+        synchronized VersionValue put(BytesRef uid, int hash, VersionValue value) {
+            long id = uids.add(uid, hash);
+            final VersionValue previous;
+            if (id < 0) {
+                id = -1 - id;
+                previous = valueAt(id);
+            } else {
+                grow(id + 1);
+                updateRamBytesUsed();
+                previous = null;
+            }
+            if (previous == null) {
+                size++;
+            }
+            versions.set(id, value.version);
+            seqNos.set(id, value.seqNo);
+            terms.set(id, value.term);
+            if (value.isDelete()) {
+                generations.set(id, DELETE);
+                locations.set(id, ((DeleteVersionValue) value).time);
+            } else {
+                final Translog.Location location = value.getLocation();
+                if (location == null) {
+                    generations.set(id, NO_LOCATION);
+                } else {
+                    assert location.generation >= 0 : "unexpected translog generation " + location.generation;
+                    generations.set(id, location.generation);
+                    locations.set(id, location.translogLocation);
+                    sizes.set(id, location.size);
+                }
+            }
+            return previous;
+        }
+
+        synchronized VersionValue remove(BytesRef uid, int hash) {
+            final long id = uids.find(uid, hash);
+            if (id < 0) {
+                return null;
+            }
+            final VersionValue previous = valueAt(id);
+            if (previous != null) {
+                generations.set(id, REMOVED);
+                size--;
+            }
+            return previous;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            for (long id = 0; id < uids.size(); id++) {
+                generations.set(id, REMOVED);
+            }
+            size = 0;
+        }
+
+        synchronized void collect(List<Entry<BytesRef, VersionValue>> entries) {
+            final BytesRef spare = new BytesRef();
+            for (long id = 0; id < uids.size(); id++) {
+                final VersionValue value = valueAt(id);
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(BytesRef.deepCopyOf(uids.get(id, spare)), value));
+                }
+            }
+        }
+
+        private VersionValue valueAt(long id) {
+            final long generation = generations.get(id);
+            if (generation == REMOVED) {
+                return null;
+            }
+            final long version = versions.get(id);
+            final long seqNo = seqNos.get(id);
+            final long term = terms.get(id);
+            if (generation == DELETE) {
+                return new DeleteVersionValue(version, seqNo, term, locations.get(id));
+            }
+            final Translog.Location location = generation == NO_LOCATION
+                ? null
+                : new Translog.Location(generation, locations.get(id), sizes.get(id));
+            return new IndexVersionValue(location, version, seqNo, term);
+        }
+
+        private void grow(long minSize) {
+            if (minSize <= versions.size()) {
+                return;
+            }
+            versions = bigArrays.grow(versions, minSize);
+            seqNos = bigArrays.grow(seqNos, minSize);
+            terms = bigArrays.grow(terms, minSize);
+            generations = bigArrays.grow(generations, minSize);
+            locations = bigArrays.grow(locations, minSize);
+            sizes = bigArrays.grow(sizes, minSize);
+        }
+
+        private void updateRamBytesUsed() {
+            ramBytesUsed = SHALLOW_SIZE + uids.ramBytesUsed() + versions.ramBytesUsed() + seqNos.ramBytesUsed() + terms.ramBytesUsed()
+                + generations.ramBytesUsed() + locations.ramBytesUsed() + sizes.ramBytesUsed();
+        }
+    }
+}
@@ -53,6 +53,8 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    // a cap on the rate of the auto IO throttle, set by the node's MergeRateController
+    private double maxMergeMBPerSec = Double.POSITIVE_INFINITY;
 
     ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
         this.config = indexSettings.getMergeSchedulerConfig();
@@ -189,6 +191,29 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         return thread;
     }
 
+    /**
+     * Caps the rate at which each merge may write while the auto IO throttle is enabled. The auto IO throttle keeps adapting the
+     * rate to the merge backlog, but never above this cap. Lucene only applies the rate of the auto IO throttle to merges of at
+     * least 50MB that aren't forced, so the cap doesn't apply to smaller merges, to forced merges, or to any merge of an index with
+     * {@code index.merge.scheduler.auto_throttle} set to false.
+     */
+    synchronized void setMaxMergeMBPerSec(double mbPerSec) {
+        if (mbPerSec != maxMergeMBPerSec) {
+            maxMergeMBPerSec = mbPerSec;
+            updateMergeThreads();
+        }
+    }
+
+    @Override
+    protected synchronized void updateMergeThreads() {
+        // called whenever the auto IO throttle changed its target rate, before it is applied to the merge threads; Lucene then
+        // leaves merges under its 50MB big merge floor and forced merges unthrottled, and ignores the rate without auto throttle
+        if (targetMBPerSec > maxMergeMBPerSec) {
+            targetMBPerSec = maxMergeMBPerSec;
+        }
+        super.updateMergeThreads();
+    }
+
     MergeStats stats() {
         final MergeStats mergeStats = new MergeStats();
         mergeStats.add(
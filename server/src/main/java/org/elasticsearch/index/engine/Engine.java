@@ -181,6 +181,12 @@ public abstract class Engine implements Closeable {
         return new MergeStats();
     }
 
+    /**
+     * Caps the rate in MB per second at which each merge of this engine may write, on top of the auto IO throttle of the merge
+     * scheduler. {@link Double#POSITIVE_INFINITY} removes the cap.
+     */
+    public void setMergeRateLimit(double mbPerSec) {}
+
     /** returns the history uuid for the engine */
     public abstract String getHistoryUUID();
 
@@ -701,6 +707,16 @@ public abstract class Engine implements Closeable {
         Function<Engine.Searcher, Engine.Searcher> searcherWrapper
     );
 
+    /**
+     * Prepares a batch of realtime gets of the given ids, like the items of a multi get on this shard, so that the gets don't each
+     * have to do the same work on their own. Implementations may refresh once for the whole batch and read the translog operations
+     * of the ids ahead of time. The returned operations are keyed by their translog location and should be passed to the gets of
+     * the batch with {@link Get#translogOperations(Map)}. The default implementation prepares nothing.
+     */
+    public Map<Translog.Location, Translog.Operation> prepareRealtimeGets(List<String> ids) {
+        return Map.of();
+    }
+
     /**
      * Similar to {@link Engine#get}, but it only attempts to serve the get from the translog.
      * If not found in translog, it returns null, as {@link GetResult#NOT_EXISTS} could mean deletion.
@@ -1763,6 +1779,7 @@ public abstract class Engine implements Closeable {
         private VersionType versionType = VersionType.INTERNAL;
         private long ifSeqNo = UNASSIGNED_SEQ_NO;
         private long ifPrimaryTerm = UNASSIGNED_PRIMARY_TERM;
+        private Map<Translog.Location, Translog.Operation> translogOperations = Map.of();
 
         public Get(boolean realtime, boolean readFromTranslog, String id) {
             this.realtime = realtime;
@@ -1823,6 +1840,19 @@ public abstract class Engine implements Closeable {
             return ifPrimaryTerm;
         }
 
+        /**
+         * Sets the translog operations that were read ahead of this get by {@link Engine#prepareRealtimeGets(List)}. The get is
+         * served from these instead of reading the translog again if the id is still at one of their locations.
+         */
+        public Get translogOperations(Map<Translog.Location, Translog.Operation> translogOperations) {
+            this.translogOperations = Objects.requireNonNull(translogOperations);
+            return this;
+        }
+
+        public Map<Translog.Location, Translog.Operation> translogOperations() {
+            return translogOperations;
+        }
+
     }
 
     public static class GetResult implements Releasable {
@@ -112,6 +112,17 @@ public final class EngineConfig {
     // don't convert to Setting<> and register... we only set this in tests and register via a test plugin
     public static final String USE_COMPOUND_FILE = "index.use_compound_file";
 
+    /**
+     * Index setting to keep the live version map in compact {@link CompactVersionMap}s, which store the versions of recently indexed
+     * ids in paged primitive arrays rather than in an object graph per id. This lowers the heap used by the version map of indices that
+     * receive many updates between two refreshes. This setting is <b>not</b> realtime updateable.
+     */
+    public static final Setting<Boolean> INDEX_COMPACT_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.compact_version_map",
+        false,
+        Property.IndexScope
+    );
+
     /**
      * Legacy index setting, kept for 7.x BWC compatibility. This setting has no effect in 8.x. Do not use.
      * TODO: Remove in 9.0
@@ -98,6 +98,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -231,7 +232,10 @@ public class InternalEngine extends Engine {
         this.relativeTimeInNanosSupplier = config().getRelativeTimeInNanosSupplier();
         this.lastFlushTimestamp = relativeTimeInNanosSupplier.getAsLong(); // default to creation timestamp
         this.liveVersionMapArchive = createLiveVersionMapArchive();
-        this.versionMap = new LiveVersionMap(liveVersionMapArchive);
+        this.versionMap = new LiveVersionMap(
+            liveVersionMapArchive,
+            EngineConfig.INDEX_COMPACT_VERSION_MAP_SETTING.get(engineConfig.getIndexSettings().getSettings())
+        );
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
         store.incRef();
         IndexWriter writer = null;
@@ -858,6 +862,48 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * Looks up all ids in the version map at once. The ids whose translog location is known are read from the translog in location
+     * order, and the ids that can only be served by the internal searcher are made visible with at most one refresh, rather than
+     * each get of the batch possibly refreshing on its own.
+     */
+    @Override
+    public Map<Translog.Location, Translog.Operation> prepareRealtimeGets(List<String> ids) {
+        try (var ignored = acquireEnsureOpenRef()) {
+            final List<Translog.Location> locations = new ArrayList<>();
+            long maxSeqNoToRefresh = SequenceNumbers.NO_OPS_PERFORMED;
+            for (String id : ids) {
+                final BytesRef uid = Uid.encodeId(id);
+                final VersionValue versionValue;
+                try (Releasable ignore = versionMap.acquireLock(uid)) {
+                    versionValue = getVersionFromMap(uid);
+                }
+                if (versionValue == null || versionValue.isDelete()) {
+                    continue;
+                }
+                if (versionValue.getLocation() != null) {
+                    locations.add(versionValue.getLocation());
+                } else {
+                    // same as a single realtime get, start tracking translog locations so that the next batch can read them
+                    trackTranslogLocation.set(true);
+                    maxSeqNoToRefresh = Math.max(maxSeqNoToRefresh, versionValue.seqNo);
+                }
+            }
+            if (maxSeqNoToRefresh != SequenceNumbers.NO_OPS_PERFORMED) {
+                refreshIfNeeded(REAL_TIME_GET_REFRESH_SOURCE, maxSeqNoToRefresh);
+            }
+            if (locations.isEmpty()) {
+                return Map.of();
+            }
+            try {
+                return translog.readOperations(locations);
+            } catch (IOException e) {
+                maybeFailEngine("realtime_get", e); // lets check if the translog has failed with a tragic event
+                throw new EngineException(shardId, "failed to read operations from translog", e);
+            }
+        }
+    }
+
     /**
      * @param getFromSearcher indicates whether we also try the internal searcher if not found in translog. In the case where
      * we just started tracking locations in the translog, we always use the internal searcher.
@@ -915,7 +961,10 @@ public class InternalEngine extends Engine {
                 if (get.isReadFromTranslog()) {
                     if (versionValue.getLocation() != null) {
                         try {
-                            final Translog.Operation operation = translog.readOperation(versionValue.getLocation());
+                            Translog.Operation operation = get.translogOperations().get(versionValue.getLocation());
+                            if (operation == null) {
+                                operation = translog.readOperation(versionValue.getLocation());
+                            }
                             if (operation != null) {
                                 return getFromTranslog(get, (Translog.Index) operation, mappingLookup, documentParser, searcherWrapper);
                             }
@@ -2956,6 +3005,11 @@ public class InternalEngine extends Engine {
         softDeletesPolicy.setRetentionOperations(config().getIndexSettings().getSoftDeleteRetentionOperations());
     }
 
+    @Override
+    public void setMergeRateLimit(double mbPerSec) {
+        mergeScheduler.setMaxMergeMBPerSec(mbPerSec);
+    }
+
     public MergeStats getMergeStats() {
         return mergeScheduler.stats();
     }
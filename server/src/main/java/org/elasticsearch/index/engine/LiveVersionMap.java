@@ -28,19 +28,32 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
     private final LiveVersionMapArchive archive;
 
+    private final boolean compact;
+
     LiveVersionMap() {
         this(LiveVersionMapArchive.NOOP_ARCHIVE);
     }
 
     LiveVersionMap(LiveVersionMapArchive archive) {
+        this(archive, false);
+    }
+
+    /**
+     * @param compact whether to keep the versions of the current and old maps in a {@link CompactVersionMap} rather than in a
+     *                concurrent map of {@link VersionValue} objects
+     */
+    LiveVersionMap(LiveVersionMapArchive archive, boolean compact) {
         this.archive = archive;
+        this.compact = compact;
+        this.maps = new Maps(compact);
+        this.unsafeKeysMap = new Maps(compact);
     }
 
     public static final class VersionLookup {
 
         /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
          *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
-         *  clear this from RAM. */
+         *  clear this from RAM. A {@link CompactVersionMap} reports the size of its arrays instead. */
         final AtomicLong ramBytesUsed = new AtomicLong();
 
         private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
@@ -79,6 +92,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
             this.map = map;
         }
 
+        static VersionLookup newLookup(boolean compact, int expectedSize) {
+            return new VersionLookup(
+                compact
+                    ? new CompactVersionMap(expectedSize)
+                    : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(expectedSize)
+            );
+        }
+
         public VersionValue get(BytesRef key) {
             return map.get(key);
         }
@@ -124,14 +145,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         void adjustRamUsage(long value) {
-            if (value != 0) {
+            if (value != 0 && map instanceof CompactVersionMap == false) {
                 long v = ramBytesUsed.addAndGet(value);
                 assert v >= 0 : "bytes=" + v;
             }
         }
 
         public long ramBytesUsed() {
-            return ramBytesUsed.get();
+            return map instanceof CompactVersionMap compactMap ? compactMap.ramBytesUsed() : ramBytesUsed.get();
         }
 
         public static long mapEntryBytesUsed(BytesRef key, VersionValue value) {
@@ -156,15 +177,17 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // have the volatile read of the Maps reference to make it visible even across threads.
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
+        final boolean compact;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, boolean compact) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.compact = compact;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(boolean compact) {
+            this(VersionLookup.newLookup(compact, 16), VersionLookup.EMPTY, false, compact);
         }
 
         boolean isSafeAccessMode() {
@@ -182,18 +205,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(VersionLookup.newLookup(compact, current.size()), current, shouldInheritSafeAccess(), compact);
         }
 
         /**
          * similar to `invalidateOldMap` but used only for the `unsafeKeysMap` used for assertions
          */
         Maps invalidateOldMapForAssert() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         /**
@@ -201,7 +220,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps invalidateOldMap(LiveVersionMapArchive archive) {
             archive.afterRefresh(old);
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -223,17 +242,17 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         long ramBytesUsed() {
-            return current.ramBytesUsed.get() + old.ramBytesUsed.get();
+            return current.ramBytesUsed() + old.ramBytesUsed();
         }
     }
 
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap;
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -462,7 +481,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(compact);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedForTombstones is non-zero after clear since the
@@ -494,7 +513,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      */
     long reclaimableRefreshRamBytes() {
         return archive == LiveVersionMapArchive.NOOP_ARCHIVE
-            ? maps.current.ramBytesUsed.get()
+            ? maps.current.ramBytesUsed()
             : maps.ramBytesUsed() + archive.getReclaimableRamBytes();
     }
 
@@ -511,7 +530,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * fraction of the Archive entries that are kept around until an ongoing unpromotable refresh is finished.
      */
     long getRefreshingBytes() {
-        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed.get() : archive.getRefreshingRamBytes();
+        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed() : archive.getRefreshingRamBytes();
     }
 
     /**
@@ -27,6 +27,12 @@ import java.util.Set;
  * Generates a {@link LeafStoredFieldLoader} for a given lucene segment to load stored fields.
  */
 public abstract class StoredFieldLoader {
+    /**
+     * The largest average distance between the documents in a segment's document set for which
+     * {@link #fromSpecBatched} reads them with the merge reader. Blocks usually hold many more documents
+     * than this so most blocks will have a few documents to load.
+     */
+    static final int MAX_AVERAGE_GAP_FOR_BATCHED_READS = 8;
 
     /**
      * Return a {@link LeafStoredFieldLoader} for the given segment and document set
@@ -72,6 +78,35 @@ public abstract class StoredFieldLoader {
         };
     }
 
+    /**
+     * Creates a new StoredFieldLoader using a StoredFieldsSpec that is optimized
+     * for loading batches of documents that are close together. Lucene compresses
+     * stored fields in blocks of documents, so if the document set of a segment is
+     * dense enough that many of its documents share a block the loader will use an
+     * internal lucene merge reader that decompresses each block once rather than
+     * once per document.
+     */
+    public static StoredFieldLoader fromSpecBatched(StoredFieldsSpec spec) {
+        if (spec.noRequirements()) {
+            return StoredFieldLoader.empty();
+        }
+        List<String> fieldsToLoad = fieldsToLoad(spec.requiresSource(), spec.requiredStoredFields());
+        return new StoredFieldLoader() {
+            @Override
+            public LeafStoredFieldLoader getLoader(LeafReaderContext ctx, int[] docs) throws IOException {
+                CheckedBiConsumer<Integer, FieldsVisitor, IOException> reader = docs != null && hasDenseDocs(docs)
+                    ? sequentialReader(ctx)
+                    : reader(ctx, docs);
+                return new ReaderStoredFieldLoader(reader, spec.requiresSource(), spec.requiredStoredFields());
+            }
+
+            @Override
+            public List<String> fieldsToLoad() {
+                return fieldsToLoad;
+            }
+        };
+    }
+
     /**
      * Creates a new StoredFieldLoader using a StoredFieldsSpec that is optimized
      * for loading documents in order.
@@ -160,6 +195,13 @@ public abstract class StoredFieldLoader {
         return docs.length > 0 && docs[docs.length - 1] - docs[0] == docs.length - 1;
     }
 
+    /**
+     * Are the sorted {@code docs} at most {@link #MAX_AVERAGE_GAP_FOR_BATCHED_READS} apart on average?
+     */
+    private static boolean hasDenseDocs(int[] docs) {
+        return docs.length > 10 && (long) docs[docs.length - 1] - docs[0] + 1 <= (long) docs.length * MAX_AVERAGE_GAP_FOR_BATCHED_READS;
+    }
+
     private static class EmptyStoredFieldLoader implements LeafStoredFieldLoader {
 
         @Override
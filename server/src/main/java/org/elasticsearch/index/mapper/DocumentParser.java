@@ -539,7 +539,8 @@ public final class DocumentParser {
         if (mapper != null) {
             // There is a concrete mapper for this field already. Need to check if the mapper
             // expects an array, if so we pass the context straight to the mapper and if not
-            // we serialize the array components
+            // we serialize the array components. Values of a mapped field never create dynamic
+            // mappers for it, so there is no dynamic array mapping to post process.
             if (parsesArrayValue(mapper)) {
                 parseObjectOrField(context, mapper);
             } else {
@@ -558,6 +559,7 @@ public final class DocumentParser {
             Mapper objectMapperFromTemplate = DynamicFieldsBuilder.createObjectMapperFromTemplate(context, currentFieldName);
             if (objectMapperFromTemplate == null) {
                 parseNonDynamicArray(context, currentFieldName, currentFieldName);
+                postProcessDynamicArrayMapping(context, currentFieldName);
             } else {
                 if (parsesArrayValue(objectMapperFromTemplate)) {
                     if (context.addDynamicMapper(objectMapperFromTemplate) == false) {
@@ -569,6 +571,7 @@ public final class DocumentParser {
                     context.path().remove();
                 } else {
                     parseNonDynamicArray(context, currentFieldName, currentFieldName);
+                    postProcessDynamicArrayMapping(context, currentFieldName);
                 }
             }
         }
@@ -596,7 +599,6 @@ public final class DocumentParser {
                 parseValue(context, lastFieldName);
             }
         }
-        postProcessDynamicArrayMapping(context, lastFieldName);
     }
 
     /**
@@ -737,6 +739,10 @@ public final class DocumentParser {
         // concrete fields take precedence over runtime fields when parsing documents
         // if a leaf field is not mapped, and is defined as a runtime field, then we
         // don't create a dynamic mapping for it and don't index it.
+        if (context.mappingLookup().unmappedLeavesMayHaveFieldTypes() == false) {
+            // the mapping has no field types that could be found by their full path only, no need to build it
+            return null;
+        }
         String fieldPath = context.path().pathAsText(fieldName);
         MappedFieldType fieldType = context.mappingLookup().getFieldType(fieldPath);
         if (fieldType != null) {
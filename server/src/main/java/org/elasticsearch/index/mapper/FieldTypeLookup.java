@@ -120,6 +120,13 @@ final class FieldTypeLookup {
         return getDynamicField(field);
     }
 
+    /**
+     * Returns whether some fields resolve the field types of their keys, like {@code flattened} fields do.
+     */
+    boolean hasDynamicFieldTypes() {
+        return dynamicFieldTypes.isEmpty() == false;
+    }
+
     // for testing
     int getMaxParentPathDots() {
         return maxParentPathDots;
@@ -56,6 +56,7 @@ public final class MappingLookup {
     private final Mapping mapping;
     private final Set<String> completionFields;
     private final int totalFieldsCount;
+    private final boolean unmappedLeavesMayHaveFieldTypes;
 
     /**
      * Creates a new {@link MappingLookup} instance by parsing the provided mapping and extracting its field definitions.
@@ -187,6 +188,10 @@ public final class MappingLookup {
         this.indexAnalyzersMap = Map.copyOf(indexAnalyzersMap);
         this.completionFields = Set.copyOf(completionFields);
         this.indexTimeScriptMappers = List.copyOf(indexTimeScriptMappers);
+        this.unmappedLeavesMayHaveFieldTypes = runtimeFields.isEmpty() == false
+            || fieldTypeLookup.hasDynamicFieldTypes()
+            || mapping.getRoot().subobjects() == false
+            || objects.values().stream().anyMatch(objectMapper -> objectMapper.subobjects() == false);
 
         runtimeFields.stream().flatMap(RuntimeField::asMappedFieldTypes).map(MappedFieldType::name).forEach(this::validateDoesNotShadow);
         assert assertMapperNamesInterned(this.fieldMappers, this.objectMappers);
@@ -217,6 +222,16 @@ public final class MappingLookup {
         return fieldMappers.get(field);
     }
 
+    /**
+     * Returns whether a leaf that has no mapper under its parent object may still be resolved to a field type by its full path. This
+     * is the case for runtime fields, for the keys of fields like {@code flattened} and for the dotted names of fields under objects
+     * that don't support subobjects. This is computed once per mapping so that document parsing doesn't have to build the full
+     * path of every unmapped leaf to look it up.
+     */
+    boolean unmappedLeavesMayHaveFieldTypes() {
+        return unmappedLeavesMayHaveFieldTypes;
+    }
+
     FieldTypeLookup fieldTypesLookup() {
         return fieldTypeLookup;
     }
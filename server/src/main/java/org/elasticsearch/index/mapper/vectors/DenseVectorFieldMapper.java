@@ -69,6 +69,8 @@ import org.elasticsearch.search.vectors.ESDiversifyingChildrenByteKnnVectorQuery
 import org.elasticsearch.search.vectors.ESDiversifyingChildrenFloatKnnVectorQuery;
 import org.elasticsearch.search.vectors.ESKnnByteVectorQuery;
 import org.elasticsearch.search.vectors.ESKnnFloatVectorQuery;
+import org.elasticsearch.search.vectors.KnnSearchBuilder;
+import org.elasticsearch.search.vectors.RescoreKnnVectorQuery;
 import org.elasticsearch.search.vectors.VectorSimilarityQuery;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.XContentBuilder;
@@ -1241,6 +1243,22 @@ public class DenseVectorFieldMapper extends FieldMapper {
             Query filter,
             Float similarityThreshold,
             BitSetProducer parentFilter
+        ) {
+            return createKnnQuery(queryVector, numCands, filter, similarityThreshold, parentFilter, null);
+        }
+
+        /**
+         * Creates a kNN query that retrieves {@code oversample} times more candidates than {@code numCands}, up to
+         * {@link KnnSearchBuilder#NUM_CANDS_LIMIT}, and rescores them with the full precision vectors before keeping the top
+         * {@code numCands}. This is meant for quantized index types, whose search scores are approximations.
+         */
+        public Query createKnnQuery(
+            float[] queryVector,
+            int numCands,
+            Query filter,
+            Float similarityThreshold,
+            BitSetProducer parentFilter,
+            Float oversample
         ) {
             if (isIndexed() == false) {
                 throw new IllegalArgumentException(
@@ -1268,6 +1286,17 @@ public class DenseVectorFieldMapper extends FieldMapper {
                     }
                 }
             }
+            if (oversample != null && elementType != ElementType.FLOAT) {
+                throw new IllegalArgumentException(
+                    "[oversample] is only supported on fields with ["
+                        + ElementType.FLOAT
+                        + "] elements, but ["
+                        + name()
+                        + "] has ["
+                        + elementType
+                        + "] elements"
+                );
+            }
             Query knnQuery = switch (elementType) {
                 case BYTE -> {
                     byte[] bytes = new byte[queryVector.length];
@@ -1278,9 +1307,26 @@ public class DenseVectorFieldMapper extends FieldMapper {
                         ? new ESDiversifyingChildrenByteKnnVectorQuery(name(), bytes, filter, numCands, parentFilter)
                         : new ESKnnByteVectorQuery(name(), bytes, numCands, filter);
                 }
-                case FLOAT -> parentFilter != null
-                    ? new ESDiversifyingChildrenFloatKnnVectorQuery(name(), queryVector, filter, numCands, parentFilter)
-                    : new ESKnnFloatVectorQuery(name(), queryVector, numCands, filter);
+                case FLOAT -> {
+                    if (oversample == null) {
+                        yield parentFilter != null
+                            ? new ESDiversifyingChildrenFloatKnnVectorQuery(name(), queryVector, filter, numCands, parentFilter)
+                            : new ESKnnFloatVectorQuery(name(), queryVector, numCands, filter);
+                    }
+                    int candidates = (int) Math.min(Math.ceil(numCands * oversample), KnnSearchBuilder.NUM_CANDS_LIMIT);
+                    candidates = Math.max(numCands, candidates);
+                    Query candidatesQuery = parentFilter != null
+                        ? new ESDiversifyingChildrenFloatKnnVectorQuery(name(), queryVector, filter, candidates, parentFilter)
+                        : new ESKnnFloatVectorQuery(name(), queryVector, candidates, filter);
+                    yield new RescoreKnnVectorQuery(
+                        name(),
+                        queryVector,
+                        similarity.vectorSimilarityFunction(indexVersionCreated, elementType),
+                        numCands,
+                        candidatesQuery,
+                        candidates
+                    );
+                }
             };
 
             if (similarityThreshold != null) {
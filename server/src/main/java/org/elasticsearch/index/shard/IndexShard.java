@@ -33,6 +33,7 @@ import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.action.admin.indices.forcemerge.ForceMergeRequest;
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.RefCountingListener;
 import org.elasticsearch.action.support.SubscribableListener;
 import org.elasticsearch.action.support.replication.PendingReplicationActions;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
@@ -132,6 +133,7 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
@@ -224,6 +226,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ReplicationTracker replicationTracker;
     private final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier;
     private final Engine.IndexCommitListener indexCommitListener;
+    /**
+     * Coalesces {@link #syncAfterWrite} with the translog syncs of other shards on the node, {@code null} if each shard syncs its
+     * own translog.
+     */
+    @Nullable
+    private final TranslogSyncCoordinator.ShardSyncs translogSyncs;
     private FieldInfos fieldInfos;
     // sys prop to disable the field has value feature, defaults to true (enabled) if set to false (disabled) the
     // field caps always returns empty fields ignoring the value of the query param `field_caps_empty_fields_filter`.
@@ -273,6 +281,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         IndexShardState.STARTED
     );
 
+    // the number of translog operations per thread that are read before they are replayed concurrently
+    private static final int TRANSLOG_RECOVERY_PARTITION_BATCH_SIZE = 1024;
+
     private final CheckedFunction<DirectoryReader, DirectoryReader, IOException> readerWrapper;
 
     /**
@@ -321,7 +332,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final CircuitBreakerService circuitBreakerService,
         final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
         final LongSupplier relativeTimeInNanosSupplier,
-        final Engine.IndexCommitListener indexCommitListener
+        final Engine.IndexCommitListener indexCommitListener,
+        @Nullable final TranslogSyncCoordinator translogSyncCoordinator
     ) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
@@ -407,6 +419,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.refreshFieldHasValueListener = new RefreshFieldHasValueListener();
         this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
         this.indexCommitListener = indexCommitListener;
+        this.translogSyncs = translogSyncCoordinator == null
+            ? null
+            : translogSyncCoordinator.register(translogConfig.getTranslogPath(), (location, listener) -> {
+                // the engine syncs on the thread that runs the coordinator's wave unless another thread is already syncing
+                getEngine().asyncEnsureTranslogSynced(location, listener);
+            });
         this.fieldInfos = FieldInfos.EMPTY;
     }
 
@@ -1240,7 +1258,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final MultiEngineGet mget = new MultiEngineGet(this::wrapSearcher) {
             @Override
             public GetResult get(Engine.Get get) {
-                return innerGet(get, false, this::wrapSearchSearchWithCache);
+                return innerGet(get.translogOperations(translogOperations()), false, this::wrapSearchSearchWithCache);
+            }
+
+            @Override
+            Map<Translog.Location, Translog.Operation> doPrepareRealtimeGets(List<String> ids) {
+                readAllowed();
+                if (mapperService.mappingLookup().hasMappings() == false) {
+                    return Map.of();
+                }
+                return getEngine().prepareRealtimeGets(ids);
             }
         };
         try {
@@ -1388,6 +1415,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return engine.getMergeStats();
     }
 
+    /**
+     * Caps the rate at which each merge of this shard may write, see {@link Engine#setMergeRateLimit(double)}.
+     */
+    public void setMergeRateLimit(double mbPerSec) {
+        final Engine engine = getEngineOrNull();
+        if (engine != null) {
+            engine.setMergeRateLimit(mbPerSec);
+        }
+    }
+
     public SegmentsStats segmentStats(boolean includeSegmentFileSizes, boolean includeUnloadedSegments) {
         SegmentsStats segmentsStats = getEngine().segmentsStats(includeSegmentFileSizes, includeUnloadedSegments);
         segmentsStats.addBitsetMemoryInBytes(shardBitsetFilterCache.getMemorySizeInBytes());
@@ -1989,38 +2026,127 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      */
     int runTranslogRecovery(Engine engine, Translog.Snapshot snapshot, Engine.Operation.Origin origin, Runnable onOperationRecovered)
         throws IOException {
+        final int concurrency = indexSettings.getTranslogRecoveryConcurrency();
+        if (concurrency > 1 && origin == Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY) {
+            return runTranslogRecoveryConcurrently(engine, snapshot, origin, onOperationRecovered, concurrency);
+        }
         int opsRecovered = 0;
         Translog.Operation operation;
         while ((operation = snapshot.next()) != null) {
-            try {
-                logger.trace("[translog] recover op {}", operation);
-                Engine.Result result = applyTranslogOperation(engine, operation, origin);
-                switch (result.getResultType()) {
-                    case FAILURE:
-                        throw result.getFailure();
-                    case MAPPING_UPDATE_REQUIRED:
-                        throw new IllegalArgumentException("unexpected mapping update: " + result.getRequiredMappingUpdate());
-                    case SUCCESS:
-                        break;
-                    default:
-                        throw new AssertionError("Unknown result type [" + result.getResultType() + "]");
-                }
-
+            if (applyTranslogRecoveryOperation(engine, operation, origin)) {
                 opsRecovered++;
                 onOperationRecovered.run();
-            } catch (Exception e) {
-                // TODO: Don't enable this leniency unless users explicitly opt-in
-                if (origin == Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY && ExceptionsHelper.status(e) == RestStatus.BAD_REQUEST) {
-                    // mainly for MapperParsingException and Failure to detect xcontent
-                    logger.info("ignoring recovery of a corrupt translog entry", e);
-                } else {
-                    throw ExceptionsHelper.convertToRuntime(e);
-                }
             }
         }
         return opsRecovered;
     }
 
+    /**
+     * Replays the translog operations of the {@code snapshot} on {@code concurrency} threads of the write thread pool. Operations are
+     * read in batches that are partitioned by the hash of their _id, so that the operations on a document are replayed by a single thread
+     * in the order of the translog, and no-ops are partitioned by sequence number. The engine applies the operations of the different
+     * partitions out of order the same way as it does on replicas, and the local checkpoint tracker marks their sequence numbers as
+     * processed in any order.
+     */
+    private int runTranslogRecoveryConcurrently(
+        Engine engine,
+        Translog.Snapshot snapshot,
+        Engine.Operation.Origin origin,
+        Runnable onOperationRecovered,
+        int concurrency
+    ) throws IOException {
+        final AtomicInteger opsRecovered = new AtomicInteger();
+        final int maxBatchSize = TRANSLOG_RECOVERY_PARTITION_BATCH_SIZE * concurrency;
+        Translog.Operation operation = snapshot.next();
+        while (operation != null) {
+            final List<List<Translog.Operation>> partitions = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                partitions.add(new ArrayList<>());
+            }
+            int batchSize = 0;
+            while (operation != null && batchSize < maxBatchSize) {
+                partitions.get(translogRecoveryPartition(operation, concurrency)).add(operation);
+                batchSize++;
+                operation = snapshot.next();
+            }
+            logger.trace("[translog] recover batch of [{}] ops on [{}] threads", batchSize, concurrency);
+            final PlainActionFuture<Void> batchFuture = new PlainActionFuture<>();
+            try (RefCountingListener listeners = new RefCountingListener(batchFuture)) {
+                for (List<Translog.Operation> partition : partitions) {
+                    if (partition.isEmpty()) {
+                        continue;
+                    }
+                    final ActionListener<Void> partitionListener = listeners.acquire();
+                    threadPool.executor(ThreadPool.Names.WRITE).execute(new AbstractRunnable() {
+                        @Override
+                        protected void doRun() {
+                            for (Translog.Operation op : partition) {
+                                if (applyTranslogRecoveryOperation(engine, op, origin)) {
+                                    opsRecovered.incrementAndGet();
+                                    onOperationRecovered.run();
+                                }
+                            }
+                            partitionListener.onResponse(null);
+                        }
+
+                        @Override
+                        public boolean isForceExecution() {
+                            // the recovery waits for all partitions of the batch, rejecting one of them would fail the recovery
+                            return true;
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            partitionListener.onFailure(e);
+                        }
+                    });
+                }
+            }
+            batchFuture.actionGet();
+        }
+        return opsRecovered.get();
+    }
+
+    private static int translogRecoveryPartition(Translog.Operation operation, int concurrency) {
+        final String id = switch (operation.opType()) {
+            case INDEX -> ((Translog.Index) operation).id();
+            case DELETE -> ((Translog.Delete) operation).id();
+            default -> null;
+        };
+        return id == null ? (int) Math.floorMod(operation.seqNo(), (long) concurrency) : Math.floorMod(id.hashCode(), concurrency);
+    }
+
+    /**
+     * Applies a single translog operation during recovery and returns whether it was recovered. Corrupt entries of the local translog
+     * are ignored.
+     */
+    private boolean applyTranslogRecoveryOperation(Engine engine, Translog.Operation operation, Engine.Operation.Origin origin) {
+        try {
+            logger.trace("[translog] recover op {}", operation);
+            Engine.Result result = applyTranslogOperation(engine, operation, origin);
+            switch (result.getResultType()) {
+                case FAILURE:
+                    throw result.getFailure();
+                case MAPPING_UPDATE_REQUIRED:
+                    throw new IllegalArgumentException("unexpected mapping update: " + result.getRequiredMappingUpdate());
+                case SUCCESS:
+                    break;
+                default:
+                    throw new AssertionError("Unknown result type [" + result.getResultType() + "]");
+            }
+            return true;
+        } catch (Exception e) {
+            // TODO: Don't enable this leniency unless users explicitly opt-in
+            if (origin == Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY && ExceptionsHelper.status(e) == RestStatus.BAD_REQUEST) {
+                // mainly for MapperParsingException and Failure to detect xcontent
+                logger.info("ignoring recovery of a corrupt translog entry", e);
+                return false;
+            } else {
+                throw ExceptionsHelper.convertToRuntime(e);
+            }
+        }
+    }
+
     private void loadGlobalCheckpointToReplicationTracker() throws IOException {
         if (shardRouting.isPromotableToPrimary()) {
             // we have to set it before we open an engine and recover from the translog because
@@ -3785,6 +3911,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only one thread
      * blocking on the sync an all others can continue indexing.
      * <p>
+     * If the node's {@link TranslogSyncCoordinator} is enabled the sync is instead deferred to its next wave so the caller thread is
+     * never hijacked.
+     * <p>
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
@@ -3792,7 +3921,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         // TODO AwaitsFix https://github.com/elastic/elasticsearch/issues/97183
         // assert indexShardOperationPermits.getActiveOperationsCount() != 0;
         verifyNotClosed();
-        getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        if (translogSyncs != null) {
+            translogSyncs.sync(location, syncListener);
+        } else {
+            getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        }
     }
 
     /**
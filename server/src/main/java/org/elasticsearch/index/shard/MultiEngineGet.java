@@ -11,7 +11,10 @@ package org.elasticsearch.index.shard;
 import org.apache.lucene.index.IndexReader;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.translog.Translog;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -22,6 +25,7 @@ import java.util.function.Function;
 public abstract class MultiEngineGet {
     private IndexReader.CacheKey lastKey;
     private Engine.Searcher lastWrapped;
+    private Map<Translog.Location, Translog.Operation> translogOperations = Map.of();
 
     private final Thread creationThread;
     private final Function<Engine.Searcher, Engine.Searcher> wrapper;
@@ -39,6 +43,24 @@ public abstract class MultiEngineGet {
 
     public abstract Engine.GetResult get(Engine.Get get);
 
+    /**
+     * Prepares the realtime gets of the given ids that this session is about to perform, see {@link Engine#prepareRealtimeGets(List)}.
+     */
+    public final void prepareRealtimeGets(List<String> ids) {
+        assert assertAccessingThread();
+        translogOperations = doPrepareRealtimeGets(ids);
+    }
+
+    abstract Map<Translog.Location, Translog.Operation> doPrepareRealtimeGets(List<String> ids);
+
+    /**
+     * Returns the translog operations that {@link #prepareRealtimeGets(List)} read ahead of the gets of this session.
+     */
+    final Map<Translog.Location, Translog.Operation> translogOperations() {
+        assert assertAccessingThread();
+        return translogOperations;
+    }
+
     final Engine.Searcher wrapSearchSearchWithCache(Engine.Searcher searcher) {
         assert assertAccessingThread();
         final IndexReader.CacheHelper cacheHelper = searcher.getIndexReader().getReaderCacheHelper();
@@ -46,9 +46,12 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalLong;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -705,6 +708,51 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         return null;
     }
 
+    /**
+     * Reads the operations at the given locations, like {@link #readOperation(Location)} does for each of them. The locations are read
+     * in the order of their generation and position under a single read lock, so that each translog file is read front to back.
+     *
+     * @return the operations by location, without the locations that are not in the translog anymore
+     */
+    public Map<Location, Operation> readOperations(Collection<Location> locations) throws IOException {
+        final List<Location> sortedLocations = new ArrayList<>(locations);
+        Collections.sort(sortedLocations);
+        final Map<Location, Operation> operations = new HashMap<>(sortedLocations.size());
+        try (ReleasableLock ignored = readLock.acquire()) {
+            ensureOpen();
+            final long minFileGeneration = getMinFileGeneration();
+            BaseTranslogReader reader = null;
+            for (Location location : sortedLocations) {
+                if (location.generation < minFileGeneration) {
+                    continue;
+                }
+                if (reader == null || reader.generation != location.generation) {
+                    reader = getReader(location.generation);
+                }
+                if (reader != null) {
+                    operations.put(location, reader.read(location));
+                }
+            }
+        } catch (final Exception ex) {
+            closeOnTragicEvent(ex);
+            throw ex;
+        }
+        return operations;
+    }
+
+    private BaseTranslogReader getReader(long generation) {
+        assert readLock.isHeldByCurrentThread() || writeLock.isHeldByCurrentThread();
+        if (current.generation == generation) {
+            return current;
+        }
+        for (int i = readers.size() - 1; i >= 0; i--) {
+            if (readers.get(i).generation == generation) {
+                return readers.get(i);
+            }
+        }
+        return null;
+    }
+
     private Snapshot newMultiSnapshot(TranslogSnapshot[] snapshots) throws IOException {
         final Closeable onClose;
         if (snapshots.length == 0) {
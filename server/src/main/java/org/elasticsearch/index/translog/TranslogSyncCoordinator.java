@@ -0,0 +1,300 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.util.concurrent.ThrottledTaskRunner;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.telemetry.metric.LongHistogram;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the translog syncs that write requests wait for across all the shards on a node.
+ * <p>
+ * With {@link Translog.Durability#REQUEST} every write request waits for its shard's translog to be fsynced up to its
+ * {@link Translog.Location}. Each shard already batches concurrent requests into a single fsync, but a node with hundreds of
+ * active shards still issues hundreds of small fsyncs for every round of bulk requests, each of them on a write thread. This
+ * collects the sync requests for all shards whose translogs live on the same device for up to {@link #WINDOW_SETTING} and then
+ * syncs every translog with pending requests in a single wave, at most {@link #MAX_CONCURRENT_SYNCS_SETTING} at a time. Each
+ * translog is synced once per wave, up to the highest location requested from it, so every request in the wave is durable by
+ * the time its listener is called.
+ * <p>
+ * The coordinator is disabled unless the window is set to more than {@code 0}.
+ */
+public final class TranslogSyncCoordinator {
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    /**
+     * How long to collect sync requests before syncing them. Larger windows coalesce more requests at the cost of latency.
+     */
+    public static final Setting<TimeValue> WINDOW_SETTING = Setting.timeSetting(
+        "indices.translog.sync_coordinator.window",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        TimeValue.timeValueSeconds(1),
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * The maximum number of translogs on the same device that are synced at the same time.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_SYNCS_SETTING = Setting.intSetting(
+        "indices.translog.sync_coordinator.max_concurrent_syncs",
+        4,
+        1,
+        Setting.Property.NodeScope
+    );
+
+    public static final String WAVE_SIZE_HISTOGRAM_NAME = "es.translog.sync_coordinator.wave.size.histogram";
+    public static final String BATCH_SIZE_HISTOGRAM_NAME = "es.translog.sync_coordinator.batch.size.histogram";
+    public static final String LATENCY_HISTOGRAM_NAME = "es.translog.sync_coordinator.latency.histogram";
+
+    private final ThreadPool threadPool;
+    private final TimeValue window;
+    private final int maxConcurrentSyncs;
+    private final ConcurrentMap<Object, Device> devices = ConcurrentCollections.newConcurrentMap();
+    private final LongHistogram waveSize;
+    private final LongHistogram batchSize;
+    private final LongHistogram latency;
+
+    public TranslogSyncCoordinator(Settings settings, ThreadPool threadPool, MeterRegistry meterRegistry) {
+        this.threadPool = threadPool;
+        this.window = WINDOW_SETTING.get(settings);
+        this.maxConcurrentSyncs = MAX_CONCURRENT_SYNCS_SETTING.get(settings);
+        this.waveSize = meterRegistry.registerLongHistogram(
+            WAVE_SIZE_HISTOGRAM_NAME,
+            "The number of translogs synced together in a single wave, expressed as a histogram",
+            "unit"
+        );
+        this.batchSize = meterRegistry.registerLongHistogram(
+            BATCH_SIZE_HISTOGRAM_NAME,
+            "The number of sync requests satisfied by a single translog sync, expressed as a histogram",
+            "unit"
+        );
+        this.latency = meterRegistry.registerLongHistogram(
+            LATENCY_HISTOGRAM_NAME,
+            "The time from the oldest sync request for a translog in a wave until that translog was synced, expressed as a histogram",
+            "millis"
+        );
+    }
+
+    /**
+     * Is the coordinator enabled? If not then shards should sync their translogs themselves.
+     */
+    public boolean isEnabled() {
+        return window.nanos() > 0;
+    }
+
+    /**
+     * Register a shard's translog with the coordinator.
+     *
+     * @param translogPath where the translog lives, used to group translogs on the same device
+     * @param syncer syncs the translog up to a location and calls the listener when done, with the failure if it failed
+     * @return a handle to request syncs through or {@code null} if the coordinator is disabled
+     */
+    @Nullable
+    public ShardSyncs register(Path translogPath, BiConsumer<Translog.Location, Consumer<Exception>> syncer) {
+        if (isEnabled() == false) {
+            return null;
+        }
+        Device device = devices.computeIfAbsent(deviceKey(translogPath), k -> new Device(k.toString()));
+        return new ShardSyncs(device, syncer);
+    }
+
+    private static Object deviceKey(Path path) {
+        try {
+            return Files.getFileStore(path);
+        } catch (IOException e) {
+            // the translog directory might not exist yet. fall back to the root of the path which is less precise but safe.
+            logger.debug(() -> "failed to resolve the file store of [" + path + "]", e);
+            Path root = path.toAbsolutePath().getRoot();
+            return root == null ? path.toAbsolutePath() : root;
+        }
+    }
+
+    /**
+     * The pending sync requests for a single shard's translog.
+     */
+    public final class ShardSyncs {
+        private final Device device;
+        private final BiConsumer<Translog.Location, Consumer<Exception>> syncer;
+        private final ThreadContext threadContext = threadPool.getThreadContext();
+        private Translog.Location location = Translog.Location.EMPTY;
+        private List<Consumer<Exception>> listeners = new ArrayList<>();
+        private long oldestRequestMillis;
+
+        private ShardSyncs(Device device, BiConsumer<Translog.Location, Consumer<Exception>> syncer) {
+            this.device = device;
+            this.syncer = syncer;
+        }
+
+        /**
+         * Sync the translog up to {@code location} in the next wave and then call the listener with {@code null} or the failure.
+         * Like {@link org.elasticsearch.index.shard.IndexShard#syncAfterWrite} exceptions thrown by the listener are only logged.
+         */
+        public void sync(Translog.Location location, Consumer<Exception> listener) {
+            Consumer<Exception> preserved = preserveContext(listener);
+            boolean first;
+            synchronized (this) {
+                first = listeners.isEmpty();
+                if (first) {
+                    oldestRequestMillis = threadPool.rawRelativeTimeInMillis();
+                }
+                if (location.compareTo(this.location) > 0) {
+                    this.location = location;
+                }
+                listeners.add(preserved);
+            }
+            if (first) {
+                device.enqueue(this);
+            }
+        }
+
+        private void syncPending(Releasable releasable) {
+            final Translog.Location toSync;
+            final Consumer<Exception> onSynced;
+            synchronized (this) {
+                toSync = location;
+                onSynced = drainListeners(releasable);
+            }
+            try {
+                syncer.accept(toSync, onSynced);
+            } catch (Exception e) {
+                onSynced.accept(e);
+            }
+        }
+
+        private void failPending(Exception e) {
+            final Consumer<Exception> onSynced;
+            synchronized (this) {
+                onSynced = drainListeners(() -> {});
+            }
+            onSynced.accept(e);
+        }
+
+        /**
+         * Take all pending listeners, returning a listener that notifies all of them.
+         */
+        private Consumer<Exception> drainListeners(Releasable releasable) {
+            assert Thread.holdsLock(this);
+            final List<Consumer<Exception>> toNotify = listeners;
+            final long oldest = oldestRequestMillis;
+            location = Translog.Location.EMPTY;
+            listeners = new ArrayList<>();
+            batchSize.record(toNotify.size());
+            return e -> {
+                try (releasable) {
+                    latency.record(threadPool.rawRelativeTimeInMillis() - oldest);
+                    for (Consumer<Exception> listener : toNotify) {
+                        try {
+                            listener.accept(e);
+                        } catch (Exception ex) {
+                            logger.warn("failed to notify callback", ex);
+                        }
+                    }
+                }
+            };
+        }
+
+        private Consumer<Exception> preserveContext(Consumer<Exception> consumer) {
+            Supplier<ThreadContext.StoredContext> restorableContext = threadContext.newRestorableContext(false);
+            return e -> {
+                try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                    consumer.accept(e);
+                }
+            };
+        }
+    }
+
+    /**
+     * The shards with pending sync requests whose translogs are all on the same device.
+     */
+    private final class Device {
+        private final ThrottledTaskRunner syncRunner;
+        private List<ShardSyncs> pending = new ArrayList<>();
+
+        Device(String name) {
+            this.syncRunner = new ThrottledTaskRunner(
+                "translog-sync[" + name + "]",
+                maxConcurrentSyncs,
+                threadPool.executor(ThreadPool.Names.GENERIC)
+            );
+        }
+
+        void enqueue(ShardSyncs shard) {
+            boolean scheduleWave;
+            synchronized (this) {
+                scheduleWave = pending.isEmpty();
+                pending.add(shard);
+            }
+            if (scheduleWave) {
+                // don't leak the context of the request that happened to start the wave into the syncs of the other requests
+                try (ThreadContext.StoredContext ignore = threadPool.getThreadContext().stashContext()) {
+                    threadPool.schedule(new AbstractRunnable() {
+                        @Override
+                        protected void doRun() {
+                            runWave();
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            // only happens if the node is shutting down
+                            failWave(e);
+                        }
+
+                        @Override
+                        public boolean isForceExecution() {
+                            return true;
+                        }
+                    }, window, threadPool.executor(ThreadPool.Names.GENERIC));
+                }
+            }
+        }
+
+        private void runWave() {
+            final List<ShardSyncs> wave = takePending();
+            waveSize.record(wave.size());
+            for (ShardSyncs shard : wave) {
+                syncRunner.enqueueTask(ActionListener.wrap(shard::syncPending, shard::failPending));
+            }
+        }
+
+        private void failWave(Exception e) {
+            for (ShardSyncs shard : takePending()) {
+                shard.failPending(e);
+            }
+        }
+
+        private synchronized List<ShardSyncs> takePending() {
+            final List<ShardSyncs> wave = pending;
+            pending = new ArrayList<>();
+            return wave;
+        }
+    }
+}
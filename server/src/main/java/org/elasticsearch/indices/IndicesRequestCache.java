@@ -9,9 +9,12 @@
 package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Numbers;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
@@ -23,6 +26,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.mapper.MappingLookup;
 
@@ -59,11 +63,42 @@ public final class IndicesRequestCache implements Closeable {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * A setting to enable caching partial results computed against single segments on an index level.
+     * Aggregations that can break their results into parts that don't depend on the whole request,
+     * currently just top level {@code date_histogram}s that only count documents, share those parts
+     * between requests, even across refreshes and for requests like {@code now-15m} that can't use the
+     * rest of this cache. Its dynamic for the same reason as {@link #INDEX_CACHE_REQUEST_ENABLED_SETTING}.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_PARTIAL_RESULTS_SETTING = Setting.boolSetting(
+        "index.requests.cache.partial_results",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    /**
+     * A setting to cache the top docs and sort values of requests with {@code size > 0} on an index level,
+     * which are only cached when the request asks for it otherwise. These results are large compared to
+     * aggregations and only pay off on indices that don't refresh, like rolled over indices with a write
+     * block, so they are kept in a separate cache with its own {@link #INDICES_CACHE_TOP_DOCS_SIZE budget}.
+     * Its dynamic for the same reason as {@link #INDEX_CACHE_REQUEST_ENABLED_SETTING}.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_TOP_DOCS_SETTING = Setting.boolSetting(
+        "index.requests.cache.top_docs",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
         Property.NodeScope
     );
+    public static final Setting<ByteSizeValue> INDICES_CACHE_TOP_DOCS_SIZE = Setting.memorySizeSetting(
+        "indices.requests.cache.top_docs.size",
+        "1%",
+        Property.NodeScope
+    );
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE = Setting.positiveTimeSetting(
         "indices.requests.cache.expire",
         new TimeValue(0),
@@ -73,22 +108,29 @@ public final class IndicesRequestCache implements Closeable {
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final Cache<Key, BytesReference> cache;
+    private final Cache<Key, BytesReference> topDocsCache;
 
     IndicesRequestCache(Settings settings) {
         TimeValue expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
+        cache = buildCache(INDICES_CACHE_QUERY_SIZE.get(settings), expire);
+        topDocsCache = buildCache(INDICES_CACHE_TOP_DOCS_SIZE.get(settings), expire);
+    }
+
+    private static Cache<Key, BytesReference> buildCache(ByteSizeValue size, @Nullable TimeValue expire) {
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
-            .setMaximumWeight(INDICES_CACHE_QUERY_SIZE.get(settings).getBytes())
+            .setMaximumWeight(size.getBytes())
             .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
             .removalListener(notification -> notification.getKey().entity.onRemoval(notification));
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
-        cache = cacheBuilder.build();
+        return cacheBuilder.build();
     }
 
     @Override
     public void close() {
         cache.invalidateAll();
+        topDocsCache.invalidateAll();
     }
 
     void clear(CacheEntity entity) {
@@ -102,22 +144,29 @@ public final class IndicesRequestCache implements Closeable {
         MappingLookup.CacheKey mappingCacheKey,
         DirectoryReader reader,
         BytesReference cacheKey
+    ) throws Exception {
+        return getOrCompute(cacheEntity, loader, mappingCacheKey, reader, cacheKey, false);
+    }
+
+    /**
+     * @param topDocs whether the value holds top docs and goes to the cache that is sized with {@link #INDICES_CACHE_TOP_DOCS_SIZE}
+     */
+    BytesReference getOrCompute(
+        CacheEntity cacheEntity,
+        CheckedSupplier<BytesReference, IOException> loader,
+        MappingLookup.CacheKey mappingCacheKey,
+        DirectoryReader reader,
+        BytesReference cacheKey,
+        boolean topDocs
     ) throws Exception {
         final ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
         assert cacheHelper != null;
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
         Loader cacheLoader = new Loader(cacheEntity, loader);
-        BytesReference value = cache.computeIfAbsent(key, cacheLoader);
+        BytesReference value = (topDocs ? topDocsCache : cache).computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
             key.entity.onMiss();
-            // see if its the first time we see this reader, and make sure to register a cleanup key
-            CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
-            if (registeredClosedListeners.containsKey(cleanupKey) == false) {
-                Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
-                if (previous == null) {
-                    cacheHelper.addClosedListener(cleanupKey);
-                }
-            }
+            registerClosedListener(cacheEntity, cacheHelper);
             /*
              * Note that we don't use a closed listener for the mapping. Instead
              * we let cache entries for out of date mappings age out. We do this
@@ -133,6 +182,71 @@ public final class IndicesRequestCache implements Closeable {
         return value;
     }
 
+    /**
+     * Look up a count computed against a single segment. Unlike {@link #getOrCompute} this doesn't count
+     * towards the hits and misses of the request cache because a single request looks up many of these,
+     * one per bucket per segment.
+     * @param cacheEntity the cache entity of the shard that contains the segment
+     * @param segmentCacheHelper the cache helper of the segment, including its deletes
+     * @param differentiator identifies the view of the segment the count was computed against, for example
+     *                       the document and field level security of the user. Empty if every user sees the same segment.
+     * @param segmentKey describes how the count was computed
+     * @return the count or {@code null} if it isn't cached
+     */
+    @Nullable
+    Long getSegmentCount(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper segmentCacheHelper,
+        BytesReference differentiator,
+        Accountable segmentKey
+    ) {
+        BytesReference value = cache.get(
+            new SegmentKey(cacheEntity, mappingCacheKey, segmentCacheHelper.getKey(), differentiator, segmentKey)
+        );
+        if (value == null) {
+            return null;
+        }
+        return Numbers.bytesToLong(value.toBytesRef());
+    }
+
+    /**
+     * Cache a count computed against a single segment. The count is dropped when the segment is closed.
+     * @param cacheEntity the cache entity of the shard that contains the segment
+     * @param segmentCacheHelper the cache helper of the segment, including its deletes
+     * @param differentiator identifies the view of the segment the count was computed against, see {@link #getSegmentCount}
+     * @param segmentKey describes how the count was computed
+     */
+    void putSegmentCount(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper segmentCacheHelper,
+        BytesReference differentiator,
+        Accountable segmentKey,
+        long count
+    ) {
+        final Key key = new SegmentKey(cacheEntity, mappingCacheKey, segmentCacheHelper.getKey(), differentiator, segmentKey);
+        final BytesReference value = new BytesArray(Numbers.longToBytes(count));
+        // record the new entry before adding it so a racing put or eviction removes it from the stats after we add it
+        cacheEntity.onCached(key, value);
+        cache.put(key, value);
+        registerClosedListener(cacheEntity, new ESCacheHelper.Wrapper(segmentCacheHelper));
+    }
+
+    /**
+     * Make sure we clean up this reader's entries when it is closed.
+     */
+    private void registerClosedListener(CacheEntity cacheEntity, ESCacheHelper cacheHelper) {
+        // see if its the first time we see this reader, and make sure to register a cleanup key
+        CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
+        if (registeredClosedListeners.containsKey(cleanupKey) == false) {
+            Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+            if (previous == null) {
+                cacheHelper.addClosedListener(cleanupKey);
+            }
+        }
+    }
+
     /**
      * Invalidates the given the cache entry for the given key and it's context
      * @param cacheEntity the cache entity to invalidate for
@@ -140,8 +254,24 @@ public final class IndicesRequestCache implements Closeable {
      * @param cacheKey the cache key to invalidate
      */
     void invalidate(CacheEntity cacheEntity, MappingLookup.CacheKey mappingCacheKey, DirectoryReader reader, BytesReference cacheKey) {
+        invalidate(cacheEntity, mappingCacheKey, reader, cacheKey, false);
+    }
+
+    /**
+     * Invalidates the given the cache entry for the given key and it's context
+     * @param topDocs whether the entry was added to the top docs cache, see {@link #getOrCompute}
+     */
+    void invalidate(
+        CacheEntity cacheEntity,
+        MappingLookup.CacheKey mappingCacheKey,
+        DirectoryReader reader,
+        BytesReference cacheKey,
+        boolean topDocs
+    ) {
         assert reader.getReaderCacheHelper() != null;
-        cache.invalidate(new Key(cacheEntity, mappingCacheKey, reader.getReaderCacheHelper().getKey(), cacheKey));
+        (topDocs ? topDocsCache : cache).invalidate(
+            new Key(cacheEntity, mappingCacheKey, reader.getReaderCacheHelper().getKey(), cacheKey)
+        );
     }
 
     private static class Loader implements CacheLoader<Key, BytesReference> {
@@ -261,6 +391,60 @@ public final class IndicesRequestCache implements Closeable {
         }
     }
 
+    /**
+     * Key for a count computed against a single segment. The {@link #readerCacheKey} is the
+     * segment's key so the existing cleanup drops these entries when the segment is closed.
+     * Readers that only expose part of the segment, like the ones for document and field level
+     * security, share the segment's key so the {@link #value} holds the request cache key
+     * differentiator that tells those views apart.
+     */
+    static class SegmentKey extends Key {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(SegmentKey.class);
+
+        public final Accountable segmentKey;
+
+        SegmentKey(
+            CacheEntity entity,
+            MappingLookup.CacheKey mappingCacheKey,
+            Object readerCacheKey,
+            BytesReference differentiator,
+            Accountable segmentKey
+        ) {
+            super(entity, mappingCacheKey, readerCacheKey, Objects.requireNonNull(differentiator));
+            this.segmentKey = Objects.requireNonNull(segmentKey);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + entity.ramBytesUsed() + value.length() + segmentKey.ramBytesUsed();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && segmentKey.equals(((SegmentKey) o).segmentKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + segmentKey.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "SegmentKey(mappingKey=["
+                + mappingCacheKey
+                + "],readerKey=["
+                + readerCacheKey
+                + "],entityKey=["
+                + entity.getCacheIdentity()
+                + "],differentiator=["
+                + value.length()
+                + " bytes],segmentKey=["
+                + segmentKey
+                + "])";
+        }
+    }
+
     private class CleanupKey implements ESCacheHelper.ClosedListener {
         final CacheEntity entity;
         final Object readerCacheKey;
@@ -312,19 +496,25 @@ public final class IndicesRequestCache implements Closeable {
             }
         }
         if (currentKeysToClean.isEmpty() == false || currentFullClean.isEmpty() == false) {
-            for (Iterator<Key> iterator = cache.keys().iterator(); iterator.hasNext();) {
-                Key key = iterator.next();
-                if (currentFullClean.contains(key.entity.getCacheIdentity())) {
+            cleanCache(cache, currentKeysToClean, currentFullClean);
+            cleanCache(topDocsCache, currentKeysToClean, currentFullClean);
+        }
+
+        cache.refresh();
+        topDocsCache.refresh();
+    }
+
+    private void cleanCache(Cache<Key, BytesReference> cache, Set<CleanupKey> currentKeysToClean, Set<Object> currentFullClean) {
+        for (Iterator<Key> iterator = cache.keys().iterator(); iterator.hasNext();) {
+            Key key = iterator.next();
+            if (currentFullClean.contains(key.entity.getCacheIdentity())) {
+                iterator.remove();
+            } else {
+                if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey))) {
                     iterator.remove();
-                } else {
-                    if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey))) {
-                        iterator.remove();
-                    }
                 }
             }
         }
-
-        cache.refresh();
     }
 
     /**
@@ -334,6 +524,13 @@ public final class IndicesRequestCache implements Closeable {
         return cache.count();
     }
 
+    /**
+     * Returns the current size of the top docs cache
+     */
+    int topDocsCount() {
+        return topDocsCache.count();
+    }
+
     Iterable<Key> cachedKeys() {
         return cache.keys();
     }
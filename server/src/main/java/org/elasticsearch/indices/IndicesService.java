@@ -13,6 +13,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
 import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.ElasticsearchException;
@@ -42,8 +43,10 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
@@ -120,6 +123,7 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -132,6 +136,7 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.plugins.internal.DocumentParsingObserver;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.support.SegmentCountCache;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
@@ -235,8 +240,11 @@ public class IndicesService extends AbstractLifecycleComponent
     private final MapperRegistry mapperRegistry;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Supplier<DocumentParsingObserver> documentParsingObserverSupplier;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final Map<String, IndexStorePlugin.SnapshotCommitSupplier> snapshotCommitSuppliers;
     private final IndexingMemoryController indexingMemoryController;
+    private final MergeRateController mergeRateController;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
@@ -286,12 +294,14 @@ public class IndicesService extends AbstractLifecycleComponent
         this.mapperRegistry = builder.mapperRegistry;
         this.namedWriteableRegistry = builder.namedWriteableRegistry;
         this.documentParsingObserverSupplier = builder.documentParsingObserverSupplier;
+        this.translogSyncCoordinator = builder.translogSyncCoordinator;
         indexingMemoryController = new IndexingMemoryController(
             settings,
             threadPool,
             // ensure we pull an iter with new shards - flatten makes a copy
             () -> Iterables.flatten(this).iterator()
         );
+        mergeRateController = new MergeRateController(settings, threadPool, nodeEnv, () -> Iterables.flatten(this).iterator());
         this.indexScopedSettings = builder.indexScopedSettings;
         this.circuitBreakerService = builder.circuitBreakerService;
         this.bigArrays = builder.bigArrays;
@@ -339,6 +349,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 IOUtils.close(
                     analysisRegistry,
                     indexingMemoryController,
+                    mergeRateController,
                     indicesFieldDataCache,
                     cacheCleaner,
                     indicesRequestCache,
@@ -449,7 +460,13 @@ public class IndicesService extends AbstractLifecycleComponent
             }
         }
 
-        return new NodeIndicesStats(commonStats, statsByIndex(this, flags), statsByShard(this, flags), includeShardsStats);
+        return new NodeIndicesStats(
+            commonStats,
+            statsByIndex(this, flags),
+            statsByShard(this, flags),
+            includeShardsStats,
+            mergeRateController.mergeBudgetBytesPerSec()
+        );
     }
 
     static Map<Index, CommonStats> statsByIndex(final IndicesService indicesService, final CommonStatsFlags flags) {
@@ -750,6 +767,9 @@ public class IndicesService extends AbstractLifecycleComponent
         for (IndexEventListener listener : builtInListeners) {
             indexModule.addIndexEventListener(listener);
         }
+        if (translogSyncCoordinator != null && translogSyncCoordinator.isEnabled()) {
+            indexModule.setTranslogSyncCoordinator(translogSyncCoordinator);
+        }
         return indexModule.newIndexService(
             indexCreationContext,
             nodeEnv,
@@ -1494,9 +1514,10 @@ public class IndicesService extends AbstractLifecycleComponent
         if (request.requestCache() == null) {
             if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING) == false) {
                 return false;
-            } else if (context.size() != 0) {
+            } else if (context.size() != 0 && settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING) == false) {
                 // If no request cache query parameter and shard request cache
                 // is enabled in settings don't cache for requests with size > 0
+                // unless the index caches top docs
                 return false;
             }
         } else if (request.requestCache() == false) {
@@ -1514,6 +1535,88 @@ public class IndicesService extends AbstractLifecycleComponent
 
     }
 
+    /**
+     * Does the cached result of this request go to the separate cache for top docs? Only if the index opted in, so the
+     * results of requests with {@code size > 0} that ask for the request cache keep using the shared cache otherwise.
+     */
+    static boolean cachesTopDocs(SearchContext context) {
+        return context.size() != 0
+            && context.indexShard().indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING);
+    }
+
+    /**
+     * Can aggregations in the shard request share counts computed against single segments with other requests?
+     * Unlike {@link #canCache} this doesn't care about {@code now} because only the parts of the request that
+     * don't depend on it are cached.
+     */
+    public static boolean canCacheSegmentCounts(ShardSearchRequest request, SearchContext context) {
+        if (request.scroll() != null || SearchType.QUERY_THEN_FETCH != context.searchType()) {
+            return false;
+        }
+        // Profiled queries should not use the cache
+        if (request.source() != null && request.source().profile()) {
+            return false;
+        }
+        // Aggregations only see the documents that pass these so they can't be broken into independent parts
+        if (context.minimumScore() != null || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        if (request.requestCache() != null && request.requestCache() == false) {
+            return false;
+        }
+        IndexSettings settings = context.indexShard().indexSettings();
+        return settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING)
+            && settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_PARTIAL_RESULTS_SETTING);
+    }
+
+    /**
+     * Build the {@link SegmentCountCache} for the aggregations in the shard request to share counts with other
+     * requests or {@code null} if they can't. See {@link #canCacheSegmentCounts}.
+     */
+    @Nullable
+    public SegmentCountCache segmentCountCache(ShardSearchRequest request, SearchContext context) {
+        if (canCacheSegmentCounts(request, context) == false) {
+            return null;
+        }
+        IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(context.indexShard());
+        MappingLookup.CacheKey mappingCacheKey = context.getSearchExecutionContext().mappingCacheKey();
+        // readers with document or field level security share the cache key of the segment they wrap
+        BytesReference differentiator = segmentCountDifferentiator(request, requestCacheKeyDifferentiator);
+        return new SegmentCountCache() {
+            @Override
+            public Long get(CacheHelper segmentCacheHelper, Accountable key) {
+                return indicesRequestCache.getSegmentCount(cacheEntity, mappingCacheKey, segmentCacheHelper, differentiator, key);
+            }
+
+            @Override
+            public void put(CacheHelper segmentCacheHelper, Accountable key, long count) {
+                indicesRequestCache.putSegmentCount(cacheEntity, mappingCacheKey, segmentCacheHelper, differentiator, key, count);
+            }
+        };
+    }
+
+    /**
+     * The bytes that the request cache key differentiator writes for the request, hashed like {@link ShardSearchRequest#cacheKey},
+     * or empty if it doesn't write any. Counts computed against a segment are only shared between requests with equal bytes.
+     */
+    static BytesReference segmentCountDifferentiator(
+        ShardSearchRequest request,
+        @Nullable CheckedBiConsumer<ShardSearchRequest, StreamOutput, IOException> differentiator
+    ) {
+        if (differentiator == null) {
+            return BytesArray.EMPTY;
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            differentiator.accept(request, out);
+            if (out.size() == 0) {
+                return BytesArray.EMPTY;
+            }
+            return new BytesArray(MessageDigests.digest(out.bytes(), MessageDigests.sha256()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to build the request cache key differentiator", e);
+        }
+    }
+
     /**
      * Loads the cache result, computing it if needed by executing the query phase and otherwise deserializing the cached
      * value into the {@link SearchContext#queryResult() context's query result}. The combination of load + compute allows
@@ -1526,11 +1629,13 @@ public class IndicesService extends AbstractLifecycleComponent
 
         boolean[] loadedFromCache = new boolean[] { true };
         BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        final boolean topDocs = cachesTopDocs(context);
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
             directoryReader,
             cacheKey,
+            topDocs,
             out -> {
                 QueryPhase.execute(context);
                 context.queryResult().writeToNoId(out);
@@ -1553,10 +1658,11 @@ public class IndicesService extends AbstractLifecycleComponent
             // running a search that times out concurrently will likely timeout again if it's run while we have this `stale` result in the
             // cache. One other option is to not cache requests with a timeout at all...
             indicesRequestCache.invalidate(
-                new IndexShardCacheEntity(context.indexShard()),
+                new IndexShardCacheEntity(context.indexShard(), topDocs),
                 context.getSearchExecutionContext().mappingCacheKey(),
                 directoryReader,
-                cacheKey
+                cacheKey,
+                topDocs
             );
             if (logger.isTraceEnabled()) {
                 logger.trace(
@@ -1577,6 +1683,7 @@ public class IndicesService extends AbstractLifecycleComponent
      * @param shard the shard this item is part of
      * @param reader a reader for this shard. Used to invalidate the cache when there are changes.
      * @param cacheKey key for the thing being cached within this shard
+     * @param topDocs whether the thing being cached holds top docs, see {@link #cachesTopDocs}
      * @param loader loads the data into the cache if needed
      * @return the contents of the cache or the result of calling the loader
      */
@@ -1585,9 +1692,10 @@ public class IndicesService extends AbstractLifecycleComponent
         MappingLookup.CacheKey mappingCacheKey,
         DirectoryReader reader,
         BytesReference cacheKey,
+        boolean topDocs,
         CheckedConsumer<StreamOutput, IOException> loader
     ) throws Exception {
-        IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(shard);
+        IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(shard, topDocs);
         CheckedSupplier<BytesReference, IOException> supplier = () -> {
             /* BytesStreamOutput allows to pass the expected size but by default uses
              * BigArrays.PAGE_SIZE_IN_BYTES which is 16k. A common cached result ie.
@@ -1604,20 +1712,26 @@ public class IndicesService extends AbstractLifecycleComponent
                 return out.bytes();
             }
         };
-        return indicesRequestCache.getOrCompute(cacheEntity, supplier, mappingCacheKey, reader, cacheKey);
+        return indicesRequestCache.getOrCompute(cacheEntity, supplier, mappingCacheKey, reader, cacheKey, topDocs);
     }
 
     static final class IndexShardCacheEntity extends AbstractIndexShardCacheEntity {
         private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(IndexShardCacheEntity.class);
         private final IndexShard indexShard;
+        private final boolean topDocs;
 
         protected IndexShardCacheEntity(IndexShard indexShard) {
+            this(indexShard, false);
+        }
+
+        protected IndexShardCacheEntity(IndexShard indexShard, boolean topDocs) {
             this.indexShard = indexShard;
+            this.topDocs = topDocs;
         }
 
         @Override
         protected ShardRequestCache stats() {
-            return indexShard.requestCache();
+            return topDocs ? indexShard.requestCache().topDocs() : indexShard.requestCache();
         }
 
         @Override
@@ -0,0 +1,258 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.monitor.fs.FsInfo;
+import org.elasticsearch.monitor.fs.FsProbe;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapts the rate at which the merges of all shards on this node may write to the latency of the disks that hold the data paths.
+ * Lucene's auto IO throttle only looks at the merge backlog of each shard, so large merges can saturate a disk that searches and
+ * translog fsyncs read from and write to. This controller periodically samples the average time that the IO operations completed
+ * on the devices took, including the time they waited in the queue. While it is above the target, the node wide merge budget is
+ * lowered multiplicatively, and once it is back below the target the budget grows again until the merges aren't capped anymore.
+ * The budget is shared by the merges that are running. The budget is reported in the node stats, and the resulting rates as the
+ * auto throttle of the merge stats of each shard.
+ * <p>
+ * The budget caps the rate of the auto IO throttle of each shard, which Lucene only applies to merges of at least 50MB that aren't
+ * forced. Smaller merges, forced merges, and the merges of indices with {@code index.merge.scheduler.auto_throttle} set to false
+ * are never slowed down.
+ */
+public class MergeRateController implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(MergeRateController.class);
+
+    /** Whether the merge rate of the shards on this node adapts to the latency of the disks (default: false). */
+    public static final Setting<Boolean> ADAPTIVE_MERGE_THROTTLE_ENABLED_SETTING = Setting.boolSetting(
+        "indices.merge.adaptive_throttle.enabled",
+        false,
+        Property.NodeScope
+    );
+
+    /** The average IO latency of the data path devices above which merges are slowed down (default: 10ms). */
+    public static final Setting<TimeValue> TARGET_IO_LATENCY_SETTING = Setting.positiveTimeSetting(
+        "indices.merge.adaptive_throttle.target_io_latency",
+        TimeValue.timeValueMillis(10),
+        Property.NodeScope
+    );
+
+    /** The merge rate that the node wide merge budget never goes under (default: 5mb). */
+    public static final Setting<ByteSizeValue> MIN_MERGE_RATE_SETTING = Setting.byteSizeSetting(
+        "indices.merge.adaptive_throttle.min_rate",
+        new ByteSizeValue(5, ByteSizeUnit.MB),
+        new ByteSizeValue(1, ByteSizeUnit.MB),
+        ByteSizeValue.ofBytes(Long.MAX_VALUE),
+        Property.NodeScope
+    );
+
+    /** How frequently the latency of the disks is sampled (default: 1 second). */
+    public static final Setting<TimeValue> INTERVAL_SETTING = Setting.positiveTimeSetting(
+        "indices.merge.adaptive_throttle.interval",
+        TimeValue.timeValueSeconds(1),
+        Property.NodeScope
+    );
+
+    // multiplicative decrease while the latency is over the target, and slower increase while it is under it
+    static final double DECREASE_FACTOR = 0.75;
+    static final double INCREASE_FACTOR = 1.1;
+    // the budget is lifted once it goes over the maximum rate of Lucene's auto IO throttle
+    static final double MAX_MERGE_MB_PER_SEC = 10240.0;
+
+    private final Iterable<IndexShard> indexShards;
+    private final double targetLatencyMillis;
+    private final double minMergeMBPerSec;
+    private final FsProbe fsProbe;
+    private final Cancellable scheduler;
+
+    private FsInfo previousFsInfo;
+    private volatile double mergeBudgetMBPerSec = Double.POSITIVE_INFINITY;
+
+    MergeRateController(Settings settings, ThreadPool threadPool, NodeEnvironment nodeEnvironment, Iterable<IndexShard> indexShards) {
+        this.indexShards = indexShards;
+        this.targetLatencyMillis = TARGET_IO_LATENCY_SETTING.get(settings).nanos() / 1_000_000.0;
+        this.minMergeMBPerSec = MIN_MERGE_RATE_SETTING.get(settings).getBytes() / (1024.0 * 1024.0);
+        if (ADAPTIVE_MERGE_THROTTLE_ENABLED_SETTING.get(settings)) {
+            logger.debug(
+                "adapting merge rates to a target io latency of [{}] with a minimum rate of [{}] every [{}]",
+                TARGET_IO_LATENCY_SETTING.get(settings),
+                MIN_MERGE_RATE_SETTING.get(settings),
+                INTERVAL_SETTING.get(settings)
+            );
+            this.fsProbe = nodeEnvironment == null ? null : new FsProbe(nodeEnvironment);
+            this.scheduler = scheduleTask(threadPool, INTERVAL_SETTING.get(settings));
+        } else {
+            this.fsProbe = null;
+            this.scheduler = null;
+        }
+    }
+
+    protected Cancellable scheduleTask(ThreadPool threadPool, TimeValue interval) {
+        // reading the device stats is cheap, but it is IO so it does not run on the scheduler thread
+        return threadPool.scheduleWithFixedDelay(this::adjustMergeRate, interval, threadPool.generic());
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
+    }
+
+    /**
+     * Returns the rate in MB per second that all merges of this node share, or {@link Double#POSITIVE_INFINITY} if merges are only
+     * throttled by their own backlog.
+     */
+    double mergeBudgetMBPerSec() {
+        return mergeBudgetMBPerSec;
+    }
+
+    /**
+     * Returns the rate in bytes per second that all merges of this node share, or -1 if merges are only throttled by their own
+     * backlog. Reported in the node stats.
+     */
+    public long mergeBudgetBytesPerSec() {
+        final double budget = mergeBudgetMBPerSec;
+        return budget == Double.POSITIVE_INFINITY ? -1 : (long) (budget * 1024 * 1024);
+    }
+
+    /**
+     * Returns the average time in milliseconds that the IO operations on the data path devices took since the previous sample,
+     * or a negative value if that is unknown, for instance because the device stats are not available on this platform.
+     */
+    protected double sampleIoLatencyMillis() {
+        if (fsProbe == null) {
+            return -1;
+        }
+        final FsInfo fsInfo;
+        try {
+            fsInfo = fsProbe.stats(previousFsInfo);
+        } catch (Exception e) {
+            logger.debug("failed to sample the io stats of the data paths", e);
+            return -1;
+        }
+        previousFsInfo = fsInfo;
+        return ioLatencyMillis(fsInfo.getIoStats());
+    }
+
+    /**
+     * Returns the average time in milliseconds that the completed IO operations took, including the time they were queued, or -1
+     * if no operation completed. This is the await of iostat: the time that the devices were busy, the io time of the device stats,
+     * doesn't grow with the length of the queue so it would hide the latency that merges add to searches and fsyncs.
+     */
+    static double ioLatencyMillis(@Nullable FsInfo.IoStats ioStats) {
+        if (ioStats == null || ioStats.getTotalOperations() <= 0) {
+            return -1;
+        }
+        return (double) (ioStats.getTotalReadTimeMillis() + ioStats.getTotalWriteTimeMillis()) / ioStats.getTotalOperations();
+    }
+
+    protected List<IndexShard> availableShards() {
+        List<IndexShard> availableShards = new ArrayList<>();
+        for (IndexShard shard : indexShards) {
+            if (shard.state() == IndexShardState.STARTED || shard.state() == IndexShardState.POST_RECOVERY) {
+                availableShards.add(shard);
+            }
+        }
+        return availableShards;
+    }
+
+    /** returns the rate in MB per second that Lucene's auto IO throttle currently allows each merge of this shard */
+    protected double getMergeRateMBPerSec(IndexShard shard) {
+        final long bytesPerSec = shard.mergeStats().getTotalBytesPerSecAutoThrottle();
+        // merge stats report an unthrottled shard as Long.MAX_VALUE bytes per second
+        return bytesPerSec == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : bytesPerSec / (1024.0 * 1024.0);
+    }
+
+    /** returns how many merges this shard is currently running */
+    protected long getCurrentMerges(IndexShard shard) {
+        return shard.mergeStats().getCurrent();
+    }
+
+    /** caps the rate of each merge of this shard */
+    protected void setMergeRateLimit(IndexShard shard, double mbPerSec) {
+        shard.setMergeRateLimit(mbPerSec);
+    }
+
+    /**
+     * Samples the io latency and moves the node wide merge budget towards the target latency, then shares the budget between
+     * the merges that are running.
+     */
+    synchronized void adjustMergeRate() {
+        final double latencyMillis = sampleIoLatencyMillis();
+        if (latencyMillis < 0) {
+            return;
+        }
+        final List<IndexShard> shards = availableShards();
+        final long[] shardMerges = new long[shards.size()];
+        long currentMerges = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            shardMerges[i] = getCurrentMerges(shards.get(i));
+            currentMerges += shardMerges[i];
+        }
+        final double previousBudget = mergeBudgetMBPerSec;
+        if (latencyMillis > targetLatencyMillis) {
+            double currentRate = previousBudget;
+            if (currentRate == Double.POSITIVE_INFINITY) {
+                // start from the rate that the merges that are running currently write at: the auto IO throttle rate applies to
+                // each merge of a shard, and shards without running merges don't write at all
+                currentRate = 0;
+                for (int i = 0; i < shards.size(); i++) {
+                    if (shardMerges[i] > 0) {
+                        final double shardRate = getMergeRateMBPerSec(shards.get(i));
+                        if (shardRate != Double.POSITIVE_INFINITY) {
+                            currentRate += shardRate * shardMerges[i];
+                        }
+                    }
+                }
+                if (currentRate == 0) {
+                    currentRate = MAX_MERGE_MB_PER_SEC;
+                }
+            }
+            mergeBudgetMBPerSec = Math.max(minMergeMBPerSec, currentRate * DECREASE_FACTOR);
+        } else if (previousBudget != Double.POSITIVE_INFINITY) {
+            final double increased = previousBudget * INCREASE_FACTOR;
+            mergeBudgetMBPerSec = increased >= MAX_MERGE_MB_PER_SEC ? Double.POSITIVE_INFINITY : increased;
+        }
+        if (mergeBudgetMBPerSec != previousBudget) {
+            logger.debug(
+                "io latency of [{}ms] against a target of [{}ms], changing the merge budget from [{}] to [{}] MB/sec",
+                latencyMillis,
+                targetLatencyMillis,
+                previousBudget,
+                mergeBudgetMBPerSec
+            );
+        } else if (mergeBudgetMBPerSec == Double.POSITIVE_INFINITY) {
+            // nothing to cap and nothing to lift
+            return;
+        }
+
+        final double mergeRateLimit = mergeBudgetMBPerSec / Math.max(1, currentMerges);
+        for (IndexShard shard : shards) {
+            setMergeRateLimit(shard, mergeRateLimit);
+        }
+    }
+}
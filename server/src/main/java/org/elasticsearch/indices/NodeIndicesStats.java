@@ -18,6 +18,7 @@ import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ChunkedToXContent;
 import org.elasticsearch.common.xcontent.ChunkedToXContentHelper;
 import org.elasticsearch.core.Nullable;
@@ -64,6 +65,11 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
     private final CommonStats stats;
     private final Map<Index, List<IndexShardStats>> statsByShard;
     private final Map<Index, CommonStats> statsByIndex;
+    /**
+     * The rate that the adaptive merge throttle currently allows all merges of the node, or -1 if it doesn't cap them.
+     * See {@link MergeRateController}.
+     */
+    private final long mergeBudgetBytesPerSec;
 
     public NodeIndicesStats(StreamInput in) throws IOException {
         stats = new CommonStats(in);
@@ -85,6 +91,12 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
         } else {
             statsByIndex = new HashMap<>();
         }
+
+        if (in.getTransportVersion().onOrAfter(TransportVersions.NODE_STATS_MERGE_BUDGET)) {
+            mergeBudgetBytesPerSec = in.readLong();
+        } else {
+            mergeBudgetBytesPerSec = -1;
+        }
     }
 
     public NodeIndicesStats(
@@ -93,6 +105,17 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
         Map<Index, List<IndexShardStats>> statsByShard,
         boolean includeShardsStats
     ) {
+        this(oldStats, statsByIndex, statsByShard, includeShardsStats, -1);
+    }
+
+    public NodeIndicesStats(
+        CommonStats oldStats,
+        Map<Index, CommonStats> statsByIndex,
+        Map<Index, List<IndexShardStats>> statsByShard,
+        boolean includeShardsStats,
+        long mergeBudgetBytesPerSec
+    ) {
+        this.mergeBudgetBytesPerSec = mergeBudgetBytesPerSec;
         if (includeShardsStats) {
             this.statsByShard = Objects.requireNonNull(statsByShard);
         } else {
@@ -214,6 +237,13 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
         return stats.getDenseVectorStats();
     }
 
+    /**
+     * The rate in bytes per second that all merges of the node share, or -1 if the adaptive merge throttle doesn't cap them.
+     */
+    public long getMergeBudgetBytesPerSec() {
+        return mergeBudgetBytesPerSec;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         stats.writeTo(out);
@@ -221,6 +251,9 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
         if (out.getTransportVersion().onOrAfter(VERSION_SUPPORTING_STATS_BY_INDEX)) {
             out.writeMap(statsByIndex);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.NODE_STATS_MERGE_BUDGET)) {
+            out.writeLong(mergeBudgetBytesPerSec);
+        }
     }
 
     @Override
@@ -228,12 +261,15 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         NodeIndicesStats that = (NodeIndicesStats) o;
-        return stats.equals(that.stats) && statsByShard.equals(that.statsByShard) && statsByIndex.equals(that.statsByIndex);
+        return stats.equals(that.stats)
+            && statsByShard.equals(that.statsByShard)
+            && statsByIndex.equals(that.statsByIndex)
+            && mergeBudgetBytesPerSec == that.mergeBudgetBytesPerSec;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(stats, statsByShard, statsByIndex);
+        return Objects.hash(stats, statsByShard, statsByIndex, mergeBudgetBytesPerSec);
     }
 
     @Override
@@ -243,7 +279,15 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
 
             Iterators.single((builder, params) -> {
                 builder.startObject(Fields.INDICES);
-                return stats.toXContent(builder, params);
+                stats.toXContent(builder, params);
+                if (stats.getMerge() != null) {
+                    builder.humanReadableField(
+                        Fields.MERGE_BUDGET_IN_BYTES_PER_SEC,
+                        Fields.MERGE_BUDGET,
+                        ByteSizeValue.ofBytes(mergeBudgetBytesPerSec)
+                    );
+                }
+                return builder;
             }),
 
             switch (NodeStatsLevel.of(outerParams, NodeStatsLevel.NODE)) {
@@ -316,5 +360,7 @@ public class NodeIndicesStats implements Writeable, ChunkedToXContent {
     static final class Fields {
         static final String INDICES = "indices";
         static final String SHARDS = "shards";
+        static final String MERGE_BUDGET = "merge_budget";
+        static final String MERGE_BUDGET_IN_BYTES_PER_SEC = "merge_budget_in_bytes_per_sec";
     }
 }
@@ -1038,7 +1038,13 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             processorMetrics.forEach(t -> {
                 Processor processor = t.v1();
                 IngestMetric processorMetric = t.v2();
-                statsBuilder.addProcessorMetrics(id, getProcessorName(processor), processor.getType(), processorMetric);
+                statsBuilder.addProcessorMetrics(
+                    id,
+                    getProcessorName(processor),
+                    processor.getType(),
+                    processorMetric,
+                    getProcessorCacheStats(processor)
+                );
             });
         });
         return statsBuilder.build();
@@ -1077,6 +1083,14 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         return sb.toString();
     }
 
+    private static IngestStats.CacheStats getProcessorCacheStats(Processor processor) {
+        // conditionals are implemented as wrappers around the real processor, so get the real processor for its cache
+        if (processor instanceof ConditionalProcessor conditionalProcessor) {
+            processor = conditionalProcessor.getInnerProcessor();
+        }
+        return processor.getCacheStats();
+    }
+
     /**
      * Builds a new ingest document from the passed-in index request.
      */
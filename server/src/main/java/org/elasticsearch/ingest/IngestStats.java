@@ -8,12 +8,14 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContent;
 import org.elasticsearch.xcontent.ToXContentFragment;
@@ -76,7 +78,11 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
                 var processorName = in.readString();
                 var processorType = in.readString();
                 var processorStat = new Stats(in);
-                processorStatsPerPipeline.add(new ProcessorStat(processorName, processorType, processorStat));
+                CacheStats cacheStats = null;
+                if (in.getTransportVersion().onOrAfter(TransportVersions.INGEST_PROCESSOR_CACHE_STATS)) {
+                    cacheStats = in.readOptionalWriteable(CacheStats::new);
+                }
+                processorStatsPerPipeline.add(new ProcessorStat(processorName, processorType, processorStat, cacheStats));
             }
             processorStats.put(pipelineId, Collections.unmodifiableList(processorStatsPerPipeline));
         }
@@ -99,6 +105,9 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
                     o.writeString(processorStat.name());
                     o.writeString(processorStat.type());
                     processorStat.stats().writeTo(o);
+                    if (o.getTransportVersion().onOrAfter(TransportVersions.INGEST_PROCESSOR_CACHE_STATS)) {
+                        o.writeOptionalWriteable(processorStat.cacheStats());
+                    }
                 });
             }
         }
@@ -137,6 +146,11 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
                             builder.startObject("stats");
                             processorStat.stats().toXContent(builder, params);
                             builder.endObject();
+                            if (processorStat.cacheStats() != null) {
+                                builder.startObject("cache");
+                                processorStat.cacheStats().toXContent(builder, params);
+                                builder.endObject();
+                            }
                             builder.endObject();
                             builder.endObject();
                             return builder;
@@ -229,8 +243,18 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
         }
 
         Builder addProcessorMetrics(String pipelineId, String processorName, String processorType, IngestMetric metric) {
+            return addProcessorMetrics(pipelineId, processorName, processorType, metric, null);
+        }
+
+        Builder addProcessorMetrics(
+            String pipelineId,
+            String processorName,
+            String processorType,
+            IngestMetric metric,
+            @Nullable CacheStats cacheStats
+        ) {
             this.processorStats.computeIfAbsent(pipelineId, k -> new ArrayList<>())
-                .add(new ProcessorStat(processorName, processorType, metric.createStats()));
+                .add(new ProcessorStat(processorName, processorType, metric.createStats(), cacheStats));
             return this;
         }
 
@@ -257,10 +281,52 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
         }
     }
 
+    /**
+     * Hits and misses of a cache that a processor uses.
+     */
+    public record CacheStats(long hits, long misses) implements Writeable, ToXContentFragment {
+
+        /**
+         * Read from a stream.
+         */
+        public CacheStats(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(hits);
+            out.writeVLong(misses);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field("hits", hits);
+            builder.field("misses", misses);
+            return builder;
+        }
+
+        static CacheStats merge(@Nullable CacheStats first, @Nullable CacheStats second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            return new CacheStats(first.hits + second.hits, first.misses + second.misses);
+        }
+    }
+
     /**
      * Container for processor stats.
+     *
+     * @param cacheStats - The stats of the cache that the processor uses or {@code null} if it doesn't use one.
      */
-    public record ProcessorStat(String name, String type, Stats stats) {
+    public record ProcessorStat(String name, String type, Stats stats, @Nullable CacheStats cacheStats) {
+
+        public ProcessorStat(String name, String type, Stats stats) {
+            this(name, type, stats, null);
+        }
 
         private static List<ProcessorStat> merge(List<ProcessorStat> first, List<ProcessorStat> second) {
             // in the simple case, this amounts to summing up the stats in the first and second and returning
@@ -300,7 +366,14 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
                         match = false;
                         break;
                     } else {
-                        merged.add(new ProcessorStat(ps1.name, ps1.type, Stats.merge(ps1.stats, ps2.stats)));
+                        merged.add(
+                            new ProcessorStat(
+                                ps1.name,
+                                ps1.type,
+                                Stats.merge(ps1.stats, ps2.stats),
+                                CacheStats.merge(ps1.cacheStats, ps2.cacheStats)
+                            )
+                        );
                     }
                 }
                 if (match) {
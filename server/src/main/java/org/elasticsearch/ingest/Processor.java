@@ -10,6 +10,7 @@ package org.elasticsearch.ingest;
 
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.grok.MatcherWatchdog;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
@@ -92,6 +93,16 @@ public interface Processor {
      */
     default void extraValidation() throws Exception {}
 
+    /**
+     * The hits and misses of the cache that this processor uses, reported in the ingest stats.
+     *
+     * @return the stats or {@code null} if the processor doesn't use a cache
+     */
+    @Nullable
+    default IngestStats.CacheStats getCacheStats() {
+        return null;
+    }
+
     /**
      * A factory that knows how to construct a processor based on a map of maps.
      */
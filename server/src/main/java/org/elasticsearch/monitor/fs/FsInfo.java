@@ -8,6 +8,7 @@
 
 package org.elasticsearch.monitor.fs;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -166,6 +167,10 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
         final long previousSectorsWritten;
         final long currentIOTime;
         final long previousIOTime;
+        final long currentReadTime;
+        final long previousReadTime;
+        final long currentWriteTime;
+        final long previousWriteTime;
 
         public DeviceStats(
             final int majorDeviceNumber,
@@ -177,6 +182,38 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             final long currentSectorsWritten,
             final long currentIOTime,
             final DeviceStats previousDeviceStats
+        ) {
+            this(
+                majorDeviceNumber,
+                minorDeviceNumber,
+                deviceName,
+                currentReadsCompleted,
+                currentSectorsRead,
+                currentWritesCompleted,
+                currentSectorsWritten,
+                currentIOTime,
+                -1,
+                -1,
+                previousDeviceStats
+            );
+        }
+
+        /**
+         * @param currentReadTime the total time in milliseconds that reads spent queued and on the device, or -1 if unknown
+         * @param currentWriteTime the total time in milliseconds that writes spent queued and on the device, or -1 if unknown
+         */
+        public DeviceStats(
+            final int majorDeviceNumber,
+            final int minorDeviceNumber,
+            final String deviceName,
+            final long currentReadsCompleted,
+            final long currentSectorsRead,
+            final long currentWritesCompleted,
+            final long currentSectorsWritten,
+            final long currentIOTime,
+            final long currentReadTime,
+            final long currentWriteTime,
+            final DeviceStats previousDeviceStats
         ) {
             this(
                 majorDeviceNumber,
@@ -191,7 +228,11 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
                 currentWritesCompleted,
                 previousDeviceStats != null ? previousDeviceStats.currentWritesCompleted : -1,
                 currentIOTime,
-                previousDeviceStats != null ? previousDeviceStats.currentIOTime : -1
+                previousDeviceStats != null ? previousDeviceStats.currentIOTime : -1,
+                currentReadTime,
+                previousDeviceStats != null ? previousDeviceStats.currentReadTime : -1,
+                currentWriteTime,
+                previousDeviceStats != null ? previousDeviceStats.currentWriteTime : -1
             );
         }
 
@@ -208,7 +249,11 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             final long currentWritesCompleted,
             final long previousWritesCompleted,
             final long currentIOTime,
-            final long previousIOTime
+            final long previousIOTime,
+            final long currentReadTime,
+            final long previousReadTime,
+            final long currentWriteTime,
+            final long previousWriteTime
         ) {
             this.majorDeviceNumber = majorDeviceNumber;
             this.minorDeviceNumber = minorDeviceNumber;
@@ -223,6 +268,10 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             this.previousSectorsWritten = previousSectorsWritten;
             this.currentIOTime = currentIOTime;
             this.previousIOTime = previousIOTime;
+            this.currentReadTime = currentReadTime;
+            this.previousReadTime = previousReadTime;
+            this.currentWriteTime = currentWriteTime;
+            this.previousWriteTime = previousWriteTime;
         }
 
         public DeviceStats(StreamInput in) throws IOException {
@@ -239,6 +288,17 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             previousSectorsWritten = in.readLong();
             currentIOTime = in.readLong();
             previousIOTime = in.readLong();
+            if (in.getTransportVersion().onOrAfter(TransportVersions.FS_IO_STATS_READ_WRITE_TIME)) {
+                currentReadTime = in.readLong();
+                previousReadTime = in.readLong();
+                currentWriteTime = in.readLong();
+                previousWriteTime = in.readLong();
+            } else {
+                currentReadTime = -1;
+                previousReadTime = -1;
+                currentWriteTime = -1;
+                previousWriteTime = -1;
+            }
         }
 
         @Override
@@ -256,6 +316,12 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             out.writeLong(previousSectorsWritten);
             out.writeLong(currentIOTime);
             out.writeLong(previousIOTime);
+            if (out.getTransportVersion().onOrAfter(TransportVersions.FS_IO_STATS_READ_WRITE_TIME)) {
+                out.writeLong(currentReadTime);
+                out.writeLong(previousReadTime);
+                out.writeLong(currentWriteTime);
+                out.writeLong(previousWriteTime);
+            }
         }
 
         public String getDeviceName() {
@@ -298,6 +364,26 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             return (currentIOTime - previousIOTime);
         }
 
+        /**
+         * The time in milliseconds that the completed reads spent queued and on the device, unlike {@link #ioTimeInMillis()} which is
+         * the time that the device was busy.
+         */
+        public long readTimeInMillis() {
+            if (previousReadTime == -1 || currentReadTime == -1) return -1;
+
+            return (currentReadTime - previousReadTime);
+        }
+
+        /**
+         * The time in milliseconds that the completed writes spent queued and on the device, unlike {@link #ioTimeInMillis()} which is
+         * the time that the device was busy.
+         */
+        public long writeTimeInMillis() {
+            if (previousWriteTime == -1 || currentWriteTime == -1) return -1;
+
+            return (currentWriteTime - previousWriteTime);
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.field("device_name", deviceName);
@@ -328,6 +414,8 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
         final long totalReadKilobytes;
         final long totalWriteKilobytes;
         final long totalIOTimeInMillis;
+        final long totalReadTimeInMillis;
+        final long totalWriteTimeInMillis;
 
         public IoStats(final DeviceStats[] devicesStats) {
             this.devicesStats = devicesStats;
@@ -337,6 +425,8 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             long totalReadKilobytes = 0;
             long totalWriteKilobytes = 0;
             long totalIOTimeInMillis = 0;
+            long totalReadTimeInMillis = 0;
+            long totalWriteTimeInMillis = 0;
             for (DeviceStats deviceStats : devicesStats) {
                 totalOperations += deviceStats.operations() != -1 ? deviceStats.operations() : 0;
                 totalReadOperations += deviceStats.readOperations() != -1 ? deviceStats.readOperations() : 0;
@@ -344,6 +434,8 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
                 totalReadKilobytes += deviceStats.readKilobytes() != -1 ? deviceStats.readKilobytes() : 0;
                 totalWriteKilobytes += deviceStats.writeKilobytes() != -1 ? deviceStats.writeKilobytes() : 0;
                 totalIOTimeInMillis += deviceStats.ioTimeInMillis() != -1 ? deviceStats.ioTimeInMillis() : 0;
+                totalReadTimeInMillis += deviceStats.readTimeInMillis() != -1 ? deviceStats.readTimeInMillis() : 0;
+                totalWriteTimeInMillis += deviceStats.writeTimeInMillis() != -1 ? deviceStats.writeTimeInMillis() : 0;
             }
             this.totalOperations = totalOperations;
             this.totalReadOperations = totalReadOperations;
@@ -351,6 +443,8 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             this.totalReadKilobytes = totalReadKilobytes;
             this.totalWriteKilobytes = totalWriteKilobytes;
             this.totalIOTimeInMillis = totalIOTimeInMillis;
+            this.totalReadTimeInMillis = totalReadTimeInMillis;
+            this.totalWriteTimeInMillis = totalWriteTimeInMillis;
         }
 
         public IoStats(StreamInput in) throws IOException {
@@ -366,6 +460,13 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             this.totalReadKilobytes = in.readLong();
             this.totalWriteKilobytes = in.readLong();
             this.totalIOTimeInMillis = in.readLong();
+            if (in.getTransportVersion().onOrAfter(TransportVersions.FS_IO_STATS_READ_WRITE_TIME)) {
+                this.totalReadTimeInMillis = in.readLong();
+                this.totalWriteTimeInMillis = in.readLong();
+            } else {
+                this.totalReadTimeInMillis = 0;
+                this.totalWriteTimeInMillis = 0;
+            }
         }
 
         @Override
@@ -380,6 +481,10 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             out.writeLong(totalReadKilobytes);
             out.writeLong(totalWriteKilobytes);
             out.writeLong(totalIOTimeInMillis);
+            if (out.getTransportVersion().onOrAfter(TransportVersions.FS_IO_STATS_READ_WRITE_TIME)) {
+                out.writeLong(totalReadTimeInMillis);
+                out.writeLong(totalWriteTimeInMillis);
+            }
         }
 
         public DeviceStats[] getDevicesStats() {
@@ -410,6 +515,14 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             return totalIOTimeInMillis;
         }
 
+        public long getTotalReadTimeMillis() {
+            return totalReadTimeInMillis;
+        }
+
+        public long getTotalWriteTimeMillis() {
+            return totalWriteTimeInMillis;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             if (devicesStats.length > 0) {
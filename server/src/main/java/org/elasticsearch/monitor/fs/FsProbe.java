@@ -85,8 +85,10 @@ public class FsProbe {
                     final String deviceName = fields[2];
                     final long readsCompleted = Long.parseLong(fields[3]);
                     final long sectorsRead = Long.parseLong(fields[5]);
+                    final long readTime = Long.parseLong(fields[6]);
                     final long writesCompleted = Long.parseLong(fields[7]);
                     final long sectorsWritten = Long.parseLong(fields[9]);
+                    final long writeTime = Long.parseLong(fields[10]);
                     final long ioTime = Long.parseLong(fields[12]);
                     final FsInfo.DeviceStats deviceStats = new FsInfo.DeviceStats(
                         majorDeviceNumber,
@@ -97,6 +99,8 @@ public class FsProbe {
                         writesCompleted,
                         sectorsWritten,
                         ioTime,
+                        readTime,
+                        writeTime,
                         deviceMap.get(Tuple.tuple(majorDeviceNumber, minorDeviceNumber))
                     );
                     devicesStats.add(deviceStats);
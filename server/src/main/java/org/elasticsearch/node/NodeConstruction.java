@@ -107,6 +107,7 @@ import org.elasticsearch.index.IndexSettingProvider;
 import org.elasticsearch.index.IndexSettingProviders;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.ExecutorSelector;
 import org.elasticsearch.indices.IndicesModule;
 import org.elasticsearch.indices.IndicesService;
@@ -724,6 +725,7 @@ class NodeConstruction {
             .valuesSourceRegistry(searchModule.getValuesSourceRegistry())
             .requestCacheKeyDifferentiator(searchModule.getRequestCacheKeyDifferentiator())
             .documentParsingObserverSupplier(documentParsingObserverSupplier)
+            .translogSyncCoordinator(new TranslogSyncCoordinator(settings, threadPool, telemetryProvider.getMeterRegistry()))
             .build();
 
         final var parameters = new IndexSettingProvider.Parameters(indicesService::createIndexMapperServiceForValidation);
@@ -1294,7 +1296,7 @@ class NodeConstruction {
         actionModule.initRestHandlers(() -> clusterService.state().nodesIfRecovered(), f -> {
             ClusterState state = clusterService.state();
             return state.clusterRecovered() && featureService.clusterHasFeature(state, f);
-        });
+        }, injector.getInstance(IndexingPressure.class));
         logger.info("initialized");
     }
 
@@ -52,6 +52,11 @@ public abstract class FilterRestHandler implements RestHandler {
         return delegate.supportsContentStream();
     }
 
+    @Override
+    public boolean supportsHttpContentStream() {
+        return delegate.supportsHttpContentStream();
+    }
+
     @Override
     public boolean mediaTypesValid(RestRequest request) {
         return delegate.mediaTypesValid(request);
@@ -34,6 +34,7 @@ import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.core.Streams;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.http.HttpHeadersValidationException;
+import org.elasticsearch.http.HttpPreRequest;
 import org.elasticsearch.http.HttpRouteStats;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -322,6 +323,30 @@ public class RestController implements HttpServerTransport.Dispatcher {
         handler.routes().forEach(route -> registerHandler(route, handler));
     }
 
+    @Override
+    public boolean supportsHttpContentStream(HttpPreRequest request) {
+        final RestRequest.Method method;
+        try {
+            method = request.method();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        final String uri = request.uri();
+        final int queryStart = uri.indexOf('?');
+        final Iterator<MethodHandlers> allHandlers = getAllHandlers(null, queryStart < 0 ? uri : uri.substring(0, queryStart));
+        while (allHandlers.hasNext()) {
+            final MethodHandlers handlers = allHandlers.next();
+            if (handlers == null || handlers.getHandler(method, RestApiVersion.current()) == null) {
+                continue;
+            }
+            // like dispatching, the first path with a handler for the method wins, but the API version is only resolved from the
+            // media type headers once the request is dispatched so the handlers of both versions must support it
+            return handlers.getHandler(method, RestApiVersion.current()).supportsHttpContentStream()
+                && handlers.getHandler(method, RestApiVersion.minimumSupported()).supportsHttpContentStream();
+        }
+        return false;
+    }
+
     @Override
     public void dispatchRequest(RestRequest request, RestChannel channel, ThreadContext threadContext) {
         threadContext.addResponseHeader(ELASTIC_PRODUCT_HTTP_HEADER, ELASTIC_PRODUCT_HTTP_HEADER_VALUE);
@@ -387,7 +412,7 @@ public class RestController implements HttpServerTransport.Dispatcher {
         ThreadContext threadContext
     ) throws Exception {
         final int contentLength = request.contentLength();
-        if (contentLength > 0) {
+        if (contentLength > 0 || request.hasContentStream()) {
             if (isContentTypeDisallowed(request) || handler.mediaTypesValid(request) == false) {
                 sendContentTypeErrorMessage(request.getAllHeaderValues("Content-Type"), channel);
                 return;
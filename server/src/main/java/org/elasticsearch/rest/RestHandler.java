@@ -46,6 +46,15 @@ public interface RestHandler {
         return false;
     }
 
+    /**
+     * Indicates if the RestHandler reads the body of its requests from {@link RestRequest#contentStream()} as it arrives. Only then
+     * may the http transport stream the body rather than buffer it in full first, so such a handler must also handle requests whose
+     * body was buffered in full.
+     */
+    default boolean supportsHttpContentStream() {
+        return false;
+    }
+
     /**
      * Returns the concrete RestHandler for this RestHandler. That is, if this is a delegating RestHandler it returns the delegate.
      * Otherwise it returns itself.
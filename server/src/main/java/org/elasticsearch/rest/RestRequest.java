@@ -23,6 +23,7 @@ import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.telemetry.tracing.Traceable;
 import org.elasticsearch.xcontent.ParsedMediaType;
@@ -111,7 +112,11 @@ public class RestRequest implements ToXContent.Params, Traceable {
         }
         this.httpRequest = httpRequest;
         try {
-            this.restApiVersion = RestCompatibleVersionHelper.getCompatibleVersion(parsedAccept, parsedContentType, hasContent());
+            this.restApiVersion = RestCompatibleVersionHelper.getCompatibleVersion(
+                parsedAccept,
+                parsedContentType,
+                hasContent() || hasContentStream()
+            );
         } catch (ElasticsearchStatusException e) {
             throw new MediaTypeHeaderException(e, "Accept", "Content-Type");
         }
@@ -290,6 +295,23 @@ public class RestRequest implements ToXContent.Params, Traceable {
         return httpRequest.content();
     }
 
+    /**
+     * Is the body of this request streamed to the handler as it arrives? If so {@link #content()} is empty and the body must
+     * be read from {@link #contentStream()}.
+     */
+    public boolean hasContentStream() {
+        return httpRequest.contentStream() != null;
+    }
+
+    /**
+     * The body of the request if it is streamed to the handler as it arrives, {@code null} otherwise.
+     */
+    @Nullable
+    public HttpContentStream contentStream() {
+        this.contentConsumed = true;
+        return httpRequest.contentStream();
+    }
+
     /**
      * @return content of the request body or throw an exception if the body or content type is missing
      */
@@ -8,13 +8,27 @@
 
 package org.elasticsearch.rest.action.document;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.bulk.BulkShardRequest;
 import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.client.internal.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.Scope;
@@ -23,7 +37,12 @@ import org.elasticsearch.rest.action.RestRefCountedChunkedToXContentListener;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.elasticsearch.rest.RestRequest.Method.PUT;
@@ -41,10 +60,30 @@ import static org.elasticsearch.rest.RestRequest.Method.PUT;
 public class RestBulkAction extends BaseRestHandler {
     public static final String TYPES_DEPRECATION_MESSAGE = "[types removal] Specifying types in bulk requests is deprecated.";
 
+    /**
+     * The size of the batches that the items of a bulk request whose body is streamed are sent off in.
+     */
+    public static final Setting<ByteSizeValue> STREAMING_BATCH_SIZE_SETTING = Setting.byteSizeSetting(
+        "rest.action.bulk.streaming.batch_size",
+        ByteSizeValue.ofMb(5),
+        ByteSizeValue.ofKb(1),
+        ByteSizeValue.ofMb(100),
+        Setting.Property.NodeScope
+    );
+
     private final boolean allowExplicitIndex;
+    private final long streamingBatchSize;
+    @Nullable
+    private final IndexingPressure indexingPressure;
 
     public RestBulkAction(Settings settings) {
+        this(settings, null);
+    }
+
+    public RestBulkAction(Settings settings, @Nullable IndexingPressure indexingPressure) {
         this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.streamingBatchSize = STREAMING_BATCH_SIZE_SETTING.get(settings).getBytes();
+        this.indexingPressure = indexingPressure;
     }
 
     @Override
@@ -83,6 +122,37 @@ public class RestBulkAction extends BaseRestHandler {
         boolean defaultRequireDataStream = request.paramAsBoolean(DocWriteRequest.REQUIRE_DATA_STREAM, false);
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.setRefreshPolicy(request.param("refresh"));
+        if (request.hasContentStream()) {
+            if (request.getXContentType() == null) {
+                throw new IllegalStateException("unknown content type");
+            }
+            final BulkRequestParser parser = new BulkRequestParser(true, request.getRestApiVersion());
+            final HttpContentStream stream = request.contentStream();
+            return channel -> new StreamingBulkHandler(
+                client,
+                stream,
+                consumer -> parser.incrementalParser(
+                    defaultIndex,
+                    defaultRouting,
+                    defaultFetchSourceContext,
+                    defaultPipeline,
+                    defaultRequireAlias,
+                    defaultRequireDataStream,
+                    defaultListExecutedPipelines,
+                    allowExplicitIndex,
+                    request.getXContentType(),
+                    (indexRequest, type) -> consumer.accept(indexRequest),
+                    consumer::accept,
+                    consumer::accept
+                ),
+                () -> new BulkRequest().waitForActiveShards(bulkRequest.waitForActiveShards())
+                    .timeout(bulkRequest.timeout())
+                    .setRefreshPolicy(bulkRequest.getRefreshPolicy()),
+                indexingPressure,
+                streamingBatchSize,
+                new RestRefCountedChunkedToXContentListener<>(channel)
+            ).start();
+        }
         bulkRequest.add(
             request.requiredContent(),
             defaultIndex,
@@ -100,11 +170,283 @@ public class RestBulkAction extends BaseRestHandler {
         return channel -> client.bulk(bulkRequest, new RestRefCountedChunkedToXContentListener<>(channel));
     }
 
+    /**
+     * Executes a bulk request whose body is streamed to us as it arrives. Items are parsed as soon as all of their bytes are here
+     * and are sent off in batches of {@link #STREAMING_BATCH_SIZE_SETTING} so indexing starts long before the whole body has been
+     * received and the body is never buffered in full. Only one batch is executed at a time while the next one is parsed, and no
+     * more of the body is read once the next batch is full until the one in flight is done, so a cluster that can't keep up slows
+     * down the client rather than filling up the heap. The bytes that are buffered but not sent off yet are accounted for in
+     * {@link IndexingPressure}, from then on the bulk action accounts for them.
+     * <p>
+     * The responses of the batches are concatenated in order into a single {@link BulkResponse}. If a batch fails as a whole its
+     * items are reported as failed, just like the items of a shard that failed, and the batches that follow still run. If the
+     * body can't be parsed the request fails, but the batches that were sent off before that aren't undone.
+     */
+    static final class StreamingBulkHandler implements HttpContentStream.Handler {
+        private final NodeClient client;
+        private final HttpContentStream stream;
+        private final BulkRequestParser.IncrementalParser parser;
+        private final Supplier<BulkRequest> batchSupplier;
+        @Nullable
+        private final IndexingPressure indexingPressure;
+        private final long batchSize;
+        private final ActionListener<BulkResponse> listener;
+        private final long startTimeNanos = System.nanoTime();
+
+        private BulkRequest batch;
+        /**
+         * The chunks, or what is left of them, that haven't been parsed yet.
+         */
+        private final List<ReleasableBytesReference> unparsed = new ArrayList<>();
+        /**
+         * References to the chunks that the items in {@link #batch} might point into.
+         */
+        private List<Releasable> batchChunks = new ArrayList<>();
+        /**
+         * The {@link IndexingPressure} accounting for the chunks that haven't been sent off.
+         */
+        private final List<Releasable> bufferedBytes = new ArrayList<>();
+        private final List<BulkItemResponse> items = new ArrayList<>();
+        private int sentItems;
+        private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+        private boolean awaitingChunk;
+        private boolean lastChunkReceived;
+        private boolean batchInFlight;
+        private boolean done;
+        private Exception failure;
+
+        StreamingBulkHandler(
+            NodeClient client,
+            HttpContentStream stream,
+            Function<Consumer<DocWriteRequest<?>>, BulkRequestParser.IncrementalParser> parserFactory,
+            Supplier<BulkRequest> batchSupplier,
+            @Nullable IndexingPressure indexingPressure,
+            long batchSize,
+            ActionListener<BulkResponse> listener
+        ) {
+            this.client = client;
+            this.stream = stream;
+            this.parser = parserFactory.apply(request -> batch.add(request));
+            this.batchSupplier = batchSupplier;
+            this.indexingPressure = indexingPressure;
+            this.batchSize = batchSize;
+            this.listener = listener;
+            this.batch = batchSupplier.get();
+        }
+
+        void start() {
+            stream.setHandler(this);
+            progress(() -> {});
+        }
+
+        @Override
+        public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+            progress(() -> {
+                awaitingChunk = false;
+                lastChunkReceived = isLast;
+                if (done || failure != null) {
+                    chunk.close();
+                    return;
+                }
+                unparsed.add(chunk);
+                try {
+                    if (indexingPressure != null && chunk.length() > 0) {
+                        bufferedBytes.add(indexingPressure.markCoordinatingOperationStarted(0, chunk.length(), false));
+                    }
+                    if (isLast == false && chunk.indexOf(parser.lineSeparator(), 0) == -1) {
+                        /*
+                         * Every item ends with a line separator and the parser already consumed everything it could from the
+                         * earlier chunks, so it can't make progress until one arrives. Only searching the new chunk for it keeps
+                         * a large item that arrives in many chunks from being scanned again and again.
+                         */
+                        return;
+                    }
+                    final int itemsBefore = batch.numberOfActions();
+                    final BytesReference data = unparsed.size() == 1
+                        ? unparsed.get(0)
+                        : CompositeBytesReference.of(unparsed.toArray(BytesReference[]::new));
+                    final int consumed = parser.parse(data, isLast);
+                    if (batch.numberOfActions() > itemsBefore) {
+                        // the new items might point into any of the chunks
+                        for (ReleasableBytesReference unparsedChunk : unparsed) {
+                            batchChunks.add(unparsedChunk.retain());
+                        }
+                    }
+                    discardParsed(consumed);
+                } catch (Exception e) {
+                    failure = e;
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            progress(() -> {
+                // the channel is closed so there is nobody to respond to. the batch in flight, if any, releases its own chunks.
+                done = true;
+                releaseBuffers();
+            });
+        }
+
+        /**
+         * Update the state under the lock and then take the next step: send off a batch, respond, and/or ask for the next chunk.
+         */
+        private void progress(Runnable updateState) {
+            final Runnable nextStep;
+            final boolean requestChunk;
+            synchronized (this) {
+                updateState.run();
+                nextStep = nextStep();
+                requestChunk = done == false
+                    && failure == null
+                    && lastChunkReceived == false
+                    && awaitingChunk == false
+                    && (batchInFlight == false || batch.estimatedSizeInBytes() < batchSize);
+                awaitingChunk |= requestChunk;
+            }
+            nextStep.run();
+            if (requestChunk) {
+                stream.next();
+            }
+        }
+
+        private Runnable nextStep() {
+            assert Thread.holdsLock(this);
+            if (done) {
+                return () -> {};
+            }
+            if (failure != null) {
+                if (batchInFlight) {
+                    // respond once the batch in flight is done
+                    return () -> {};
+                }
+                done = true;
+                releaseBuffers();
+                final Exception e = failure;
+                return () -> listener.onFailure(e);
+            }
+            final boolean batchReady = lastChunkReceived
+                // an empty body is sent off too so it is rejected just like it would be if it wasn't streamed
+                ? batch.numberOfActions() > 0 || sentItems == 0
+                : batch.estimatedSizeInBytes() >= batchSize;
+            if (batchInFlight) {
+                return () -> {};
+            }
+            if (batchReady) {
+                return sendBatch();
+            }
+            if (lastChunkReceived) {
+                done = true;
+                final BulkResponse response = new BulkResponse(
+                    items.toArray(new BulkItemResponse[0]),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos),
+                    ingestTookInMillis
+                );
+                return () -> listener.onResponse(response);
+            }
+            return () -> {};
+        }
+
+        private Runnable sendBatch() {
+            assert Thread.holdsLock(this);
+            final BulkRequest toSend = batch;
+            final int firstItemId = sentItems;
+            final Releasable chunks = Releasables.wrap(batchChunks);
+            // from here on the bulk action accounts for the bytes of the batch
+            Releasables.close(bufferedBytes);
+            bufferedBytes.clear();
+            batch = batchSupplier.get();
+            batchChunks = new ArrayList<>();
+            sentItems += toSend.numberOfActions();
+            batchInFlight = true;
+            return () -> client.bulk(toSend, ActionListener.releaseAfter(new ActionListener<>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    progress(() -> onBatchResponse(firstItemId, response));
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    progress(() -> onBatchFailure(firstItemId, toSend, e));
+                }
+            }, chunks));
+        }
+
+        private void onBatchResponse(int firstItemId, BulkResponse response) {
+            batchInFlight = false;
+            for (BulkItemResponse item : response.getItems()) {
+                items.add(withItemId(item, firstItemId + item.getItemId()));
+            }
+            if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
+                ingestTookInMillis = Math.max(ingestTookInMillis, 0) + response.getIngestTookInMillis();
+            }
+        }
+
+        private void onBatchFailure(int firstItemId, BulkRequest failedBatch, Exception e) {
+            batchInFlight = false;
+            if (failedBatch.numberOfActions() == 0) {
+                failure = e;
+                return;
+            }
+            final List<DocWriteRequest<?>> requests = failedBatch.requests();
+            for (int i = 0; i < requests.size(); i++) {
+                final DocWriteRequest<?> request = requests.get(i);
+                items.add(
+                    BulkItemResponse.failure(
+                        firstItemId + i,
+                        request.opType(),
+                        new BulkItemResponse.Failure(request.index(), request.id(), e)
+                    )
+                );
+            }
+        }
+
+        private static BulkItemResponse withItemId(BulkItemResponse item, int itemId) {
+            if (item.getItemId() == itemId) {
+                return item;
+            }
+            return item.isFailed()
+                ? BulkItemResponse.failure(itemId, item.getOpType(), item.getFailure())
+                : BulkItemResponse.success(itemId, item.getOpType(), item.getResponse());
+        }
+
+        /**
+         * Drop the first {@code consumed} bytes of {@link #unparsed}.
+         */
+        private void discardParsed(int consumed) {
+            int remaining = consumed;
+            while (unparsed.isEmpty() == false && unparsed.get(0).length() <= remaining) {
+                final ReleasableBytesReference chunk = unparsed.remove(0);
+                remaining -= chunk.length();
+                chunk.close();
+            }
+            if (remaining > 0) {
+                final ReleasableBytesReference chunk = unparsed.get(0);
+                unparsed.set(0, chunk.retainedSlice(remaining, chunk.length() - remaining));
+                chunk.close();
+            }
+        }
+
+        private void releaseBuffers() {
+            Releasables.close(unparsed);
+            unparsed.clear();
+            Releasables.close(batchChunks);
+            batchChunks.clear();
+            Releasables.close(bufferedBytes);
+            bufferedBytes.clear();
+        }
+    }
+
     @Override
     public boolean supportsContentStream() {
         return true;
     }
 
+    @Override
+    public boolean supportsHttpContentStream() {
+        return true;
+    }
+
     @Override
     public boolean allowsUnsafeBuffers() {
         return true;
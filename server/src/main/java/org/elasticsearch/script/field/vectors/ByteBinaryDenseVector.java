@@ -11,6 +11,7 @@ package org.elasticsearch.script.field.vectors;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.VectorUtil;
 import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.vec.ESVectorUtil;
 
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -79,11 +80,7 @@ public class ByteBinaryDenseVector implements DenseVector {
 
     @Override
     public int l1Norm(byte[] queryVector) {
-        int result = 0;
-        for (int i = 0; i < queryVector.length; i++) {
-            result += abs(vectorValue[i] - queryVector[i]);
-        }
-        return result;
+        return ESVectorUtil.l1Norm(vectorValue, queryVector);
     }
 
     @Override
@@ -10,6 +10,7 @@ package org.elasticsearch.script.field.vectors;
 
 import org.apache.lucene.util.VectorUtil;
 import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.vec.ESVectorUtil;
 
 import java.util.List;
 
@@ -76,13 +77,7 @@ public class ByteKnnDenseVector implements DenseVector {
 
     @Override
     public int l1Norm(byte[] queryVector) {
-        int result = 0;
-        int i = 0;
-        while (i < docVector.length) {
-            result += abs(docVector[i] - queryVector[i]);
-            i++;
-        }
-        return result;
+        return ESVectorUtil.l1Norm(docVector, queryVector);
     }
 
     @Override
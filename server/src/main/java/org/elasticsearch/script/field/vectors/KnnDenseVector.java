@@ -9,6 +9,7 @@
 package org.elasticsearch.script.field.vectors;
 
 import org.apache.lucene.util.VectorUtil;
+import org.elasticsearch.vec.ESVectorUtil;
 
 import java.util.Arrays;
 import java.util.List;
@@ -69,11 +70,7 @@ public class KnnDenseVector implements DenseVector {
 
     @Override
     public double l1Norm(float[] queryVector) {
-        double result = 0.0;
-        for (int i = 0; i < docVector.length; i++) {
-            result += Math.abs(docVector[i] - queryVector[i]);
-        }
-        return result;
+        return ESVectorUtil.l1Norm(docVector, queryVector);
     }
 
     @Override
@@ -43,6 +43,7 @@ import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
@@ -231,6 +232,27 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         Property.Dynamic
     );
 
+    /**
+     * Fetch the hits in each segment in parallel on the search worker pool for large fetches.
+     */
+    public static final Setting<Boolean> FETCH_PHASE_PARALLEL_ENABLED = Setting.boolSetting(
+        "search.fetch_phase_parallel_enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
+    /**
+     * Balance the slices of concurrent searches by the estimated cost of the query in each segment rather than by doc count, and
+     * split expensive segments by doc-id range.
+     */
+    public static final Setting<Boolean> COST_BASED_SLICING_ENABLED = Setting.boolSetting(
+        "search.cost_based_slicing_enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic
+    );
+
     public static final Setting<Integer> MAX_OPEN_SCROLL_CONTEXT = Setting.intSetting(
         "search.max_open_scroll_context",
         500,
@@ -275,6 +297,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     private final FetchPhase fetchPhase;
     private volatile boolean enableSearchWorkerThreads;
     private volatile boolean enableQueryPhaseParallelCollection;
+    private volatile boolean enableFetchPhaseParallelism;
+    private volatile boolean enableCostBasedSlicing;
 
     private volatile long defaultKeepAlive;
 
@@ -371,6 +395,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         enableQueryPhaseParallelCollection = QUERY_PHASE_PARALLEL_COLLECTION_ENABLED.get(settings);
         clusterService.getClusterSettings()
             .addSettingsUpdateConsumer(QUERY_PHASE_PARALLEL_COLLECTION_ENABLED, this::setEnableQueryPhaseParallelCollection);
+
+        enableFetchPhaseParallelism = FETCH_PHASE_PARALLEL_ENABLED.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(FETCH_PHASE_PARALLEL_ENABLED, this::setEnableFetchPhaseParallelism);
+
+        enableCostBasedSlicing = COST_BASED_SLICING_ENABLED.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(COST_BASED_SLICING_ENABLED, this::setEnableCostBasedSlicing);
     }
 
     private void setEnableSearchWorkerThreads(boolean enableSearchWorkerThreads) {
@@ -381,6 +411,22 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.enableQueryPhaseParallelCollection = enableQueryPhaseParallelCollection;
     }
 
+    private void setEnableFetchPhaseParallelism(boolean enableFetchPhaseParallelism) {
+        this.enableFetchPhaseParallelism = enableFetchPhaseParallelism;
+    }
+
+    private void setEnableCostBasedSlicing(boolean enableCostBasedSlicing) {
+        this.enableCostBasedSlicing = enableCostBasedSlicing;
+    }
+
+    /**
+     * The executor that the fetch phase may fetch segments in parallel on or {@code null} if it should fetch them sequentially.
+     */
+    @Nullable
+    private Executor fetchPhaseExecutor() {
+        return enableFetchPhaseParallelism && enableSearchWorkerThreads ? threadPool.executor(Names.SEARCH_WORKER) : null;
+    }
+
     private static void validateKeepAlives(TimeValue defaultKeepAlive, TimeValue maxKeepAlive) {
         if (defaultKeepAlive.millis() > maxKeepAlive.millis()) {
             throw new IllegalArgumentException(
@@ -715,7 +761,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             Releasable scope = tracer.withScope(context.getTask());
             SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(context, true, afterQueryTime)
         ) {
-            fetchPhase.execute(context, shortcutDocIdsToLoad(context));
+            fetchPhase.execute(context, shortcutDocIdsToLoad(context), fetchPhaseExecutor());
             if (reader.singleSession()) {
                 freeReaderContext(reader.id());
             }
@@ -868,7 +914,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 try (
                     SearchOperationListenerExecutor executor = new SearchOperationListenerExecutor(searchContext, true, System.nanoTime())
                 ) {
-                    fetchPhase.execute(searchContext, request.docIds());
+                    fetchPhase.execute(searchContext, request.docIds(), fetchPhaseExecutor());
                     if (readerContext.singleSession()) {
                         freeReaderContext(request.contextId());
                     }
@@ -1102,6 +1148,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 enableQueryPhaseParallelCollection,
                 minimumDocsPerSlice
             );
+            searchContext.searcher()
+                .setCostBasedSlicing(enableCostBasedSlicing, request.source() == null || request.source().aggregations() == null);
             // we clone the query shard context here just for rewriting otherwise we
             // might end up with incorrect state since we are using now() or script services
             // during rewrite and normalized / evaluate templates etc.
@@ -1308,7 +1356,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 context::isCancelled,
                 context::buildFilteredQuery,
                 enableRewriteAggsToFilterByFilter,
-                source.aggregations().isInSortOrderExecutionRequired()
+                source.aggregations().isInSortOrderExecutionRequired(),
+                indicesService.segmentCountCache(context.request(), context)
             );
             context.addQuerySearchResultReleasable(aggContext);
             try {
@@ -65,6 +65,8 @@ final class CompositeValuesCollectorQueue extends PriorityQueue<Integer> impleme
 
     private LongArray docCounts;
     private boolean afterKeyIsSet = false;
+    // the slot of the last competitive candidate, documents that are sorted like the sources come in runs of the same key
+    private int lastSlot = -1;
 
     /**
      * Constructs a composite queue with the specified size and sources.
@@ -343,11 +345,17 @@ final class CompositeValuesCollectorQueue extends PriorityQueue<Integer> impleme
      * @throws CollectionTerminatedException if the current collection can be terminated early due to index sorting.
      */
     boolean addIfCompetitive(int indexSortSourcePrefix, long inc) throws IOException {
+        if (lastSlot != -1 && equals(CANDIDATE_SLOT, lastSlot)) {
+            // same key as the previous competitive candidate, count the run without hashing the key
+            docCounts.increment(lastSlot, inc);
+            return true;
+        }
         // checks if the candidate key is competitive
         Integer topSlot = compareCurrent();
         if (topSlot != null) {
             // this key is already in the top N, skip it
             docCounts.increment(topSlot, inc);
+            lastSlot = topSlot;
             return true;
         }
         if (afterKeyIsSet) {
@@ -387,10 +395,11 @@ final class CompositeValuesCollectorQueue extends PriorityQueue<Integer> impleme
         } else {
             newSlot = size();
         }
-        // move the candidate key to its new slot
+        // move the candidate key to its new slot, if it recycles the last slot then that slot now holds the candidate
         copyCurrent(newSlot, inc);
         map.put(new Slot(newSlot), newSlot);
         add(newSlot);
+        lastSlot = newSlot;
 
         if (competitiveBoundsChangedListener != null && size() >= maxSize) {
             competitiveBoundsChangedListener.boundsChanged(top());
@@ -8,9 +8,11 @@
 
 package org.elasticsearch.search.aggregations.bucket.composite;
 
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
@@ -218,6 +220,28 @@ class GlobalOrdinalValuesSource extends SingleDimensionValuesSource<BytesRef> {
         final CompetitiveIterator competitiveIterator = fieldType == null ? null : new CompetitiveIterator(context, fieldType.name());
         currentCompetitiveIterator = competitiveIterator;
 
+        final SortedDocValues singleton = DocValues.unwrapSingleton(dvs);
+        if (singleton != null) {
+            // read single valued fields directly, without iterating the ordinals of each document
+            return new LeafBucketCollector() {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    if (singleton.advanceExact(doc)) {
+                        currentValue = singleton.ordValue();
+                        next.collect(doc, bucket);
+                    } else if (missingBucket) {
+                        currentValue = MISSING_VALUE_FLAG;
+                        next.collect(doc, bucket);
+                    }
+                }
+
+                @Override
+                public DocIdSetIterator competitiveIterator() {
+                    return competitiveIterator;
+                }
+            };
+        }
+
         return new LeafBucketCollector() {
 
             @Override
@@ -10,8 +10,10 @@ package org.elasticsearch.search.aggregations.bucket.composite;
 
 import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
@@ -170,6 +172,23 @@ class LongValuesSource extends SingleDimensionValuesSource<Long> {
     @Override
     LeafBucketCollector getLeafCollector(LeafReaderContext context, LeafBucketCollector next) throws IOException {
         final SortedNumericDocValues dvs = docValuesFunc.apply(context);
+        final NumericDocValues singleton = DocValues.unwrapSingleton(dvs);
+        if (singleton != null) {
+            // read single valued fields directly, doc values formats like ES87TSDBDocValuesFormat decode them a block at a time
+            return new LeafBucketCollector() {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    if (singleton.advanceExact(doc)) {
+                        currentValue = singleton.longValue();
+                        missingCurrentValue = false;
+                        next.collect(doc, bucket);
+                    } else if (missingBucket) {
+                        missingCurrentValue = true;
+                        next.collect(doc, bucket);
+                    }
+                }
+            };
+        }
         return new LeafBucketCollector() {
             @Override
             public void collect(int doc, long bucket) throws IOException {
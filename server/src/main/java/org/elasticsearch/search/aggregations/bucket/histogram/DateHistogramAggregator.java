@@ -89,6 +89,39 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         Map<String, Object> metadata
     ) throws IOException {
         Rounding.Prepared preparedRounding = valuesSourceConfig.roundingPreparer(context).apply(rounding);
+        DateHistogramSegmentCounts segmentCounts = DateHistogramSegmentCounts.buildOrNull(
+            factories,
+            valuesSourceConfig,
+            preparedRounding,
+            context,
+            parent
+        );
+        if (segmentCounts != null) {
+            /*
+             * Prefer sharing counts with other requests over adapting into
+             * a range aggregation. The range aggregation is only really
+             * faster when the top level query is simple enough to run
+             * filter by filter and that's cheap to count anyway.
+             */
+            return new DateHistogramAggregator(
+                name,
+                factories,
+                rounding,
+                preparedRounding,
+                order,
+                keyed,
+                minDocCount,
+                downsampledResultsOffset,
+                extendedBounds,
+                hardBounds,
+                valuesSourceConfig,
+                context,
+                parent,
+                cardinality,
+                metadata,
+                segmentCounts
+            );
+        }
         Aggregator asRange = adaptIntoRangeOrNull(
             name,
             factories,
@@ -124,7 +157,8 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
             context,
             parent,
             cardinality,
-            metadata
+            metadata,
+            null
         );
     }
 
@@ -237,6 +271,12 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
     private final LongBounds hardBounds;
 
     private final LongKeyedBucketOrds bucketOrds;
+    /**
+     * Counts whole segments, sharing counts with other requests, or
+     * {@code null} if we must collect every document.
+     */
+    @Nullable
+    private final DateHistogramSegmentCounts segmentCounts;
 
     DateHistogramAggregator(
         String name,
@@ -253,7 +293,8 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         AggregationContext context,
         Aggregator parent,
         CardinalityUpperBound cardinality,
-        Map<String, Object> metadata
+        Map<String, Object> metadata,
+        @Nullable DateHistogramSegmentCounts segmentCounts
     ) throws IOException {
         super(name, factories, context, parent, CardinalityUpperBound.MANY, metadata);
         this.rounding = rounding;
@@ -270,6 +311,7 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         this.formatter = valuesSourceConfig.format();
 
         bucketOrds = LongKeyedBucketOrds.build(bigArrays(), cardinality);
+        this.segmentCounts = segmentCounts;
     }
 
     @Override
@@ -285,6 +327,9 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
+        if (segmentCounts != null && segmentCounts.count(aggCtx.getLeafReaderContext(), this::addCountedBucket)) {
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
         SortedNumericDocValues values = valuesSource.longValues(aggCtx.getLeafReaderContext());
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -316,6 +361,20 @@ class DateHistogramAggregator extends BucketsAggregator implements SizedBucketAg
         };
     }
 
+    /**
+     * Add a bucket counted by {@link #segmentCounts}. They are only used
+     * at the top level so the owning bucket is always {@code 0}.
+     */
+    private void addCountedBucket(long rounded, long docCount) {
+        if (hardBounds == null || hardBounds.contain(rounded)) {
+            long bucketOrd = bucketOrds.add(0, rounded);
+            if (bucketOrd < 0) { // already seen
+                bucketOrd = -1 - bucketOrd;
+            }
+            incrementBucketDocCount(bucketOrd, docCount);
+        }
+    }
+
     @Override
     public InternalAggregation[] buildAggregations(long[] owningBucketOrds) throws IOException {
         return buildAggregationsForVariableBuckets(owningBucketOrds, bucketOrds, (bucketValue, docCount, subAggregationResults) -> {
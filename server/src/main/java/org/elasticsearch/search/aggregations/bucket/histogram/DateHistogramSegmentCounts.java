@@ -0,0 +1,405 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.histogram;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.Rounding;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.bucket.DocCountProvider;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.SegmentCountCache;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the documents in each bucket of a top level {@code date_histogram}
+ * one segment at a time, sharing the counts with other requests through a
+ * {@link SegmentCountCache}.
+ * <p>
+ * We split the top level query into a range on the histogram's field and
+ * the "residual" query containing everything else. The count of a bucket
+ * that is entirely inside the range is then just the number of documents
+ * in the bucket that match the residual query. That doesn't depend on the
+ * range at all so requests like dashboards that search {@code now-15m}
+ * over and over again can reuse it. So we look up every such bucket and only
+ * count the ones that aren't cached and the buckets at the edges of the
+ * range, which we never cache.
+ * <p>
+ * This only works if each document has at most one value for the field
+ * in the segment. Otherwise documents that match the range might have
+ * values in more than one bucket. So we count segments with multivalued
+ * fields the normal way.
+ */
+final class DateHistogramSegmentCounts {
+    /**
+     * Segments with more buckets than this are collected normally. Looking
+     * up and caching counts one bucket at a time isn't worth it if there are
+     * this many buckets.
+     */
+    static final int MAX_BUCKETS_PER_SEGMENT = 4096;
+
+    /**
+     * Build the counter if the {@code date_histogram} can use a
+     * {@link SegmentCountCache}, {@code null} otherwise.
+     */
+    @Nullable
+    static DateHistogramSegmentCounts buildOrNull(
+        AggregatorFactories factories,
+        ValuesSourceConfig valuesSourceConfig,
+        Rounding.Prepared preparedRounding,
+        AggregationContext context,
+        Aggregator parent
+    ) throws IOException {
+        SegmentCountCache cache = context.segmentCountCache();
+        if (cache == null || parent != null || factories.countAggregators() > 0 || context.isInSortOrderExecutionRequired()) {
+            return null;
+        }
+        if (valuesSourceConfig.hasValues() == false || valuesSourceConfig.alignesWithSearchIndex() == false) {
+            return null;
+        }
+        if (valuesSourceConfig.fieldType() instanceof DateFieldMapper.DateFieldType ft == false
+            || ft.resolution() != DateFieldMapper.Resolution.MILLISECONDS
+            || ft.hasDocValues() == false) {
+            return null;
+        }
+        String field = valuesSourceConfig.fieldContext().field();
+        IndexSearcher searcher = context.searcher();
+        List<Query> required = new ArrayList<>();
+        List<Query> prohibited = new ArrayList<>();
+        flatten(searcher.rewrite(context.query()), required, prohibited);
+
+        long min = Long.MIN_VALUE;
+        long max = Long.MAX_VALUE;
+        BooleanQuery.Builder residual = new BooleanQuery.Builder();
+        boolean hasRequired = false;
+        for (Query query : required) {
+            PointRangeQuery range = rangeOn(query, field);
+            if (range == null) {
+                residual.add(query, BooleanClause.Occur.FILTER);
+                hasRequired = true;
+            } else {
+                min = Math.max(min, LongPoint.decodeDimension(range.getLowerPoint(), 0));
+                max = Math.min(max, LongPoint.decodeDimension(range.getUpperPoint(), 0));
+            }
+        }
+        if (hasRequired == false) {
+            residual.add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER);
+        }
+        for (Query query : prohibited) {
+            residual.add(query, BooleanClause.Occur.MUST_NOT);
+        }
+        Query rewrittenResidual = searcher.rewrite(residual.build());
+        return new DateHistogramSegmentCounts(cache, searcher, field, preparedRounding, min, max, rewrittenResidual);
+    }
+
+    /**
+     * Flatten nested conjunctions into the lists of queries that documents
+     * must and must not match.
+     */
+    private static void flatten(Query query, List<Query> required, List<Query> prohibited) {
+        if (query instanceof ConstantScoreQuery csq) {
+            flatten(csq.getQuery(), required, prohibited);
+            return;
+        }
+        if (query instanceof BoostQuery bq) {
+            flatten(bq.getQuery(), required, prohibited);
+            return;
+        }
+        if (query instanceof BooleanQuery bq && isConjunction(bq)) {
+            for (BooleanClause clause : bq) {
+                switch (clause.getOccur()) {
+                    case MUST, FILTER -> flatten(clause.getQuery(), required, prohibited);
+                    case MUST_NOT -> prohibited.add(clause.getQuery());
+                    case SHOULD -> {
+                        // Optional because there are required clauses - they only change the score
+                    }
+                }
+            }
+            return;
+        }
+        required.add(query);
+    }
+
+    /**
+     * Does this {@link BooleanQuery} match exactly the documents that match
+     * all of its required clauses and none of its prohibited clauses? Queries
+     * without required clauses match documents based on their {@code SHOULD}
+     * clauses or, if there aren't any, don't match anything.
+     */
+    private static boolean isConjunction(BooleanQuery bq) {
+        if (bq.getMinimumNumberShouldMatch() > 0) {
+            return false;
+        }
+        for (BooleanClause clause : bq) {
+            if (clause.isRequired()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The range this query matches on {@code field} or {@code null} if it
+     * isn't a range on {@code field}.
+     */
+    @Nullable
+    private static PointRangeQuery rangeOn(Query query, String field) {
+        while (true) {
+            if (query instanceof IndexOrDocValuesQuery q) {
+                query = q.getIndexQuery();
+            } else if (query instanceof IndexSortSortedNumericDocValuesRangeQuery q) {
+                query = q.getFallbackQuery();
+            } else if (query instanceof ConstantScoreQuery q) {
+                query = q.getQuery();
+            } else if (query instanceof BoostQuery q) {
+                query = q.getQuery();
+            } else {
+                break;
+            }
+        }
+        if (query instanceof PointRangeQuery range
+            && range.getField().equals(field)
+            && range.getNumDims() == 1
+            && range.getBytesPerDim() == Long.BYTES) {
+            return range;
+        }
+        return null;
+    }
+
+    private final SegmentCountCache cache;
+    private final IndexSearcher searcher;
+    private final String field;
+    private final Rounding.Prepared rounding;
+    /**
+     * The smallest value that the top level query matches, inclusive.
+     */
+    private final long min;
+    /**
+     * The largest value that the top level query matches, inclusive.
+     */
+    private final long max;
+    /**
+     * Everything in the top level query except the range on {@link #field}.
+     */
+    private final Query residual;
+    private final Weight residualWeight;
+
+    private DateHistogramSegmentCounts(
+        SegmentCountCache cache,
+        IndexSearcher searcher,
+        String field,
+        Rounding.Prepared rounding,
+        long min,
+        long max,
+        Query residual
+    ) throws IOException {
+        this.cache = cache;
+        this.searcher = searcher;
+        this.field = field;
+        this.rounding = rounding;
+        this.min = min;
+        this.max = max;
+        this.residual = residual;
+        this.residualWeight = searcher.createWeight(residual, ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+    }
+
+    /**
+     * Receives the count of documents in a bucket.
+     */
+    @FunctionalInterface
+    interface BucketConsumer {
+        void accept(long key, long docCount) throws IOException;
+    }
+
+    /**
+     * Count the documents in each bucket of a segment, sending buckets
+     * containing documents to {@code consumer}.
+     *
+     * @return {@code false} if this segment can't be counted this way and
+     *         should be collected normally, in which case this doesn't send
+     *         anything to the {@code consumer}
+     */
+    boolean count(LeafReaderContext ctx, BucketConsumer consumer) throws IOException {
+        if (min > max) {
+            return true;
+        }
+        IndexReader.CacheHelper cacheHelper = ctx.reader().getReaderCacheHelper();
+        if (cacheHelper == null || residualWeight.isCacheable(ctx) == false) {
+            return false;
+        }
+        if (DocValues.unwrapSingleton(DocValues.getSortedNumeric(ctx.reader(), field)) == null) {
+            return false;
+        }
+        PointValues points = ctx.reader().getPointValues(field);
+        if (points == null) {
+            // No documents in this segment have a value
+            return true;
+        }
+        long from = Math.max(min, LongPoint.decodeDimension(points.getMinPackedValue(), 0));
+        long to = Math.min(max, LongPoint.decodeDimension(points.getMaxPackedValue(), 0));
+        if (from > to) {
+            return true;
+        }
+
+        long[] starts = new long[16];
+        long[] ends = new long[16];
+        int bucketCount = 0;
+        long start = rounding.round(from);
+        while (start <= to) {
+            if (bucketCount == MAX_BUCKETS_PER_SEGMENT) {
+                return false;
+            }
+            long end = rounding.nextRoundingValue(start);
+            if (bucketCount == starts.length) {
+                starts = Arrays.copyOf(starts, bucketCount * 2);
+                ends = Arrays.copyOf(ends, bucketCount * 2);
+            }
+            starts[bucketCount] = start;
+            ends[bucketCount] = end;
+            bucketCount++;
+            if (end <= start) {
+                break;
+            }
+            start = end;
+        }
+
+        long[] counts = new long[bucketCount];
+        BucketKey[] keys = new BucketKey[bucketCount];
+        boolean[] known = new boolean[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            if (starts[b] < min || ends[b] - 1 > max) {
+                // The bucket is only partly inside the range so its count depends on the range
+                continue;
+            }
+            keys[b] = new BucketKey(residual, field, starts[b], ends[b]);
+            Long cached = cache.get(cacheHelper, keys[b]);
+            if (cached != null) {
+                counts[b] = cached;
+                known[b] = true;
+            }
+        }
+
+        int b = 0;
+        while (b < bucketCount) {
+            if (known[b]) {
+                b++;
+                continue;
+            }
+            int runStart = b;
+            while (b < bucketCount && known[b] == false) {
+                b++;
+            }
+            countRun(ctx, starts, runStart, b, Math.max(from, starts[runStart]), Math.min(to, ends[b - 1] - 1), counts);
+            for (int r = runStart; r < b; r++) {
+                if (keys[r] != null) {
+                    cache.put(cacheHelper, keys[r], counts[r]);
+                }
+            }
+        }
+
+        for (b = 0; b < bucketCount; b++) {
+            if (counts[b] > 0) {
+                consumer.accept(starts[b], counts[b]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count the documents matching the residual query with values between
+     * {@code from} and {@code to}, both inclusive, into the buckets between
+     * {@code startBucket}, inclusive, and {@code endBucket}, exclusive.
+     */
+    private void countRun(LeafReaderContext ctx, long[] starts, int startBucket, int endBucket, long from, long to, long[] counts)
+        throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(residual, BooleanClause.Occur.FILTER);
+        builder.add(
+            new IndexOrDocValuesQuery(
+                LongPoint.newRangeQuery(field, from, to),
+                SortedNumericDocValuesField.newSlowRangeQuery(field, from, to)
+            ),
+            BooleanClause.Occur.FILTER
+        );
+        Weight weight = searcher.createWeight(searcher.rewrite(builder.build()), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+        BulkScorer scorer = weight.bulkScorer(ctx);
+        if (scorer == null) {
+            return;
+        }
+        NumericDocValues values = DocValues.unwrapSingleton(DocValues.getSortedNumeric(ctx.reader(), field));
+        DocCountProvider docCount = new DocCountProvider();
+        docCount.setLeafReaderContext(ctx);
+        scorer.score(new LeafCollector() {
+            @Override
+            public void setScorer(Scorable scorer) {}
+
+            @Override
+            public void collect(int doc) throws IOException {
+                if (values.advanceExact(doc) == false) {
+                    return;
+                }
+                int bucket = Arrays.binarySearch(starts, startBucket, endBucket, rounding.round(values.longValue()));
+                assert bucket >= 0 : "value outside of the counted buckets";
+                counts[bucket] += docCount.getDocCount(doc);
+            }
+        }, ctx.reader().getLiveDocs());
+    }
+
+    /**
+     * Key for the count of documents matching {@code residual} with values
+     * for {@code field} between {@code from}, inclusive, and {@code to},
+     * exclusive.
+     */
+    record BucketKey(Query residual, String field, long from, long to) implements Accountable {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(BucketKey.class);
+
+        @Override
+        public long ramBytesUsed() {
+            /*
+             * All buckets counted by a request share the residual query. We
+             * charge each of them for the whole query anyway because entries
+             * from older requests keep their own copy around.
+             */
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(field) + RamUsageEstimator.sizeOf(
+                residual,
+                RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED
+            );
+        }
+    }
+}
@@ -256,6 +256,105 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
     }
 
     public InternalAggregation doReduce(List<InternalAggregation> aggregations, AggregationReduceContext reduceContext) {
+        final BucketOrder reduceOrder = getReduceOrder(aggregations);
+        final DocCountTermsReducer.Order order = supportsDocCountReduce() ? DocCountTermsReducer.Order.of(getOrder()) : null;
+        if (order != null && isKeyOrder(reduceOrder) && canReduceDocCounts(aggregations)) {
+            return reduceDocCounts(aggregations, InternalOrder.key(isKeyAsc(reduceOrder)), order, reduceContext);
+        }
+        return reduceWithBuckets(aggregations, reduceContext);
+    }
+
+    /**
+     * Whether aggregations whose buckets have no sub-aggregations can be reduced by only merging doc counts, see
+     * {@link DocCountTermsReducer}. Requires buckets that are {@link org.elasticsearch.search.aggregations.KeyComparable}.
+     */
+    protected boolean supportsDocCountReduce() {
+        return false;
+    }
+
+    private boolean canReduceDocCounts(List<InternalAggregation> aggregations) {
+        for (InternalAggregation aggregation : aggregations) {
+            @SuppressWarnings("unchecked")
+            A terms = (A) aggregation;
+            if (terms.getClass() != getClass() && (terms.canLeadReduction() || terms.getBuckets().isEmpty() == false)) {
+                // let the bucket reduce report the type mismatch
+                return false;
+            }
+            for (B bucket : terms.getBuckets()) {
+                if (bucket.getAggregations().asList().isEmpty() == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reduces aggregations whose buckets have no sub-aggregations by merging the key ordered buckets of all aggregations and only
+     * building the buckets of the result. This produces the same result as {@link #reduceWithBuckets}.
+     */
+    private InternalAggregation reduceDocCounts(
+        List<InternalAggregation> aggregations,
+        BucketOrder reduceOrder,
+        DocCountTermsReducer.Order order,
+        AggregationReduceContext reduceContext
+    ) {
+        final List<List<B>> bucketLists = new ArrayList<>(aggregations.size());
+        final long[] aggDocCountErrors = new long[aggregations.size()];
+        long sumDocCountError = 0;
+        long otherDocCount = 0;
+        for (int i = 0; i < aggregations.size(); i++) {
+            @SuppressWarnings("unchecked")
+            A terms = (A) aggregations.get(i);
+            bucketLists.add(terms.getBuckets());
+            otherDocCount += terms.getSumOfOtherDocCounts();
+            aggDocCountErrors[i] = getDocCountError(terms);
+            if (sumDocCountError != -1) {
+                sumDocCountError = aggDocCountErrors[i] == -1 ? -1 : sumDocCountError + aggDocCountErrors[i];
+            }
+        }
+
+        final List<B> result;
+        try (
+            DocCountTermsReducer<B> reducer = new DocCountTermsReducer<>(
+                reduceContext.bigArrays(),
+                bucketLists,
+                aggDocCountErrors,
+                reduceOrder.comparator()
+            )
+        ) {
+            if (reduceContext.isFinalReduce()) {
+                result = reducer.top(order, getRequiredSize(), getMinDocCount(), this::createBucketWithoutSubAggs);
+                otherDocCount += reducer.nonCompetitiveDocCount();
+            } else {
+                // we can prune the list on partial reduce if the aggregation is ordered by key and not filtered on doc count
+                final int limit = isKeyOrder(getOrder()) && getMinDocCount() == 0 ? getRequiredSize() : Integer.MAX_VALUE;
+                result = reducer.merged(limit, this::createBucketWithoutSubAggs);
+            }
+        }
+        reduceContext.consumeBucketsAndMaybeBreak(result.size());
+        for (B r : result) {
+            if (sumDocCountError == -1) {
+                r.setDocCountError(-1);
+            } else {
+                r.updateDocCountError(sumDocCountError);
+            }
+        }
+        long docCountError;
+        if (sumDocCountError == -1) {
+            docCountError = -1;
+        } else {
+            docCountError = aggregations.size() == 1 ? 0 : sumDocCountError;
+        }
+        return create(name, result, reduceContext.isFinalReduce() ? getOrder() : reduceOrder, docCountError, otherDocCount);
+    }
+
+    private B createBucketWithoutSubAggs(B prototype, long docCount, long docCountError) {
+        return createBucket(docCount, InternalAggregations.EMPTY, docCountError, prototype);
+    }
+
+    // package private for testing
+    InternalAggregation reduceWithBuckets(List<InternalAggregation> aggregations, AggregationReduceContext reduceContext) {
         long sumDocCountError = 0;
         long[] otherDocCount = new long[] { 0 };
         A referenceTerms = null;
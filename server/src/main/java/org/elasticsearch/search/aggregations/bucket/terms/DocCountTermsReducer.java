@@ -0,0 +1,316 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.ObjectArray;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalOrder;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation.Bucket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reduces terms aggregations whose buckets have no sub-aggregations. The key ordered buckets of all aggregations are merged as
+ * streams and only the doc counts and doc count errors of each key are summed up, so no intermediate buckets are built. A partial
+ * reduce builds a bucket for each merged key. A final reduce keeps the competitive keys in a {@link BigArrays} backed heap and only
+ * builds the buckets of the top keys.
+ */
+final class DocCountTermsReducer<B extends AbstractInternalTerms.AbstractTermsBucket> implements Releasable {
+
+    /**
+     * Builds a bucket for a merged key.
+     */
+    @FunctionalInterface
+    interface BucketBuilder<B> {
+        B build(B prototype, long docCount, long docCountError);
+    }
+
+    /**
+     * Receives the merged keys in key order.
+     */
+    @FunctionalInterface
+    private interface MergedKeyConsumer<B> {
+        /**
+         * @return {@code true} to continue merging, {@code false} to stop
+         */
+        boolean accept(B prototype, long docCount, long docCountError);
+    }
+
+    /**
+     * An order of buckets that only depends on their doc count and key, and that is total so that ties are never broken arbitrarily.
+     */
+    static final class Order {
+        private static final Comparator<Bucket> KEY_ASC = InternalOrder.key(true).comparator();
+
+        private final boolean[] byCount;
+        private final boolean[] asc;
+
+        private Order(boolean[] byCount, boolean[] asc) {
+            this.byCount = byCount;
+            this.asc = asc;
+        }
+
+        /**
+         * The order of the given {@link BucketOrder} or {@code null} if it sorts on anything but doc counts and keys, or isn't total.
+         */
+        static Order of(BucketOrder order) {
+            final List<BucketOrder> elements = order instanceof InternalOrder.CompoundOrder compound
+                ? compound.orderElements()
+                : List.of(order);
+            final boolean[] byCount = new boolean[elements.size()];
+            final boolean[] asc = new boolean[elements.size()];
+            for (int i = 0; i < elements.size(); i++) {
+                final BucketOrder element = elements.get(i);
+                if (element.equals(BucketOrder.count(true)) || element.equals(BucketOrder.count(false))) {
+                    byCount[i] = true;
+                    asc[i] = element.equals(BucketOrder.count(true));
+                } else if (element.equals(BucketOrder.key(true)) || element.equals(BucketOrder.key(false))) {
+                    asc[i] = element.equals(BucketOrder.key(true));
+                } else {
+                    return null;
+                }
+            }
+            if (elements.isEmpty() || byCount[elements.size() - 1]) {
+                return null;
+            }
+            return new Order(byCount, asc);
+        }
+
+        int compare(long docCount, Bucket bucket, long otherDocCount, Bucket other) {
+            for (int i = 0; i < byCount.length; i++) {
+                final int cmp = byCount[i] ? Long.compare(docCount, otherDocCount) : Integer.signum(KEY_ASC.compare(bucket, other));
+                if (cmp != 0) {
+                    return asc[i] ? cmp : -cmp;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Order[byCount=" + Arrays.toString(byCount) + ", asc=" + Arrays.toString(asc) + "]";
+        }
+    }
+
+    private final BigArrays bigArrays;
+    private final List<List<B>> bucketLists;
+    private final long[] aggDocCountErrors;
+    private final Comparator<Bucket> keyComparator;
+
+    private ObjectArray<B> heapPrototypes;
+    private LongArray heapDocCounts;
+    private LongArray heapDocCountErrors;
+    private long nonCompetitiveDocCount;
+
+    /**
+     * @param bigArrays         to allocate the heap of the final reduce
+     * @param bucketLists       the buckets of each aggregation, sorted by key
+     * @param aggDocCountErrors the doc count error of each aggregation, which is subtracted from the errors of its buckets
+     * @param keyComparator     the order of the keys in the bucket lists
+     */
+    DocCountTermsReducer(BigArrays bigArrays, List<List<B>> bucketLists, long[] aggDocCountErrors, Comparator<Bucket> keyComparator) {
+        // some reduce contexts in tests don't have big arrays
+        this.bigArrays = bigArrays == null ? BigArrays.NON_RECYCLING_INSTANCE : bigArrays;
+        this.bucketLists = bucketLists;
+        this.aggDocCountErrors = aggDocCountErrors;
+        this.keyComparator = keyComparator;
+    }
+
+    /**
+     * Builds a bucket for each merged key, in key order, until {@code limit} buckets are built.
+     */
+    List<B> merged(int limit, BucketBuilder<B> builder) {
+        final List<B> result = new ArrayList<>();
+        merge((prototype, docCount, docCountError) -> {
+            result.add(builder.build(prototype, docCount, docCountError));
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    /**
+     * Builds the buckets of the top {@code size} merged keys with at least {@code minDocCount} documents, sorted by {@code order}.
+     * The doc counts of the keys that are not competitive are summed up in {@link #nonCompetitiveDocCount()}.
+     */
+    List<B> top(Order order, int size, long minDocCount, BucketBuilder<B> builder) {
+        assert heapPrototypes == null : "already reduced";
+        heapPrototypes = bigArrays.newObjectArray(Math.min(size, 1024));
+        heapDocCounts = bigArrays.newLongArray(heapPrototypes.size(), false);
+        heapDocCountErrors = bigArrays.newLongArray(heapPrototypes.size(), false);
+        final long[] heapSize = new long[] { 0 };
+        merge((prototype, docCount, docCountError) -> {
+            if (docCount < minDocCount) {
+                return true;
+            }
+            if (heapSize[0] < size) {
+                ensureHeapCapacity(heapSize[0] + 1);
+                set(heapSize[0], prototype, docCount, docCountError);
+                upHeap(order, heapSize[0]++);
+            } else if (size > 0 && order.compare(docCount, prototype, heapDocCounts.get(0), heapPrototypes.get(0)) < 0) {
+                // the least competitive key is at the top of the heap
+                nonCompetitiveDocCount += heapDocCounts.get(0);
+                set(0, prototype, docCount, docCountError);
+                downHeap(order, 0, heapSize[0]);
+            } else {
+                nonCompetitiveDocCount += docCount;
+            }
+            return true;
+        });
+        final List<B> result = new ArrayList<>(Math.toIntExact(heapSize[0]));
+        for (long end = heapSize[0]; end > 0; end--) {
+            result.add(builder.build(heapPrototypes.get(0), heapDocCounts.get(0), heapDocCountErrors.get(0)));
+            set(0, heapPrototypes.get(end - 1), heapDocCounts.get(end - 1), heapDocCountErrors.get(end - 1));
+            downHeap(order, 0, end - 1);
+        }
+        // the heap pops the least competitive keys first
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * The sum of the doc counts of the keys that didn't make it in the {@link #top} buckets.
+     */
+    long nonCompetitiveDocCount() {
+        return nonCompetitiveDocCount;
+    }
+
+    private void merge(MergedKeyConsumer<B> consumer) {
+        final PriorityQueue<Cursor<B>> queue = new PriorityQueue<>(bucketLists.size()) {
+            @Override
+            protected boolean lessThan(Cursor<B> a, Cursor<B> b) {
+                return keyComparator.compare(a.current(), b.current()) < 0;
+            }
+        };
+        for (int i = 0; i < bucketLists.size(); i++) {
+            if (bucketLists.get(i).isEmpty() == false) {
+                queue.add(new Cursor<>(i, bucketLists.get(i)));
+            }
+        }
+        while (queue.size() > 0) {
+            final B prototype = queue.top().current();
+            long docCount = 0;
+            // same as AbstractInternalTerms#reduceBucket with the doc count error of each aggregation subtracted
+            long docCountError = 0;
+            do {
+                final Cursor<B> top = queue.top();
+                final B bucket = top.current();
+                docCount += bucket.getDocCount();
+                if (docCountError != -1) {
+                    if (bucket.getShowDocCountError() == false || bucket.getDocCountError() - aggDocCountErrors[top.agg] == -1) {
+                        docCountError = -1;
+                    } else {
+                        docCountError += bucket.getDocCountError() - aggDocCountErrors[top.agg];
+                    }
+                }
+                if (top.advance()) {
+                    assert keyComparator.compare(top.current(), bucket) >= 0 : "shards must return data sorted by key";
+                    queue.updateTop();
+                } else {
+                    queue.pop();
+                }
+            } while (queue.size() > 0 && keyComparator.compare(queue.top().current(), prototype) == 0);
+            if (consumer.accept(prototype, docCount, docCountError) == false) {
+                return;
+            }
+        }
+    }
+
+    private void ensureHeapCapacity(long size) {
+        if (size > heapPrototypes.size()) {
+            heapPrototypes = bigArrays.grow(heapPrototypes, size);
+            heapDocCounts = bigArrays.resize(heapDocCounts, heapPrototypes.size());
+            heapDocCountErrors = bigArrays.resize(heapDocCountErrors, heapPrototypes.size());
+        }
+    }
+
+    private void set(long slot, B prototype, long docCount, long docCountError) {
+        heapPrototypes.set(slot, prototype);
+        heapDocCounts.set(slot, docCount);
+        heapDocCountErrors.set(slot, docCountError);
+    }
+
+    private void swap(long a, long b) {
+        final B prototype = heapPrototypes.get(a);
+        final long docCount = heapDocCounts.get(a);
+        final long docCountError = heapDocCountErrors.get(a);
+        set(a, heapPrototypes.get(b), heapDocCounts.get(b), heapDocCountErrors.get(b));
+        set(b, prototype, docCount, docCountError);
+    }
+
+    /**
+     * Whether the key in slot {@code a} is less competitive than the key in slot {@code b}.
+     */
+    private boolean lessCompetitive(Order order, long a, long b) {
+        return order.compare(heapDocCounts.get(a), heapPrototypes.get(a), heapDocCounts.get(b), heapPrototypes.get(b)) > 0;
+    }
+
+    private void upHeap(Order order, long slot) {
+        while (slot > 0) {
+            final long parent = (slot - 1) >>> 1;
+            if (lessCompetitive(order, slot, parent) == false) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void downHeap(Order order, long slot, long size) {
+        while (true) {
+            long child = 2 * slot + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && lessCompetitive(order, child + 1, child)) {
+                child++;
+            }
+            if (lessCompetitive(order, child, slot) == false) {
+                return;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(heapPrototypes, heapDocCounts, heapDocCountErrors);
+    }
+
+    /**
+     * Iterates the key ordered buckets of a single aggregation.
+     */
+    private static final class Cursor<B> {
+        private final int agg;
+        private final List<B> buckets;
+        private int index;
+
+        Cursor(int agg, List<B> buckets) {
+            this.agg = agg;
+            this.buckets = buckets;
+        }
+
+        B current() {
+            return buckets.get(index);
+        }
+
+        boolean advance() {
+            return ++index < buckets.size();
+        }
+    }
+}
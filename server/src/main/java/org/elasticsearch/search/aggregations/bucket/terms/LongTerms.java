@@ -147,6 +147,11 @@ public class LongTerms extends InternalMappedTerms<LongTerms, LongTerms.Bucket>
         super(in, Bucket::new);
     }
 
+    @Override
+    protected boolean supportsDocCountReduce() {
+        return true;
+    }
+
     @Override
     public String getWriteableName() {
         return NAME;
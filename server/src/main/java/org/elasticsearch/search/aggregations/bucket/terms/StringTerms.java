@@ -168,6 +168,11 @@ public class StringTerms extends InternalMappedTerms<StringTerms, StringTerms.Bu
         };
     }
 
+    @Override
+    protected boolean supportsDocCountReduce() {
+        return true;
+    }
+
     @Override
     public String getWriteableName() {
         return NAME;
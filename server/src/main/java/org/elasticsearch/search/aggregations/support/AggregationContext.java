@@ -316,6 +316,15 @@ public abstract class AggregationContext implements Releasable {
         return null;
     }
 
+    /**
+     * Cache for counts computed against a single segment or {@code null}
+     * if this request can't use one.
+     */
+    @Nullable
+    public SegmentCountCache segmentCountCache() {
+        return null;
+    }
+
     /**
      * Does this index have a {@code _doc_count} field in any segment?
      */
@@ -360,6 +369,7 @@ public abstract class AggregationContext implements Releasable {
         private final Function<Query, Query> filterQuery;
         private final boolean enableRewriteToFilterByFilter;
         private final boolean inSortOrderExecutionRequired;
+        private final SegmentCountCache segmentCountCache;
         private final AnalysisRegistry analysisRegistry;
 
         private final List<Aggregator> releaseMe = new ArrayList<>();
@@ -380,7 +390,8 @@ public abstract class AggregationContext implements Releasable {
             Supplier<Boolean> isCancelled,
             Function<Query, Query> filterQuery,
             boolean enableRewriteToFilterByFilter,
-            boolean inSortOrderExecutionRequired
+            boolean inSortOrderExecutionRequired,
+            @Nullable SegmentCountCache segmentCountCache
         ) {
             this.analysisRegistry = analysisRegistry;
             this.context = context;
@@ -415,6 +426,7 @@ public abstract class AggregationContext implements Releasable {
             this.filterQuery = filterQuery;
             this.enableRewriteToFilterByFilter = enableRewriteToFilterByFilter;
             this.inSortOrderExecutionRequired = inSortOrderExecutionRequired;
+            this.segmentCountCache = segmentCountCache;
         }
 
         @Override
@@ -625,6 +637,11 @@ public abstract class AggregationContext implements Releasable {
             return context.getMappingLookup();
         }
 
+        @Override
+        public SegmentCountCache segmentCountCache() {
+            return segmentCountCache;
+        }
+
         @Override
         public void close() {
             /*
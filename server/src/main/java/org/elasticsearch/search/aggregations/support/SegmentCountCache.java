@@ -0,0 +1,45 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.util.Accountable;
+import org.elasticsearch.core.Nullable;
+
+/**
+ * Caches counts that aggregations computed against a single segment so
+ * that later requests that need the same count on the same segment can
+ * skip computing it. Because segments are immutable once they are written
+ * this lets requests share work across refreshes, unlike the shard level
+ * request cache which is keyed on the whole reader.
+ * <p>
+ * Keys must implement {@link Object#equals} and {@link Object#hashCode}
+ * and must fully describe how the count was computed. In particular they
+ * can't depend on anything that changes from request to request like
+ * {@code now}. Callers should only cache counts for segments where the
+ * {@link org.apache.lucene.search.Weight#isCacheable Weight} of the query
+ * that they ran is cacheable.
+ */
+public interface SegmentCountCache {
+    /**
+     * Look up a count that was computed against the segment with this
+     * {@link IndexReader.CacheHelper}.
+     *
+     * @return the count or {@code null} if it isn't cached
+     */
+    @Nullable
+    Long get(IndexReader.CacheHelper segmentCacheHelper, Accountable key);
+
+    /**
+     * Cache a count computed against the segment with this
+     * {@link IndexReader.CacheHelper}. The count is dropped when the
+     * segment is closed.
+     */
+    void put(IndexReader.CacheHelper segmentCacheHelper, Accountable key, long count);
+}
@@ -10,12 +10,16 @@ package org.elasticsearch.search.fetch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.fieldvisitor.LeafStoredFieldLoader;
 import org.elasticsearch.index.fieldvisitor.StoredFieldLoader;
 import org.elasticsearch.index.mapper.IdLoader;
 import org.elasticsearch.index.mapper.SourceLoader;
+import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.search.LeafNestedDocuments;
 import org.elasticsearch.search.NestedDocuments;
 import org.elasticsearch.search.SearchContextSourcePrinter;
@@ -26,6 +30,7 @@ import org.elasticsearch.search.fetch.FetchSubPhase.HitContext;
 import org.elasticsearch.search.fetch.subphase.InnerHitsContext;
 import org.elasticsearch.search.fetch.subphase.InnerHitsPhase;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.lookup.Source;
 import org.elasticsearch.search.lookup.SourceProvider;
 import org.elasticsearch.search.profile.ProfileResult;
@@ -40,6 +45,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 /**
@@ -49,6 +56,11 @@ import java.util.function.Supplier;
 public final class FetchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * Fetches with fewer hits than this are never split across threads.
+     */
+    static final int MIN_DOCS_TO_FETCH_CONCURRENTLY = 256;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -57,6 +69,14 @@ public final class FetchPhase {
     }
 
     public void execute(SearchContext context, int[] docIdsToLoad) {
+        execute(context, docIdsToLoad, null);
+    }
+
+    /**
+     * Fetch the documents, fetching the hits in each segment in parallel on {@code executor} if it isn't {@code null} and
+     * it is safe and worth it to do so.
+     */
+    public void execute(SearchContext context, int[] docIdsToLoad, @Nullable Executor executor) {
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("{}", new SearchContextSourcePrinter(context));
         }
@@ -75,7 +95,7 @@ public final class FetchPhase {
         Profiler profiler = context.getProfilers() == null ? Profiler.NOOP : Profilers.startProfilingFetchPhase();
         SearchHits hits = null;
         try {
-            hits = buildSearchHits(context, docIdsToLoad, profiler);
+            hits = buildSearchHits(context, docIdsToLoad, profiler, executor);
         } finally {
             // Always finish profiling
             ProfileResult profileResult = profiler.finish();
@@ -97,77 +117,79 @@ public final class FetchPhase {
         }
     }
 
-    private SearchHits buildSearchHits(SearchContext context, int[] docIdsToLoad, Profiler profiler) {
+    private SearchHits buildSearchHits(SearchContext context, int[] docIdsToLoad, Profiler profiler, @Nullable Executor executor) {
 
         FetchContext fetchContext = new FetchContext(context);
         SourceLoader sourceLoader = context.newSourceLoader();
+        IndexReader indexReader = context.searcher().getIndexReader();
+        boolean concurrent = executor != null && canFetchLeavesConcurrently(context, profiler, indexReader, docIdsToLoad);
 
+        // sub-phases may grab the lookup when we build their processors so we have to set the providers first
+        LeafFetcher[] fetchers = new LeafFetcher[indexReader.leaves().size()];
         PreloadedSourceProvider sourceProvider = new PreloadedSourceProvider();
         PreloadedFieldLookupProvider fieldLookupProvider = new PreloadedFieldLookupProvider();
-        context.getSearchExecutionContext().setLookupProviders(sourceProvider, ctx -> fieldLookupProvider);
+        if (concurrent) {
+            // each segment is fetched by its own fetcher so we look up the preloaded values in the segment's fetcher
+            context.getSearchExecutionContext()
+                .setLookupProviders(
+                    (ctx, doc) -> fetchers[ctx.ord].sourceProvider.getSource(ctx, doc),
+                    ctx -> fetchers[ctx.ord].fieldLookupProvider
+                );
+        } else {
+            context.getSearchExecutionContext().setLookupProviders(sourceProvider, ctx -> fieldLookupProvider);
+        }
 
         List<FetchSubPhaseProcessor> processors = getProcessors(context.shardTarget(), fetchContext, profiler);
 
         StoredFieldsSpec storedFieldsSpec = StoredFieldsSpec.build(processors, FetchSubPhaseProcessor::storedFieldsSpec);
         storedFieldsSpec = storedFieldsSpec.merge(new StoredFieldsSpec(false, false, sourceLoader.requiredStoredFields()));
 
-        StoredFieldLoader storedFieldLoader = profiler.storedFields(StoredFieldLoader.fromSpec(storedFieldsSpec));
+        StoredFieldLoader storedFieldLoader = profiler.storedFields(
+            concurrent ? StoredFieldLoader.fromSpecBatched(storedFieldsSpec) : StoredFieldLoader.fromSpec(storedFieldsSpec)
+        );
         IdLoader idLoader = context.newIdLoader();
         boolean requiresSource = storedFieldsSpec.requiresSource();
 
         NestedDocuments nestedDocuments = context.getSearchExecutionContext().getNestedDocuments();
 
-        FetchPhaseDocsIterator docsIterator = new FetchPhaseDocsIterator() {
-
-            LeafReaderContext ctx;
-            LeafNestedDocuments leafNestedDocuments;
-            LeafStoredFieldLoader leafStoredFieldLoader;
-            SourceLoader.Leaf leafSourceLoader;
-            IdLoader.Leaf leafIdLoader;
-
-            @Override
-            protected void setNextReader(LeafReaderContext ctx, int[] docsInLeaf) throws IOException {
-                Timer timer = profiler.startNextReader();
-                this.ctx = ctx;
-                this.leafNestedDocuments = nestedDocuments.getLeafNestedDocuments(ctx);
-                this.leafStoredFieldLoader = storedFieldLoader.getLoader(ctx, docsInLeaf);
-                this.leafSourceLoader = sourceLoader.leaf(ctx.reader(), docsInLeaf);
-                this.leafIdLoader = idLoader.leaf(leafStoredFieldLoader, ctx.reader(), docsInLeaf);
-                fieldLookupProvider.setNextReader(ctx);
-                for (FetchSubPhaseProcessor processor : processors) {
-                    processor.setNextReader(ctx);
-                }
-                if (timer != null) {
-                    timer.stop();
-                }
-            }
-
-            @Override
-            protected SearchHit nextDoc(int doc) throws IOException {
-                if (context.isCancelled()) {
-                    throw new TaskCancelledException("cancelled");
-                }
-                HitContext hit = prepareHitContext(
+        SearchHit[] hits;
+        if (concurrent) {
+            AtomicBoolean processorsTaken = new AtomicBoolean();
+            hits = FetchPhaseDocsIterator.iterateLeavesConcurrently(context.shardTarget(), indexReader, docIdsToLoad, leafOrd -> {
+                /*
+                 * Processors keep per segment state so every segment but the first needs its own. This runs on the calling
+                 * thread, as does each fetcher's setNextReader, so building processors and per segment loaders from the
+                 * shared fetch context, source loader and id loader never races.
+                 */
+                fetchers[leafOrd] = new LeafFetcher(
                     context,
-                    requiresSource,
                     profiler,
-                    leafNestedDocuments,
-                    leafStoredFieldLoader,
-                    doc,
-                    ctx,
-                    leafSourceLoader,
-                    leafIdLoader
+                    processorsTaken.compareAndSet(false, true) ? processors : getProcessors(context.shardTarget(), fetchContext, profiler),
+                    new PreloadedSourceProvider(),
+                    new PreloadedFieldLookupProvider(),
+                    storedFieldLoader,
+                    sourceLoader,
+                    idLoader,
+                    nestedDocuments,
+                    requiresSource
                 );
-                sourceProvider.source = hit.source();
-                fieldLookupProvider.storedFields = hit.loadedFields();
-                for (FetchSubPhaseProcessor processor : processors) {
-                    processor.process(hit);
-                }
-                return hit.hit();
-            }
-        };
-
-        SearchHit[] hits = docsIterator.iterate(context.shardTarget(), context.searcher().getIndexReader(), docIdsToLoad);
+                return fetchers[leafOrd];
+            }, executor);
+        } else {
+            LeafFetcher fetcher = new LeafFetcher(
+                context,
+                profiler,
+                processors,
+                sourceProvider,
+                fieldLookupProvider,
+                storedFieldLoader,
+                sourceLoader,
+                idLoader,
+                nestedDocuments,
+                requiresSource
+            );
+            hits = fetcher.iterate(context.shardTarget(), indexReader, docIdsToLoad);
+        }
 
         if (context.isCancelled()) {
             throw new TaskCancelledException("cancelled");
@@ -177,6 +199,122 @@ public final class FetchPhase {
         return SearchHits.unpooled(hits, totalHits, context.getMaxScore());
     }
 
+    /**
+     * Can we fetch the hits in each segment in parallel? Each segment gets its own sub-phase processors, but we only do it for
+     * large fetches that hit more than one segment because handing the segments off to other threads isn't free. The profiler
+     * and inner hits keep state for the whole fetch so we fetch sequentially if we need either of them.
+     * <p>
+     * Everything that is built from the shared {@link SearchExecutionContext}, {@link FetchContext}, {@link SourceLoader} and
+     * {@link IdLoader} is built on the calling thread. The other threads only load hits with their own segment's processors
+     * and leaf loaders. The only shared state they touch is the {@link SearchLookup}, which looks up the source and stored
+     * fields in the fetcher of the segment it is asked about, and the field data caches, which the query phase already
+     * shares between the threads of a concurrent search.
+     */
+    private static boolean canFetchLeavesConcurrently(SearchContext context, Profiler profiler, IndexReader indexReader, int[] docIds) {
+        if (docIds.length < MIN_DOCS_TO_FETCH_CONCURRENTLY || profiler != Profiler.NOOP) {
+            return false;
+        }
+        if (context.innerHits() != null && context.innerHits().getInnerHits().isEmpty() == false) {
+            return false;
+        }
+        int minDoc = Integer.MAX_VALUE;
+        int maxDoc = Integer.MIN_VALUE;
+        for (int doc : docIds) {
+            minDoc = Math.min(minDoc, doc);
+            maxDoc = Math.max(maxDoc, doc);
+        }
+        List<LeafReaderContext> leaves = indexReader.leaves();
+        return ReaderUtil.subIndex(minDoc, leaves) != ReaderUtil.subIndex(maxDoc, leaves);
+    }
+
+    /**
+     * Fetches hits one segment at a time. All of its state is for the current segment so when fetching concurrently we use one per
+     * segment, each with its own sub-phase processors and preloaded source and stored fields.
+     */
+    private static final class LeafFetcher extends FetchPhaseDocsIterator {
+        private final SearchContext context;
+        private final Profiler profiler;
+        private final List<FetchSubPhaseProcessor> processors;
+        private final PreloadedSourceProvider sourceProvider;
+        private final PreloadedFieldLookupProvider fieldLookupProvider;
+        private final StoredFieldLoader storedFieldLoader;
+        private final SourceLoader sourceLoader;
+        private final IdLoader idLoader;
+        private final NestedDocuments nestedDocuments;
+        private final boolean requiresSource;
+
+        private LeafReaderContext ctx;
+        private LeafNestedDocuments leafNestedDocuments;
+        private LeafStoredFieldLoader leafStoredFieldLoader;
+        private SourceLoader.Leaf leafSourceLoader;
+        private IdLoader.Leaf leafIdLoader;
+
+        LeafFetcher(
+            SearchContext context,
+            Profiler profiler,
+            List<FetchSubPhaseProcessor> processors,
+            PreloadedSourceProvider sourceProvider,
+            PreloadedFieldLookupProvider fieldLookupProvider,
+            StoredFieldLoader storedFieldLoader,
+            SourceLoader sourceLoader,
+            IdLoader idLoader,
+            NestedDocuments nestedDocuments,
+            boolean requiresSource
+        ) {
+            this.context = context;
+            this.profiler = profiler;
+            this.processors = processors;
+            this.sourceProvider = sourceProvider;
+            this.fieldLookupProvider = fieldLookupProvider;
+            this.storedFieldLoader = storedFieldLoader;
+            this.sourceLoader = sourceLoader;
+            this.idLoader = idLoader;
+            this.nestedDocuments = nestedDocuments;
+            this.requiresSource = requiresSource;
+        }
+
+        @Override
+        protected void setNextReader(LeafReaderContext ctx, int[] docsInLeaf) throws IOException {
+            Timer timer = profiler.startNextReader();
+            this.ctx = ctx;
+            this.leafNestedDocuments = nestedDocuments.getLeafNestedDocuments(ctx);
+            this.leafStoredFieldLoader = storedFieldLoader.getLoader(ctx, docsInLeaf);
+            this.leafSourceLoader = sourceLoader.leaf(ctx.reader(), docsInLeaf);
+            this.leafIdLoader = idLoader.leaf(leafStoredFieldLoader, ctx.reader(), docsInLeaf);
+            fieldLookupProvider.setNextReader(ctx);
+            for (FetchSubPhaseProcessor processor : processors) {
+                processor.setNextReader(ctx);
+            }
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+
+        @Override
+        protected SearchHit nextDoc(int doc) throws IOException {
+            if (context.isCancelled()) {
+                throw new TaskCancelledException("cancelled");
+            }
+            HitContext hit = prepareHitContext(
+                context,
+                requiresSource,
+                profiler,
+                leafNestedDocuments,
+                leafStoredFieldLoader,
+                doc,
+                ctx,
+                leafSourceLoader,
+                leafIdLoader
+            );
+            sourceProvider.source = hit.source();
+            fieldLookupProvider.storedFields = hit.loadedFields();
+            for (FetchSubPhaseProcessor processor : processors) {
+                processor.process(hit);
+            }
+            return hit.hit();
+        }
+    }
+
     List<FetchSubPhaseProcessor> getProcessors(SearchShardTarget target, FetchContext context, Profiler profiler) {
         try {
             List<FetchSubPhaseProcessor> processors = new ArrayList<>();
@@ -11,11 +11,19 @@ package org.elasticsearch.search.fetch;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchShardTarget;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
 
 /**
  * Given a set of doc ids and an index reader, sorts the docs by id, splits the sorted
@@ -80,6 +88,102 @@ abstract class FetchPhaseDocsIterator {
         return searchHits;
     }
 
+    /**
+     * Split the doc ids by leaf and fetch each leaf with its own iterator, running the leaves in parallel
+     * on {@code executor} and on the calling thread. The iterators are built, and {@link #setNextReader}
+     * is called on each of them, on the calling thread before any leaf is forked so everything that
+     * builds per segment state from shared objects happens on one thread. The other threads only call
+     * {@link #nextDoc} on an iterator that sees a single leaf so it doesn't need to be thread safe.
+     */
+    static SearchHit[] iterateLeavesConcurrently(
+        SearchShardTarget shardTarget,
+        IndexReader indexReader,
+        int[] docIds,
+        IntFunction<FetchPhaseDocsIterator> iteratorForLeaf,
+        Executor executor
+    ) {
+        List<LeafReaderContext> leaves = indexReader.leaves();
+        DocIdToIndex[] docs = new DocIdToIndex[docIds.length];
+        for (int index = 0; index < docIds.length; index++) {
+            docs[index] = new DocIdToIndex(docIds[index], index);
+        }
+        // make sure that we iterate in doc id order
+        Arrays.sort(docs);
+
+        SearchHit[] searchHits = new SearchHit[docIds.length];
+        List<FutureTask<Void>> tasks = new ArrayList<>();
+        int currentDoc = docs[0].docId;
+        try {
+            for (int start = 0; start < docs.length;) {
+                currentDoc = docs[start].docId;
+                LeafReaderContext ctx = leaves.get(ReaderUtil.subIndex(currentDoc, leaves));
+                int end = endReaderIdx(ctx, start, docs);
+                FetchPhaseDocsIterator iterator = iteratorForLeaf.apply(ctx.ord);
+                iterator.setNextReader(ctx, docIdsInLeaf(start, end, docs, ctx.docBase));
+                DocIdToIndex[] docsInLeaf = Arrays.copyOfRange(docs, start, end);
+                tasks.add(new FutureTask<>(() -> {
+                    for (DocIdToIndex doc : docsInLeaf) {
+                        try {
+                            searchHits[doc.index] = iterator.nextDoc(doc.docId);
+                        } catch (Exception e) {
+                            throw new FetchPhaseExecutionException(shardTarget, "Error running fetch phase for doc [" + doc.docId + "]", e);
+                        }
+                    }
+                    return null;
+                }));
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new FetchPhaseExecutionException(shardTarget, "Error running fetch phase for doc [" + currentDoc + "]", e);
+        }
+
+        // fork all leaves but the first and fetch the first one on this thread
+        for (int i = 1; i < tasks.size(); i++) {
+            try {
+                executor.execute(tasks.get(i));
+            } catch (RejectedExecutionException e) {
+                tasks.get(i).run();
+            }
+        }
+        tasks.get(0).run();
+
+        Exception failure = null;
+        boolean interrupted = false;
+        for (FutureTask<Void> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // the leaves are still writing into searchHits so we have to wait for them
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) {
+                        failure = ExceptionsHelper.useOrSuppress(failure, cause);
+                    } else {
+                        throw new AssertionError(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            for (SearchHit searchHit : searchHits) {
+                if (searchHit != null) {
+                    searchHit.decRef();
+                }
+            }
+            if (failure instanceof FetchPhaseExecutionException e) {
+                throw e;
+            }
+            throw new FetchPhaseExecutionException(shardTarget, "Error running fetch phase", failure);
+        }
+        return searchHits;
+    }
+
     private static int endReaderIdx(LeafReaderContext currentReaderContext, int index, DocIdToIndex[] docs) {
         int firstInNextReader = currentReaderContext.docBase + currentReaderContext.reader().maxDoc();
         int i = index + 1;
@@ -20,6 +20,7 @@ import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConjunctionUtils;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FilterWeight;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchNoDocsQuery;
@@ -39,6 +40,7 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.lucene.util.CombinedBitSet;
 import org.elasticsearch.search.dfs.AggregatedDfs;
+import org.elasticsearch.search.internal.CostBasedSlicer.LeafPartition;
 import org.elasticsearch.search.profile.Timer;
 import org.elasticsearch.search.profile.query.ProfileWeight;
 import org.elasticsearch.search.profile.query.QueryProfileBreakdown;
@@ -50,6 +52,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.PriorityQueue;
@@ -80,6 +83,10 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     // don't create slices with less than this number of docs
     private final int minimumDocsPerSlice;
 
+    // balance slices by the estimated cost of the query rather than by doc count, see CostBasedSlicer
+    private boolean costBasedSlicing;
+    private boolean partitionLeaves;
+
     private final Set<Thread> timeoutOverwrites = ConcurrentCollections.newConcurrentSet();
     private volatile boolean timeExceeded = false;
 
@@ -158,6 +165,17 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.profiler = profiler;
     }
 
+    /**
+     * Whether concurrent searches should balance their slices by the estimated cost of the query in each leaf, see
+     * {@link CostBasedSlicer}. Profiled searches always slice by doc count. Expensive leaves are only split by doc-id range when
+     * {@code partitionLeaves} is set, which requires that the collectors only look at the documents they are asked to collect.
+     * Aggregations that count a whole leaf at once, for instance, would count it once per partition.
+     */
+    public void setCostBasedSlicing(boolean costBasedSlicing, boolean partitionLeaves) {
+        this.costBasedSlicing = costBasedSlicing;
+        this.partitionLeaves = costBasedSlicing && partitionLeaves;
+    }
+
     /**
      * Add a {@link Runnable} that will be run on a regular basis while accessing documents in the
      * DirectoryReader but also while collecting them and check for query cancellation or timeout.
@@ -321,16 +339,16 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      * 2) handles the ES TimeExceededException
      * */
     private <C extends Collector, T> T search(Weight weight, CollectorManager<C, T> collectorManager, C firstCollector) throws IOException {
-        LeafSlice[] leafSlices = getSlices();
-        if (leafSlices.length == 0) {
+        final List<List<LeafPartition>> slices = slices(weight);
+        if (slices.isEmpty()) {
             assert leafContexts.isEmpty();
             doAggregationPostCollection(firstCollector);
             return collectorManager.reduce(Collections.singletonList(firstCollector));
         } else {
-            final List<C> collectors = new ArrayList<>(leafSlices.length);
+            final List<C> collectors = new ArrayList<>(slices.size());
             collectors.add(firstCollector);
             final ScoreMode scoreMode = firstCollector.scoreMode();
-            for (int i = 1; i < leafSlices.length; ++i) {
+            for (int i = 1; i < slices.size(); ++i) {
                 final C collector = collectorManager.newCollector();
                 collectors.add(collector);
                 if (scoreMode != collector.scoreMode()) {
@@ -338,11 +356,11 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
                 }
             }
             final List<Callable<C>> listTasks = new ArrayList<>();
-            for (int i = 0; i < leafSlices.length; ++i) {
-                final LeafReaderContext[] leaves = leafSlices[i].leaves;
+            for (int i = 0; i < slices.size(); ++i) {
+                final List<LeafPartition> partitions = slices.get(i);
                 final C collector = collectors.get(i);
                 listTasks.add(() -> {
-                    search(Arrays.asList(leaves), weight, collector);
+                    searchPartitions(partitions, weight, collector);
                     return collector;
                 });
             }
@@ -351,13 +369,62 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    /**
+     * The slices to search the given weight with. These are the doc count based {@link #getSlices()} unless cost based slicing is
+     * enabled, in which case slices are balanced by the cost of the weight in each leaf.
+     */
+    private List<List<LeafPartition>> slices(Weight weight) throws IOException {
+        if (costBasedSlicing && profiler == null && maximumNumberOfSlices > 1 && leafContexts.size() > 0) {
+            try {
+                final long[] costs = CostBasedSlicer.estimateCosts(leafContexts, weight);
+                return CostBasedSlicer.computeSlices(leafContexts, costs, maximumNumberOfSlices, minimumDocsPerSlice, partitionLeaves);
+            } catch (@SuppressWarnings("unused") TimeExceededException e) {
+                // fall back to the doc count based slices, collection takes care of the timeout
+            }
+        }
+        final LeafSlice[] leafSlices = getSlices();
+        final List<List<LeafPartition>> slices = new ArrayList<>(leafSlices.length);
+        for (LeafSlice leafSlice : leafSlices) {
+            slices.add(wholeLeaves(Arrays.asList(leafSlice.leaves)));
+        }
+        return slices;
+    }
+
+    private static List<LeafPartition> wholeLeaves(List<LeafReaderContext> leaves) {
+        final List<LeafPartition> partitions = new ArrayList<>(leaves.size());
+        for (LeafReaderContext ctx : leaves) {
+            partitions.add(LeafPartition.wholeLeaf(ctx));
+        }
+        return partitions;
+    }
+
     @Override
     public void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
-        collector.setWeight(weight);
+        searchPartitions(wholeLeaves(leaves), weight, collector);
+    }
+
+    private void searchPartitions(List<LeafPartition> partitions, Weight weight, Collector collector) throws IOException {
+        final Set<LeafReaderContext> partialLeaves = new HashSet<>();
+        for (LeafPartition partition : partitions) {
+            if (partition.isWholeLeaf() == false) {
+                partialLeaves.add(partition.ctx());
+            }
+        }
+        if (partialLeaves.isEmpty()) {
+            collector.setWeight(weight);
+        } else {
+            // the count of a leaf can't be used as the count of a partition of it
+            collector.setWeight(new FilterWeight(weight) {
+                @Override
+                public int count(LeafReaderContext context) throws IOException {
+                    return partialLeaves.contains(context) ? -1 : super.count(context);
+                }
+            });
+        }
         boolean success = false;
         try {
-            for (LeafReaderContext ctx : leaves) { // search each subreader
-                searchLeaf(ctx, weight, collector);
+            for (LeafPartition partition : partitions) { // search each subreader
+                searchLeaf(partition, weight, collector);
             }
             success = true;
         } catch (@SuppressWarnings("unused") TimeExceededException e) {
@@ -406,9 +473,10 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
      * Lower-level search API.
      *
      * {@link LeafCollector#collect(int)} is called for every matching document in
-     * the provided <code>ctx</code>.
+     * the provided <code>partition</code>.
      */
-    private void searchLeaf(LeafReaderContext ctx, Weight weight, Collector collector) throws IOException {
+    private void searchLeaf(LeafPartition partition, Weight weight, Collector collector) throws IOException {
+        final LeafReaderContext ctx = partition.ctx();
         cancellable.checkCancelled();
         final LeafCollector leafCollector;
         try {
@@ -428,7 +496,11 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
                     bulkScorer = new CancellableBulkScorer(bulkScorer, cancellable::checkCancelled);
                 }
                 try {
-                    bulkScorer.score(leafCollector, liveDocs);
+                    if (partition.isWholeLeaf()) {
+                        bulkScorer.score(leafCollector, liveDocs);
+                    } else {
+                        bulkScorer.score(leafCollector, liveDocs, partition.minDoc(), partition.maxDoc());
+                    }
                 } catch (CollectionTerminatedException e) {
                     // collection was terminated prematurely
                     // continue with the following leaf
@@ -443,6 +515,8 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
                         scorer,
                         liveDocsBitSet,
                         leafCollector,
+                        partition.minDoc(),
+                        partition.maxDoc(),
                         this.cancellable.isEnabled() ? cancellable::checkCancelled : () -> {}
                     );
                 } catch (CollectionTerminatedException e) {
@@ -471,6 +545,21 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     static void intersectScorerAndBitSet(Scorer scorer, BitSet acceptDocs, LeafCollector collector, Runnable checkCancelled)
         throws IOException {
+        intersectScorerAndBitSet(scorer, acceptDocs, collector, 0, DocIdSetIterator.NO_MORE_DOCS, checkCancelled);
+    }
+
+    /**
+     * Collects the documents between {@code minDoc}, inclusive, and {@code maxDoc}, exclusive, that match both the scorer and
+     * the accepted docs.
+     */
+    static void intersectScorerAndBitSet(
+        Scorer scorer,
+        BitSet acceptDocs,
+        LeafCollector collector,
+        int minDoc,
+        int maxDoc,
+        Runnable checkCancelled
+    ) throws IOException {
         collector.setScorer(scorer);
         // ConjunctionDISI uses the DocIdSetIterator#cost() to order the iterators, so if roleBits has the lowest cardinality it should
         // be used first:
@@ -479,7 +568,7 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         );
         int seen = 0;
         checkCancelled.run();
-        for (int docId = iterator.nextDoc(); docId < DocIdSetIterator.NO_MORE_DOCS; docId = iterator.nextDoc()) {
+        for (int docId = iterator.advance(minDoc); docId < maxDoc; docId = iterator.nextDoc()) {
             if (++seen % CHECK_CANCELLED_SCORER_INTERVAL == 0) {
                 checkCancelled.run();
             }
@@ -0,0 +1,177 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Groups the leaves of a reader into slices whose estimated cost for a given {@link Weight} is balanced, rather than their number of
+ * documents. The cost of a leaf is the cost of the {@link ScorerSupplier} of the weight, which is cheap to compute and is an estimate of
+ * the number of matching documents, for instance from the {@link org.apache.lucene.index.PointValues} of range queries or the doc freq
+ * of terms. Leaves that are more expensive than a slice should be are split by doc-id range into {@link LeafPartition}s that are
+ * searched by different slices, similar to the partial leaves of ES|QL's {@code LuceneSliceQueue}.
+ */
+final class CostBasedSlicer {
+
+    private CostBasedSlicer() {}
+
+    /**
+     * A range of doc ids of a leaf that is searched by a single slice.
+     *
+     * @param ctx    the leaf
+     * @param minDoc the first doc id of the range, inclusive
+     * @param maxDoc the last doc id of the range, exclusive
+     */
+    record LeafPartition(LeafReaderContext ctx, int minDoc, int maxDoc) {
+
+        static LeafPartition wholeLeaf(LeafReaderContext ctx) {
+            return new LeafPartition(ctx, 0, ctx.reader().maxDoc());
+        }
+
+        boolean isWholeLeaf() {
+            return minDoc == 0 && maxDoc == ctx.reader().maxDoc();
+        }
+    }
+
+    /**
+     * Estimates the cost of searching each of the given leaves with the given weight. Leaves where the weight matches no documents
+     * get a cost of {@code 0}, and the cost of a leaf is never more than its number of documents.
+     */
+    static long[] estimateCosts(List<LeafReaderContext> leaves, Weight weight) throws IOException {
+        final long[] costs = new long[leaves.size()];
+        for (int i = 0; i < leaves.size(); i++) {
+            final LeafReaderContext ctx = leaves.get(i);
+            final ScorerSupplier scorerSupplier = weight.scorerSupplier(ctx);
+            costs[i] = scorerSupplier == null ? 0 : Math.min(Math.max(scorerSupplier.cost(), 0), ctx.reader().maxDoc());
+        }
+        return costs;
+    }
+
+    /**
+     * Computes slices with a balanced cost. The number of slices is bounded the same way as with
+     * {@link ContextIndexSearcher#computeSlices}, leaves are only split into partitions of at least {@code minDocsPerSlice} documents,
+     * and the partitions of a leaf always end up in different slices. Within a slice partitions are in the order of the reader.
+     *
+     * @param leaves          the leaves of the reader
+     * @param costs           the cost of each leaf, see {@link #estimateCosts}
+     * @param maxSliceNum     the maximum number of slices
+     * @param minDocsPerSlice the minimum number of documents per slice
+     * @param partitionLeaves whether expensive leaves may be split by doc-id range, which requires collectors that only collect the
+     *                        documents they are given rather than computing results for the whole leaf
+     */
+    static List<List<LeafPartition>> computeSlices(
+        List<LeafReaderContext> leaves,
+        long[] costs,
+        int maxSliceNum,
+        int minDocsPerSlice,
+        boolean partitionLeaves
+    ) {
+        if (maxSliceNum < 1) {
+            throw new IllegalArgumentException("maxSliceNum must be >= 1 (got " + maxSliceNum + ")");
+        }
+        if (leaves.size() != costs.length) {
+            throw new IllegalArgumentException(
+                "expected a cost for each of the [" + leaves.size() + "] leaves, got [" + costs.length + "]"
+            );
+        }
+        if (leaves.isEmpty()) {
+            return List.of();
+        }
+        long numDocs = 0;
+        for (LeafReaderContext ctx : leaves) {
+            numDocs += ctx.reader().maxDoc();
+        }
+        // the same bounds on the number of slices as the doc count based slicing, so memory usage of aggregations stays the same
+        final double percentageDocsPerSlice = Math.max(ContextIndexSearcher.MINIMUM_DOCS_PERCENT_PER_SLICE, 1.0 / maxSliceNum);
+        final long docsPerSlice = Math.max(Math.max(minDocsPerSlice, 1), (long) (percentageDocsPerSlice * numDocs));
+        final int numSlices = (int) Math.max(1, Math.min(maxSliceNum, numDocs / docsPerSlice));
+        if (numSlices == 1) {
+            final List<LeafPartition> slice = new ArrayList<>(leaves.size());
+            for (LeafReaderContext ctx : leaves) {
+                slice.add(LeafPartition.wholeLeaf(ctx));
+            }
+            return List.of(slice);
+        }
+
+        // every leaf costs at least one, so leaves that match nothing are still spread over the slices
+        long totalCost = 0;
+        for (long cost : costs) {
+            totalCost += cost + 1;
+        }
+        final long costPerSlice = Math.max(1, totalCost / numSlices);
+
+        final List<WeightedPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < leaves.size(); i++) {
+            final LeafReaderContext ctx = leaves.get(i);
+            final int maxDoc = ctx.reader().maxDoc();
+            final long cost = costs[i] + 1;
+            final long byCost = (cost + costPerSlice - 1) / costPerSlice;
+            final long byDocs = maxDoc / Math.max(1, minDocsPerSlice);
+            final int numPartitions = partitionLeaves ? (int) Math.max(1, Math.min(numSlices, Math.min(byCost, byDocs))) : 1;
+            // matches are assumed to be uniformly distributed within a leaf
+            for (int p = 0; p < numPartitions; p++) {
+                final int minDoc = (int) ((long) maxDoc * p / numPartitions);
+                final int partitionMaxDoc = (int) ((long) maxDoc * (p + 1) / numPartitions);
+                partitions.add(
+                    new WeightedPartition(new LeafPartition(ctx, minDoc, partitionMaxDoc), Math.max(1, cost / numPartitions), i)
+                );
+            }
+        }
+
+        // greedily assign the most expensive partitions first to the cheapest slice that doesn't hold a partition of the same leaf
+        partitions.sort(Comparator.comparingLong(WeightedPartition::cost).reversed().thenComparingInt(WeightedPartition::leafIndex));
+        final List<Slice> slices = new ArrayList<>(numSlices);
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new Slice());
+        }
+        for (WeightedPartition partition : partitions) {
+            Slice cheapest = null;
+            for (Slice slice : slices) {
+                if (slice.leaves.contains(partition.leafIndex) == false && (cheapest == null || slice.cost < cheapest.cost)) {
+                    cheapest = slice;
+                }
+            }
+            assert cheapest != null : "a leaf was split in more partitions than there are slices";
+            cheapest.add(partition);
+        }
+
+        final List<List<LeafPartition>> result = new ArrayList<>(numSlices);
+        for (Slice slice : slices) {
+            if (slice.partitions.isEmpty() == false) {
+                // preserve the order of the reader, Elasticsearch sorts leaves by descending @timestamp for better query performance
+                slice.partitions.sort(Comparator.comparingInt((LeafPartition p) -> p.ctx().ord).thenComparingInt(LeafPartition::minDoc));
+                result.add(slice.partitions);
+            }
+        }
+        return result;
+    }
+
+    private record WeightedPartition(LeafPartition partition, long cost, int leafIndex) {}
+
+    private static final class Slice {
+        private final List<LeafPartition> partitions = new ArrayList<>();
+        private final Set<Integer> leaves = new HashSet<>();
+        private long cost;
+
+        void add(WeightedPartition partition) {
+            partitions.add(partition.partition);
+            leaves.add(partition.leafIndex);
+            cost += partition.cost;
+        }
+    }
+}
@@ -55,6 +55,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
     public static final ParseField FILTER_FIELD = new ParseField("filter");
     public static final ParseField BOOST_FIELD = AbstractQueryBuilder.BOOST_FIELD;
     public static final ParseField INNER_HITS_FIELD = new ParseField("inner_hits");
+    public static final ParseField OVERSAMPLE_FIELD = KnnVectorQueryBuilder.OVERSAMPLE_FIELD;
 
     @SuppressWarnings("unchecked")
     private static final ConstructingObjectParser<KnnSearchBuilder.Builder, Void> PARSER = new ConstructingObjectParser<>("knn", args -> {
@@ -101,6 +102,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             INNER_HITS_FIELD,
             ObjectParser.ValueType.OBJECT
         );
+        PARSER.declareFloat(KnnSearchBuilder.Builder::oversample, OVERSAMPLE_FIELD);
     }
 
     public static KnnSearchBuilder.Builder fromXContent(XContentParser parser) throws IOException {
@@ -117,6 +119,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
     final List<QueryBuilder> filterQueries;
     float boost = DEFAULT_BOOST;
     InnerHitBuilder innerHitBuilder;
+    Float oversample;
 
     /**
      * Defines a kNN search.
@@ -251,6 +254,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (in.getTransportVersion().onOrAfter(V_8_11_X)) {
             this.innerHitBuilder = in.readOptionalWriteable(InnerHitBuilder::new);
         }
+        if (in.getTransportVersion().onOrAfter(TransportVersions.KNN_OVERSAMPLE_ADDED)) {
+            this.oversample = in.readOptionalFloat();
+        }
     }
 
     public int k() {
@@ -303,6 +309,19 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         return innerHitBuilder;
     }
 
+    /**
+     * Retrieve {@code oversample} times more candidates per shard and rescore them with the full precision vectors, which improves
+     * the recall of quantized index types.
+     */
+    public KnnSearchBuilder oversample(Float oversample) {
+        this.oversample = KnnVectorQueryBuilder.checkOversample(oversample);
+        return this;
+    }
+
+    public Float oversample() {
+        return oversample;
+    }
+
     @Override
     public KnnSearchBuilder rewrite(QueryRewriteContext ctx) throws IOException {
         if (querySupplier != null) {
@@ -311,7 +330,8 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             }
             return new KnnSearchBuilder(field, querySupplier.get(), k, numCands, similarity).boost(boost)
                 .addFilterQueries(filterQueries)
-                .innerHit(innerHitBuilder);
+                .innerHit(innerHitBuilder)
+                .oversample(oversample);
         }
         if (queryVectorBuilder != null) {
             SetOnce<float[]> toSet = new SetOnce<>();
@@ -331,7 +351,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
                 }
                 ll.onResponse(null);
             })));
-            return new KnnSearchBuilder(field, toSet::get, k, numCands, filterQueries, similarity).boost(boost).innerHit(innerHitBuilder);
+            return new KnnSearchBuilder(field, toSet::get, k, numCands, filterQueries, similarity).boost(boost)
+                .innerHit(innerHitBuilder)
+                .oversample(oversample);
         }
         boolean changed = false;
         List<QueryBuilder> rewrittenQueries = new ArrayList<>(filterQueries.size());
@@ -345,7 +367,8 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (changed) {
             return new KnnSearchBuilder(field, queryVector, k, numCands, similarity).boost(boost)
                 .addFilterQueries(rewrittenQueries)
-                .innerHit(innerHitBuilder);
+                .innerHit(innerHitBuilder)
+                .oversample(oversample);
         }
         return this;
     }
@@ -354,7 +377,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (queryVectorBuilder != null) {
             throw new IllegalArgumentException("missing rewrite");
         }
-        return new KnnVectorQueryBuilder(field, queryVector, numCands, similarity).boost(boost).addFilterQueries(filterQueries);
+        return new KnnVectorQueryBuilder(field, queryVector, numCands, similarity).boost(boost)
+            .addFilterQueries(filterQueries)
+            .oversample(oversample);
     }
 
     @Override
@@ -371,6 +396,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             && Objects.equals(filterQueries, that.filterQueries)
             && Objects.equals(similarity, that.similarity)
             && Objects.equals(innerHitBuilder, that.innerHitBuilder)
+            && Objects.equals(oversample, that.oversample)
             && boost == that.boost;
     }
 
@@ -386,6 +412,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             Arrays.hashCode(queryVector),
             Objects.hashCode(filterQueries),
             innerHitBuilder,
+            oversample,
             boost
         );
     }
@@ -423,6 +450,10 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             builder.field(BOOST_FIELD.getPreferredName(), boost);
         }
 
+        if (oversample != null) {
+            builder.field(OVERSAMPLE_FIELD.getPreferredName(), oversample);
+        }
+
         return builder;
     }
 
@@ -455,6 +486,17 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (out.getTransportVersion().onOrAfter(V_8_11_X)) {
             out.writeOptionalWriteable(innerHitBuilder);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_OVERSAMPLE_ADDED)) {
+            out.writeOptionalFloat(oversample);
+        } else if (oversample != null) {
+            throw new IllegalArgumentException(
+                format(
+                    "cannot serialize [%s] to older node of version [%s]",
+                    OVERSAMPLE_FIELD.getPreferredName(),
+                    out.getTransportVersion()
+                )
+            );
+        }
     }
 
     public static class Builder {
@@ -468,6 +510,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         private final List<QueryBuilder> filterQueries = new ArrayList<>();
         private float boost = DEFAULT_BOOST;
         private InnerHitBuilder innerHitBuilder;
+        private Float oversample;
 
         public Builder addFilterQueries(List<QueryBuilder> filterQueries) {
             Objects.requireNonNull(filterQueries);
@@ -515,6 +558,11 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             return this;
         }
 
+        public Builder oversample(Float oversample) {
+            this.oversample = oversample;
+            return this;
+        }
+
         public KnnSearchBuilder build(int size) {
             int requestSize = size < 0 ? DEFAULT_SIZE : size;
             int adjustedK = k == null ? requestSize : k;
@@ -531,7 +579,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
                 similarity,
                 innerHitBuilder,
                 boost
-            );
+            ).oversample(oversample);
         }
     }
 }
@@ -40,6 +40,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+import static org.elasticsearch.common.Strings.format;
 import static org.elasticsearch.search.SearchService.DEFAULT_SIZE;
 import static org.elasticsearch.xcontent.ConstructingObjectParser.constructorArg;
 import static org.elasticsearch.xcontent.ConstructingObjectParser.optionalConstructorArg;
@@ -59,6 +60,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
     public static final ParseField QUERY_VECTOR_FIELD = new ParseField("query_vector");
     public static final ParseField VECTOR_SIMILARITY_FIELD = new ParseField("similarity");
     public static final ParseField FILTER_FIELD = new ParseField("filter");
+    public static final ParseField OVERSAMPLE_FIELD = new ParseField("oversample");
 
     @SuppressWarnings("unchecked")
     public static final ConstructingObjectParser<KnnVectorQueryBuilder, Void> PARSER = new ConstructingObjectParser<>("knn", args -> {
@@ -86,6 +88,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             FILTER_FIELD,
             ObjectParser.ValueType.OBJECT_ARRAY
         );
+        PARSER.declareFloat(KnnVectorQueryBuilder::oversample, OVERSAMPLE_FIELD);
         declareStandardFields(PARSER);
     }
 
@@ -98,6 +101,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
     private Integer numCands;
     private final List<QueryBuilder> filterQueries = new ArrayList<>();
     private final Float vectorSimilarity;
+    private Float oversample;
 
     public KnnVectorQueryBuilder(String fieldName, float[] queryVector, Integer numCands, Float vectorSimilarity) {
         if (numCands != null && numCands > NUM_CANDS_LIMIT) {
@@ -135,6 +139,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         } else {
             this.vectorSimilarity = null;
         }
+        if (in.getTransportVersion().onOrAfter(TransportVersions.KNN_OVERSAMPLE_ADDED)) {
+            this.oversample = in.readOptionalFloat();
+        }
     }
 
     public String getFieldName() {
@@ -155,6 +162,27 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         return numCands;
     }
 
+    /**
+     * Retrieve {@code oversample} times more candidates and rescore them with the full precision vectors, which improves the recall
+     * of quantized index types.
+     */
+    public KnnVectorQueryBuilder oversample(Float oversample) {
+        this.oversample = checkOversample(oversample);
+        return this;
+    }
+
+    static Float checkOversample(Float oversample) {
+        if (oversample != null && (oversample < 1.0f || Float.isFinite(oversample) == false)) {
+            throw new IllegalArgumentException("[" + OVERSAMPLE_FIELD.getPreferredName() + "] must be greater than or equal to [1.0]");
+        }
+        return oversample;
+    }
+
+    @Nullable
+    public Float oversample() {
+        return oversample;
+    }
+
     public List<QueryBuilder> filterQueries() {
         return filterQueries;
     }
@@ -203,6 +231,17 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_8_0)) {
             out.writeOptionalFloat(vectorSimilarity);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_OVERSAMPLE_ADDED)) {
+            out.writeOptionalFloat(oversample);
+        } else if (oversample != null) {
+            throw new IllegalArgumentException(
+                format(
+                    "cannot serialize [%s] to older node of version [%s]",
+                    OVERSAMPLE_FIELD.getPreferredName(),
+                    out.getTransportVersion()
+                )
+            );
+        }
     }
 
     @Override
@@ -216,6 +255,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         if (vectorSimilarity != null) {
             builder.field(VECTOR_SIMILARITY_FIELD.getPreferredName(), vectorSimilarity);
         }
+        if (oversample != null) {
+            builder.field(OVERSAMPLE_FIELD.getPreferredName(), oversample);
+        }
         if (filterQueries.isEmpty() == false) {
             builder.startArray(FILTER_FIELD.getPreferredName());
             for (QueryBuilder filterQuery : filterQueries) {
@@ -252,7 +294,8 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         if (changed) {
             return new KnnVectorQueryBuilder(fieldName, queryVector, numCands, vectorSimilarity).boost(boost)
                 .queryName(queryName)
-                .addFilterQueries(rewrittenQueries);
+                .addFilterQueries(rewrittenQueries)
+                .oversample(oversample);
         }
         return this;
     }
@@ -308,14 +351,14 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             if (filterQuery != null) {
                 filterQuery = new ToChildBlockJoinQuery(filterQuery, parentFilter);
             }
-            return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, parentFilter);
+            return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, parentFilter, oversample);
         }
-        return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, null);
+        return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, null, oversample);
     }
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(fieldName, Arrays.hashCode(queryVector), numCands, filterQueries, vectorSimilarity);
+        return Objects.hash(fieldName, Arrays.hashCode(queryVector), numCands, filterQueries, vectorSimilarity, oversample);
     }
 
     @Override
@@ -324,7 +367,8 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             && Arrays.equals(queryVector, other.queryVector)
             && Objects.equals(numCands, other.numCands)
             && Objects.equals(filterQueries, other.filterQueries)
-            && Objects.equals(vectorSimilarity, other.vectorSimilarity);
+            && Objects.equals(vectorSimilarity, other.vectorSimilarity)
+            && Objects.equals(oversample, other.oversample);
     }
 
     @Override
@@ -0,0 +1,173 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.vectors;
+
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.search.profile.query.QueryProfiler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rescores the hits of an approximate kNN query with the full precision vectors of the field and keeps the top {@code k} of them.
+ * Quantized formats like {@code int8_hnsw} traverse their graph with the quantized vectors, so the order of their hits is an
+ * approximation. Retrieving {@code oversample} times more candidates than needed and rescoring them with the raw vectors, which these
+ * formats keep on disk next to the quantized ones, recovers most of the recall that is lost to quantization while only reading the
+ * full precision vectors of the candidates.
+ */
+public class RescoreKnnVectorQuery extends Query implements ProfilingQuery {
+    private final String field;
+    private final float[] queryVector;
+    private final VectorSimilarityFunction similarityFunction;
+    private final int k;
+    private final Query innerQuery;
+    private final int numCandidates;
+    private long vectorOpsCount;
+
+    /**
+     * @param field              the name of the vector field
+     * @param queryVector        the query vector
+     * @param similarityFunction the similarity used to rescore the candidates
+     * @param k                  the number of hits to keep after rescoring
+     * @param innerQuery         the approximate kNN query that returns the candidates
+     * @param numCandidates      the number of candidates that the inner query returns
+     */
+    public RescoreKnnVectorQuery(
+        String field,
+        float[] queryVector,
+        VectorSimilarityFunction similarityFunction,
+        int k,
+        Query innerQuery,
+        int numCandidates
+    ) {
+        this.field = field;
+        this.queryVector = queryVector;
+        this.similarityFunction = similarityFunction;
+        this.k = k;
+        this.innerQuery = innerQuery;
+        this.numCandidates = numCandidates;
+    }
+
+    public Query innerQuery() {
+        return innerQuery;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    @Override
+    public Query rewrite(IndexSearcher searcher) throws IOException {
+        final IndexReader reader = searcher.getIndexReader();
+        // the knn query does its search while rewriting, the rewritten query only needs to be iterated to collect the candidates
+        final Query rewritten = searcher.rewrite(innerQuery);
+        final IndexSearcher candidateSearcher = new IndexSearcher(reader);
+        candidateSearcher.setQueryCache(null);
+        final TopDocs candidates = candidateSearcher.search(rewritten, numCandidates);
+        final ScoreDoc[] scoreDocs = candidates.scoreDocs;
+        // vector values can only be advanced, so the candidates are rescored in doc id order
+        Arrays.sort(scoreDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        final List<LeafReaderContext> leaves = reader.leaves();
+        LeafReaderContext leaf = null;
+        FloatVectorValues vectorValues = null;
+        for (ScoreDoc scoreDoc : scoreDocs) {
+            if (leaf == null || scoreDoc.doc >= leaf.docBase + leaf.reader().maxDoc()) {
+                leaf = leaves.get(ReaderUtil.subIndex(scoreDoc.doc, leaves));
+                vectorValues = leaf.reader().getFloatVectorValues(field);
+            }
+            final int leafDoc = scoreDoc.doc - leaf.docBase;
+            if (vectorValues != null && vectorValues.advance(leafDoc) == leafDoc) {
+                scoreDoc.score = similarityFunction.compare(queryVector, vectorValues.vectorValue());
+                vectorOpsCount++;
+            }
+        }
+
+        Arrays.sort(scoreDocs, (a, b) -> {
+            int cmp = Float.compare(b.score, a.score);
+            return cmp != 0 ? cmp : Integer.compare(a.doc, b.doc);
+        });
+        final ScoreDoc[] topDocs = Arrays.copyOf(scoreDocs, Math.min(k, scoreDocs.length));
+        Arrays.sort(topDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        final int[] docs = new int[topDocs.length];
+        final float[] scores = new float[topDocs.length];
+        for (int i = 0; i < topDocs.length; i++) {
+            docs[i] = topDocs[i].doc;
+            scores[i] = topDocs[i].score;
+        }
+        final int[] segmentStarts = KnnScoreDocQueryBuilder.findSegmentStarts(reader, docs);
+        return new KnnScoreDocQuery(docs, scores, segmentStarts, reader.getContext().id());
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        throw new UnsupportedOperationException("query must be rewritten first");
+    }
+
+    @Override
+    public void profile(QueryProfiler queryProfiler) {
+        if (innerQuery instanceof ProfilingQuery profilingQuery) {
+            profilingQuery.profile(queryProfiler);
+        }
+        // the vector operations of the rescoring
+        queryProfiler.setVectorOpsCount(queryProfiler.getVectorOpsCount() + vectorOpsCount);
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        innerQuery.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+    }
+
+    @Override
+    public String toString(String field) {
+        return getClass().getSimpleName()
+            + "{field="
+            + this.field
+            + ", k="
+            + k
+            + ", numCandidates="
+            + numCandidates
+            + ", innerQuery="
+            + innerQuery.toString(field)
+            + "}";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        RescoreKnnVectorQuery other = (RescoreKnnVectorQuery) obj;
+        return field.equals(other.field)
+            && Arrays.equals(queryVector, other.queryVector)
+            && similarityFunction == other.similarityFunction
+            && k == other.k
+            && numCandidates == other.numCandidates
+            && innerQuery.equals(other.innerQuery);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), field, Arrays.hashCode(queryVector), similarityFunction, k, numCandidates, innerQuery);
+    }
+}
@@ -15,25 +15,36 @@ import net.jpountz.lz4.LZ4FastDecompressor;
 import org.elasticsearch.TransportVersion;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.ZstdCompressor;
 import org.elasticsearch.core.Booleans;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.PathUtils;
 import org.elasticsearch.lz4.ESLZ4Compressor;
 import org.elasticsearch.lz4.ESLZ4Decompressor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 
 public class Compression {
 
     public enum Scheme {
         LZ4,
-        DEFLATE;
+        DEFLATE,
+        ZSTD;
 
         static final TransportVersion LZ4_VERSION = TransportVersions.V_7_14_0;
+        static final TransportVersion ZSTD_VERSION = TransportVersions.ZSTD_COMPRESSION;
         static final int HEADER_LENGTH = 4;
         private static final byte[] DEFLATE_HEADER = new byte[] { 'D', 'F', 'L', '\0' };
         private static final byte[] LZ4_HEADER = new byte[] { 'L', 'Z', '4', '\0' };
         private static final int LZ4_BLOCK_SIZE;
         private static final boolean USE_FORKED_LZ4;
+        private static final int ZSTD_LEVEL;
+        private static final byte[] ZSTD_DICTIONARY;
+        // created lazily so that the native library is only required once zstd is used
+        private static volatile ZstdCompressor zstdCompressor;
 
         static {
             String blockSizeString = System.getProperty("es.transport.compression.lz4_block_size");
@@ -48,6 +59,21 @@ public class Compression {
             }
 
             USE_FORKED_LZ4 = Booleans.parseBoolean(System.getProperty("es.compression.use_forked_lz4", "true"));
+
+            String zstdLevelString = System.getProperty("es.transport.compression.zstd_level");
+            ZSTD_LEVEL = zstdLevelString != null ? Integer.parseInt(zstdLevelString) : ZstdCompressor.DEFAULT_LEVEL;
+
+            // the dictionary's id is advertised in the transport handshake so zstd is only sent to nodes with the same dictionary
+            String zstdDictionaryPath = System.getProperty("es.transport.compression.zstd_dictionary");
+            if (zstdDictionaryPath != null) {
+                try {
+                    ZSTD_DICTIONARY = Files.readAllBytes(PathUtils.get(zstdDictionaryPath));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("failed to read zstd dictionary [" + zstdDictionaryPath + "]", e);
+                }
+            } else {
+                ZSTD_DICTIONARY = null;
+            }
         }
 
         public static boolean isDeflate(BytesReference bytes) {
@@ -68,6 +94,39 @@ public class Compression {
             }
         }
 
+        public static boolean isZstd(BytesReference bytes) {
+            return ZstdCompressor.isZstd(bytes);
+        }
+
+        /**
+         * Whether zstd can be used on this node. If it can't, messages are sent with {@link #LZ4} instead, see {@link NetworkMessage}.
+         */
+        public static boolean isZstdAvailable() {
+            return ZstdCompressor.isAvailable();
+        }
+
+        /**
+         * The id of the dictionary this node decompresses zstd with, {@code 0} if it has none, or {@code null} if it can't decompress
+         * zstd at all. This is advertised to other nodes in the transport handshake, see {@link #canCompressZstdFor}.
+         */
+        @Nullable
+        public static Integer readableZstdDictionaryId() {
+            return isZstdAvailable() ? zstdCompressor().dictionaryId() : null;
+        }
+
+        /**
+         * Whether this node can send zstd to a node that advertised {@code remoteDictionaryId} in the transport handshake. Blocks that
+         * are compressed without a dictionary can be read by any node that reads zstd, blocks that are compressed with a dictionary
+         * only by nodes with the same dictionary.
+         */
+        public static boolean canCompressZstdFor(@Nullable Integer remoteDictionaryId) {
+            if (remoteDictionaryId == null || isZstdAvailable() == false) {
+                return false;
+            }
+            final int dictionaryId = zstdCompressor().dictionaryId();
+            return dictionaryId == 0 || dictionaryId == remoteDictionaryId;
+        }
+
         private static boolean validateHeader(BytesReference bytes, byte[] header) {
             for (int i = 1; i < Compression.Scheme.HEADER_LENGTH; ++i) {
                 if (bytes.get(i) != header[i]) {
@@ -95,6 +154,24 @@ public class Compression {
             }
             return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor);
         }
+
+        public static ZstdCompressor zstdCompressor() {
+            ZstdCompressor compressor = zstdCompressor;
+            if (compressor == null) {
+                synchronized (Scheme.class) {
+                    compressor = zstdCompressor;
+                    if (compressor == null) {
+                        compressor = new ZstdCompressor(ZSTD_LEVEL, ZstdCompressor.DEFAULT_BLOCK_SIZE, ZSTD_DICTIONARY);
+                        zstdCompressor = compressor;
+                    }
+                }
+            }
+            return compressor;
+        }
+
+        public static OutputStream zstdOutputStream(OutputStream outputStream) throws IOException {
+            return zstdCompressor().threadLocalOutputStream(outputStream);
+        }
     }
 
     public enum Enabled {
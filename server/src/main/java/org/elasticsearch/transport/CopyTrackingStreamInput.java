@@ -0,0 +1,58 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.FilterStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ * Counts the bytes that are copied out of the network buffer while a request is deserialized, i.e. the bytes read through
+ * {@link #readBytesReference} and {@link #readByteArray} rather than as retained slices through
+ * {@link #readReleasableBytesReference}. The count is reported per action in {@link TransportActionStats} to find the handlers that
+ * would benefit from reading retained slices.
+ */
+final class CopyTrackingStreamInput extends FilterStreamInput {
+
+    private long bytesCopied;
+
+    CopyTrackingStreamInput(StreamInput delegate) {
+        super(delegate);
+    }
+
+    long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    @Override
+    public BytesReference readBytesReference(int length) throws IOException {
+        bytesCopied += length;
+        return delegate.readBytesReference(length);
+    }
+
+    @Override
+    public byte[] readByteArray() throws IOException {
+        final byte[] bytes = super.readByteArray();
+        bytesCopied += bytes.length;
+        return bytes;
+    }
+
+    @Override
+    public ReleasableBytesReference readReleasableBytesReference() throws IOException {
+        final ReleasableBytesReference bytes = delegate.readReleasableBytesReference();
+        if (delegate.supportReadAllToReleasableBytesReference() == false) {
+            // streams that can't slice their buffer copy the bytes
+            bytesCopied += bytes.length();
+        }
+        return bytes;
+    }
+}
@@ -254,7 +254,7 @@ public class InboundHandler {
             }
 
             assert reg != null;
-            final StreamInput stream = namedWriteableStream(message.openOrGetStreamInput());
+            final CopyTrackingStreamInput stream = new CopyTrackingStreamInput(namedWriteableStream(message.openOrGetStreamInput()));
             assert assertRemoteVersion(stream, header.getVersion());
             final T request;
             try {
@@ -262,6 +262,8 @@ public class InboundHandler {
             } catch (Exception e) {
                 assert ignoreDeserializationErrors : e;
                 throw e;
+            } finally {
+                reg.addRequestBytesCopied(stream.getBytesCopied());
             }
             try {
                 request.remoteAddress(channel.getRemoteAddress());
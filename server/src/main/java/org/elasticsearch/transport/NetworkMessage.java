@@ -54,6 +54,14 @@ public abstract class NetworkMessage {
     }
 
     private static Compression.Scheme adjustedScheme(TransportVersion version, Compression.Scheme compressionScheme) {
+        if (compressionScheme == Compression.Scheme.ZSTD) {
+            // requests only get here if the other node advertised zstd in the handshake, see TcpTransport.NodeChannels, and responses
+            // only if the request was zstd. This is a last resort for messages that would otherwise be unreadable.
+            if (version.onOrAfter(Compression.Scheme.ZSTD_VERSION) && Compression.Scheme.isZstdAvailable()) {
+                return compressionScheme;
+            }
+            compressionScheme = Compression.Scheme.LZ4;
+        }
         return compressionScheme == Compression.Scheme.LZ4 && version.before(Compression.Scheme.LZ4_VERSION) ? null : compressionScheme;
     }
 }
@@ -100,6 +100,8 @@ abstract class OutboundMessage extends NetworkMessage {
             );
         } else if (compressionScheme == Compression.Scheme.LZ4) {
             return new OutputStreamStreamOutput(Compression.Scheme.lz4OutputStream(Streams.noCloseStream(bytesStream)));
+        } else if (compressionScheme == Compression.Scheme.ZSTD) {
+            return new OutputStreamStreamOutput(Compression.Scheme.zstdOutputStream(Streams.noCloseStream(bytesStream)));
         } else {
             throw new IllegalArgumentException("Invalid compression scheme: " + compressionScheme);
         }
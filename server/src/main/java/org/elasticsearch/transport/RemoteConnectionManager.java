@@ -279,6 +279,11 @@ public class RemoteConnectionManager implements ConnectionManager {
             return connection.getTransportVersion();
         }
 
+        @Override
+        public Integer getZstdDictionaryId() {
+            return connection.getZstdDictionaryId();
+        }
+
         @Override
         public Object getCacheKey() {
             return connection.getCacheKey();
@@ -370,6 +375,11 @@ public class RemoteConnectionManager implements ConnectionManager {
             return connection.getTransportVersion();
         }
 
+        @Override
+        public Integer getZstdDictionaryId() {
+            return connection.getZstdDictionaryId();
+        }
+
         @Override
         public Object getCacheKey() {
             return connection.getCacheKey();
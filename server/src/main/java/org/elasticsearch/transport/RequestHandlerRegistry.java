@@ -120,6 +120,10 @@ public class RequestHandlerRegistry<Request extends TransportRequest> implements
         statsTracker.addRequestStats(messageSize);
     }
 
+    public void addRequestBytesCopied(long bytesCopied) {
+        statsTracker.addRequestBytesCopied(bytesCopied);
+    }
+
     @Override
     public void addResponseStats(int messageSize) {
         statsTracker.addResponseStats(messageSize);
@@ -41,6 +41,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.monitor.jvm.JvmInfo;
@@ -239,16 +240,13 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         private final List<TcpChannel> channels;
         private final DiscoveryNode node;
         private final TransportVersion version;
+        @Nullable
+        private final Integer zstdDictionaryId;
         private final Compression.Enabled compress;
         private final Compression.Scheme compressionScheme;
         private final AtomicBoolean isClosing = new AtomicBoolean(false);
 
-        NodeChannels(
-            DiscoveryNode node,
-            List<TcpChannel> channels,
-            ConnectionProfile connectionProfile,
-            TransportVersion handshakeVersion
-        ) {
+        NodeChannels(DiscoveryNode node, List<TcpChannel> channels, ConnectionProfile connectionProfile, HandshakeResult handshake) {
             this.node = node;
             this.channels = Collections.unmodifiableList(channels);
             assert channels.size() == connectionProfile.getNumConnections()
@@ -259,9 +257,16 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     typeMapping.put(type, handle);
                 }
             }
-            version = handshakeVersion;
+            version = handshake.transportVersion();
+            zstdDictionaryId = handshake.zstdDictionaryId();
             compress = connectionProfile.getCompressionEnabled();
-            compressionScheme = connectionProfile.getCompressionScheme();
+            if (connectionProfile.getCompressionScheme() == Compression.Scheme.ZSTD
+                && Compression.Scheme.canCompressZstdFor(zstdDictionaryId) == false) {
+                // the other node can't read what we'd send it
+                compressionScheme = Compression.Scheme.LZ4;
+            } else {
+                compressionScheme = connectionProfile.getCompressionScheme();
+            }
         }
 
         @Override
@@ -269,6 +274,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             return version;
         }
 
+        @Override
+        public Integer getZstdDictionaryId() {
+            return zstdDictionaryId;
+        }
+
         public List<TcpChannel> getChannels() {
             return channels;
         }
@@ -946,11 +956,20 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    /**
+     * The outcome of the transport handshake on a new connection.
+     *
+     * @param transportVersion the version to communicate with on the connection
+     * @param zstdDictionaryId the id of the zstd dictionary the other node decompresses with, {@code 0} if it has none, or {@code null}
+     *                         if it can't decompress zstd
+     */
+    public record HandshakeResult(TransportVersion transportVersion, @Nullable Integer zstdDictionaryId) {}
+
     public void executeHandshake(
         DiscoveryNode node,
         TcpChannel channel,
         ConnectionProfile profile,
-        ActionListener<TransportVersion> listener
+        ActionListener<HandshakeResult> listener
     ) {
         long requestId = responseHandlers.newRequestId();
         handshaker.sendHandshake(requestId, node, channel, profile.getHandshakeTimeout(), listener);
@@ -1112,10 +1131,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             if (countDown.countDown()) {
                 final TcpChannel handshakeChannel = channels.get(0);
                 try {
-                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(responseVersion -> {
+                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(handshake -> {
                         final long connectionId = outboundConnectionCount.incrementAndGet();
                         logger.debug("opened transport connection [{}] to [{}] using channels [{}]", connectionId, node, channels);
-                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, responseVersion);
+                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, handshake);
                         long relativeMillisTime = threadPool.relativeTimeInMillis();
                         nodeChannels.channels.forEach(ch -> {
                             // Mark the channel init time
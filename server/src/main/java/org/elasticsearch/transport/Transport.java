@@ -17,6 +17,7 @@ import org.elasticsearch.common.transport.BoundTransportAddress;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.core.TimeValue;
 
@@ -131,6 +132,16 @@ public interface Transport extends LifecycleComponent {
          */
         TransportVersion getTransportVersion();
 
+        /**
+         * Returns the id of the zstd dictionary the node on the other end decompresses with, {@code 0} if it has none, or {@code null} if
+         * it can't decompress zstd or didn't say in the handshake. Delegating subclasses must delegate method call to the original
+         * connection.
+         */
+        @Nullable
+        default Integer getZstdDictionaryId() {
+            return null;
+        }
+
         /**
          * Returns a key that this connection can be cached on. Delegating subclasses must delegate method call to
          * the original connection.
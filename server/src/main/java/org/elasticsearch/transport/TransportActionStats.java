@@ -8,6 +8,7 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -21,13 +22,22 @@ public record TransportActionStats(
     long requestCount,
     long totalRequestSize,
     long[] requestSizeHistogram,
+    long requestBytesCopied,
     long responseCount,
     long totalResponseSize,
     long[] responseSizeHistogram
 ) implements Writeable, ToXContentObject {
 
     public TransportActionStats(StreamInput in) throws IOException {
-        this(in.readVLong(), in.readVLong(), in.readVLongArray(), in.readVLong(), in.readVLong(), in.readVLongArray());
+        this(
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLongArray(),
+            in.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_ACTION_BYTES_COPIED) ? in.readVLong() : 0L,
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLongArray()
+        );
     }
 
     @Override
@@ -37,6 +47,7 @@ public record TransportActionStats(
         builder.startObject("requests");
         builder.field("count", requestCount);
         builder.humanReadableField("total_size_in_bytes", "total_size", ByteSizeValue.ofBytes(totalRequestSize));
+        builder.humanReadableField("copied_size_in_bytes", "copied_size", ByteSizeValue.ofBytes(requestBytesCopied));
         histogramToXContent(builder, requestSizeHistogram);
         builder.endObject();
 
@@ -83,6 +94,9 @@ public record TransportActionStats(
         out.writeVLong(requestCount);
         out.writeVLong(totalRequestSize);
         out.writeVLongArray(requestSizeHistogram);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_ACTION_BYTES_COPIED)) {
+            out.writeVLong(requestBytesCopied);
+        }
         out.writeVLong(responseCount);
         out.writeVLong(totalResponseSize);
         out.writeVLongArray(responseSizeHistogram);
@@ -67,11 +67,19 @@ public class TransportActionStatsTracker {
 
     private final StatsTracker requestStats = new StatsTracker();
     private final StatsTracker responseStats = new StatsTracker();
+    private final LongAdder requestBytesCopied = new LongAdder();
 
     public void addRequestStats(int messageSize) {
         requestStats.addStats(messageSize);
     }
 
+    /**
+     * Records the bytes that were copied out of the network buffer, rather than retained, while deserializing a request.
+     */
+    public void addRequestBytesCopied(long bytesCopied) {
+        requestBytesCopied.add(bytesCopied);
+    }
+
     public void addResponseStats(int messageSize) {
         responseStats.addStats(messageSize);
     }
@@ -81,6 +89,7 @@ public class TransportActionStatsTracker {
             requestStats.count().longValue(),
             requestStats.totalSize().longValue(),
             requestStats.getHistogram(),
+            requestBytesCopied.longValue(),
             responseStats.count().longValue(),
             responseStats.totalSize().longValue(),
             responseStats.getHistogram()
@@ -17,6 +17,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -113,11 +114,18 @@ final class TransportHandshaker {
      *     for their structure.
      * [2] A list of strings, which can safely be ignored
      * [3] Parent task ID should be empty; see org.elasticsearch.tasks.TaskId.writeTo for its structure.
+     *
+     * From ZSTD_VERSION on, both the payload of the request and the response carry an optional int after the protocol version: the id of
+     * the zstd dictionary the node decompresses with, 0 if it has none, or absent if it can't decompress zstd. The responding node only
+     * writes it if the request says that the other node knows about it. Older nodes ignore it in the request because they only read the
+     * version from the payload. The node that opened the connection only compresses messages with zstd if the other node advertised
+     * a dictionary it can compress for, see Compression.Scheme#canCompressZstdFor.
      */
 
     static final TransportVersion EARLIEST_HANDSHAKE_VERSION = TransportVersion.fromId(6080099);
     static final TransportVersion REQUEST_HANDSHAKE_VERSION = TransportVersions.MINIMUM_COMPATIBLE;
     static final Set<TransportVersion> ALLOWED_HANDSHAKE_VERSIONS = Set.of(EARLIEST_HANDSHAKE_VERSION, REQUEST_HANDSHAKE_VERSION);
+    static final TransportVersion ZSTD_VERSION = Compression.Scheme.ZSTD_VERSION;
 
     static final String HANDSHAKE_ACTION_NAME = "internal:tcp/handshake";
     private final ConcurrentMap<Long, HandshakeResponseHandler> pendingHandshakes = new ConcurrentHashMap<>();
@@ -145,7 +153,7 @@ final class TransportHandshaker {
         DiscoveryNode node,
         TcpChannel channel,
         TimeValue timeout,
-        ActionListener<TransportVersion> listener
+        ActionListener<TcpTransport.HandshakeResult> listener
     ) {
         numHandshakes.inc();
         final HandshakeResponseHandler handler = new HandshakeResponseHandler(requestId, listener);
@@ -174,9 +182,10 @@ final class TransportHandshaker {
     }
 
     void handleHandshake(TransportChannel channel, long requestId, StreamInput stream) throws IOException {
+        final HandshakeRequest request;
         try {
             // Must read the handshake request to exhaust the stream
-            new HandshakeRequest(stream);
+            request = new HandshakeRequest(stream);
         } catch (Exception e) {
             assert ignoreDeserializationErrors : e;
             throw e;
@@ -195,7 +204,7 @@ final class TransportHandshaker {
             assert ignoreDeserializationErrors : exception;
             throw exception;
         }
-        channel.sendResponse(new HandshakeResponse(this.version));
+        channel.sendResponse(new HandshakeResponse(request.version, this.version, Compression.Scheme.readableZstdDictionaryId()));
     }
 
     TransportResponseHandler<HandshakeResponse> removeHandlerForHandshake(long requestId) {
@@ -213,17 +222,17 @@ final class TransportHandshaker {
     private class HandshakeResponseHandler implements TransportResponseHandler<HandshakeResponse> {
 
         private final long requestId;
-        private final ActionListener<TransportVersion> listener;
+        private final ActionListener<TcpTransport.HandshakeResult> listener;
         private final AtomicBoolean isDone = new AtomicBoolean(false);
 
-        private HandshakeResponseHandler(long requestId, ActionListener<TransportVersion> listener) {
+        private HandshakeResponseHandler(long requestId, ActionListener<TcpTransport.HandshakeResult> listener) {
             this.requestId = requestId;
             this.listener = listener;
         }
 
         @Override
         public HandshakeResponse read(StreamInput in) throws IOException {
-            return new HandshakeResponse(in);
+            return new HandshakeResponse(in, version);
         }
 
         @Override
@@ -246,7 +255,7 @@ final class TransportHandshaker {
                         )
                     );
                 } else {
-                    listener.onResponse(responseVersion);
+                    listener.onResponse(new TcpTransport.HandshakeResult(responseVersion, response.zstdDictionaryId));
                 }
             }
         }
@@ -268,9 +277,16 @@ final class TransportHandshaker {
     static final class HandshakeRequest extends TransportRequest {
 
         private final TransportVersion version;
+        @Nullable
+        private final Integer zstdDictionaryId;
 
         HandshakeRequest(TransportVersion version) {
+            this(version, Compression.Scheme.readableZstdDictionaryId());
+        }
+
+        HandshakeRequest(TransportVersion version, @Nullable Integer zstdDictionaryId) {
             this.version = version;
+            this.zstdDictionaryId = zstdDictionaryId;
         }
 
         HandshakeRequest(StreamInput streamInput) throws IOException {
@@ -283,9 +299,11 @@ final class TransportHandshaker {
             }
             if (remainingMessage == null) {
                 version = null;
+                zstdDictionaryId = null;
             } else {
                 try (StreamInput messageStreamInput = remainingMessage.streamInput()) {
                     this.version = TransportVersion.readVersion(messageStreamInput);
+                    this.zstdDictionaryId = version.onOrAfter(ZSTD_VERSION) ? messageStreamInput.readOptionalInt() : null;
                 }
             }
         }
@@ -296,34 +314,65 @@ final class TransportHandshaker {
             assert version != null;
             try (BytesStreamOutput messageStreamOutput = new BytesStreamOutput(4)) {
                 TransportVersion.writeVersion(version, messageStreamOutput);
+                if (version.onOrAfter(ZSTD_VERSION)) {
+                    messageStreamOutput.writeOptionalInt(zstdDictionaryId);
+                }
                 BytesReference reference = messageStreamOutput.bytes();
                 streamOutput.writeBytesReference(reference);
             }
         }
+
+        @Nullable
+        Integer getZstdDictionaryId() {
+            return zstdDictionaryId;
+        }
     }
 
     static final class HandshakeResponse extends TransportResponse {
 
+        /**
+         * The version the node that opened the connection sent in its request, {@code null} if it didn't send any.
+         */
+        @Nullable
+        private final TransportVersion requestVersion;
         private final TransportVersion responseVersion;
+        @Nullable
+        private final Integer zstdDictionaryId;
 
-        HandshakeResponse(TransportVersion responseVersion) {
+        HandshakeResponse(@Nullable TransportVersion requestVersion, TransportVersion responseVersion, @Nullable Integer zstdDictionaryId) {
+            this.requestVersion = requestVersion;
             this.responseVersion = responseVersion;
+            this.zstdDictionaryId = zstdDictionaryId;
         }
 
-        private HandshakeResponse(StreamInput in) throws IOException {
+        private HandshakeResponse(StreamInput in, TransportVersion requestVersion) throws IOException {
             super(in);
+            this.requestVersion = requestVersion;
             responseVersion = TransportVersion.readVersion(in);
+            zstdDictionaryId = hasZstdDictionaryId() ? in.readOptionalInt() : null;
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             assert responseVersion != null;
             TransportVersion.writeVersion(responseVersion, out);
+            if (hasZstdDictionaryId()) {
+                out.writeOptionalInt(zstdDictionaryId);
+            }
+        }
+
+        private boolean hasZstdDictionaryId() {
+            return requestVersion != null && requestVersion.onOrAfter(ZSTD_VERSION) && responseVersion.onOrAfter(ZSTD_VERSION);
         }
 
         TransportVersion getResponseVersion() {
             return responseVersion;
         }
+
+        @Nullable
+        Integer getZstdDictionaryId() {
+            return zstdDictionaryId;
+        }
     }
 
     @FunctionalInterface
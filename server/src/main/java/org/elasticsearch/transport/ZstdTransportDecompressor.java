@@ -0,0 +1,205 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.ZstdCompressor;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.recycler.Recycler;
+
+import java.io.IOException;
+
+/**
+ * Decompresses the block format written by {@link ZstdCompressor} as the bytes arrive from the network, see
+ * {@link Lz4TransportDecompressor} which works the same way.
+ */
+public class ZstdTransportDecompressor extends TransportDecompressor {
+
+    private static final ThreadLocal<byte[]> DECOMPRESSED = ThreadLocal.withInitial(() -> BytesRef.EMPTY_BYTES);
+    private static final ThreadLocal<byte[]> COMPRESSED = ThreadLocal.withInitial(() -> BytesRef.EMPTY_BYTES);
+
+    private enum State {
+        INIT_BLOCK,
+        DECOMPRESS_DATA,
+        FINISHED,
+        CORRUPTED
+    }
+
+    private final ZstdCompressor compressor;
+
+    private State currentState = State.INIT_BLOCK;
+
+    /**
+     * Compressed length of current incoming block.
+     */
+    private int compressedLength;
+
+    /**
+     * Decompressed length of current incoming block.
+     */
+    private int decompressedLength;
+
+    /**
+     * Id of the dictionary the current incoming block was compressed with, {@code 0} if none.
+     */
+    private int dictionaryId;
+
+    public ZstdTransportDecompressor(Recycler<BytesRef> recycler) {
+        super(recycler);
+        this.compressor = Compression.Scheme.zstdCompressor();
+    }
+
+    @Override
+    public Compression.Scheme getScheme() {
+        return Compression.Scheme.ZSTD;
+    }
+
+    @Override
+    public int decompress(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
+        if (hasSkippedHeader == false) {
+            hasSkippedHeader = true;
+            int esHeaderLength = Compression.Scheme.HEADER_LENGTH;
+            bytesReference = bytesReference.slice(esHeaderLength, bytesReference.length() - esHeaderLength);
+            bytesConsumed += esHeaderLength;
+        }
+
+        while (true) {
+            int consumed = decodeBlock(bytesReference);
+            bytesConsumed += consumed;
+            int newLength = bytesReference.length() - consumed;
+            if (consumed > 0 && newLength > 0) {
+                bytesReference = bytesReference.slice(consumed, newLength);
+            } else {
+                break;
+            }
+        }
+
+        return bytesConsumed;
+    }
+
+    private int decodeBlock(BytesReference reference) throws IOException {
+        int bytesConsumed = 0;
+        try {
+            switch (currentState) {
+                case INIT_BLOCK:
+                    if (reference.length() < ZstdCompressor.BLOCK_HEADER_SIZE) {
+                        return bytesConsumed;
+                    }
+                    try (StreamInput in = reference.streamInput()) {
+                        final int compressedLength = in.readInt();
+                        final int decompressedLength = in.readInt();
+                        final int dictionaryId = in.readInt();
+                        compressor.validateBlockHeader(compressedLength, decompressedLength, dictionaryId);
+                        bytesConsumed += ZstdCompressor.BLOCK_HEADER_SIZE;
+
+                        if (decompressedLength == 0) {
+                            currentState = State.FINISHED;
+                            break;
+                        }
+
+                        this.compressedLength = compressedLength;
+                        this.decompressedLength = decompressedLength;
+                        this.dictionaryId = dictionaryId;
+                    }
+
+                    currentState = State.DECOMPRESS_DATA;
+                    break;
+                case DECOMPRESS_DATA:
+                    if (reference.length() < compressedLength) {
+                        break;
+                    }
+
+                    BytesRef ref = reference.iterator().next();
+                    final byte[] compressed;
+                    final int compressedOffset;
+                    if (ref.length >= compressedLength) {
+                        compressed = ref.bytes;
+                        compressedOffset = ref.offset;
+                    } else {
+                        compressed = getThreadLocalBuffer(COMPRESSED, compressedLength);
+                        compressedOffset = 0;
+                        try (StreamInput streamInput = reference.streamInput()) {
+                            streamInput.readBytes(compressed, 0, compressedLength);
+                        }
+                    }
+
+                    maybeAddNewPage();
+                    if (pageLength - pageOffset >= decompressedLength) {
+                        // decompress straight into the current page if the block fits
+                        final BytesRef page = pages.getLast().v();
+                        compressor.decompressBlock(
+                            dictionaryId,
+                            compressed,
+                            compressedOffset,
+                            compressedLength,
+                            page.bytes,
+                            page.offset + pageOffset,
+                            decompressedLength
+                        );
+                        pageOffset += decompressedLength;
+                    } else {
+                        byte[] decompressed = getThreadLocalBuffer(DECOMPRESSED, decompressedLength);
+                        compressor.decompressBlock(
+                            dictionaryId,
+                            compressed,
+                            compressedOffset,
+                            compressedLength,
+                            decompressed,
+                            0,
+                            decompressedLength
+                        );
+                        int bytesToCopy = decompressedLength;
+                        int uncompressedOffset = 0;
+                        while (bytesToCopy > 0) {
+                            maybeAddNewPage();
+                            final Recycler.V<BytesRef> page = pages.getLast();
+                            int toCopy = Math.min(bytesToCopy, pageLength - pageOffset);
+                            System.arraycopy(decompressed, uncompressedOffset, page.v().bytes, page.v().offset + pageOffset, toCopy);
+                            pageOffset += toCopy;
+                            bytesToCopy -= toCopy;
+                            uncompressedOffset += toCopy;
+                        }
+                    }
+                    // Skip inbound bytes after we processed them.
+                    bytesConsumed += compressedLength;
+                    currentState = State.INIT_BLOCK;
+                    break;
+                case FINISHED:
+                    break;
+                case CORRUPTED:
+                    throw new IllegalStateException("ZSTD stream corrupted.");
+                default:
+                    throw new IllegalStateException();
+            }
+        } catch (IOException | IllegalStateException e) {
+            currentState = State.CORRUPTED;
+            throw e;
+        }
+        return bytesConsumed;
+    }
+
+    private static byte[] getThreadLocalBuffer(ThreadLocal<byte[]> threadLocal, int requiredSize) {
+        byte[] buffer = threadLocal.get();
+        if (requiredSize > buffer.length) {
+            buffer = new byte[requiredSize];
+            threadLocal.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns {@code true} if and only if the end of the compressed stream
+     * has been reached.
+     */
+    public boolean isClosed() {
+        return currentState == State.FINISHED;
+    }
+}
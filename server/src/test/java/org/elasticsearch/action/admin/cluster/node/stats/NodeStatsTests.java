@@ -681,7 +681,8 @@ public class NodeStatsTests extends ESTestCase {
             statsByShard.put(indexTest, indexShardStats);
 
             CommonStats oldStats = new CommonStats(CommonStatsFlags.ALL);
-            nodeIndicesStats = new NodeIndicesStats(oldStats, statsByIndex, statsByShard, true);
+            long mergeBudgetBytesPerSec = randomBoolean() ? -1 : randomNonNegativeLong();
+            nodeIndicesStats = new NodeIndicesStats(oldStats, statsByIndex, statsByShard, true, mergeBudgetBytesPerSec);
         }
         OsStats osStats = null;
         if (frequently()) {
@@ -836,7 +837,7 @@ public class NodeStatsTests extends ESTestCase {
                 randomNonNegativeLong(),
                 IntStream.range(0, HandlingTimeTracker.BUCKET_COUNT).mapToLong(i -> randomNonNegativeLong()).toArray(),
                 IntStream.range(0, HandlingTimeTracker.BUCKET_COUNT).mapToLong(i -> randomNonNegativeLong()).toArray(),
-                Map.of("test-action", new TransportActionStats(1, 2, new long[29], 3, 4, new long[29]))
+                Map.of("test-action", new TransportActionStats(1, 2, new long[29], 5, 3, 4, new long[29]))
             )
             : null;
         HttpStats httpStats = null;
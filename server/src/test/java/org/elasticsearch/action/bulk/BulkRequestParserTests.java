@@ -306,4 +306,89 @@ public class BulkRequestParserTests extends ESTestCase {
         }, req -> fail(), req -> fail());
     }
 
+    public void testIncrementalParsing() throws IOException {
+        StringBuilder bulk = new StringBuilder();
+        int items = between(1, 100);
+        for (int i = 0; i < items; i++) {
+            switch (between(0, 2)) {
+                case 0 -> bulk.append("{ \"index\":{ \"_id\": \"").append(i).append("\" } }\n{ \"field\": ").append(i).append(" }\n");
+                case 1 -> bulk.append("{ \"delete\":{ \"_id\": \"").append(i).append("\" } }\n");
+                default -> bulk.append("{ \"update\":{ \"_id\": \"").append(i).append("\" } }\n{ \"doc\": {} }\n");
+            }
+        }
+        BytesArray request = new BytesArray(bulk.toString());
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
+
+        List<String> expected = new ArrayList<>();
+        parser.parse(
+            request,
+            "foo",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            XContentType.JSON,
+            (indexRequest, type) -> expected.add("index " + indexRequest.id() + " " + indexRequest.source().utf8ToString()),
+            updateRequest -> expected.add("update " + updateRequest.id()),
+            deleteRequest -> expected.add("delete " + deleteRequest.id())
+        );
+        assertThat(expected, Matchers.hasSize(items));
+
+        List<String> parsed = new ArrayList<>();
+        BulkRequestParser.IncrementalParser incrementalParser = parser.incrementalParser(
+            "foo",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            XContentType.JSON,
+            (indexRequest, type) -> parsed.add("index " + indexRequest.id() + " " + indexRequest.source().utf8ToString()),
+            updateRequest -> parsed.add("update " + updateRequest.id()),
+            deleteRequest -> parsed.add("delete " + deleteRequest.id())
+        );
+        int unparsedFrom = 0;
+        int chunkEnd = 0;
+        while (chunkEnd < request.length()) {
+            chunkEnd = Math.min(request.length(), chunkEnd + between(1, 64));
+            boolean lastData = chunkEnd == request.length();
+            int consumed = incrementalParser.parse(request.slice(unparsedFrom, chunkEnd - unparsedFrom), lastData);
+            assertThat(consumed, Matchers.lessThanOrEqualTo(chunkEnd - unparsedFrom));
+            unparsedFrom += consumed;
+            // only complete actions are consumed
+            assertThat(unparsedFrom == 0 || request.get(unparsedFrom - 1) == '\n', Matchers.equalTo(true));
+        }
+        assertThat(unparsedFrom, Matchers.equalTo(request.length()));
+        assertThat(parsed, Matchers.equalTo(expected));
+    }
+
+    public void testIncrementalParsingRequiresTrailingNewline() throws IOException {
+        BytesArray request = new BytesArray("""
+            { "index":{ "_id": "bar" } }
+            {}""");
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
+        BulkRequestParser.IncrementalParser incrementalParser = parser.incrementalParser(
+            "foo",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            XContentType.JSON,
+            (indexRequest, type) -> fail(),
+            req -> fail(),
+            req -> fail()
+        );
+        // the source of the index request might still be to come
+        assertThat(incrementalParser.parse(request, false), Matchers.equalTo(0));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> incrementalParser.parse(request, true));
+        assertEquals("The bulk request must be terminated by a newline [\\n]", e.getMessage());
+    }
 }
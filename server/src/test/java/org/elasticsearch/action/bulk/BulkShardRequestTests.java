@@ -8,9 +8,18 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.apache.lucene.tests.util.TestUtil.randomSimpleString;
 
@@ -31,4 +40,52 @@ public class BulkShardRequestTests extends ESTestCase {
         assertEquals("BulkShardRequest [" + shardId + "] containing [" + count + "] requests blocking until refresh", r.toString());
         assertEquals("requests[" + count + "], index[" + index + "][0], refresh[WAIT_UNTIL]", r.getDescription());
     }
+
+    public void testRetainsSourcesOfNetworkBuffer() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final BulkItemRequest[] items = new BulkItemRequest[between(1, 10)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index").id(Integer.toString(i)).source(XContentType.JSON, "field", i));
+        }
+        final BulkShardRequest original = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final AtomicBoolean released = new AtomicBoolean();
+        final BulkShardRequest deserialized;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            original.writeTo(out);
+            try (
+                ReleasableBytesReference buffer = new ReleasableBytesReference(out.bytes(), () -> released.set(true));
+                StreamInput in = buffer.streamInput()
+            ) {
+                deserialized = new BulkShardRequest(in);
+            }
+        }
+        // the sources are slices of the buffer, which is only released with the request
+        assertFalse(released.get());
+        assertTrue(deserialized.hasReferences());
+        for (int i = 0; i < items.length; i++) {
+            final IndexRequest indexRequest = (IndexRequest) deserialized.items()[i].request();
+            assertEquals(((IndexRequest) items[i].request()).source(), indexRequest.source());
+            assertTrue(indexRequest.source() instanceof ReleasableBytesReference);
+        }
+        deserialized.mustIncRef();
+        assertFalse(deserialized.decRef());
+        assertFalse(released.get());
+        assertTrue(deserialized.decRef());
+        assertTrue(released.get());
+    }
+
+    public void testCopiesSourcesOfUnpooledStream() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final BulkItemRequest[] items = new BulkItemRequest[] {
+            new BulkItemRequest(0, new IndexRequest("index").id("0").source(XContentType.JSON, "field", "value")) };
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            new BulkShardRequest(shardId, RefreshPolicy.NONE, items).writeTo(out);
+            final BulkShardRequest deserialized = new BulkShardRequest(new BytesArray(out.bytes().toBytesRef()).streamInput());
+            assertEquals(((IndexRequest) items[0].request()).source(), ((IndexRequest) deserialized.items()[0].request()).source());
+            // nothing to release
+            assertFalse(deserialized.decRef());
+            assertTrue(deserialized.hasReferences());
+        }
+    }
 }
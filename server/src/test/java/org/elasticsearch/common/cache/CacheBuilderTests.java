@@ -40,4 +40,11 @@ public class CacheBuilderTests extends ESTestCase {
         Cache<Object, Object> cache = CacheBuilder.builder().setExpireAfterWrite(timeValue).build();
         assertEquals(timeValue.getNanos(), cache.getExpireAfterWriteNanos());
     }
+
+    public void testSettingEvictionPolicy() {
+        expectThrows(NullPointerException.class, () -> CacheBuilder.builder().setEvictionPolicy(null));
+        assertEquals(Cache.EvictionPolicy.LRU, CacheBuilder.builder().build().getEvictionPolicy());
+        Cache.EvictionPolicy policy = randomFrom(Cache.EvictionPolicy.values());
+        assertEquals(policy, CacheBuilder.builder().setEvictionPolicy(policy).build().getEvictionPolicy());
+    }
 }
@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 
 public class CacheTests extends ESTestCase {
@@ -882,4 +883,109 @@ public class CacheTests extends ESTestCase {
             assertEquals(RemovalNotification.RemovalReason.INVALIDATED, removalNotifications.get(i).getRemovalReason());
         }
     }
+
+    // a scan of keys that are only used once shouldn't push out the keys that are used over and over again
+    public void testTinyLfuResistsScans() {
+        int maximumWeight = randomIntBetween(100, 1000);
+        int hotKeys = maximumWeight / 2;
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(maximumWeight)
+            .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+            .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < hotKeys; i++) {
+                assertEquals(Integer.toString(i), cache.get(i));
+            }
+        }
+        for (int i = maximumWeight; i < maximumWeight * 10; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        cache.refresh();
+        assertEquals(maximumWeight, cache.count());
+        int survivors = 0;
+        for (int i = 0; i < hotKeys; i++) {
+            if (cache.get(i) != null) {
+                survivors++;
+            }
+        }
+        // frequencies are estimates so a scanned key can occasionally look more popular than a hot one
+        assertThat(survivors, greaterThanOrEqualTo(hotKeys * 9 / 10));
+    }
+
+    public void testTinyLfuEvictionsAndIteration() {
+        Set<Integer> evicted = new HashSet<>();
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(numberOfEntries / 2)
+            .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+            .removalListener(notification -> {
+                assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+                assertTrue(evicted.add(notification.getKey()));
+            })
+            .build();
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+            if (randomBoolean()) {
+                cache.get(randomIntBetween(0, i));
+            }
+        }
+        cache.refresh();
+        assertEquals(numberOfEntries / 2, cache.count());
+        assertEquals(numberOfEntries / 2, cache.weight());
+        assertEquals(numberOfEntries - numberOfEntries / 2, evicted.size());
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : cache.keys()) {
+            assertTrue(keys.add(key));
+            assertFalse(evicted.contains(key));
+        }
+        assertEquals(numberOfEntries / 2, keys.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.weight());
+        assertFalse(cache.keys().iterator().hasNext());
+    }
+
+    // like testTorture but with concurrent reads that go through the read buffer
+    public void testTinyLfuTorture() {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(1000)
+            .weigher((k, v) -> 2)
+            .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+            .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                safeAwait(barrier);
+                Random random = new Random(random().nextLong());
+                for (int j = 0; j < numberOfEntries; j++) {
+                    Integer key = random.nextInt(numberOfEntries);
+                    if (random.nextBoolean()) {
+                        cache.put(key, Integer.toString(j));
+                    } else {
+                        cache.get(key);
+                    }
+                }
+                safeAwait(barrier);
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        safeAwait(barrier);
+        // wait for all threads to finish
+        safeAwait(barrier);
+
+        cache.refresh();
+        assertEquals(500, cache.count());
+        assertEquals(1000, cache.weight());
+        int iterated = 0;
+        for (Integer ignored : cache.keys()) {
+            iterated++;
+        }
+        assertEquals(500, iterated);
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        int key = randomInt();
+        assertEquals(0, sketch.frequency(key));
+        int times = between(1, 15);
+        for (int i = 0; i < times; i++) {
+            sketch.increment(key);
+        }
+        // estimates never undercount
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(times));
+    }
+
+    public void testSaturates() {
+        FrequencySketch sketch = new FrequencySketch();
+        int key = randomInt();
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(key);
+        }
+        assertEquals(15, sketch.frequency(key));
+    }
+
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(1024);
+        int hot = randomInt();
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(hot);
+        }
+        // 10 increments per slot in the table triggers halving all of the counters
+        for (int i = 0; i < 10 * 1024; i++) {
+            sketch.increment(hot + 1 + i);
+        }
+        assertThat(sketch.frequency(hot), lessThan(15));
+    }
+
+    public void testGrowingKeepsEstimates() {
+        FrequencySketch sketch = new FrequencySketch();
+        int key = randomInt();
+        int times = between(1, 15);
+        for (int i = 0; i < times; i++) {
+            sketch.increment(key);
+        }
+        sketch.ensureCapacity(between(17, 100_000));
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(times));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.compress;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import org.apache.lucene.tests.util.LineFileDocs;
+import org.apache.lucene.tests.util.TestUtil;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ZstdCompressTests extends ESTestCase {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        assumeTrue("zstd is not available on this platform", ZstdCompressor.isAvailable());
+    }
+
+    public void testRandom() throws IOException {
+        final ZstdCompressor compressor = new ZstdCompressor(randomIntBetween(1, 9), randomBlockSize(), null);
+        Random r = random();
+        for (int i = 0; i < 10; i++) {
+            byte[] bytes = new byte[TestUtil.nextInt(r, 0, 300000)];
+            r.nextBytes(bytes);
+            doTest(compressor, bytes);
+        }
+    }
+
+    public void testLineDocs() throws IOException {
+        final ZstdCompressor compressor = new ZstdCompressor(randomIntBetween(1, 9), randomBlockSize(), null);
+        Random r = random();
+        try (LineFileDocs lineFileDocs = new LineFileDocs(r)) {
+            for (int i = 0; i < 10; i++) {
+                int numDocs = TestUtil.nextInt(r, 1, 200);
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                for (int j = 0; j < numDocs; j++) {
+                    String s = lineFileDocs.nextDoc().get("body");
+                    bos.write(s.getBytes(StandardCharsets.UTF_8));
+                }
+                byte[] bytes = bos.toByteArray();
+                doTest(compressor, bytes);
+                assertThat(compressor.compress(new BytesArray(bytes)).length(), lessThan(bytes.length + 64));
+            }
+        }
+    }
+
+    public void testDetection() throws IOException {
+        final Compressor compressor = CompressorFactory.zstdCompressor();
+        BytesReference compressed = compressor.compress(new BytesArray("{\"field\":\"value\"}"));
+        assertTrue(compressor.isCompressed(compressed));
+        assertFalse(CompressorFactory.COMPRESSOR.isCompressed(compressed));
+        assertSame(compressor, CompressorFactory.compressor(compressed));
+        assertThat(CompressorFactory.uncompress(compressed).utf8ToString(), equalTo("{\"field\":\"value\"}"));
+    }
+
+    public void testDictionary() throws IOException {
+        final byte[] dictionary = trainDictionary();
+        final ZstdCompressor withDictionary = new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, randomBlockSize(), dictionary);
+        assertNotEquals(0, withDictionary.dictionaryId());
+        final byte[] sample = sample(randomInt(1000)).getBytes(StandardCharsets.UTF_8);
+        doTest(withDictionary, sample);
+
+        // streams compressed without a dictionary can be read by a compressor with a dictionary
+        BytesReference compressed = new ZstdCompressor().compress(new BytesArray(sample));
+        assertThat(BytesReference.toBytes(withDictionary.uncompress(compressed)), equalTo(sample));
+
+        // but not the other way around
+        BytesReference compressedWithDictionary = withDictionary.compress(new BytesArray(sample));
+        ZstdCompressor withoutDictionary = new ZstdCompressor();
+        IllegalStateException e = expectThrows(IllegalStateException.class, () -> withoutDictionary.uncompress(compressedWithDictionary));
+        assertThat(e.getMessage(), containsString("but this node has no dictionary"));
+    }
+
+    public void testRejectsUntrainedDictionary() {
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, ZstdCompressor.DEFAULT_BLOCK_SIZE, randomByteArrayOfLength(1024))
+        );
+        assertThat(e.getMessage(), containsString("not a zstd dictionary"));
+    }
+
+    public void testTruncatedStream() throws IOException {
+        final ZstdCompressor compressor = new ZstdCompressor();
+        BytesReference compressed = compressor.compress(new BytesArray(randomByteArrayOfLength(randomIntBetween(1, 10000))));
+        BytesReference truncated = compressed.slice(0, randomIntBetween(ZstdCompressor.HEADER_SIZE, compressed.length() - 1));
+        expectThrows(IOException.class, () -> compressor.uncompress(truncated));
+    }
+
+    private static int randomBlockSize() {
+        return randomFrom(1024, ZstdCompressor.DEFAULT_BLOCK_SIZE, ZstdCompressor.MAX_BLOCK_SIZE);
+    }
+
+    private static String sample(int i) {
+        return String.format(
+            Locale.ROOT,
+            "{\"@timestamp\":\"2023-01-01T00:00:%02dZ\",\"host\":{\"name\":\"host-%d\"},\"message\":\"request %d served\"}",
+            i % 60,
+            i % 7,
+            i
+        );
+    }
+
+    private static byte[] trainDictionary() {
+        ZstdDictTrainer trainer = new ZstdDictTrainer(1 << 20, 4096);
+        for (int i = 0; i < 5000; i++) {
+            trainer.addSample(sample(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return trainer.trainSamples();
+    }
+
+    private void doTest(ZstdCompressor compressor, byte[] bytes) throws IOException {
+        BytesReference compressed = compressor.compress(new BytesArray(bytes));
+        assertTrue(compressor.isCompressed(compressed));
+        assertThat(BytesReference.toBytes(compressor.uncompress(compressed)), equalTo(bytes));
+
+        // write and read byte by byte and in random chunks through the streams
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream out = compressor.threadLocalOutputStream(bos)) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (randomBoolean()) {
+                    out.write(bytes[offset++]);
+                } else {
+                    int len = randomIntBetween(1, bytes.length - offset);
+                    out.write(bytes, offset, len);
+                    offset += len;
+                }
+                if (rarely()) {
+                    out.flush();
+                }
+            }
+        }
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        try (InputStream in = compressor.threadLocalInputStream(new BytesArray(bos.toByteArray()).streamInput())) {
+            int b;
+            while ((b = in.read()) != -1) {
+                uncompressed.write(b);
+                if (randomBoolean()) {
+                    byte[] buffer = new byte[randomIntBetween(1, 1000)];
+                    int read = in.read(buffer);
+                    if (read > 0) {
+                        uncompressed.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        assertThat(uncompressed.toByteArray(), equalTo(bytes));
+    }
+}
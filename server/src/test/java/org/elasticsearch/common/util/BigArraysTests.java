@@ -12,6 +12,8 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.breaker.PreallocatedCircuitBreakerService;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -21,6 +23,7 @@ import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.test.ESTestCase;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -32,6 +35,7 @@ import java.util.function.Function;
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
@@ -397,6 +401,109 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testOffHeapPages() throws IOException {
+        PageCacheRecycler recycler = new PageCacheRecycler(
+            Settings.builder().put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true).build()
+        );
+        assertTrue(recycler.hasOffHeapPages());
+        BigArrays offHeap = new BigArrays(recycler, new NoneCircuitBreakerService(), CircuitBreaker.REQUEST);
+
+        final int len = randomIntBetween(PageCacheRecycler.LONG_PAGE_SIZE + 1, 100000);
+        final long[] longs = new long[len];
+        final double[] doubles = new double[len];
+        final byte[] bytes = new byte[len * Long.BYTES];
+        random().nextBytes(bytes);
+        LongArray longArray = offHeap.newLongArray(len, randomBoolean());
+        DoubleArray doubleArray = offHeap.newDoubleArray(len, randomBoolean());
+        ByteArray byteArray = offHeap.newByteArray(bytes.length, randomBoolean());
+        try {
+            assertThat(longArray, instanceOf(OffHeapBigLongArray.class));
+            assertThat(doubleArray, instanceOf(OffHeapBigDoubleArray.class));
+            assertThat(byteArray, instanceOf(OffHeapBigByteArray.class));
+            for (int i = 0; i < len; i++) {
+                longs[i] = randomLong();
+                doubles[i] = randomDouble();
+                longArray.set(i, longs[i]);
+                doubleArray.set(i, doubles[i]);
+            }
+            byteArray.set(0, bytes, 0, bytes.length);
+
+            final int index = randomInt(len - 1);
+            longs[index] += 7;
+            assertEquals(longs[index], longArray.increment(index, 7));
+            doubles[index] += 0.5;
+            assertEquals(doubles[index], doubleArray.increment(index, 0.5), 0.0d);
+
+            final int fromIndex = randomIntBetween(0, len - 1);
+            final int toIndex = randomIntBetween(fromIndex, len);
+            Arrays.fill(longs, fromIndex, toIndex, 42L);
+            longArray.fill(fromIndex, toIndex, 42L);
+
+            final int newLen = len + randomIntBetween(1, PageCacheRecycler.LONG_PAGE_SIZE * 3);
+            longArray = offHeap.resize(longArray, newLen);
+            doubleArray = offHeap.resize(doubleArray, newLen);
+            assertThat(longArray, instanceOf(OffHeapBigLongArray.class));
+            assertThat(doubleArray, instanceOf(OffHeapBigDoubleArray.class));
+            for (int i = 0; i < len; i++) {
+                assertEquals(longs[i], longArray.get(i));
+                assertEquals(doubles[i], doubleArray.get(i), 0.0d);
+            }
+
+            final BytesRef ref = new BytesRef();
+            final int offset = randomInt(bytes.length - 1);
+            final int refLen = randomInt(bytes.length - offset);
+            byteArray.get(offset, refLen, ref);
+            assertEquals(new BytesRef(bytes, offset, refLen), ref);
+            if (refLen > 0) {
+                // every read copies into its own bytes so a ref that was read before keeps its value
+                final BytesRef first = BytesRef.deepCopyOf(ref);
+                final BytesRef previous = new BytesRef(ref.bytes, ref.offset, ref.length);
+                final int otherOffset = randomInt(bytes.length - refLen);
+                byteArray.get(otherOffset, refLen, ref);
+                assertNotSame(previous.bytes, ref.bytes);
+                assertEquals(first, previous);
+                assertEquals(new BytesRef(bytes, otherOffset, refLen), ref);
+            }
+
+            // the serialized form is the same as the on-heap arrays so they can read it
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                longArray.writeTo(out);
+                byteArray.writeTo(out);
+                try (
+                    StreamInput in = out.bytes().streamInput();
+                    LongArray readLongs = LongArray.readFrom(in);
+                    ByteArray readBytes = ByteArray.readFrom(in)
+                ) {
+                    assertEquals(longArray.size(), readLongs.size());
+                    for (int i = 0; i < len; i++) {
+                        assertEquals(longs[i], readLongs.get(i));
+                    }
+                    assertEquals(byteArray.size(), readBytes.size());
+                    for (int i = 0; i < bytes.length; i++) {
+                        assertEquals(bytes[i], readBytes.get(i));
+                    }
+                }
+            }
+        } finally {
+            Releasables.close(longArray, doubleArray, byteArray);
+        }
+    }
+
+    public void testOffHeapArrayUseAfterClose() {
+        PageCacheRecycler recycler = new PageCacheRecycler(
+            Settings.builder()
+                .put(PageCacheRecycler.OFF_HEAP_SETTING.getKey(), true)
+                .put(PageCacheRecycler.TYPE_SETTING.getKey(), randomFrom(PageCacheRecycler.Type.values()))
+                .build()
+        );
+        BigArrays offHeap = new BigArrays(recycler, new NoneCircuitBreakerService(), CircuitBreaker.REQUEST);
+        LongArray array = offHeap.newLongArray(PageCacheRecycler.LONG_PAGE_SIZE + 1, randomBoolean());
+        array.set(0, 1);
+        array.close();
+        // the pages may already be freed so we must fail rather than read them
+        expectThrows(NullPointerException.class, () -> array.get(0));
+    }
+
     public void testOverSizeUsesMinPageCount() {
         final int pageSize = 1 << (randomIntBetween(2, 16));
         final int minSize = randomIntBetween(1, pageSize) * randomIntBetween(1, 100);
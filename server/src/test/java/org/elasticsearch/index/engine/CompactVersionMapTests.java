@@ -0,0 +1,145 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.randomIndexVersionValue;
+import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.uid;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CompactVersionMapTests extends ESTestCase {
+
+    public void testBasics() {
+        CompactVersionMap map = new CompactVersionMap();
+        assertTrue(map.isEmpty());
+        Translog.Location location = new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeInt());
+        assertThat(map.put(uid("1"), new IndexVersionValue(location, 1, 2, 3)), nullValue());
+        assertThat(map.get(uid("1")), equalTo(new IndexVersionValue(location, 1, 2, 3)));
+        assertThat(map.get(uid("1")).getLocation(), equalTo(location));
+        assertThat(map.get(uid("2")), nullValue());
+        assertThat(map.size(), equalTo(1));
+
+        assertThat(map.put(uid("1"), new IndexVersionValue(null, 4, 5, 6)), equalTo(new IndexVersionValue(location, 1, 2, 3)));
+        assertThat(map.get(uid("1")), equalTo(new IndexVersionValue(null, 4, 5, 6)));
+        assertThat(map.size(), equalTo(1));
+
+        assertThat(map.put(uid("2"), new DeleteVersionValue(1, 2, 3, 4)), nullValue());
+        assertThat(map.get(uid("2")), equalTo(new DeleteVersionValue(1, 2, 3, 4)));
+        assertThat(map.size(), equalTo(2));
+
+        assertThat(map.remove(uid("1")), equalTo(new IndexVersionValue(null, 4, 5, 6)));
+        assertThat(map.get(uid("1")), nullValue());
+        assertThat(map.remove(uid("1")), nullValue());
+        assertThat(map.size(), equalTo(1));
+
+        assertThat(map.put(uid("1"), new IndexVersionValue(null, 7, 8, 9)), nullValue());
+        assertThat(map.get(uid("1")), equalTo(new IndexVersionValue(null, 7, 8, 9)));
+        assertThat(map.size(), equalTo(2));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertThat(map.get(uid("1")), nullValue());
+        assertThat(map.get(uid("2")), nullValue());
+    }
+
+    public void testRandomOperations() {
+        CompactVersionMap map = new CompactVersionMap(randomIntBetween(0, 100));
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        List<BytesRef> uids = new ArrayList<>();
+        int numUids = randomIntBetween(1, 500);
+        for (int i = 0; i < numUids; i++) {
+            uids.add(uid(TestUtil.randomSimpleString(random(), 1, 20)));
+        }
+        int numOps = randomIntBetween(100, 5000);
+        for (int i = 0; i < numOps; i++) {
+            BytesRef uid = randomFrom(uids);
+            switch (between(0, 2)) {
+                case 0 -> {
+                    IndexVersionValue index = randomIndexVersionValue();
+                    assertThat(map.put(uid, index), equalTo(expected.put(uid, index)));
+                }
+                case 1 -> {
+                    DeleteVersionValue delete = new DeleteVersionValue(randomNonNegativeLong(), randomLong(), randomLong(), randomLong());
+                    assertThat(map.put(uid, delete), equalTo(expected.put(uid, delete)));
+                }
+                default -> assertThat(map.remove(uid), equalTo(expected.remove(uid)));
+            }
+            assertThat(map.size(), equalTo(expected.size()));
+        }
+        for (BytesRef uid : uids) {
+            assertThat(map.get(uid), equalTo(expected.get(uid)));
+        }
+        assertThat(new HashMap<>(map), equalTo(expected));
+    }
+
+    public void testUsesLessMemoryThanConcurrentMap() {
+        CompactVersionMap map = new CompactVersionMap();
+        long concurrentMapBytes = 0;
+        int numUids = randomIntBetween(10_000, 50_000);
+        for (int i = 0; i < numUids; i++) {
+            BytesRef uid = uid(Integer.toString(i));
+            IndexVersionValue value = new IndexVersionValue(new Translog.Location(1, i, 100), 1, i, 1);
+            map.put(uid, value);
+            concurrentMapBytes += LiveVersionMap.VersionLookup.mapEntryBytesUsed(uid, value);
+        }
+        assertThat(map.ramBytesUsed(), lessThan(concurrentMapBytes));
+    }
+
+    public void testConcurrently() throws InterruptedException {
+        CompactVersionMap map = new CompactVersionMap();
+        int numThreads = randomIntBetween(2, 5);
+        int numUidsPerThread = randomIntBetween(100, 2000);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                safeAwait(startLatch);
+                for (int i = 0; i < numUidsPerThread; i++) {
+                    BytesRef uid = uid(thread + "_" + i);
+                    IndexVersionValue value = new IndexVersionValue(null, i, i, thread);
+                    assertThat(map.put(uid, value), nullValue());
+                    assertThat(map.get(uid), equalTo(value));
+                    if (i % 3 == 0) {
+                        assertThat(map.remove(uid), equalTo(value));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int expectedSize = numThreads * (numUidsPerThread - (numUidsPerThread + 2) / 3);
+        assertThat(map.size(), equalTo(expectedSize));
+        assertThat(map.entrySet().size(), equalTo(expectedSize));
+        for (int t = 0; t < numThreads; t++) {
+            for (int i = 0; i < numUidsPerThread; i++) {
+                if (i % 3 == 0) {
+                    assertThat(map.get(uid(t + "_" + i)), nullValue());
+                } else {
+                    assertThat(map.get(uid(t + "_" + i)), equalTo(new IndexVersionValue(null, i, i, t)));
+                }
+            }
+        }
+    }
+}
@@ -88,6 +88,7 @@ import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndSeqNo;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
@@ -1145,6 +1146,52 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testPrepareRealtimeGets() throws Exception {
+        engine.refresh("warm_up");
+        MapperService mapperService = createMapperService();
+        MappingLookup mappingLookup = mapperService.mappingLookup();
+        DocumentParser documentParser = mapperService.documentParser();
+        int numDocs = randomIntBetween(1, 20);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            ids.add(Integer.toString(i));
+            engine.index(indexForDoc(createParsedDoc(Integer.toString(i), null)));
+        }
+        assertThat(engine.lastRefreshedCheckpoint(), equalTo(NO_OPS_PERFORMED));
+        // we do not track the translog locations yet, so the whole batch is served by a single refresh
+        assertTrue(engine.prepareRealtimeGets(ids).isEmpty());
+        assertThat(engine.lastRefreshedCheckpoint(), equalTo((long) numDocs - 1));
+
+        for (String id : ids) {
+            engine.index(indexForDoc(createParsedDoc(id, null)));
+        }
+        List<String> batch = new ArrayList<>(ids);
+        batch.add("missing");
+        Collections.shuffle(batch, random());
+        Map<Translog.Location, Translog.Operation> operations = engine.prepareRealtimeGets(batch);
+        assertThat(operations.size(), equalTo(numDocs));
+        for (Translog.Operation operation : operations.values()) {
+            assertThat(operation.seqNo(), greaterThanOrEqualTo((long) numDocs));
+        }
+        assertThat("no refresh, the operations are read from the translog", engine.lastRefreshedCheckpoint(), equalTo((long) numDocs - 1));
+
+        long translogGetCount = engine.translogGetCount.get();
+        for (String id : batch) {
+            try (
+                Engine.GetResult get = engine.get(
+                    new Engine.Get(true, true, id).translogOperations(operations),
+                    mappingLookup,
+                    documentParser,
+                    randomSearcherWrapper()
+                )
+            ) {
+                assertThat(get.exists(), equalTo(id.equals("missing") == false));
+            }
+        }
+        assertThat(engine.translogGetCount.get(), equalTo(translogGetCount + numDocs));
+        assertThat(engine.lastRefreshedCheckpoint(), equalTo((long) numDocs - 1));
+    }
+
     public void testSearchResultRelease() throws Exception {
         engine.refresh("warm_up");
         Engine.Searcher searchResult = engine.acquireSearcher("test");
@@ -2656,6 +2703,18 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testMergeRateLimit() {
+        final long unthrottled = engine.getMergeStats().getTotalBytesPerSecAutoThrottle();
+        assertThat(unthrottled, greaterThan(ByteSizeValue.ofMb(1).getBytes()));
+
+        engine.setMergeRateLimit(1.0);
+        assertThat(engine.getMergeStats().getTotalBytesPerSecAutoThrottle(), equalTo(ByteSizeValue.ofMb(1).getBytes()));
+
+        // lifting the cap leaves the auto IO throttle to adapt the rate from there on
+        engine.setMergeRateLimit(Double.POSITIVE_INFINITY);
+        assertThat(engine.getMergeStats().getTotalBytesPerSecAutoThrottle(), equalTo(ByteSizeValue.ofMb(1).getBytes()));
+    }
+
     public void testSeqNoAndCheckpoints() throws IOException, InterruptedException {
         final int opCount = randomIntBetween(1, 256);
         long primarySeqNo = SequenceNumbers.NO_OPS_PERFORMED;
@@ -110,7 +110,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testBasics() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         try (Releasable r = map.acquireLock(uid("test"))) {
             Translog.Location tlogLoc = randomTranslogLocation();
             map.putIndexUnderLock(uid("test"), new IndexVersionValue(tlogLoc, 1, 1, 1));
@@ -142,7 +142,7 @@ public class LiveVersionMapTests extends ESTestCase {
         List<BytesRef> keyList = new ArrayList<>(keySet);
         ConcurrentHashMap<BytesRef, VersionValue> values = new ConcurrentHashMap<>();
         ConcurrentHashMap<BytesRef, DeleteVersionValue> deletes = new ConcurrentHashMap<>();
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         int numThreads = randomIntBetween(2, 5);
 
         Thread[] threads = new Thread[numThreads];
@@ -280,7 +280,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testCarryOnSafeAccess() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         assertFalse(map.isUnsafe());
         assertFalse(map.isSafeAccessRequired());
         map.enforceSafeAccess();
@@ -312,7 +312,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testRefreshTransition() throws IOException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         try (Releasable r = map.acquireLock(uid("1"))) {
             map.maybePutIndexUnderLock(uid("1"), randomIndexVersionValue());
             assertTrue(map.isUnsafe());
@@ -340,7 +340,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testAddAndDeleteRefreshConcurrently() throws IOException, InterruptedException {
-        LiveVersionMap map = new LiveVersionMap();
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         int numIters = randomIntBetween(1000, 5000);
         AtomicBoolean done = new AtomicBoolean(false);
         AtomicLong version = new AtomicLong();
@@ -416,7 +416,7 @@ public class LiveVersionMapTests extends ESTestCase {
     }
 
     public void testRandomlyIndexDeleteAndRefresh() throws Exception {
-        final LiveVersionMap versionMap = new LiveVersionMap();
+        final LiveVersionMap versionMap = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, randomBoolean());
         final BytesRef uid = uid("1");
         final long versions = between(10, 1000);
         VersionValue latestVersion = null;
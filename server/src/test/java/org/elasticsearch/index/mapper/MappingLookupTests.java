@@ -96,6 +96,35 @@ public class MappingLookupTests extends ESTestCase {
         assertThat(mappingLookup.fieldTypesLookup().get("object.subfield"), instanceOf(TestRuntimeField.TestRuntimeFieldType.class));
     }
 
+    public void testUnmappedLeavesMayHaveFieldTypes() {
+        MockFieldMapper fieldMapper = new MockFieldMapper("object.subfield");
+        ObjectMapper objectMapper = new ObjectMapper(
+            "object",
+            "object",
+            Explicit.EXPLICIT_TRUE,
+            Explicit.IMPLICIT_TRUE,
+            ObjectMapper.Dynamic.TRUE,
+            Collections.singletonMap("subfield", fieldMapper)
+        );
+        assertFalse(createMappingLookup(List.of(fieldMapper), List.of(objectMapper), emptyList()).unmappedLeavesMayHaveFieldTypes());
+        assertFalse(MappingLookup.EMPTY.unmappedLeavesMayHaveFieldTypes());
+
+        assertTrue(
+            createMappingLookup(List.of(fieldMapper), List.of(objectMapper), List.of(new TestRuntimeField("object.runtime", "type")))
+                .unmappedLeavesMayHaveFieldTypes()
+        );
+
+        ObjectMapper noSubobjects = new ObjectMapper(
+            "object",
+            "object",
+            Explicit.EXPLICIT_TRUE,
+            Explicit.EXPLICIT_FALSE,
+            ObjectMapper.Dynamic.TRUE,
+            Collections.singletonMap("subfield", fieldMapper)
+        );
+        assertTrue(createMappingLookup(List.of(fieldMapper), List.of(noSubobjects), emptyList()).unmappedLeavesMayHaveFieldTypes());
+    }
+
     public void testAnalyzers() throws IOException {
         FakeFieldType fieldType1 = new FakeFieldType("field1");
         FieldMapper fieldMapper1 = new FakeFieldMapper(fieldType1, "index1");
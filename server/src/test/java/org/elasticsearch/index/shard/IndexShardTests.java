@@ -2281,6 +2281,39 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(newShard);
     }
 
+    public void testRecoverFromStoreConcurrently() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexSettings.INDEX_TRANSLOG_RECOVERY_CONCURRENCY_SETTING.getKey(), between(2, 8))
+            .build();
+        final IndexShard shard = newStartedShard(true, settings);
+        final int numIds = between(1, 100);
+        final int totalOps = between(0, 1000);
+        for (int i = 0; i < totalOps; i++) {
+            final String id = Integer.toString(between(0, numIds - 1));
+            if (rarely()) {
+                deleteDoc(shard, id);
+            } else {
+                indexDoc(shard, "_doc", id, "{\"value\":" + i + "}");
+            }
+        }
+        final List<DocIdSeqNoAndSource> docs = getDocIdAndSeqNos(shard);
+        IndexShard newShard = reinitShard(shard);
+        DiscoveryNode localNode = DiscoveryNodeUtils.builder("foo").roles(emptySet()).build();
+        newShard.markAsRecovering("store", new RecoveryState(newShard.routingEntry(), localNode, null));
+        assertTrue(recoverFromStore(newShard));
+        assertEquals(totalOps, newShard.recoveryState().getTranslog().recoveredOperations());
+        assertEquals(totalOps, newShard.recoveryState().getTranslog().totalOperations());
+        assertEquals(100.0f, newShard.recoveryState().getTranslog().recoveredPercent(), 0.01f);
+        IndexShardTestCase.updateRoutingEntry(
+            newShard,
+            newShard.routingEntry().moveToStarted(ShardRouting.UNAVAILABLE_EXPECTED_SHARD_SIZE)
+        );
+        assertThat(newShard.getLocalCheckpoint(), equalTo(totalOps - 1L));
+        // the last operation on each document wins, regardless of the thread that replayed it
+        assertThat(getDocIdAndSeqNos(newShard), equalTo(docs));
+        closeShards(newShard);
+    }
+
     public void testRecoverFromStalePrimaryForceNewHistoryUUID() throws IOException {
         final IndexShard shard = newStartedShard(true);
         int totalOps = randomInt(10);
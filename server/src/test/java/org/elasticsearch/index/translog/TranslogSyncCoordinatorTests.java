@@ -0,0 +1,140 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
+import org.elasticsearch.telemetry.Measurement;
+import org.elasticsearch.telemetry.TestTelemetryPlugin;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+    public void testDisabledByDefault() {
+        DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(
+            Settings.EMPTY,
+            taskQueue.getThreadPool(),
+            MeterRegistry.NOOP
+        );
+        assertFalse(coordinator.isEnabled());
+        assertThat(coordinator.register(createTempDir(), (location, listener) -> listener.accept(null)), nullValue());
+    }
+
+    public void testCoalescesSyncs() {
+        DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        TestTelemetryPlugin telemetry = new TestTelemetryPlugin();
+        TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(
+            Settings.builder().put(TranslogSyncCoordinator.WINDOW_SETTING.getKey(), "5ms").build(),
+            taskQueue.getThreadPool(),
+            telemetry.getTelemetryProvider(Settings.EMPTY).getMeterRegistry()
+        );
+        Path path = createTempDir();
+        List<Translog.Location> firstSynced = new ArrayList<>();
+        List<Translog.Location> secondSynced = new ArrayList<>();
+        TranslogSyncCoordinator.ShardSyncs first = coordinator.register(path, (location, listener) -> {
+            firstSynced.add(location);
+            listener.accept(null);
+        });
+        TranslogSyncCoordinator.ShardSyncs second = coordinator.register(path, (location, listener) -> {
+            secondSynced.add(location);
+            listener.accept(null);
+        });
+
+        AtomicInteger notified = new AtomicInteger();
+        int firstRequests = between(1, 10);
+        Translog.Location firstMax = Translog.Location.EMPTY;
+        for (int i = 0; i < firstRequests; i++) {
+            Translog.Location location = new Translog.Location(1, randomLongBetween(0, 1000), 10);
+            firstMax = location.compareTo(firstMax) > 0 ? location : firstMax;
+            first.sync(location, e -> {
+                assertThat(e, nullValue());
+                notified.incrementAndGet();
+            });
+        }
+        int secondRequests = between(1, 10);
+        for (int i = 0; i < secondRequests; i++) {
+            second.sync(new Translog.Location(1, i, 10), e -> {
+                assertThat(e, nullValue());
+                notified.incrementAndGet();
+            });
+        }
+
+        // nothing is synced until the window closes
+        taskQueue.runAllRunnableTasks();
+        assertThat(firstSynced, hasSize(0));
+        assertThat(notified.get(), equalTo(0));
+
+        taskQueue.runAllTasks();
+        assertThat(firstSynced, equalTo(List.of(firstMax)));
+        assertThat(secondSynced, equalTo(List.of(new Translog.Location(1, secondRequests - 1, 10))));
+        assertThat(notified.get(), equalTo(firstRequests + secondRequests));
+
+        assertThat(
+            telemetry.getLongHistogramMeasurement(TranslogSyncCoordinator.WAVE_SIZE_HISTOGRAM_NAME)
+                .stream()
+                .map(Measurement::getLong)
+                .toList(),
+            equalTo(List.of(2L))
+        );
+        assertThat(
+            telemetry.getLongHistogramMeasurement(TranslogSyncCoordinator.BATCH_SIZE_HISTOGRAM_NAME)
+                .stream()
+                .map(Measurement::getLong)
+                .toList(),
+            containsInAnyOrder((long) firstRequests, (long) secondRequests)
+        );
+        assertThat(telemetry.getLongHistogramMeasurement(TranslogSyncCoordinator.LATENCY_HISTOGRAM_NAME), hasSize(2));
+
+        // later requests start a new wave
+        second.sync(new Translog.Location(2, 0, 10), e -> notified.incrementAndGet());
+        taskQueue.runAllTasks();
+        assertThat(secondSynced, hasSize(2));
+        assertThat(notified.get(), equalTo(firstRequests + secondRequests + 1));
+    }
+
+    public void testFailuresAreReportedToEveryRequest() {
+        DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(
+            Settings.builder().put(TranslogSyncCoordinator.WINDOW_SETTING.getKey(), "1ms").build(),
+            taskQueue.getThreadPool(),
+            MeterRegistry.NOOP
+        );
+        IOException failure = new IOException("test");
+        boolean throwsFailure = randomBoolean();
+        TranslogSyncCoordinator.ShardSyncs shard = coordinator.register(createTempDir(), (location, listener) -> {
+            if (throwsFailure) {
+                throw new IllegalStateException(failure);
+            }
+            listener.accept(failure);
+        });
+        int requests = between(1, 10);
+        List<Exception> failures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            shard.sync(new Translog.Location(1, i, 10), failures::add);
+        }
+        taskQueue.runAllTasks();
+        assertThat(failures, hasSize(requests));
+        for (Exception e : failures) {
+            assertThat(throwsFailure ? e.getCause() : e, sameInstance(failure));
+        }
+    }
+}
@@ -683,6 +683,28 @@ public class TranslogTests extends ESTestCase {
         assertNull(translog.readOperation(new Location(100, 0, 0)));
     }
 
+    public void testReadLocations() throws IOException {
+        ArrayList<Translog.Operation> ops = new ArrayList<>();
+        ArrayList<Translog.Location> locs = new ArrayList<>();
+        int numOps = randomIntBetween(1, 50);
+        for (int i = 0; i < numOps; i++) {
+            locs.add(addToTranslogAndList(translog, ops, TranslogOperationsUtils.indexOp(Integer.toString(i), i, primaryTerm.get())));
+            if (rarely()) {
+                translog.rollGeneration();
+            }
+        }
+        List<Translog.Location> shuffled = new ArrayList<>(locs);
+        Collections.shuffle(shuffled, random());
+        shuffled.add(new Location(100, 0, 0));
+        Map<Translog.Location, Translog.Operation> read = translog.readOperations(shuffled);
+        assertThat(read.size(), equalTo(numOps));
+        for (int i = 0; i < numOps; i++) {
+            assertEquals(ops.get(i), read.get(locs.get(i)));
+            assertEquals(translog.readOperation(locs.get(i)), read.get(locs.get(i)));
+        }
+        assertTrue(translog.readOperations(List.of()).isEmpty());
+    }
+
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
         try {
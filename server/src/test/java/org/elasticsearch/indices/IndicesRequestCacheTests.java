@@ -12,18 +12,24 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterDirectoryReader;
+import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -36,6 +42,8 @@ import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MappingLookup;
 import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.xcontent.XContentType;
 
@@ -502,6 +510,163 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testSegmentCounts() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        IndexReader.CacheHelper segment = reader.leaves().get(0).reader().getReaderCacheHelper();
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        TestSegmentKey key = new TestSegmentKey("foo");
+
+        assertNull(cache.getSegmentCount(entity, mappingKey, segment, BytesArray.EMPTY, key));
+        // segment counts don't count as hits or misses of the request cache
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(0, requestCacheStats.stats().getMissCount());
+
+        long count = randomNonNegativeLong();
+        cache.putSegmentCount(entity, mappingKey, segment, BytesArray.EMPTY, key, count);
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+        assertTrue(requestCacheStats.stats().getMemorySize().getBytes() > 0);
+
+        assertEquals(Long.valueOf(count), cache.getSegmentCount(entity, mappingKey, segment, BytesArray.EMPTY, key));
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(0, requestCacheStats.stats().getMissCount());
+
+        // a different key on the same segment is a different entry
+        assertNull(cache.getSegmentCount(entity, mappingKey, segment, BytesArray.EMPTY, new TestSegmentKey("bar")));
+        assertEquals(0, requestCacheStats.stats().getMissCount());
+
+        // closing the segment drops its counts
+        reader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+
+        IOUtils.close(writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
+    /**
+     * Readers with field level security share the cache key of the segment they wrap so
+     * the counts computed against each view must be told apart by the differentiator.
+     */
+    public void testSegmentCountsOfFieldLevelSecurityViews() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        DirectoryReader withoutValue = new HiddenFieldDirectoryReader(reader, "value");
+        DirectoryReader withoutId = new HiddenFieldDirectoryReader(reader, "id");
+        IndexReader.CacheHelper withoutValueSegment = withoutValue.leaves().get(0).reader().getReaderCacheHelper();
+        IndexReader.CacheHelper withoutIdSegment = withoutId.leaves().get(0).reader().getReaderCacheHelper();
+        assertSame(withoutValueSegment.getKey(), withoutIdSegment.getKey());
+        assertSame(reader.leaves().get(0).reader().getReaderCacheHelper().getKey(), withoutValueSegment.getKey());
+
+        ShardSearchRequest request = new ShardSearchRequest(new ShardId("foo", "bar", 1), 0, AliasFilter.EMPTY);
+        BytesReference withoutValueDifferentiator = IndicesService.segmentCountDifferentiator(
+            request,
+            (r, out) -> out.writeString("value")
+        );
+        BytesReference withoutIdDifferentiator = IndicesService.segmentCountDifferentiator(request, (r, out) -> out.writeString("id"));
+        BytesReference unrestricted = IndicesService.segmentCountDifferentiator(request, (r, out) -> {});
+        assertEquals(BytesArray.EMPTY, unrestricted);
+        assertEquals(BytesArray.EMPTY, IndicesService.segmentCountDifferentiator(request, null));
+        assertNotEquals(withoutValueDifferentiator, withoutIdDifferentiator);
+
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        TestSegmentKey key = new TestSegmentKey("foo");
+        long count = randomNonNegativeLong();
+        cache.putSegmentCount(entity, mappingKey, withoutValueSegment, withoutValueDifferentiator, key, count);
+        assertEquals(1, cache.count());
+
+        assertEquals(Long.valueOf(count), cache.getSegmentCount(entity, mappingKey, withoutValueSegment, withoutValueDifferentiator, key));
+        // the other view and the unrestricted reader don't see the count even though the segment key is the same
+        assertNull(cache.getSegmentCount(entity, mappingKey, withoutIdSegment, withoutIdDifferentiator, key));
+        assertNull(cache.getSegmentCount(entity, mappingKey, withoutIdSegment, unrestricted, key));
+
+        long otherCount = randomValueOtherThan(count, ESTestCase::randomNonNegativeLong);
+        cache.putSegmentCount(entity, mappingKey, withoutIdSegment, withoutIdDifferentiator, key, otherCount);
+        assertEquals(2, cache.count());
+        assertEquals(Long.valueOf(count), cache.getSegmentCount(entity, mappingKey, withoutValueSegment, withoutValueDifferentiator, key));
+        assertEquals(Long.valueOf(otherCount), cache.getSegmentCount(entity, mappingKey, withoutIdSegment, withoutIdDifferentiator, key));
+
+        // closing the segment drops the counts of every view
+        reader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0L, requestCacheStats.stats().getMemorySize().getBytes());
+
+        IOUtils.close(writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
+    public void testTopDocsCache() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        BytesReference termBytes = XContentHelper.toXContent(new TermQueryBuilder("id", "0"), XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+
+        // top docs go to their own cache and are tracked separately
+        TestEntity entity = new TestEntity(requestCacheStats.topDocs(), indexShard);
+        Loader loader = new Loader(reader, 0);
+        BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader, termBytes, true);
+        assertEquals("foo", value.streamInput().readString());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(0, cache.count());
+        assertEquals(1, cache.topDocsCount());
+        assertEquals(1, requestCacheStats.stats().getTopDocsMissCount());
+        assertEquals(0, requestCacheStats.stats().getMissCount());
+        assertEquals(0L, requestCacheStats.stats().getMemorySizeInBytes());
+        assertTrue(requestCacheStats.stats().getTopDocsMemorySizeInBytes() > value.length());
+
+        loader = new Loader(reader, 0);
+        cache.getOrCompute(new TestEntity(requestCacheStats.topDocs(), indexShard), loader, mappingKey, reader, termBytes, true);
+        assertTrue(loader.loadedFromCache);
+        assertEquals(1, requestCacheStats.stats().getTopDocsHitCount());
+
+        // the same key in the shared cache is a different entry
+        loader = new Loader(reader, 0);
+        cache.getOrCompute(new TestEntity(requestCacheStats, indexShard), loader, mappingKey, reader, termBytes);
+        assertFalse(loader.loadedFromCache);
+        assertEquals(1, cache.count());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+
+        if (randomBoolean()) {
+            cache.invalidate(entity, mappingKey, reader, termBytes, true);
+            assertEquals(0, cache.topDocsCount());
+            assertEquals(1, cache.count());
+        }
+
+        // refreshing the shard drops the entries of both caches
+        reader.close();
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.topDocsCount());
+        assertEquals(0L, requestCacheStats.stats().getMemorySizeInBytes());
+        assertEquals(0L, requestCacheStats.stats().getTopDocsMemorySizeInBytes());
+
+        IOUtils.close(writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
     public void testKeyEqualsAndHashCode() throws IOException {
         AtomicBoolean trueBoolean = new AtomicBoolean(true);
         AtomicBoolean falseBoolean = new AtomicBoolean(false);
@@ -615,6 +780,55 @@ public class IndicesRequestCacheTests extends ESTestCase {
         }
     }
 
+    /**
+     * Hides a field from the segments like field level security does, sharing the cache keys of the wrapped segments.
+     */
+    private static class HiddenFieldDirectoryReader extends FilterDirectoryReader {
+        private final String field;
+
+        HiddenFieldDirectoryReader(DirectoryReader in, String field) throws IOException {
+            super(in, new SubReaderWrapper() {
+                @Override
+                public LeafReader wrap(LeafReader reader) {
+                    return new FilterLeafReader(reader) {
+                        @Override
+                        public Terms terms(String name) throws IOException {
+                            return field.equals(name) ? null : super.terms(name);
+                        }
+
+                        @Override
+                        public CacheHelper getCoreCacheHelper() {
+                            return in.getCoreCacheHelper();
+                        }
+
+                        @Override
+                        public CacheHelper getReaderCacheHelper() {
+                            return in.getReaderCacheHelper();
+                        }
+                    };
+                }
+            });
+            this.field = field;
+        }
+
+        @Override
+        protected DirectoryReader doWrapDirectoryReader(DirectoryReader in) throws IOException {
+            return new HiddenFieldDirectoryReader(in, field);
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return in.getReaderCacheHelper();
+        }
+    }
+
+    private record TestSegmentKey(String name) implements Accountable {
+        @Override
+        public long ramBytesUsed() {
+            return 16 + name.length();
+        }
+    }
+
     private static class TestEntity extends AbstractIndexShardCacheEntity {
         private final AtomicBoolean standInForIndexShard;
         private final ShardRequestCache shardRequestCache;
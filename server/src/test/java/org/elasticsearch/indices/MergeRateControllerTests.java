@@ -0,0 +1,181 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.monitor.fs.FsInfo;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+
+public class MergeRateControllerTests extends ESTestCase {
+
+    static class MockController extends MergeRateController {
+
+        // the merge rate that the auto IO throttle of each shard allows, and its current merges
+        final Map<IndexShard, Double> mergeRates = new HashMap<>();
+        final Map<IndexShard, Long> currentMerges = new HashMap<>();
+        // the merge rate limits that were applied to the shards
+        final Map<IndexShard, Double> mergeRateLimits = new HashMap<>();
+
+        double latencyMillis = -1;
+
+        MockController(Settings settings) {
+            super(Settings.builder().put("indices.merge.adaptive_throttle.enabled", true).put(settings).build(), null, null, List.of());
+        }
+
+        void addShard(double mergeRateMBPerSec, long merges) {
+            IndexShard shard = mock(IndexShard.class);
+            mergeRates.put(shard, mergeRateMBPerSec);
+            currentMerges.put(shard, merges);
+        }
+
+        @Override
+        protected Cancellable scheduleTask(ThreadPool threadPool, TimeValue interval) {
+            return null;
+        }
+
+        @Override
+        protected double sampleIoLatencyMillis() {
+            return latencyMillis;
+        }
+
+        @Override
+        protected List<IndexShard> availableShards() {
+            return new ArrayList<>(mergeRates.keySet());
+        }
+
+        @Override
+        protected double getMergeRateMBPerSec(IndexShard shard) {
+            return mergeRates.get(shard);
+        }
+
+        @Override
+        protected long getCurrentMerges(IndexShard shard) {
+            return currentMerges.get(shard);
+        }
+
+        @Override
+        protected void setMergeRateLimit(IndexShard shard, double mbPerSec) {
+            mergeRateLimits.put(shard, mbPerSec);
+        }
+
+        void assertMergeRateLimits(double expected) {
+            assertThat(mergeRateLimits.size(), equalTo(mergeRates.size()));
+            for (double limit : mergeRateLimits.values()) {
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertThat(limit, equalTo(expected));
+                } else {
+                    assertThat(limit, closeTo(expected, 0.001));
+                }
+            }
+        }
+    }
+
+    public void testUnknownLatencyDoesNotThrottle() {
+        MockController controller = new MockController(Settings.EMPTY);
+        controller.addShard(20.0, 1);
+        controller.adjustMergeRate();
+        assertThat(controller.mergeBudgetMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+        assertTrue(controller.mergeRateLimits.isEmpty());
+    }
+
+    public void testLowLatencyDoesNotThrottle() {
+        MockController controller = new MockController(
+            Settings.builder().put("indices.merge.adaptive_throttle.target_io_latency", "10ms").build()
+        );
+        controller.addShard(20.0, 1);
+        controller.latencyMillis = 5;
+        controller.adjustMergeRate();
+        assertThat(controller.mergeBudgetMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+        assertTrue(controller.mergeRateLimits.isEmpty());
+    }
+
+    public void testHighLatencyThrottlesAndRecovers() {
+        MockController controller = new MockController(
+            Settings.builder().put("indices.merge.adaptive_throttle.target_io_latency", "10ms").build()
+        );
+        controller.addShard(20.0, 1);
+        controller.addShard(60.0, 3);
+        controller.addShard(40.0, 0);
+        controller.addShard(Double.POSITIVE_INFINITY, 0);
+        assertThat(controller.mergeBudgetBytesPerSec(), equalTo(-1L));
+
+        // the budget starts from the rate that the running merges currently write at, the auto IO throttle rate applies per merge
+        controller.latencyMillis = 25;
+        controller.adjustMergeRate();
+        double budget = (20.0 + 60.0 * 3) * MergeRateController.DECREASE_FACTOR;
+        assertThat(controller.mergeBudgetMBPerSec(), closeTo(budget, 0.001));
+        assertThat(controller.mergeBudgetBytesPerSec(), equalTo((long) (budget * 1024 * 1024)));
+        controller.assertMergeRateLimits(budget / 4);
+
+        controller.adjustMergeRate();
+        budget *= MergeRateController.DECREASE_FACTOR;
+        assertThat(controller.mergeBudgetMBPerSec(), closeTo(budget, 0.001));
+        controller.assertMergeRateLimits(budget / 4);
+
+        controller.latencyMillis = 2;
+        controller.adjustMergeRate();
+        budget *= MergeRateController.INCREASE_FACTOR;
+        assertThat(controller.mergeBudgetMBPerSec(), closeTo(budget, 0.001));
+        controller.assertMergeRateLimits(budget / 4);
+
+        // the budget keeps growing until the merges are not capped anymore
+        for (int i = 0; i < 1000 && controller.mergeBudgetMBPerSec() != Double.POSITIVE_INFINITY; i++) {
+            controller.adjustMergeRate();
+        }
+        assertThat(controller.mergeBudgetMBPerSec(), equalTo(Double.POSITIVE_INFINITY));
+        assertThat(controller.mergeBudgetBytesPerSec(), equalTo(-1L));
+        controller.assertMergeRateLimits(Double.POSITIVE_INFINITY);
+    }
+
+    public void testBudgetStartsFromMaximumWithoutThrottledMerges() {
+        MockController controller = new MockController(Settings.EMPTY);
+        controller.addShard(20.0, 0);
+        controller.addShard(Double.POSITIVE_INFINITY, 2);
+        controller.latencyMillis = 100;
+        controller.adjustMergeRate();
+        double budget = MergeRateController.MAX_MERGE_MB_PER_SEC * MergeRateController.DECREASE_FACTOR;
+        assertThat(controller.mergeBudgetMBPerSec(), closeTo(budget, 0.001));
+        controller.assertMergeRateLimits(budget / 2);
+    }
+
+    public void testBudgetDoesNotGoUnderMinimum() {
+        MockController controller = new MockController(Settings.builder().put("indices.merge.adaptive_throttle.min_rate", "10mb").build());
+        controller.addShard(20.0, 2);
+        controller.latencyMillis = 100;
+        for (int i = 0; i < 10; i++) {
+            controller.adjustMergeRate();
+        }
+        assertThat(controller.mergeBudgetMBPerSec(), equalTo(10.0));
+        controller.assertMergeRateLimits(5.0);
+    }
+
+    public void testIoLatencyIncludesQueueTime() {
+        FsInfo.DeviceStats previous = new FsInfo.DeviceStats(253, 0, "dm-0", 100, 0, 100, 0, 1000, 1000, 1000, null);
+        // 20 operations that kept the device busy for 20ms but took 400ms including the time they were queued
+        FsInfo.DeviceStats current = new FsInfo.DeviceStats(253, 0, "dm-0", 110, 0, 110, 0, 1020, 1200, 1200, previous);
+        assertThat(MergeRateController.ioLatencyMillis(new FsInfo.IoStats(new FsInfo.DeviceStats[] { current })), equalTo(20.0));
+
+        FsInfo.DeviceStats idle = new FsInfo.DeviceStats(253, 0, "dm-0", 110, 0, 110, 0, 1020, 1200, 1200, current);
+        assertThat(MergeRateController.ioLatencyMillis(new FsInfo.IoStats(new FsInfo.DeviceStats[] { idle })), equalTo(-1.0));
+        assertThat(MergeRateController.ioLatencyMillis(null), equalTo(-1.0));
+    }
+}
@@ -8,11 +8,16 @@
 
 package org.elasticsearch.indices;
 
+import org.elasticsearch.TransportVersions;
+import org.elasticsearch.action.admin.indices.stats.CommonStats;
+import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.admin.indices.stats.IndexShardStats;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.xcontent.ToXContent;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +25,7 @@ import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.object.HasToString.hasToString;
 
@@ -47,4 +53,25 @@ public class NodeIndicesStatsTests extends ESTestCase {
         assertThat(stats.getShardStats(index), nullValue());
     }
 
+    public void testSerializeMergeBudget() throws IOException {
+        final long mergeBudget = randomBoolean() ? -1 : randomNonNegativeLong();
+        final NodeIndicesStats stats = new NodeIndicesStats(
+            new CommonStats(CommonStatsFlags.ALL),
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            randomBoolean(),
+            mergeBudget
+        );
+        assertThat(copyWriteable(stats, writableRegistry(), NodeIndicesStats::new).getMergeBudgetBytesPerSec(), equalTo(mergeBudget));
+
+        // older nodes don't send it
+        final NodeIndicesStats fromOlderNode = copyWriteable(
+            stats,
+            writableRegistry(),
+            NodeIndicesStats::new,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.NODE_STATS_MERGE_BUDGET)
+        );
+        assertThat(fromOlderNode.getMergeBudgetBytesPerSec(), equalTo(-1L));
+    }
+
 }
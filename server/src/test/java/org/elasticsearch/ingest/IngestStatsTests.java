@@ -136,6 +136,26 @@ public class IngestStatsTests extends ESTestCase {
         );
     }
 
+    public void testProcessorCacheStatsMerge() {
+        var first = List.of(
+            new IngestStats.ProcessorStat("proc-1", "date", new IngestStats.Stats(1, 0, 0, 0), new IngestStats.CacheStats(5, 1)),
+            new IngestStats.ProcessorStat("proc-2", "set", new IngestStats.Stats(1, 0, 0, 0))
+        );
+        var second = List.of(
+            new IngestStats.ProcessorStat("proc-1", "date", new IngestStats.Stats(2, 0, 0, 0), new IngestStats.CacheStats(7, 2)),
+            new IngestStats.ProcessorStat("proc-2", "set", new IngestStats.Stats(2, 0, 0, 0))
+        );
+
+        var merged = IngestStats.merge(Map.of("pipeline-1", first), Map.of("pipeline-1", second));
+        assertThat(
+            merged.get("pipeline-1"),
+            containsInAnyOrder(
+                new IngestStats.ProcessorStat("proc-1", "date", new IngestStats.Stats(3, 0, 0, 0), new IngestStats.CacheStats(12, 3)),
+                new IngestStats.ProcessorStat("proc-2", "set", new IngestStats.Stats(3, 0, 0, 0))
+            )
+        );
+    }
+
     public void testProcessorStatsMergeHeterogeneous() {
         // if a pipeline has heterogeneous *non-zero* stats, then we defer to the one with a smaller total ingest count
 
@@ -192,7 +212,8 @@ public class IngestStatsTests extends ESTestCase {
         IngestStats.ProcessorStat processor3Stat = new IngestStats.ProcessorStat(
             "processor3",
             "type",
-            new IngestStats.Stats(47, 97, 197, 297)
+            new IngestStats.Stats(47, 97, 197, 297),
+            new IngestStats.CacheStats(12, 3)
         );
         // pipeline1 -> processor1,processor2; pipeline2 -> processor3
         return Map.of(
@@ -235,6 +256,7 @@ public class IngestStatsTests extends ESTestCase {
                     assertEquals(ps.name(), serializedProcessorStat.name());
                     assertEquals(ps.type(), serializedProcessorStat.type());
                     assertEquals(ps.stats(), serializedProcessorStat.stats());
+                    assertEquals(ps.cacheStats(), serializedProcessorStat.cacheStats());
                 }
                 assertFalse(it.hasNext());
             }
@@ -176,6 +176,10 @@ public class FsProbeTests extends ESTestCase {
         assertThat(first.devicesStats[0].previousSectorsWritten, equalTo(-1L));
         assertThat(first.devicesStats[0].currentIOTime, equalTo(1918440L));
         assertThat(first.devicesStats[0].previousIOTime, equalTo(-1L));
+        assertThat(first.devicesStats[0].currentReadTime, equalTo(33457L));
+        assertThat(first.devicesStats[0].previousReadTime, equalTo(-1L));
+        assertThat(first.devicesStats[0].currentWriteTime, equalTo(18730966L));
+        assertThat(first.devicesStats[0].previousWriteTime, equalTo(-1L));
         assertThat(first.devicesStats[1].majorDeviceNumber, equalTo(253));
         assertThat(first.devicesStats[1].minorDeviceNumber, equalTo(2));
         assertThat(first.devicesStats[1].deviceName, equalTo("dm-2"));
@@ -189,6 +193,10 @@ public class FsProbeTests extends ESTestCase {
         assertThat(first.devicesStats[1].previousSectorsWritten, equalTo(-1L));
         assertThat(first.devicesStats[1].currentIOTime, equalTo(1058193L));
         assertThat(first.devicesStats[1].previousIOTime, equalTo(-1L));
+        assertThat(first.devicesStats[1].currentReadTime, equalTo(49312L));
+        assertThat(first.devicesStats[1].previousReadTime, equalTo(-1L));
+        assertThat(first.devicesStats[1].currentWriteTime, equalTo(33730596L));
+        assertThat(first.devicesStats[1].previousWriteTime, equalTo(-1L));
 
         diskStats.set(
             Arrays.asList(
@@ -218,6 +226,10 @@ public class FsProbeTests extends ESTestCase {
         assertThat(second.devicesStats[0].previousSectorsWritten, equalTo(118857776L));
         assertThat(second.devicesStats[0].currentIOTime, equalTo(1918444L));
         assertThat(second.devicesStats[0].previousIOTime, equalTo(1918440L));
+        assertThat(second.devicesStats[0].currentReadTime, equalTo(33464L));
+        assertThat(second.devicesStats[0].previousReadTime, equalTo(33457L));
+        assertThat(second.devicesStats[0].currentWriteTime, equalTo(18730966L));
+        assertThat(second.devicesStats[0].previousWriteTime, equalTo(18730966L));
         assertThat(second.devicesStats[1].majorDeviceNumber, equalTo(253));
         assertThat(second.devicesStats[1].minorDeviceNumber, equalTo(2));
         assertThat(second.devicesStats[1].deviceName, equalTo("dm-2"));
@@ -231,6 +243,10 @@ public class FsProbeTests extends ESTestCase {
         assertThat(second.devicesStats[1].previousSectorsWritten, equalTo(64126096L));
         assertThat(second.devicesStats[1].currentIOTime, equalTo(1058347L));
         assertThat(second.devicesStats[1].previousIOTime, equalTo(1058193L));
+        assertThat(second.devicesStats[1].currentReadTime, equalTo(49369L));
+        assertThat(second.devicesStats[1].previousReadTime, equalTo(49312L));
+        assertThat(second.devicesStats[1].currentWriteTime, equalTo(33730766L));
+        assertThat(second.devicesStats[1].previousWriteTime, equalTo(33730596L));
 
         assertThat(second.totalOperations, equalTo(575L));
         assertThat(second.totalReadOperations, equalTo(261L));
@@ -238,6 +254,8 @@ public class FsProbeTests extends ESTestCase {
         assertThat(second.totalReadKilobytes, equalTo(2392L));
         assertThat(second.totalWriteKilobytes, equalTo(1236L));
         assertThat(second.totalIOTimeInMillis, equalTo(158L));
+        assertThat(second.totalReadTimeInMillis, equalTo(64L));
+        assertThat(second.totalWriteTimeInMillis, equalTo(170L));
     }
 
     public void testAdjustForHugeFilesystems() throws Exception {
@@ -28,6 +28,7 @@ import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.http.HttpHeadersValidationException;
 import org.elasticsearch.http.HttpInfo;
+import org.elasticsearch.http.HttpPreRequest;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.http.HttpResponse;
 import org.elasticsearch.http.HttpServerTransport;
@@ -68,6 +69,8 @@ import static org.elasticsearch.rest.RestController.ELASTIC_PRODUCT_HTTP_HEADER;
 import static org.elasticsearch.rest.RestController.ELASTIC_PRODUCT_HTTP_HEADER_VALUE;
 import static org.elasticsearch.rest.RestRequest.Method.GET;
 import static org.elasticsearch.rest.RestRequest.Method.OPTIONS;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+import static org.elasticsearch.rest.RestRequest.Method.PUT;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -777,6 +780,77 @@ public class RestControllerTests extends ESTestCase {
         verify(tracer).addError(any(RestRequest.class), any(IllegalArgumentException.class));
     }
 
+    public void testSupportsHttpContentStreamOnlyForHandlersThatOptIn() {
+        final RestHandler streaming = new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {}
+
+            @Override
+            public List<Route> routes() {
+                return List.of(new Route(POST, "/_bulk"), new Route(PUT, "/_bulk"), new Route(POST, "/{index}/_bulk"));
+            }
+
+            @Override
+            public boolean supportsContentStream() {
+                return true;
+            }
+
+            @Override
+            public boolean supportsHttpContentStream() {
+                return true;
+            }
+        };
+        // like the monitoring bulk API, a path that ends in _bulk whose handler buffers the body
+        final RestHandler buffering = new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {}
+
+            @Override
+            public List<Route> routes() {
+                return List.of(
+                    Route.builder(POST, "/_monitoring/bulk")
+                        .replaces(POST, "/_xpack/monitoring/_bulk", RestApiVersion.minimumSupported())
+                        .build()
+                );
+            }
+
+            @Override
+            public boolean supportsContentStream() {
+                return true;
+            }
+        };
+        restController.registerHandler(streaming);
+        restController.registerHandler(buffering);
+
+        assertTrue(restController.supportsHttpContentStream(preRequest(POST, "/_bulk")));
+        assertTrue(restController.supportsHttpContentStream(preRequest(PUT, "/_bulk?refresh=true")));
+        assertTrue(restController.supportsHttpContentStream(preRequest(POST, "/my-index/_bulk")));
+        assertFalse(restController.supportsHttpContentStream(preRequest(GET, "/_bulk")));
+        assertFalse(restController.supportsHttpContentStream(preRequest(POST, "/_monitoring/bulk")));
+        assertFalse(restController.supportsHttpContentStream(preRequest(POST, "/_xpack/monitoring/_bulk")));
+        assertFalse(restController.supportsHttpContentStream(preRequest(POST, "/_xpack/monitoring/_bulk?system_id=kibana")));
+        assertFalse(restController.supportsHttpContentStream(preRequest(POST, "/_unknown")));
+    }
+
+    private static HttpPreRequest preRequest(RestRequest.Method method, String uri) {
+        return new HttpPreRequest() {
+            @Override
+            public RestRequest.Method method() {
+                return method;
+            }
+
+            @Override
+            public String uri() {
+                return uri;
+            }
+
+            @Override
+            public Map<String, List<String>> getHeaders() {
+                return Map.of();
+            }
+        };
+    }
+
     public void testDispatchCompatibleHandler() {
 
         RestController restController = new RestController(null, client, circuitBreakerService, usageService, tracer);
@@ -10,24 +10,38 @@ package org.elasticsearch.rest.action.document;
 
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.client.NoOpNodeClient;
+import org.elasticsearch.test.rest.FakeRestChannel;
 import org.elasticsearch.test.rest.FakeRestRequest;
 import org.elasticsearch.xcontent.XContentType;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.mock;
 
@@ -164,4 +178,139 @@ public class RestBulkActionTests extends ESTestCase {
             }
         }
     }
+
+    public void testStreamedBulk() throws Exception {
+        StringBuilder body = new StringBuilder();
+        int items = between(50, 200);
+        for (int i = 0; i < items; i++) {
+            body.append("{\"index\":{\"_id\":\"").append(i).append("\"}}\n");
+            body.append("{\"field\":\"").append(randomAlphaOfLength(between(10, 100))).append("\"}\n");
+        }
+        BytesArray content = new BytesArray(body.toString());
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> indexedIds = new ArrayList<>();
+        try (var threadPool = createThreadPool()) {
+            final var verifyingClient = new NoOpNodeClient(threadPool) {
+                @Override
+                public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                    batchSizes.add(request.numberOfActions());
+                    BulkItemResponse[] responses = new BulkItemResponse[request.numberOfActions()];
+                    for (int i = 0; i < responses.length; i++) {
+                        String id = request.requests().get(i).id();
+                        indexedIds.add(id);
+                        responses[i] = BulkItemResponse.success(
+                            i,
+                            DocWriteRequest.OpType.INDEX,
+                            new IndexResponse(new ShardId("my_index", "_na_", 0), id, 1, 1, 1, true)
+                        );
+                    }
+                    listener.onResponse(new BulkResponse(responses, 1));
+                }
+            };
+            ChunkedContentStream stream = new ChunkedContentStream(content);
+            RestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk")
+                .withContentStream(stream, XContentType.JSON)
+                .withMethod(RestRequest.Method.POST)
+                .build();
+            FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(Settings.builder().put(RestBulkAction.STREAMING_BATCH_SIZE_SETTING.getKey(), "1kb").build()).handleRequest(
+                request,
+                channel,
+                verifyingClient
+            );
+            stream.deliverRequestedChunks();
+
+            assertThat(channel.responses().get(), equalTo(1));
+            assertThat(batchSizes.size(), greaterThan(1));
+            assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum(), equalTo(items));
+            assertThat(indexedIds, equalTo(IntStream.range(0, items).mapToObj(Integer::toString).toList()));
+            assertThat(stream.released.get(), equalTo(stream.delivered));
+        }
+    }
+
+    public void testStreamedBulkWithItemsSpanningManyChunks() throws Exception {
+        StringBuilder body = new StringBuilder();
+        List<String> values = new ArrayList<>();
+        int items = between(2, 5);
+        for (int i = 0; i < items; i++) {
+            // much larger than a chunk so most chunks don't contain a line separator
+            String value = randomAlphaOfLength(between(10_000, 50_000));
+            values.add(value);
+            body.append("{\"index\":{\"_id\":\"").append(i).append("\"}}\n");
+            body.append("{\"field\":\"").append(value).append("\"}\n");
+        }
+        BytesArray content = new BytesArray(body.toString());
+        List<String> indexedValues = new ArrayList<>();
+        try (var threadPool = createThreadPool()) {
+            final var verifyingClient = new NoOpNodeClient(threadPool) {
+                @Override
+                public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                    BulkItemResponse[] responses = new BulkItemResponse[request.numberOfActions()];
+                    for (int i = 0; i < responses.length; i++) {
+                        IndexRequest indexRequest = (IndexRequest) request.requests().get(i);
+                        indexedValues.add((String) indexRequest.sourceAsMap().get("field"));
+                        responses[i] = BulkItemResponse.success(
+                            i,
+                            DocWriteRequest.OpType.INDEX,
+                            new IndexResponse(new ShardId("my_index", "_na_", 0), indexRequest.id(), 1, 1, 1, true)
+                        );
+                    }
+                    listener.onResponse(new BulkResponse(responses, 1));
+                }
+            };
+            ChunkedContentStream stream = new ChunkedContentStream(content);
+            RestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk")
+                .withContentStream(stream, XContentType.JSON)
+                .withMethod(RestRequest.Method.POST)
+                .build();
+            FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(Settings.EMPTY).handleRequest(request, channel, verifyingClient);
+            stream.deliverRequestedChunks();
+
+            assertThat(channel.responses().get(), equalTo(1));
+            assertThat(indexedValues, equalTo(values));
+            assertThat(stream.released.get(), equalTo(stream.delivered));
+        }
+    }
+
+    /**
+     * Hands out {@code content} in random chunks, one per call to {@link #next()}, and counts how many of them were released.
+     */
+    private static class ChunkedContentStream implements HttpContentStream {
+        private final BytesReference content;
+        private final AtomicInteger released = new AtomicInteger();
+        private Handler handler;
+        private int offset;
+        private int delivered;
+        private boolean requested;
+
+        ChunkedContentStream(BytesReference content) {
+            this.content = content;
+        }
+
+        @Override
+        public void setHandler(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void next() {
+            assertFalse("asked for more than one chunk at a time", requested);
+            requested = true;
+        }
+
+        /**
+         * Deliver chunks for as long as the handler asks for them. Not delivering from {@link #next()} directly keeps the stack flat.
+         */
+        void deliverRequestedChunks() {
+            while (requested) {
+                requested = false;
+                int length = Math.min(content.length() - offset, between(1, 512));
+                BytesReference chunk = content.slice(offset, length);
+                offset += length;
+                delivered++;
+                handler.onNext(new ReleasableBytesReference(chunk, released::incrementAndGet), offset == content.length());
+            }
+        }
+    }
 }
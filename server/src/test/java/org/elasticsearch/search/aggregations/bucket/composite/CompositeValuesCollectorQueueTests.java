@@ -47,7 +47,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.elasticsearch.index.mapper.NumberFieldMapper.NumberType.DOUBLE;
 import static org.elasticsearch.index.mapper.NumberFieldMapper.NumberType.LONG;
@@ -153,6 +155,77 @@ public class CompositeValuesCollectorQueueTests extends AggregatorTestCase {
         testRandomCase(types);
     }
 
+    public void testRunsOfSameKey() throws IOException {
+        MappedFieldType fieldType = createNumber("0", LONG);
+        Map<Long, Long> expectedDocCounts = new TreeMap<>();
+        try (Directory directory = newDirectory()) {
+            IndexWriterConfig writerConfig = newIndexWriterConfig().setIndexSort(
+                new Sort(new SortedNumericSortField(fieldType.name(), SortField.Type.LONG))
+            );
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory, writerConfig)) {
+                int numDocs = randomIntBetween(50, 500);
+                for (int i = 0; i < numDocs; i++) {
+                    long value = randomLongBetween(0, 20);
+                    expectedDocCounts.merge(value, 1L, Long::sum);
+                    Document document = new Document();
+                    document.add(new SortedNumericDocValuesField(fieldType.name(), value));
+                    indexWriter.addDocument(document);
+                }
+                if (randomBoolean()) {
+                    indexWriter.forceMerge(1);
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                int size = randomIntBetween(1, expectedDocCounts.size());
+                LongValuesSource source = new LongValuesSource(
+                    BigArrays.NON_RECYCLING_INSTANCE,
+                    fieldType,
+                    context -> DocValues.getSortedNumeric(context.reader(), fieldType.name()),
+                    value -> value,
+                    DocValueFormat.RAW,
+                    false,
+                    MissingOrder.DEFAULT,
+                    size,
+                    1
+                );
+                try (
+                    CompositeValuesCollectorQueue queue = new CompositeValuesCollectorQueue(
+                        BigArrays.NON_RECYCLING_INSTANCE,
+                        new SingleDimensionValuesSource<?>[] { source },
+                        size,
+                        indexReader
+                    )
+                ) {
+                    for (LeafReaderContext leafReaderContext : reader.leaves()) {
+                        LeafBucketCollector queueCollector = queue.getLeafCollector(leafReaderContext, new LeafBucketCollector() {
+                            @Override
+                            public void collect(int doc, long bucket) throws IOException {
+                                queue.addIfCompetitive(1);
+                            }
+                        });
+                        for (int i = 0; i < leafReaderContext.reader().maxDoc(); i++) {
+                            queueCollector.collect(i);
+                        }
+                    }
+                    // the runs of each key are counted in the slot of the key
+                    Map<Long, Long> docCounts = new TreeMap<>();
+                    while (queue.size() > 0) {
+                        int slot = queue.pop();
+                        docCounts.put((Long) queue.toCompositeKey(slot).get(0), queue.getDocCount(slot));
+                    }
+                    Map<Long, Long> expected = new TreeMap<>();
+                    for (Map.Entry<Long, Long> entry : expectedDocCounts.entrySet()) {
+                        if (expected.size() < size) {
+                            expected.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    assertThat(docCounts, equalTo(expected));
+                }
+                source.close();
+            }
+        }
+    }
+
     private void testRandomCase(ClassAndName... types) throws IOException {
         for (int i = 0; i < types.length; i++) {
             testRandomCase(true, true, i, types);
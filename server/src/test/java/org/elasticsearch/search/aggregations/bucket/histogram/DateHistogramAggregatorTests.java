@@ -21,9 +21,11 @@ import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateFormatters;
 import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.mapper.BooleanFieldMapper;
 import org.elasticsearch.index.mapper.CustomTermFreqField;
 import org.elasticsearch.index.mapper.DateFieldMapper;
@@ -40,6 +42,7 @@ import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator.PipelineTree;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.SegmentCountCache;
 import org.elasticsearch.test.InternalAggregationTestCase;
 import org.hamcrest.Matcher;
 
@@ -49,6 +52,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -69,6 +76,8 @@ public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCas
      */
     private static final String SEARCHABLE_DATE = "searchable_date";
 
+    private SegmentCountCache segmentCountCache;
+
     private static final List<String> DATASET = Arrays.asList(
         "2010-03-12T01:07:45",
         "2010-04-27T03:43:34",
@@ -1082,6 +1091,78 @@ public class DateHistogramAggregatorTests extends DateHistogramAggregatorTestCas
         }
     }
 
+    /**
+     * Run a sliding range twice with a {@link SegmentCountCache} and make
+     * sure the results match the ones we get without the cache and that the
+     * second run reuses the counts of the buckets inside both ranges.
+     */
+    public void testSegmentCountCache() throws IOException {
+        long start = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseMillis("2020-01-01T00:00:00");
+        long hour = TimeUnit.HOURS.toMillis(1);
+        DateFieldMapper.DateFieldType ft = new DateFieldMapper.DateFieldType("f");
+        AggregationBuilder builder = new DateHistogramAggregationBuilder("d").field("f").fixedInterval(DateHistogramInterval.HOUR);
+
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter iw = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < 1000; i++) {
+                    long date = start + randomLongBetween(0, 48 * hour);
+                    iw.addDocument(
+                        List.of(new LongPoint("f", date), new SortedNumericDocValuesField("f", date), new LongPoint("n", i % 3))
+                    );
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                Map<Object, Long> cached = new ConcurrentHashMap<>();
+                AtomicInteger hits = new AtomicInteger();
+                long shift = randomLongBetween(1, 6 * hour);
+                for (long from : new long[] { start + hour / 2, start + hour / 2 + shift }) {
+                    Query query = new BooleanQuery.Builder().add(
+                        LongPoint.newRangeQuery("f", from, from + 24 * hour),
+                        BooleanClause.Occur.FILTER
+                    ).add(LongPoint.newExactQuery("n", 0), BooleanClause.Occur.FILTER).build();
+                    AggTestConfig config = new AggTestConfig(builder, ft).withQuery(query);
+
+                    segmentCountCache = null;
+                    Map<String, Long> expected = bucketCounts(searchAndReduce(reader, config));
+
+                    segmentCountCache = new SegmentCountCache() {
+                        @Override
+                        public Long get(IndexReader.CacheHelper segmentCacheHelper, Accountable key) {
+                            Long count = cached.get(Tuple.tuple(segmentCacheHelper.getKey(), key));
+                            if (count != null) {
+                                hits.incrementAndGet();
+                            }
+                            return count;
+                        }
+
+                        @Override
+                        public void put(IndexReader.CacheHelper segmentCacheHelper, Accountable key, long count) {
+                            cached.put(Tuple.tuple(segmentCacheHelper.getKey(), key), count);
+                        }
+                    };
+                    assertMap(bucketCounts(searchAndReduce(reader, config)), matchesMap(expected));
+                }
+                assertThat(cached.size(), greaterThan(0));
+                assertThat(hits.get(), greaterThan(0));
+            } finally {
+                segmentCountCache = null;
+            }
+        }
+    }
+
+    private static Map<String, Long> bucketCounts(InternalDateHistogram histogram) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (InternalDateHistogram.Bucket bucket : histogram.getBuckets()) {
+            counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+        }
+        return counts;
+    }
+
+    @Override
+    protected SegmentCountCache segmentCountCache() {
+        return segmentCountCache;
+    }
+
     public void testIllegalInterval() throws IOException {
         IllegalArgumentException e = expectThrows(
             IllegalArgumentException.class,
@@ -0,0 +1,223 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalOrder;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DocCountTermsReducerTests extends ESTestCase {
+
+    public void testOrder() {
+        assertThat(DocCountTermsReducer.Order.of(BucketOrder.key(randomBoolean())), notNullValue());
+        assertThat(DocCountTermsReducer.Order.of(BucketOrder.compound(BucketOrder.count(false), BucketOrder.key(true))), notNullValue());
+        // ties on the count are broken arbitrarily
+        assertThat(DocCountTermsReducer.Order.of(BucketOrder.count(randomBoolean())), nullValue());
+        assertThat(DocCountTermsReducer.Order.of(BucketOrder.aggregation("avg", randomBoolean())), nullValue());
+        assertThat(
+            DocCountTermsReducer.Order.of(BucketOrder.compound(BucketOrder.aggregation("avg", true), BucketOrder.key(true))),
+            nullValue()
+        );
+    }
+
+    public void testTop() {
+        List<List<LongTerms.Bucket>> bucketLists = List.of(
+            List.of(bucket(1, 5), bucket(2, 1), bucket(4, 3)),
+            List.of(bucket(2, 6), bucket(3, 2), bucket(4, 1))
+        );
+        try (
+            DocCountTermsReducer<LongTerms.Bucket> reducer = new DocCountTermsReducer<>(
+                BigArrays.NON_RECYCLING_INSTANCE,
+                bucketLists,
+                new long[2],
+                BucketOrder.key(true).comparator()
+            )
+        ) {
+            DocCountTermsReducer.Order order = DocCountTermsReducer.Order.of(
+                BucketOrder.compound(BucketOrder.count(false), BucketOrder.key(true))
+            );
+            List<LongTerms.Bucket> top = reducer.top(order, 2, 1, (prototype, docCount, docCountError) -> bucket(prototype.term, docCount));
+            assertThat(top, equalTo(List.of(bucket(2, 7), bucket(1, 5))));
+            assertThat(reducer.nonCompetitiveDocCount(), equalTo(6L));
+        }
+    }
+
+    public void testSameAsBucketReduceLongTerms() {
+        assertSameAsBucketReduce(false);
+    }
+
+    public void testSameAsBucketReduceStringTerms() {
+        assertSameAsBucketReduce(true);
+    }
+
+    private void assertSameAsBucketReduce(boolean stringTerms) {
+        boolean showDocCountError = randomBoolean();
+        boolean keyAsc = randomBoolean();
+        BucketOrder order = randomFrom(
+            BucketOrder.key(randomBoolean()),
+            BucketOrder.compound(BucketOrder.count(randomBoolean()), BucketOrder.key(randomBoolean()))
+        );
+        int requiredSize = between(1, 20);
+        long minDocCount = randomFrom(0L, 1L, randomLongBetween(1, 50));
+        // the first result leads the reduction so it can't be unmapped
+        List<ShardTerms> shards = new ArrayList<>();
+        shards.add(randomShardTerms(showDocCountError, false));
+        shards.addAll(randomList(0, 4, () -> randomShardTerms(showDocCountError, rarely())));
+
+        for (boolean isFinal : new boolean[] { false, true }) {
+            AtomicInteger bucketReduceBuckets = new AtomicInteger();
+            AtomicInteger docCountReduceBuckets = new AtomicInteger();
+            List<InternalAggregation> inputs = build(shards, stringTerms, keyAsc, order, requiredSize, minDocCount, showDocCountError);
+            InternalAggregation expected = ((AbstractInternalTerms<?, ?>) inputs.get(0)).reduceWithBuckets(
+                inputs,
+                reduceContext(isFinal, bucketReduceBuckets)
+            );
+            inputs = build(shards, stringTerms, keyAsc, order, requiredSize, minDocCount, showDocCountError);
+            InternalAggregation actual = ((AbstractInternalTerms<?, ?>) inputs.get(0)).doReduce(
+                inputs,
+                reduceContext(isFinal, docCountReduceBuckets)
+            );
+            assertThat(actual, equalTo(expected));
+            assertThat(docCountReduceBuckets.get(), equalTo(bucketReduceBuckets.get()));
+        }
+    }
+
+    private static AggregationReduceContext reduceContext(boolean isFinal, AtomicInteger buckets) {
+        if (isFinal) {
+            return new AggregationReduceContext.ForFinal(BigArrays.NON_RECYCLING_INSTANCE, null, () -> false, null, buckets::addAndGet);
+        }
+        return new AggregationReduceContext.ForPartial(
+            BigArrays.NON_RECYCLING_INSTANCE,
+            null,
+            () -> false,
+            new TermsAggregationBuilder("t")
+        );
+    }
+
+    /**
+     * The shard results are built from a spec because the bucket reduce modifies its inputs.
+     */
+    private record ShardTerms(boolean unmapped, Map<Long, long[]> buckets, long docCountError, long otherDocCount) {}
+
+    private static ShardTerms randomShardTerms(boolean showDocCountError, boolean unmapped) {
+        Map<Long, long[]> buckets = new TreeMap<>();
+        int numBuckets = between(0, 30);
+        for (int i = 0; i < numBuckets; i++) {
+            long docCountError = showDocCountError ? randomLongBetween(0, 5) : -1;
+            buckets.put(randomLongBetween(0, 50), new long[] { randomLongBetween(1, 100), docCountError });
+        }
+        return new ShardTerms(unmapped, unmapped ? Map.of() : buckets, randomLongBetween(0, 3), randomLongBetween(0, 100));
+    }
+
+    private static List<InternalAggregation> build(
+        List<ShardTerms> shards,
+        boolean stringTerms,
+        boolean keyAsc,
+        BucketOrder order,
+        int requiredSize,
+        long minDocCount,
+        boolean showDocCountError
+    ) {
+        BucketOrder reduceOrder = InternalOrder.key(keyAsc);
+        List<InternalAggregation> result = new ArrayList<>(shards.size());
+        for (ShardTerms shard : shards) {
+            if (shard.unmapped) {
+                result.add(new UnmappedTerms("t", order, requiredSize, minDocCount, null));
+                continue;
+            }
+            List<Long> keys = new ArrayList<>(shard.buckets.keySet());
+            if (keyAsc == false) {
+                keys.sort((a, b) -> Long.compare(b, a));
+            }
+            if (stringTerms) {
+                List<StringTerms.Bucket> buckets = new ArrayList<>();
+                for (long key : keys) {
+                    long[] counts = shard.buckets.get(key);
+                    buckets.add(
+                        new StringTerms.Bucket(
+                            stringKey(key),
+                            counts[0],
+                            InternalAggregations.EMPTY,
+                            showDocCountError,
+                            counts[1],
+                            DocValueFormat.RAW
+                        )
+                    );
+                }
+                result.add(
+                    new StringTerms(
+                        "t",
+                        reduceOrder,
+                        order,
+                        requiredSize,
+                        minDocCount,
+                        null,
+                        DocValueFormat.RAW,
+                        requiredSize * 2,
+                        showDocCountError,
+                        shard.otherDocCount,
+                        buckets,
+                        shard.docCountError
+                    )
+                );
+            } else {
+                List<LongTerms.Bucket> buckets = new ArrayList<>();
+                for (long key : keys) {
+                    long[] counts = shard.buckets.get(key);
+                    buckets.add(
+                        new LongTerms.Bucket(key, counts[0], InternalAggregations.EMPTY, showDocCountError, counts[1], DocValueFormat.RAW)
+                    );
+                }
+                result.add(
+                    new LongTerms(
+                        "t",
+                        reduceOrder,
+                        order,
+                        requiredSize,
+                        minDocCount,
+                        null,
+                        DocValueFormat.RAW,
+                        requiredSize * 2,
+                        showDocCountError,
+                        shard.otherDocCount,
+                        buckets,
+                        shard.docCountError
+                    )
+                );
+            }
+        }
+        return result;
+    }
+
+    private static BytesRef stringKey(long key) {
+        // zero padded so that the terms sort like the numbers
+        return new BytesRef(String.format(Locale.ROOT, "%05d", key));
+    }
+
+    private static LongTerms.Bucket bucket(long term, long docCount) {
+        return new LongTerms.Bucket(term, docCount, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW);
+    }
+}
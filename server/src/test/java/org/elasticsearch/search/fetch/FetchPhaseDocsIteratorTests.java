@@ -22,6 +22,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
@@ -132,6 +135,70 @@ public class FetchPhaseDocsIteratorTests extends ESTestCase {
         directory.close();
     }
 
+    public void testConcurrentIteration() throws Exception {
+        int docCount = randomIntBetween(300, 400);
+        Directory directory = newDirectory();
+        RandomIndexWriter writer = new RandomIndexWriter(random(), directory);
+        for (int i = 0; i < docCount; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("field", "foo", Field.Store.NO));
+            writer.addDocument(doc);
+            if (i % 50 == 0) {
+                writer.commit();
+            }
+        }
+        writer.commit();
+        IndexReader reader = writer.getReader();
+        writer.close();
+
+        int[] docs = randomDocIds(docCount - 1);
+        int badDoc = randomBoolean() ? docs[randomInt(docs.length - 1)] : -1;
+        ExecutorService executor = Executors.newFixedThreadPool(between(1, 4));
+        Thread caller = Thread.currentThread();
+        try {
+            IntFunction<FetchPhaseDocsIterator> iterators = ord -> new FetchPhaseDocsIterator() {
+                boolean sawLeaf = false;
+
+                @Override
+                protected void setNextReader(LeafReaderContext ctx, int[] docsInLeaf) {
+                    // every iterator sees a single leaf and is set up on the calling thread
+                    assertSame(caller, Thread.currentThread());
+                    assertFalse(sawLeaf);
+                    assertThat(ctx.ord, equalTo(ord));
+                    sawLeaf = true;
+                }
+
+                @Override
+                protected SearchHit nextDoc(int doc) {
+                    if (doc == badDoc) {
+                        throw new IllegalArgumentException("Error processing doc");
+                    }
+                    return new SearchHit(doc);
+                }
+            };
+            if (badDoc >= 0) {
+                Exception e = expectThrows(
+                    FetchPhaseExecutionException.class,
+                    () -> FetchPhaseDocsIterator.iterateLeavesConcurrently(null, reader, docs, iterators, executor)
+                );
+                assertThat(e.getMessage(), containsString("Error running fetch phase for doc [" + badDoc + "]"));
+                assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+            } else {
+                SearchHit[] hits = FetchPhaseDocsIterator.iterateLeavesConcurrently(null, reader, docs, iterators, executor);
+                assertThat(hits.length, equalTo(docs.length));
+                for (int i = 0; i < hits.length; i++) {
+                    assertThat(hits[i].docId(), equalTo(docs[i]));
+                    hits[i].decRef();
+                }
+            }
+        } finally {
+            terminate(executor);
+        }
+
+        reader.close();
+        directory.close();
+    }
+
     private static int[] randomDocIds(int maxDoc) {
         List<Integer> integers = new ArrayList<>();
         int v = 0;
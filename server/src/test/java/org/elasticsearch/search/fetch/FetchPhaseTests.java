@@ -0,0 +1,107 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.fetch.subphase.FetchDocValuesContext;
+import org.elasticsearch.search.fetch.subphase.FetchDocValuesPhase;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.FetchSourcePhase;
+import org.elasticsearch.search.fetch.subphase.FieldAndFormat;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class FetchPhaseTests extends ESSingleNodeTestCase {
+
+    public void testFetchSegmentsConcurrently() throws Exception {
+        // merges are disabled so every refresh leaves its own segment
+        IndexService indexService = createIndex(
+            "index",
+            Settings.builder().put("index.number_of_shards", 1).put(MergePolicyConfig.INDEX_MERGE_ENABLED, false).build(),
+            null,
+            "field",
+            "keyword"
+        );
+        int numDocs = FetchPhase.MIN_DOCS_TO_FETCH_CONCURRENTLY + randomIntBetween(0, 200);
+        for (int i = 0; i < numDocs; i++) {
+            prepareIndex("index").setId(Integer.toString(i)).setSource("field", "value" + i).get();
+            if (i % 50 == 49) {
+                indicesAdmin().prepareRefresh("index").get();
+            }
+        }
+        indicesAdmin().prepareRefresh("index").get();
+
+        IndexShard indexShard = indexService.getShard(0);
+        ShardSearchRequest request = new ShardSearchRequest(
+            OriginalIndices.NONE,
+            new SearchRequest().allowPartialSearchResults(true),
+            indexShard.shardId(),
+            0,
+            1,
+            AliasFilter.EMPTY,
+            1.0f,
+            -1,
+            null
+        );
+        Executor workers = indexService.getThreadPool().executor(ThreadPool.Names.SEARCH_WORKER);
+        AtomicInteger forked = new AtomicInteger();
+        Executor executor = r -> {
+            forked.incrementAndGet();
+            workers.execute(r);
+        };
+        FetchPhase fetchPhase = new FetchPhase(List.of(new FetchSourcePhase(), new FetchDocValuesPhase()));
+        SearchService service = getInstanceFromNode(SearchService.class);
+        try (SearchContext context = service.createSearchContext(request, TimeValue.timeValueMinutes(1))) {
+            assertThat(context.searcher().getIndexReader().leaves().size(), greaterThan(1));
+            context.fetchSourceContext(FetchSourceContext.FETCH_SOURCE);
+            context.docValuesContext(
+                new FetchDocValuesContext(context.getSearchExecutionContext(), List.of(new FieldAndFormat("field", null)))
+            );
+
+            // there are no deletes so the doc ids are 0 to numDocs - 1
+            List<Integer> shuffled = IntStream.range(0, numDocs).boxed().collect(Collectors.toList());
+            Collections.shuffle(shuffled, random());
+            int[] docIds = shuffled.stream().mapToInt(Integer::intValue).toArray();
+            fetchPhase.execute(context, docIds, executor);
+
+            assertThat("the fetch should have forked segments", forked.get(), greaterThan(0));
+            SearchHits hits = context.fetchResult().hits();
+            assertThat(hits.getHits().length, equalTo(numDocs));
+            for (int i = 0; i < numDocs; i++) {
+                SearchHit hit = hits.getAt(i);
+                assertThat(hit.docId(), equalTo(docIds[i]));
+                String expected = "value" + hit.getId();
+                assertThat(hit.getSourceAsMap().get("field"), equalTo(expected));
+                assertThat(hit.field("field").getValue(), equalTo(expected));
+            }
+        }
+    }
+}
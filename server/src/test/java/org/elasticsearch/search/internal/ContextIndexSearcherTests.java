@@ -75,9 +75,11 @@ import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
@@ -260,6 +262,95 @@ public class ContextIndexSearcherTests extends ESTestCase {
         }
     }
 
+    /**
+     * Test that cost based slicing collects each matching document exactly once, including when leaves are split by doc-id range
+     */
+    public void testCostBasedSlicing() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(randomIntBetween(2, 5));
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter iw = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                // one large segment and a few small ones
+                for (int segment = 0; segment < 4; segment++) {
+                    final int numDocs = segment == 0 ? randomIntBetween(2000, 5000) : randomIntBetween(1, 100);
+                    for (int i = 0; i < numDocs; i++) {
+                        Document document = new Document();
+                        document.add(new StringField("field", randomBoolean() ? "value" : "other", Field.Store.NO));
+                        iw.addDocument(document);
+                    }
+                    iw.commit();
+                }
+                if (randomBoolean()) {
+                    iw.deleteDocuments(new Term("field", "other"));
+                    iw.commit();
+                }
+            }
+            try (DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+                ContextIndexSearcher searcher = new ContextIndexSearcher(
+                    directoryReader,
+                    IndexSearcher.getDefaultSimilarity(),
+                    IndexSearcher.getDefaultQueryCache(),
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    randomBoolean(),
+                    executor,
+                    randomIntBetween(2, 16),
+                    randomIntBetween(1, 500)
+                );
+                searcher.setCostBasedSlicing(true, true);
+                IndexSearcher reference = newSearcher(directoryReader);
+                for (Query query : List.of(new MatchAllDocsQuery(), new TermQuery(new Term("field", "value")))) {
+                    Set<Integer> collected = searcher.search(query, new DocIdsCollectorManager());
+                    assertEquals(reference.count(query), collected.size());
+                    assertEquals(reference.count(query), searcher.count(query));
+                }
+            }
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    /**
+     * Collects the global doc ids of the matching documents and checks that no document is collected twice.
+     */
+    private static class DocIdsCollectorManager implements CollectorManager<DocIdsCollector, Set<Integer>> {
+        @Override
+        public DocIdsCollector newCollector() {
+            return new DocIdsCollector();
+        }
+
+        @Override
+        public Set<Integer> reduce(Collection<DocIdsCollector> collectors) {
+            Set<Integer> docs = new HashSet<>();
+            for (DocIdsCollector collector : collectors) {
+                for (int doc : collector.docs) {
+                    assertTrue("doc [" + doc + "] was collected twice", docs.add(doc));
+                }
+            }
+            return docs;
+        }
+    }
+
+    private static class DocIdsCollector implements Collector {
+        private final List<Integer> docs = new ArrayList<>();
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) {
+            return new LeafCollector() {
+                @Override
+                public void setScorer(Scorable scorer) {}
+
+                @Override
+                public void collect(int doc) {
+                    docs.add(context.docBase + doc);
+                }
+            };
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+
     public void testContextIndexSearcherSparseNoDeletions() throws IOException {
         doTestContextIndexSearcher(true, false);
     }
@@ -0,0 +1,171 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.search.internal.CostBasedSlicer.LeafPartition;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class CostBasedSlicerTests extends ESTestCase {
+
+    public void testBalancesByCost() throws IOException {
+        // four leaves of the same size where only the first one matches
+        try (Directory dir = newDirectory(); DirectoryReader reader = indexSegments(dir, 1000, 1000, 1000, 1000)) {
+            List<LeafReaderContext> leaves = reader.leaves();
+            long[] costs = new long[] { 1000, 0, 0, 0 };
+            List<List<LeafPartition>> slices = CostBasedSlicer.computeSlices(leaves, costs, 4, 100, true);
+            assertThat(slices.size(), equalTo(4));
+            // the expensive leaf is split over all slices
+            for (List<LeafPartition> slice : slices) {
+                assertEquals(1, slice.stream().filter(p -> p.ctx() == leaves.get(0)).count());
+            }
+            assertPartitions(leaves, slices);
+
+            // without partitioning the expensive leaf gets a slice of its own
+            slices = CostBasedSlicer.computeSlices(leaves, costs, 4, 100, false);
+            assertPartitions(leaves, slices);
+            assertTrue(slices.stream().flatMap(List::stream).allMatch(LeafPartition::isWholeLeaf));
+            assertThat(slices.size(), equalTo(4));
+            assertTrue(slices.stream().allMatch(slice -> slice.size() == 1));
+        }
+    }
+
+    public void testSplitsLargeLeaf() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = indexSegments(dir, 10_000, 10, 10)) {
+            List<LeafReaderContext> leaves = reader.leaves();
+            long[] costs = new long[] { 10_000, 10, 10 };
+            int maxSliceNum = randomIntBetween(2, 10);
+            List<List<LeafPartition>> slices = CostBasedSlicer.computeSlices(leaves, costs, maxSliceNum, 1, true);
+            assertThat(slices.size(), equalTo(maxSliceNum));
+            assertPartitions(leaves, slices);
+            for (List<LeafPartition> slice : slices) {
+                int docs = slice.stream().mapToInt(p -> p.maxDoc() - p.minDoc()).sum();
+                assertThat(docs, lessThanOrEqualTo(10_000 / maxSliceNum + 20));
+            }
+        }
+    }
+
+    public void testRespectsMinDocsPerSlice() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = indexSegments(dir, 1000, 10)) {
+            List<LeafReaderContext> leaves = reader.leaves();
+            long[] costs = new long[] { 1000, 10 };
+            int minDocsPerSlice = randomIntBetween(1, 2000);
+            List<List<LeafPartition>> slices = CostBasedSlicer.computeSlices(leaves, costs, 16, minDocsPerSlice, true);
+            assertPartitions(leaves, slices);
+            // no more than 10 slices, as with doc count slicing
+            assertThat(slices.size(), lessThanOrEqualTo(10));
+            assertThat(slices.size(), lessThanOrEqualTo(Math.max(1, 1010 / minDocsPerSlice)));
+            for (List<LeafPartition> slice : slices) {
+                for (LeafPartition partition : slice) {
+                    if (partition.isWholeLeaf() == false) {
+                        assertThat(partition.maxDoc() - partition.minDoc(), greaterThanOrEqualTo(minDocsPerSlice));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testSingleSlice() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = indexSegments(dir, 100, 200, 300)) {
+            List<LeafReaderContext> leaves = reader.leaves();
+            List<List<LeafPartition>> slices = CostBasedSlicer.computeSlices(leaves, new long[] { 100, 200, 300 }, 1, 1, randomBoolean());
+            assertThat(slices.size(), equalTo(1));
+            assertThat(slices.get(0).size(), equalTo(3));
+            assertTrue(slices.get(0).stream().allMatch(LeafPartition::isWholeLeaf));
+        }
+        assertThat(CostBasedSlicer.computeSlices(List.of(), new long[0], randomIntBetween(1, 16), 1, randomBoolean()), equalTo(List.of()));
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> CostBasedSlicer.computeSlices(List.of(), new long[0], 0, 1, randomBoolean())
+        );
+        assertThat(e.getMessage(), equalTo("maxSliceNum must be >= 1 (got 0)"));
+    }
+
+    public void testEstimateCosts() throws IOException {
+        try (Directory dir = newDirectory(); DirectoryReader reader = indexSegments(dir, 100, 50)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            searcher.setQueryCache(null);
+            Weight weight = searcher.createWeight(new TermQuery(new Term("field", "even")), ScoreMode.COMPLETE_NO_SCORES, 1);
+            long[] costs = CostBasedSlicer.estimateCosts(reader.leaves(), weight);
+            assertThat(costs.length, equalTo(2));
+            assertThat(costs[0], equalTo(50L));
+            assertThat(costs[1], equalTo(25L));
+
+            weight = searcher.createWeight(new TermQuery(new Term("field", "missing")), ScoreMode.COMPLETE_NO_SCORES, 1);
+            costs = CostBasedSlicer.estimateCosts(reader.leaves(), weight);
+            assertThat(costs[0], equalTo(0L));
+            assertThat(costs[1], equalTo(0L));
+        }
+    }
+
+    /**
+     * Checks that the partitions of each leaf are in different slices and cover all of its documents exactly once.
+     */
+    private static void assertPartitions(List<LeafReaderContext> leaves, List<List<LeafPartition>> slices) {
+        for (LeafReaderContext ctx : leaves) {
+            List<LeafPartition> partitions = new ArrayList<>();
+            for (List<LeafPartition> slice : slices) {
+                assertThat(slice.size(), greaterThan(0));
+                Set<LeafReaderContext> seen = new HashSet<>();
+                for (LeafPartition partition : slice) {
+                    assertTrue("partitions of the same leaf in a slice", seen.add(partition.ctx()));
+                    if (partition.ctx() == ctx) {
+                        partitions.add(partition);
+                    }
+                }
+            }
+            partitions.sort((a, b) -> Integer.compare(a.minDoc(), b.minDoc()));
+            int next = 0;
+            for (LeafPartition partition : partitions) {
+                assertThat(partition.minDoc(), equalTo(next));
+                assertThat(partition.maxDoc(), greaterThan(partition.minDoc()));
+                next = partition.maxDoc();
+            }
+            assertThat(next, equalTo(ctx.reader().maxDoc()));
+        }
+    }
+
+    private static DirectoryReader indexSegments(Directory dir, int... numDocsPerSegment) throws IOException {
+        try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            for (int numDocs : numDocsPerSegment) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new StringField("field", i % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                    writer.addDocument(doc);
+                }
+                writer.commit();
+            }
+        }
+        return DirectoryReader.open(dir);
+    }
+}
@@ -191,6 +191,45 @@ abstract class AbstractKnnVectorQueryBuilderTestCase extends AbstractQueryTestCa
         assertThat(rewrittenQuery, instanceOf(MatchNoneQueryBuilder.class));
     }
 
+    public void testOversample() throws IOException {
+        SearchExecutionContext context = createSearchExecutionContext();
+        float[] queryVector = new float[] { 1.0f, 2.0f, 3.0f };
+        KnnVectorQueryBuilder query = new KnnVectorQueryBuilder(VECTOR_FIELD, queryVector, 10, null).oversample(2.5f);
+        switch (elementType()) {
+            case FLOAT -> {
+                Query luceneQuery = query.doToQuery(context);
+                assertThat(luceneQuery, instanceOf(RescoreKnnVectorQuery.class));
+                RescoreKnnVectorQuery rescoreQuery = (RescoreKnnVectorQuery) luceneQuery;
+                assertThat(rescoreQuery.k(), equalTo(10));
+                assertThat(rescoreQuery.innerQuery(), equalTo(new ESKnnFloatVectorQuery(VECTOR_FIELD, queryVector, 25, null)));
+            }
+            case BYTE -> {
+                IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> query.doToQuery(context));
+                assertThat(e.getMessage(), containsString("[oversample] is only supported on fields with [float] elements"));
+            }
+        }
+
+        float tooLow = (float) randomDoubleBetween(0, 0.99, true);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> query.oversample(tooLow));
+        assertThat(e.getMessage(), equalTo("[oversample] must be greater than or equal to [1.0]"));
+    }
+
+    public void testSerializationOversample() throws IOException {
+        KnnVectorQueryBuilder query = createTestQueryBuilder().oversample((float) randomDoubleBetween(1, 10, true));
+        assertSerialization(query);
+
+        TransportVersion beforeOversample = TransportVersionUtils.randomVersionBetween(
+            random(),
+            TransportVersions.V_8_12_0,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.KNN_OVERSAMPLE_ADDED)
+        );
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            output.setTransportVersion(beforeOversample);
+            IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> output.writeNamedWriteable(query));
+            assertThat(e.getMessage(), containsString("cannot serialize [oversample] to older node"));
+        }
+    }
+
     public void testBWCVersionSerializationFilters() throws IOException {
         KnnVectorQueryBuilder query = createTestQueryBuilder();
         KnnVectorQueryBuilder queryNoFilters = new KnnVectorQueryBuilder(query.getFieldName(), query.queryVector(), query.numCands(), null)
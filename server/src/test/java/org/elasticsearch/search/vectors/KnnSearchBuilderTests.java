@@ -56,6 +56,9 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
         if (randomBoolean()) {
             builder.boost(randomFloat());
         }
+        if (randomBoolean()) {
+            builder.oversample((float) randomDoubleBetween(1, 10, true));
+        }
 
         int numFilters = randomIntBetween(0, 3);
         for (int i = 0; i < numFilters; i++) {
@@ -99,7 +102,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
 
     @Override
     protected KnnSearchBuilder mutateInstance(KnnSearchBuilder instance) {
-        switch (random().nextInt(7)) {
+        switch (random().nextInt(8)) {
             case 0:
                 String newField = randomValueOtherThan(instance.field, () -> randomAlphaOfLength(5));
                 return new KnnSearchBuilder(newField, instance.queryVector, instance.k, instance.numCands, instance.similarity).boost(
@@ -139,6 +142,11 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
                     instance.numCands,
                     randomValueOtherThan(instance.similarity, ESTestCase::randomFloat)
                 ).addFilterQueries(instance.filterQueries).boost(instance.boost);
+            case 7:
+                return new KnnSearchBuilder(instance.field, instance.queryVector, instance.k, instance.numCands, instance.similarity)
+                    .addFilterQueries(instance.filterQueries)
+                    .boost(instance.boost)
+                    .oversample(randomValueOtherThan(instance.oversample, () -> (float) randomDoubleBetween(1, 10, true)));
             default:
                 throw new IllegalStateException();
         }
@@ -158,6 +166,9 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
             builder.boost(boost);
         }
 
+        Float oversample = randomBoolean() ? null : (float) randomDoubleBetween(1, 10, true);
+        builder.oversample(oversample);
+
         int numFilters = random().nextInt(3);
         List<QueryBuilder> filterQueries = new ArrayList<>();
         for (int i = 0; i < numFilters; i++) {
@@ -166,7 +177,9 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
             builder.addFilterQuery(filter);
         }
 
-        QueryBuilder expected = new KnnVectorQueryBuilder(field, vector, numCands, similarity).addFilterQueries(filterQueries).boost(boost);
+        QueryBuilder expected = new KnnVectorQueryBuilder(field, vector, numCands, similarity).addFilterQueries(filterQueries)
+            .boost(boost)
+            .oversample(oversample);
         assertEquals(expected, builder.toQueryBuilder());
     }
 
@@ -204,6 +217,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
             1f
         );
         searchBuilder.boost(randomFloat());
+        searchBuilder.oversample(2f);
         searchBuilder.addFilterQueries(List.of(new RewriteableQuery()));
 
         QueryRewriteContext context = new QueryRewriteContext(null, null, null);
@@ -217,6 +231,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
         assertThat(rewritten.queryVectorBuilder, nullValue());
         assertThat(rewritten.filterQueries, hasSize(1));
         assertThat(rewritten.similarity, equalTo(1f));
+        assertThat(rewritten.oversample, equalTo(2f));
         assertThat(((RewriteableQuery) rewritten.filterQueries.get(0)).rewrites, equalTo(1));
     }
 
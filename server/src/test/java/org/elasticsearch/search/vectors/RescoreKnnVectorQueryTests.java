@@ -0,0 +1,134 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.vectors;
+
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.codec.vectors.ES813Int8FlatVectorFormat;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class RescoreKnnVectorQueryTests extends ESTestCase {
+
+    private static final String FIELD = "vector";
+
+    public void testRescoresWithFullPrecision() throws IOException {
+        int dims = randomIntBetween(4, 32);
+        int numDocs = randomIntBetween(50, 300);
+        float[][] vectors = new float[numDocs][];
+        VectorSimilarityFunction similarity = VectorSimilarityFunction.EUCLIDEAN;
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig config = new IndexWriterConfig().setCodec(new Lucene99Codec() {
+                @Override
+                public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                    // a brute force quantized format, so that all documents are candidates when asking for as many as there are docs
+                    return new ES813Int8FlatVectorFormat();
+                }
+            });
+            try (IndexWriter writer = new IndexWriter(dir, config)) {
+                for (int i = 0; i < numDocs; i++) {
+                    vectors[i] = randomVector(dims);
+                    Document doc = new Document();
+                    doc.add(new KnnFloatVectorField(FIELD, vectors[i], similarity));
+                    doc.add(new StoredField("id", i));
+                    writer.addDocument(doc);
+                    if (rarely()) {
+                        writer.commit();
+                    }
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                float[] queryVector = randomVector(dims);
+                int k = randomIntBetween(1, 20);
+
+                // exact scores of all the documents
+                ScoreDoc[] expected = new ScoreDoc[numDocs];
+                for (int i = 0; i < numDocs; i++) {
+                    int id = searcher.storedFields().document(i).getField("id").numericValue().intValue();
+                    expected[i] = new ScoreDoc(i, similarity.compare(queryVector, vectors[id]));
+                }
+                Arrays.sort(expected, Comparator.comparing((ScoreDoc scoreDoc) -> -scoreDoc.score).thenComparingInt(sd -> sd.doc));
+
+                Query query = new RescoreKnnVectorQuery(
+                    FIELD,
+                    queryVector,
+                    similarity,
+                    k,
+                    new ESKnnFloatVectorQuery(FIELD, queryVector, numDocs, null),
+                    numDocs
+                );
+                assertThat(searcher.rewrite(query), instanceOf(KnnScoreDocQuery.class));
+                TopDocs topDocs = searcher.search(query, numDocs);
+                assertThat(topDocs.scoreDocs.length, equalTo(k));
+                for (int i = 0; i < k; i++) {
+                    assertThat(topDocs.scoreDocs[i].doc, equalTo(expected[i].doc));
+                    assertThat(topDocs.scoreDocs[i].score, equalTo(expected[i].score));
+                }
+            }
+        }
+    }
+
+    public void testKeepsAtMostTheCandidates() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig())) {
+                for (int i = 0; i < 10; i++) {
+                    Document doc = new Document();
+                    doc.add(new KnnFloatVectorField(FIELD, new float[] { i, 1 }, VectorSimilarityFunction.EUCLIDEAN));
+                    writer.addDocument(doc);
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                float[] queryVector = new float[] { 0, 1 };
+                Query query = new RescoreKnnVectorQuery(
+                    FIELD,
+                    queryVector,
+                    VectorSimilarityFunction.EUCLIDEAN,
+                    5,
+                    new ESKnnFloatVectorQuery(FIELD, queryVector, 3, null),
+                    3
+                );
+                TopDocs topDocs = searcher.search(query, 10);
+                assertThat(topDocs.scoreDocs.length, equalTo(3));
+                for (int i = 0; i < 3; i++) {
+                    assertThat(topDocs.scoreDocs[i].doc, equalTo(i));
+                    assertThat(topDocs.scoreDocs[i].score, equalTo(1f / (1 + i * i)));
+                }
+            }
+        }
+    }
+
+    private static float[] randomVector(int dims) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = randomFloat();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+public class CopyTrackingStreamInputTests extends ESTestCase {
+
+    public void testCountsCopiedBytes() throws IOException {
+        final byte[] first = randomByteArrayOfLength(between(0, 100));
+        final byte[] second = randomByteArrayOfLength(between(0, 100));
+        final byte[] third = randomByteArrayOfLength(between(0, 100));
+        final BytesReference serialized;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeBytesReference(new BytesArray(first));
+            out.writeByteArray(second);
+            out.writeBytesReference(new BytesArray(third));
+            serialized = out.bytes();
+        }
+
+        // a pooled network buffer hands out retained slices
+        try (
+            ReleasableBytesReference buffer = ReleasableBytesReference.wrap(serialized);
+            CopyTrackingStreamInput in = new CopyTrackingStreamInput(buffer.streamInput())
+        ) {
+            assertEquals(new BytesArray(first), in.readBytesReference());
+            assertArrayEquals(second, in.readByteArray());
+            try (ReleasableBytesReference slice = in.readReleasableBytesReference()) {
+                assertEquals(new BytesArray(third), slice);
+            }
+            assertEquals(first.length + second.length, in.getBytesCopied());
+        }
+
+        // other streams copy even when asked for releasable bytes
+        try (CopyTrackingStreamInput in = new CopyTrackingStreamInput(serialized.streamInput())) {
+            in.readBytesReference();
+            in.readByteArray();
+            in.readReleasableBytesReference().close();
+            assertEquals(first.length + second.length + third.length, in.getBytesCopied());
+        }
+    }
+}
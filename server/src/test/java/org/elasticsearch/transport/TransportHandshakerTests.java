@@ -8,7 +8,7 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.TransportVersion;
-import org.elasticsearch.Version;
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeUtils;
@@ -17,6 +17,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.threadpool.TestThreadPool;
 
 import java.io.IOException;
@@ -59,7 +60,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeRequestAndResponse() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -79,7 +80,72 @@ public class TransportHandshakerTests extends ESTestCase {
         handler.handleResponse((TransportHandshaker.HandshakeResponse) responseFuture.actionGet());
 
         assertTrue(versionFuture.isDone());
-        assertEquals(TransportVersion.current(), versionFuture.actionGet());
+        assertEquals(TransportVersion.current(), versionFuture.actionGet().transportVersion());
+        assertEquals(Compression.Scheme.readableZstdDictionaryId(), versionFuture.actionGet().zstdDictionaryId());
+    }
+
+    public void testHandshakeAdvertisesZstdDictionary() throws IOException {
+        final Integer zstdDictionaryId = randomFrom(null, 0, randomInt());
+        TransportHandshaker.HandshakeRequest handshakeRequest = new TransportHandshaker.HandshakeRequest(
+            TransportVersion.current(),
+            zstdDictionaryId
+        );
+        BytesStreamOutput requestBytes = new BytesStreamOutput();
+        handshakeRequest.writeTo(requestBytes);
+        TransportHandshaker.HandshakeRequest readRequest = new TransportHandshaker.HandshakeRequest(requestBytes.bytes().streamInput());
+        assertEquals(zstdDictionaryId, readRequest.getZstdDictionaryId());
+
+        TransportHandshaker.HandshakeResponse response = new TransportHandshaker.HandshakeResponse(
+            TransportVersion.current(),
+            TransportVersion.current(),
+            zstdDictionaryId
+        );
+        BytesStreamOutput responseBytes = new BytesStreamOutput();
+        response.writeTo(responseBytes);
+        StreamInput responseInput = responseBytes.bytes().streamInput();
+        TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = handshakerResponseHandler();
+        assertEquals(zstdDictionaryId, handler.read(responseInput).getZstdDictionaryId());
+        assertEquals(0, responseInput.available());
+    }
+
+    public void testHandshakeDoesNotAdvertiseZstdToOlderNodes() throws IOException {
+        final TransportVersion olderVersion = TransportVersionUtils.randomVersionBetween(
+            random(),
+            TransportVersions.MINIMUM_COMPATIBLE,
+            TransportVersionUtils.getPreviousVersion(TransportHandshaker.ZSTD_VERSION)
+        );
+
+        // an older node only writes its version into the request
+        TransportHandshaker.HandshakeRequest handshakeRequest = new TransportHandshaker.HandshakeRequest(olderVersion, 0);
+        BytesStreamOutput requestBytes = new BytesStreamOutput();
+        handshakeRequest.writeTo(requestBytes);
+        TransportHandshaker.HandshakeRequest readRequest = new TransportHandshaker.HandshakeRequest(requestBytes.bytes().streamInput());
+        assertNull(readRequest.getZstdDictionaryId());
+
+        // and it can't read the dictionary id in the response so it isn't sent
+        final PlainActionFuture<TransportResponse> responseFuture = new PlainActionFuture<>();
+        handshaker.handleHandshake(new TestTransportChannel(responseFuture), 1, requestBytes.bytes().streamInput());
+        TransportHandshaker.HandshakeResponse response = (TransportHandshaker.HandshakeResponse) responseFuture.actionGet();
+        BytesStreamOutput responseBytes = new BytesStreamOutput();
+        response.writeTo(responseBytes);
+        StreamInput responseInput = responseBytes.bytes().streamInput();
+        assertEquals(TransportVersion.current(), TransportVersion.readVersion(responseInput));
+        assertEquals(0, responseInput.available());
+
+        // a response from an older node doesn't advertise zstd
+        BytesStreamOutput olderResponseBytes = new BytesStreamOutput();
+        new TransportHandshaker.HandshakeResponse(TransportVersion.current(), olderVersion, 0).writeTo(olderResponseBytes);
+        StreamInput olderResponseInput = olderResponseBytes.bytes().streamInput();
+        TransportHandshaker.HandshakeResponse olderResponse = handshakerResponseHandler().read(olderResponseInput);
+        assertEquals(olderVersion, olderResponse.getResponseVersion());
+        assertNull(olderResponse.getZstdDictionaryId());
+        assertEquals(0, olderResponseInput.available());
+    }
+
+    private TransportResponseHandler<TransportHandshaker.HandshakeResponse> handshakerResponseHandler() throws IOException {
+        long reqId = randomLongBetween(1, 10);
+        handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), new PlainActionFuture<>());
+        return handshaker.removeHandlerForHandshake(reqId);
     }
 
     public void testHandshakeRequestFutureVersionsCompatibility() throws IOException {
@@ -97,7 +163,8 @@ public class TransportHandshakerTests extends ESTestCase {
         TaskId.EMPTY_TASK_ID.writeTo(lengthCheckingHandshake);
         TaskId.EMPTY_TASK_ID.writeTo(futureHandshake);
         try (BytesStreamOutput internalMessage = new BytesStreamOutput()) {
-            Version.writeVersion(Version.CURRENT, internalMessage);
+            TransportVersion.writeVersion(TransportVersion.current(), internalMessage);
+            internalMessage.writeOptionalInt(Compression.Scheme.readableZstdDictionaryId());
             lengthCheckingHandshake.writeBytesReference(internalMessage.bytes());
             internalMessage.write(new byte[1024]);
             futureHandshake.writeBytesReference(internalMessage.bytes());
@@ -106,7 +173,8 @@ public class TransportHandshakerTests extends ESTestCase {
         // We check that the handshake we serialize for this test equals the actual request.
         // Otherwise, we need to update the test.
         assertEquals(currentHandshakeBytes.bytes().length(), lengthCheckingHandshake.bytes().length());
-        assertEquals(1031, futureHandshakeStream.available());
+        // the 1024 extra bytes take one more byte to write the length of the payload
+        assertEquals(lengthCheckingHandshake.bytes().length() + 1024 + 1, futureHandshakeStream.available());
         final PlainActionFuture<TransportResponse> responseFuture = new PlainActionFuture<>();
         final TestTransportChannel channel = new TestTransportChannel(responseFuture);
         handshaker.handleHandshake(channel, reqId, futureHandshakeStream);
@@ -118,7 +186,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeError() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -135,7 +203,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testSendRequestThrowsException() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         doThrow(new IOException("boom")).when(requestSender)
             .sendRequest(node, channel, reqId, TransportHandshaker.REQUEST_HANDSHAKE_VERSION);
@@ -149,7 +217,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeTimeout() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(100, TimeUnit.MILLISECONDS), versionFuture);
 
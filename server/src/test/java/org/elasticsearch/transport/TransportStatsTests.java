@@ -72,7 +72,7 @@ public class TransportStatsTests extends ESTestCase {
         responseSizeHistogram[3] = 13;
         responseSizeHistogram[5] = 14;
 
-        final var exampleActionStats = new TransportActionStats(7, 8, requestSizeHistogram, 11, 12, responseSizeHistogram);
+        final var exampleActionStats = new TransportActionStats(7, 8, requestSizeHistogram, 6, 11, 12, responseSizeHistogram);
 
         assertEquals(
             Strings.toString(
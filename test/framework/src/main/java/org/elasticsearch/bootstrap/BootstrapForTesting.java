@@ -14,6 +14,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.tests.util.LuceneTestCase;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.compress.ZstdCompressor;
 import org.elasticsearch.common.filesystem.FileSystemNatives;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.network.IfConfig;
@@ -78,6 +79,7 @@ public class BootstrapForTesting {
         );
         try {
             Security.ensureDirectoryExists(javaTmpDir);
+            Security.createNativeLibrariesDirectory(javaTmpDir);
         } catch (Exception e) {
             throw new RuntimeException("unable to create test temp directory", e);
         }
@@ -109,9 +111,10 @@ public class BootstrapForTesting {
         // init mockito
         SecureMockMaker.init();
 
-        // init the privileged operation
+        // init the privileged operation, and load the native zstd library which extracts it to a temporary file first
         try {
             MethodHandles.publicLookup().ensureInitialized(PrivilegedOperations.class);
+            MethodHandles.publicLookup().ensureInitialized(ZstdCompressor.class);
         } catch (IllegalAccessException unexpected) {
             throw new AssertionError(unexpected);
         }
@@ -134,6 +134,7 @@ import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 import org.elasticsearch.search.aggregations.support.SamplingContext;
 import org.elasticsearch.search.aggregations.support.TimeSeriesIndexSearcher;
 import org.elasticsearch.search.aggregations.support.ValuesSourceAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.SegmentCountCache;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.aggregations.support.ValuesSourceType;
 import org.elasticsearch.search.fetch.FetchPhase;
@@ -408,11 +409,20 @@ public abstract class AggregatorTestCase extends ESTestCase {
             () -> false,
             q -> q,
             true,
-            isInSortOrderExecutionRequired
+            isInSortOrderExecutionRequired,
+            segmentCountCache()
         );
         return context;
     }
 
+    /**
+     * The {@link SegmentCountCache} aggregations can use to share counts between requests.
+     * Defaults to {@code null} which disables it. {@code protected} so subclasses can cache.
+     */
+    protected SegmentCountCache segmentCountCache() {
+        return null;
+    }
+
     /**
      * Build a {@link FieldMapper} to create the {@link MappingLookup} used for the aggs.
      * {@code protected} so subclasses can have it.
@@ -14,6 +14,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.LoggingDeprecationHandler;
 import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.http.HttpResponse;
 import org.elasticsearch.rest.ChunkedRestResponseBody;
@@ -56,9 +57,10 @@ public class FakeRestRequest extends RestRequest {
         private final BytesReference content;
         private final Map<String, List<String>> headers;
         private final Exception inboundException;
+        private final HttpContentStream contentStream;
 
         public FakeHttpRequest(Method method, String uri, BytesReference content, Map<String, List<String>> headers) {
-            this(method, uri, content, headers, null);
+            this(method, uri, content, headers, null, null);
         }
 
         private FakeHttpRequest(
@@ -66,13 +68,15 @@ public class FakeRestRequest extends RestRequest {
             String uri,
             BytesReference content,
             Map<String, List<String>> headers,
-            Exception inboundException
+            Exception inboundException,
+            HttpContentStream contentStream
         ) {
             this.method = method;
             this.uri = uri;
             this.content = content == null ? BytesArray.EMPTY : content;
             this.headers = headers;
             this.inboundException = inboundException;
+            this.contentStream = contentStream;
         }
 
         @Override
@@ -90,6 +94,11 @@ public class FakeRestRequest extends RestRequest {
             return content;
         }
 
+        @Override
+        public HttpContentStream contentStream() {
+            return contentStream;
+        }
+
         @Override
         public Map<String, List<String>> getHeaders() {
             return headers;
@@ -109,7 +118,7 @@ public class FakeRestRequest extends RestRequest {
         public HttpRequest removeHeader(String header) {
             final var filteredHeaders = new HashMap<>(headers);
             filteredHeaders.remove(header);
-            return new FakeHttpRequest(method, uri, content, filteredHeaders, inboundException);
+            return new FakeHttpRequest(method, uri, content, filteredHeaders, inboundException, contentStream);
         }
 
         @Override
@@ -204,6 +213,8 @@ public class FakeRestRequest extends RestRequest {
 
         private Exception inboundException;
 
+        private HttpContentStream contentStream;
+
         public Builder(NamedXContentRegistry registry) {
             this.parserConfig = XContentParserConfiguration.EMPTY.withDeprecationHandler(LoggingDeprecationHandler.INSTANCE)
                 .withRegistry(registry);
@@ -227,6 +238,14 @@ public class FakeRestRequest extends RestRequest {
             return this;
         }
 
+        public Builder withContentStream(HttpContentStream contentStream, XContentType xContentType) {
+            this.contentStream = contentStream;
+            if (xContentType != null) {
+                headers.put("Content-Type", Collections.singletonList(xContentType.mediaType()));
+            }
+            return this;
+        }
+
         public Builder withPath(String path) {
             this.path = path;
             return this;
@@ -248,7 +267,7 @@ public class FakeRestRequest extends RestRequest {
         }
 
         public FakeRestRequest build() {
-            FakeHttpRequest fakeHttpRequest = new FakeHttpRequest(method, path, content, headers, inboundException);
+            FakeHttpRequest fakeHttpRequest = new FakeHttpRequest(method, path, content, headers, inboundException, contentStream);
             return new FakeRestRequest(parserConfig, fakeHttpRequest, params, new FakeHttpChannel(address));
         }
     }
@@ -271,6 +271,11 @@ public class StubbableTransport implements Transport {
             return connection.getTransportVersion();
         }
 
+        @Override
+        public Integer getZstdDictionaryId() {
+            return connection.getZstdDictionaryId();
+        }
+
         @Override
         public Object getCacheKey() {
             return connection.getCacheKey();
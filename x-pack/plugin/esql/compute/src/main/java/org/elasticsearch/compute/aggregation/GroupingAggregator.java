@@ -29,6 +29,13 @@ public class GroupingAggregator implements Releasable {
         this.mode = mode;
     }
 
+    /**
+     * Does this aggregator consume the intermediate output of other aggregators?
+     */
+    public boolean isInputPartial() {
+        return mode.isInputPartial();
+    }
+
     /** The number of Blocks required for evaluation. */
     public int evaluateBlockCount() {
         return mode.isOutputPartial() ? aggregatorFunction.intermediateBlockCount() : 1;
@@ -75,6 +82,22 @@ public class GroupingAggregator implements Releasable {
         }
     }
 
+    /**
+     * Build the intermediate state for this aggregation regardless of the
+     * output mode. Used to spill the state of aggregators that consume
+     * intermediate input so it can be added back later.
+     * @param selected the groupIds that have been selected to be included in
+     *                 the results. Always ascending.
+     */
+    public void evaluateIntermediate(Block[] blocks, int offset, IntVector selected) {
+        aggregatorFunction.evaluateIntermediate(blocks, offset, selected);
+    }
+
+    /** The number of Blocks required for {@link #evaluateIntermediate}. */
+    public int intermediateBlockCount() {
+        return aggregatorFunction.intermediateBlockCount();
+    }
+
     @Override
     public void close() {
         aggregatorFunction.close();
@@ -7,6 +7,7 @@
 
 package org.elasticsearch.compute.aggregation.blockhash;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.common.util.BytesRefHash;
@@ -17,6 +18,7 @@ import org.elasticsearch.compute.aggregation.SeenGroupIds;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverContext;
@@ -50,6 +52,18 @@ public abstract sealed class BlockHash implements Releasable, SeenGroupIds //
      */
     public abstract void add(Page page, GroupingAggregatorFunction.AddInput addInput);
 
+    /**
+     * Look up the group ids of the "group by" columns in the page <strong>without</strong>
+     * adding any keys to the hash and pass them to the provided
+     * {@link GroupingAggregatorFunction.AddInput}. Each position gets the distinct group
+     * ids of its keys that are in the hash, or {@code null} if none of them are.
+     * The hashes that are only built with {@code allowBrokenOptimizations} don't
+     * support lookups.
+     */
+    public void lookup(Page page, GroupingAggregatorFunction.AddInput addInput) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support lookups");
+    }
+
     /**
      * Returns a {@link Block} that contains all the keys that are inserted by {@link #add}.
      */
@@ -138,4 +152,60 @@ public abstract sealed class BlockHash implements Releasable, SeenGroupIds //
     public static long hashOrdToGroupNullReserved(long ord) {
         return hashOrdToGroup(ord) + 1;
     }
+
+    /**
+     * Builds the group ids of a {@link #lookup}, one position at a time.
+     */
+    static final class LookupOrds implements Releasable {
+        private final IntBlock.Builder builder;
+        private int[] ords = new int[1];
+        private int count;
+
+        LookupOrds(BlockFactory blockFactory, int positionCount) {
+            this.builder = blockFactory.newIntBlockBuilder(positionCount);
+        }
+
+        /**
+         * Record that {@code group} was found for the current position.
+         */
+        void found(long group) {
+            int ord = Math.toIntExact(group);
+            for (int i = 0; i < count; i++) {
+                if (ords[i] == ord) {
+                    return;
+                }
+            }
+            if (count == ords.length) {
+                ords = ArrayUtil.grow(ords, count + 1);
+            }
+            ords[count++] = ord;
+        }
+
+        /**
+         * Append the groups found for the current position and move on to the next one.
+         */
+        void endPosition() {
+            switch (count) {
+                case 0 -> builder.appendNull();
+                case 1 -> builder.appendInt(ords[0]);
+                default -> {
+                    builder.beginPositionEntry();
+                    for (int i = 0; i < count; i++) {
+                        builder.appendInt(ords[i]);
+                    }
+                    builder.endPositionEntry();
+                }
+            }
+            count = 0;
+        }
+
+        IntBlock build() {
+            return builder.build();
+        }
+
+        @Override
+        public void close() {
+            builder.close();
+        }
+    }
 }
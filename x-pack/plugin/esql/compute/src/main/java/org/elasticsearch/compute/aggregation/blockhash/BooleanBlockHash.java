@@ -10,6 +10,7 @@ package org.elasticsearch.compute.aggregation.blockhash;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
+import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
 import org.elasticsearch.compute.data.BooleanVector;
 import org.elasticsearch.compute.data.IntBlock;
@@ -72,6 +73,44 @@ final class BooleanBlockHash extends BlockHash {
         return new MultivalueDedupeBoolean(block).hash(blockFactory, everSeen);
     }
 
+    @Override
+    public void lookup(Page page, GroupingAggregatorFunction.AddInput addInput) {
+        Block block = page.getBlock(channel);
+        int positionCount = block.getPositionCount();
+        try (LookupOrds ords = new LookupOrds(blockFactory, positionCount)) {
+            if (block.areAllValuesNull()) {
+                for (int p = 0; p < positionCount; p++) {
+                    if (everSeen[NULL_ORD]) {
+                        ords.found(NULL_ORD);
+                    }
+                    ords.endPosition();
+                }
+            } else {
+                BooleanBlock booleanBlock = (BooleanBlock) block;
+                for (int p = 0; p < positionCount; p++) {
+                    if (booleanBlock.isNull(p)) {
+                        if (everSeen[NULL_ORD]) {
+                            ords.found(NULL_ORD);
+                        }
+                    } else {
+                        int start = booleanBlock.getFirstValueIndex(p);
+                        int end = start + booleanBlock.getValueCount(p);
+                        for (int i = start; i < end; i++) {
+                            int ord = booleanBlock.getBoolean(i) ? TRUE_ORD : FALSE_ORD;
+                            if (everSeen[ord]) {
+                                ords.found(ord);
+                            }
+                        }
+                    }
+                    ords.endPosition();
+                }
+            }
+            try (IntBlock groupIds = ords.build()) {
+                addInput.add(0, groupIds);
+            }
+        }
+    }
+
     @Override
     public BooleanBlock[] getKeys() {
         try (BooleanBlock.Builder builder = blockFactory.newBooleanBlockBuilder(everSeen.length)) {
@@ -85,6 +85,44 @@ final class LongBlockHash extends BlockHash {
         return result.ords();
     }
 
+    @Override
+    public void lookup(Page page, GroupingAggregatorFunction.AddInput addInput) {
+        Block block = page.getBlock(channel);
+        int positionCount = block.getPositionCount();
+        try (LookupOrds ords = new LookupOrds(blockFactory, positionCount)) {
+            if (block.areAllValuesNull()) {
+                for (int p = 0; p < positionCount; p++) {
+                    if (seenNull) {
+                        ords.found(0);
+                    }
+                    ords.endPosition();
+                }
+            } else {
+                LongBlock typedBlock = (LongBlock) block;
+                for (int p = 0; p < positionCount; p++) {
+                    if (typedBlock.isNull(p)) {
+                        if (seenNull) {
+                            ords.found(0);
+                        }
+                    } else {
+                        int start = typedBlock.getFirstValueIndex(p);
+                        int end = start + typedBlock.getValueCount(p);
+                        for (int i = start; i < end; i++) {
+                            long ord = longHash.find(typedBlock.getLong(i));
+                            if (ord >= 0) {
+                                ords.found(hashOrdToGroupNullReserved(ord));
+                            }
+                        }
+                    }
+                    ords.endPosition();
+                }
+            }
+            try (IntBlock groupIds = ords.build()) {
+                addInput.add(0, groupIds);
+            }
+        }
+    }
+
     @Override
     public LongBlock[] getKeys() {
         if (seenNull) {
@@ -12,6 +12,7 @@ import org.elasticsearch.common.util.BitArray;
 import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverContext;
@@ -42,6 +43,23 @@ final class NullBlockHash extends BlockHash {
         }
     }
 
+    @Override
+    public void lookup(Page page, GroupingAggregatorFunction.AddInput addInput) {
+        var block = page.getBlock(channel);
+        if (block.areAllValuesNull() == false) {
+            throw new IllegalArgumentException("can't use NullBlockHash for non-null blocks");
+        }
+        if (seenNull) {
+            try (IntVector groupIds = blockFactory.newConstantIntVector(0, block.getPositionCount())) {
+                addInput.add(0, groupIds);
+            }
+        } else {
+            try (IntBlock groupIds = (IntBlock) blockFactory.newConstantNullBlock(block.getPositionCount())) {
+                addInput.add(0, groupIds);
+            }
+        }
+    }
+
     @Override
     public Block[] getKeys() {
         return new Block[] { blockFactory.newConstantNullBlock(seenNull ? 1 : 0) };
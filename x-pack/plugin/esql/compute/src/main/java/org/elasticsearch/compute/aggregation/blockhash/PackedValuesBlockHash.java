@@ -17,6 +17,7 @@ import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
 import org.elasticsearch.compute.aggregation.SeenGroupIds;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.BatchEncoder;
@@ -190,6 +191,77 @@ final class PackedValuesBlockHash extends BlockHash {
         }
     }
 
+    @Override
+    public void lookup(Page page, GroupingAggregatorFunction.AddInput addInput) {
+        int positionCount = page.getPositionCount();
+        try (LookupOrds ords = new LookupOrds(blockFactory, positionCount)) {
+            for (Group group : groups) {
+                group.encoder = MultivalueDedupe.batchEncoder(page.getBlock(group.spec.channel()), DEFAULT_BATCH_SIZE, true);
+            }
+            bytes.grow(nullTrackingBytes);
+            for (int position = 0; position < positionCount; position++) {
+                for (Group g : groups) {
+                    var encoder = g.encoder;
+                    g.positionOffset++;
+                    while (g.positionOffset >= encoder.positionCount()) {
+                        encoder.encodeNextBatch();
+                        g.positionOffset = 0;
+                        g.valueOffset = 0;
+                    }
+                    g.valueCount = encoder.valueCount(g.positionOffset);
+                }
+                Arrays.fill(bytes.bytes(), 0, nullTrackingBytes, (byte) 0);
+                bytes.setLength(nullTrackingBytes);
+                lookupEntries(ords);
+                ords.endPosition();
+            }
+            try (IntBlock groupIds = ords.build()) {
+                addInput.add(0, groupIds);
+            }
+        }
+    }
+
+    /**
+     * Find every permutation of the keys at the current position, like
+     * {@link AddWork} adds them, without adding the ones that are missing.
+     */
+    private void lookupEntries(LookupOrds ords) {
+        int g = 0;
+        outer: for (;;) {
+            for (; g < groups.length; g++) {
+                Group group = groups[g];
+                group.bytesStart = bytes.length();
+                if (group.encoder.read(group.valueOffset + group.loopedIndex, bytes) == 0) {
+                    assert group.valueCount == 1 : "null value in non-singleton list";
+                    int nullByte = g / 8;
+                    int nullShift = g % 8;
+                    bytes.bytes()[nullByte] |= (byte) (1 << nullShift);
+                }
+                ++group.loopedIndex;
+            }
+            long ord = bytesRefHash.find(bytes.get());
+            if (ord >= 0) {
+                ords.found(ord);
+            }
+
+            // rewind
+            Group group = groups[--g];
+            bytes.setLength(group.bytesStart);
+            while (group.loopedIndex == group.valueCount) {
+                group.loopedIndex = 0;
+                if (g == 0) {
+                    break outer;
+                } else {
+                    group = groups[--g];
+                    bytes.setLength(group.bytesStart);
+                }
+            }
+        }
+        for (Group group : groups) {
+            group.valueOffset += group.valueCount;
+        }
+    }
+
     @Override
     public Block[] getKeys() {
         int size = Math.toIntExact(bytesRefHash.size());
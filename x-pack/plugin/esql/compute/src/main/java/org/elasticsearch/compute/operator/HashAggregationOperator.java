@@ -7,20 +7,51 @@
 
 package org.elasticsearch.compute.operator;
 
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.hppc.BitMixer;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakerStats;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.compute.Describable;
 import org.elasticsearch.compute.aggregation.GroupingAggregator;
 import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
 import org.elasticsearch.compute.aggregation.blockhash.BlockHash;
 import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
+import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -30,15 +61,56 @@ public class HashAggregationOperator implements Operator {
 
     public record GroupSpec(int channel, ElementType elementType) {}
 
-    public record HashAggregationOperatorFactory(List<GroupSpec> groups, List<GroupingAggregator.Factory> aggregators, int maxPageSize)
-        implements
-            OperatorFactory {
+    /**
+     * Configures spilling groups to disk when the breaker nears its limit.
+     * @param directory the directory in which to create the spill files
+     * @param breakerRatio spill once the memory held by the groups of this operator, or the breaker's used
+     *                     bytes, exceed this ratio of the breaker's limit
+     * @param partitions the number of partitions the groups are hashed into when spilled. Each
+     *                   partition is re-aggregated on its own once all input has been received.
+     * @param minSpillBytes never spill groups that hold less memory than this. This keeps the
+     *                      operator from writing a tiny run for every page while the breaker stays
+     *                      above the ratio because of memory held by others.
+     */
+    public record SpillConfig(Path directory, double breakerRatio, int partitions, long minSpillBytes) {
+        public SpillConfig {
+            requireNonNull(directory, "directory is null");
+            if (breakerRatio <= 0 || breakerRatio > 1) {
+                throw new IllegalArgumentException("breakerRatio must be in (0, 1] but was [" + breakerRatio + "]");
+            }
+            if (partitions < 1) {
+                throw new IllegalArgumentException("partitions must be at least 1 but was [" + partitions + "]");
+            }
+            if (minSpillBytes < 0) {
+                throw new IllegalArgumentException("minSpillBytes must be non-negative but was [" + minSpillBytes + "]");
+            }
+        }
+    }
+
+    /**
+     * The number of times a partition may be spilled into sub-partitions while it is re-aggregated. Partitions
+     * at this depth are re-aggregated in memory whatever their size.
+     */
+    static final int MAX_SPILL_DEPTH = 4;
+
+    public record HashAggregationOperatorFactory(
+        List<GroupSpec> groups,
+        List<GroupingAggregator.Factory> aggregators,
+        int maxPageSize,
+        SpillConfig spillConfig
+    ) implements OperatorFactory {
+        public HashAggregationOperatorFactory(List<GroupSpec> groups, List<GroupingAggregator.Factory> aggregators, int maxPageSize) {
+            this(groups, aggregators, maxPageSize, null);
+        }
+
         @Override
         public Operator get(DriverContext driverContext) {
             return new HashAggregationOperator(
+                groups,
                 aggregators,
-                () -> BlockHash.build(groups, driverContext, maxPageSize, false),
-                driverContext
+                groupsContext -> BlockHash.build(groups, groupsContext, maxPageSize, false),
+                driverContext,
+                spillConfig
             );
         }
 
@@ -55,25 +127,94 @@ public class HashAggregationOperator implements Operator {
     private boolean finished;
     private Page output;
 
-    private final BlockHash blockHash;
+    private BlockHash blockHash;
 
     private final List<GroupingAggregator> aggregators;
 
     private final DriverContext driverContext;
 
-    @SuppressWarnings("this-escape")
+    private final List<GroupingAggregator.Factory> aggregatorFactories;
+
+    private final Function<DriverContext, BlockHash> blockHashSupplier;
+
+    /**
+     * Partitioned spill files that are currently being written or {@code null}
+     * if spilling is disabled or not possible for this configuration.
+     */
+    private final SpillPartition[] spillPartitions;
+
+    /**
+     * Spilled partitions that are waiting to be re-aggregated.
+     */
+    private final Deque<SpillPartition> pendingPartitions = new ArrayDeque<>();
+
+    private final SpillConfig spillConfig;
+
+    /**
+     * Tracks the memory held by the hash and the aggregator states so spilling
+     * is decided on this operator's memory rather than the whole breaker's.
+     */
+    private final GroupsMemoryTracker groupsMemory;
+
+    /**
+     * The context the hash and the aggregators are built with.
+     */
+    private final DriverContext groupsContext;
+
+    private final int keyCount;
+
+    private int spillCount;
+
     public HashAggregationOperator(
         List<GroupingAggregator.Factory> aggregators,
         Supplier<BlockHash> blockHash,
         DriverContext driverContext
     ) {
+        this(null, aggregators, ignored -> blockHash.get(), driverContext, null);
+    }
+
+    /**
+     * Build the operator, optionally allowing it to spill its groups to disk.
+     * Spilling is only possible if all {@code aggregators} consume intermediate
+     * input and the {@code groups} are in the leading channels of the input.
+     * That is the layout of the intermediate output of this operator so the
+     * spilled pages can be added back as though they came from the input.
+     */
+    @SuppressWarnings("this-escape")
+    public HashAggregationOperator(
+        List<GroupSpec> groups,
+        List<GroupingAggregator.Factory> aggregators,
+        Function<DriverContext, BlockHash> blockHash,
+        DriverContext driverContext,
+        SpillConfig spillConfig
+    ) {
+        this.aggregatorFactories = aggregators;
+        this.blockHashSupplier = blockHash;
         this.aggregators = new ArrayList<>(aggregators.size());
         this.driverContext = driverContext;
+        this.keyCount = groups == null ? 0 : groups.size();
+        if (spillConfig != null && keysAreLeading(groups)) {
+            this.groupsMemory = new GroupsMemoryTracker(driverContext.bigArrays().breakerService());
+            this.groupsContext = new DriverContext(
+                driverContext.bigArrays().withBreakerService(groupsMemory),
+                driverContext.blockFactory()
+            );
+        } else {
+            this.groupsMemory = null;
+            this.groupsContext = driverContext;
+        }
         boolean success = false;
         try {
-            this.blockHash = blockHash.get();
+            this.blockHash = blockHash.apply(groupsContext);
             for (GroupingAggregator.Factory a : aggregators) {
-                this.aggregators.add(a.apply(driverContext));
+                this.aggregators.add(a.apply(groupsContext));
+            }
+            if (groupsMemory != null && this.aggregators.stream().allMatch(GroupingAggregator::isInputPartial)) {
+                this.spillConfig = spillConfig;
+                this.spillPartitions = new SpillPartition[spillConfig.partitions()];
+            } else {
+                this.spillConfig = null;
+                this.spillPartitions = null;
             }
             success = true;
         } finally {
@@ -83,6 +224,18 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    private static boolean keysAreLeading(List<GroupSpec> groups) {
+        if (groups == null || groups.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            if (groups.get(i).channel() != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean needsInput() {
         return finished == false;
@@ -93,39 +246,48 @@ public class HashAggregationOperator implements Operator {
         try {
             checkState(needsInput(), "Operator is already finishing");
             requireNonNull(page, "page is null");
+            addPage(page);
+        } finally {
+            page.releaseBlocks();
+        }
+        if (shouldSpill()) {
+            spill(0);
+        }
+    }
 
-            GroupingAggregatorFunction.AddInput[] prepared = new GroupingAggregatorFunction.AddInput[aggregators.size()];
-            for (int i = 0; i < prepared.length; i++) {
-                prepared[i] = aggregators.get(i).prepareProcessPage(blockHash, page);
-            }
-
-            blockHash.add(wrapPage(page), new GroupingAggregatorFunction.AddInput() {
-                @Override
-                public void add(int positionOffset, IntBlock groupIds) {
-                    IntVector groupIdsVector = groupIds.asVector();
-                    if (groupIdsVector != null) {
-                        add(positionOffset, groupIdsVector);
-                    } else {
-                        for (GroupingAggregatorFunction.AddInput p : prepared) {
-                            p.add(positionOffset, groupIds);
-                        }
-                    }
-                }
+    private void addPage(Page page) {
+        GroupingAggregatorFunction.AddInput[] prepared = new GroupingAggregatorFunction.AddInput[aggregators.size()];
+        for (int i = 0; i < prepared.length; i++) {
+            prepared[i] = aggregators.get(i).prepareProcessPage(blockHash, page);
+        }
 
-                @Override
-                public void add(int positionOffset, IntVector groupIds) {
+        blockHash.add(wrapPage(page), new GroupingAggregatorFunction.AddInput() {
+            @Override
+            public void add(int positionOffset, IntBlock groupIds) {
+                IntVector groupIdsVector = groupIds.asVector();
+                if (groupIdsVector != null) {
+                    add(positionOffset, groupIdsVector);
+                } else {
                     for (GroupingAggregatorFunction.AddInput p : prepared) {
                         p.add(positionOffset, groupIds);
                     }
                 }
-            });
-        } finally {
-            page.releaseBlocks();
-        }
+            }
+
+            @Override
+            public void add(int positionOffset, IntVector groupIds) {
+                for (GroupingAggregatorFunction.AddInput p : prepared) {
+                    p.add(positionOffset, groupIds);
+                }
+            }
+        });
     }
 
     @Override
     public Page getOutput() {
+        if (output == null && finished && pendingPartitions.isEmpty() == false) {
+            reaggregateNextPartition();
+        }
         Page p = output;
         output = null;
         return p;
@@ -137,23 +299,45 @@ public class HashAggregationOperator implements Operator {
             return;
         }
         finished = true;
+        if (spillCount > 0) {
+            // Flush the remaining groups so every group lives in exactly one partition
+            spill(0);
+            closeSpillOutputs();
+            return;
+        }
+        output = buildOutput(false);
+    }
+
+    /**
+     * Build a page containing the keys followed by the aggregator results.
+     * @param intermediate should the aggregators emit their intermediate state
+     *                     rather than the result for their mode
+     */
+    private Page buildOutput(boolean intermediate) {
         Block[] blocks = null;
         IntVector selected = null;
         boolean success = false;
         try {
             selected = blockHash.nonEmpty();
             Block[] keys = blockHash.getKeys();
-            int[] aggBlockCounts = aggregators.stream().mapToInt(GroupingAggregator::evaluateBlockCount).toArray();
+            int[] aggBlockCounts = aggregators.stream()
+                .mapToInt(intermediate ? GroupingAggregator::intermediateBlockCount : GroupingAggregator::evaluateBlockCount)
+                .toArray();
             blocks = new Block[keys.length + Arrays.stream(aggBlockCounts).sum()];
             System.arraycopy(keys, 0, blocks, 0, keys.length);
             int offset = keys.length;
             for (int i = 0; i < aggregators.size(); i++) {
                 var aggregator = aggregators.get(i);
-                aggregator.evaluate(blocks, offset, selected, driverContext);
+                if (intermediate) {
+                    aggregator.evaluateIntermediate(blocks, offset, selected);
+                } else {
+                    aggregator.evaluate(blocks, offset, selected, driverContext);
+                }
                 offset += aggBlockCounts[i];
             }
-            output = new Page(blocks);
+            Page page = new Page(blocks);
             success = true;
+            return page;
         } finally {
             // selected should always be closed
             if (selected != null) {
@@ -165,9 +349,190 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    /**
+     * Should the groups be spilled? They are once the memory they hold passes the
+     * configured ratio of the breaker's limit. Memory held by others only makes
+     * them spill once they hold at least {@link SpillConfig#minSpillBytes()}, which
+     * they won't until they have grown again after the previous spill.
+     */
+    private boolean shouldSpill() {
+        if (spillPartitions == null) {
+            return false;
+        }
+        long groupsBytes = groupsMemory.used();
+        if (groupsBytes <= 0 || groupsBytes < spillConfig.minSpillBytes()) {
+            return false;
+        }
+        CircuitBreaker breaker = driverContext.breaker();
+        long limit = breaker.getLimit();
+        if (limit <= 0) {
+            return false;
+        }
+        double threshold = limit * spillConfig.breakerRatio();
+        return groupsBytes >= threshold || breaker.getUsed() >= threshold;
+    }
+
+    /**
+     * Write the intermediate state of all groups into the partitioned spill files
+     * and replace the hash and aggregators with empty ones, releasing their memory.
+     * @param depth how many times the groups have been partitioned before. Each
+     *              depth hashes the keys differently so a partition that is spilled
+     *              again while it is re-aggregated splits into sub-partitions.
+     */
+    private void spill(int depth) {
+        Page intermediate = buildOutput(true);
+        try {
+            writePartitions(intermediate, depth);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to spill aggregation state", e);
+        } finally {
+            intermediate.releaseBlocks();
+        }
+        resetGroups();
+        spillCount++;
+    }
+
+    private void writePartitions(Page page, int depth) throws IOException {
+        int positionCount = page.getPositionCount();
+        if (positionCount == 0) {
+            return;
+        }
+        int[] partitionOf = new int[positionCount];
+        int[] partitionSizes = new int[spillPartitions.length];
+        BytesRef scratch = new BytesRef();
+        for (int p = 0; p < positionCount; p++) {
+            partitionOf[p] = Math.floorMod(BitMixer.mix(31 * hashKeys(page, keyCount, p, scratch) + depth), spillPartitions.length);
+            partitionSizes[partitionOf[p]]++;
+        }
+        for (int partition = 0; partition < spillPartitions.length; partition++) {
+            if (partitionSizes[partition] == 0) {
+                continue;
+            }
+            int[] positions = new int[partitionSizes[partition]];
+            int i = 0;
+            for (int p = 0; p < positionCount; p++) {
+                if (partitionOf[p] == partition) {
+                    positions[i++] = p;
+                }
+            }
+            Block[] filtered = new Block[page.getBlockCount()];
+            Page partitionPage;
+            try {
+                for (int b = 0; b < filtered.length; b++) {
+                    filtered[b] = page.getBlock(b).filter(positions);
+                }
+                partitionPage = new Page(filtered);
+            } catch (Exception e) {
+                Releasables.closeExpectNoException(filtered);
+                throw e;
+            }
+            try {
+                if (spillPartitions[partition] == null) {
+                    Path path = Files.createTempFile(spillConfig.directory(), "esql-agg-spill-", ".bin");
+                    spillPartitions[partition] = new SpillPartition(path, depth);
+                }
+                spillPartitions[partition].write(partitionPage);
+            } finally {
+                partitionPage.releaseBlocks();
+            }
+        }
+    }
+
+    /**
+     * Hash the keys at {@code position}. All keys are single valued because
+     * they come from {@link BlockHash#getKeys()}.
+     */
+    static int hashKeys(Page page, int keyCount, int position, BytesRef scratch) {
+        int hash = 0;
+        for (int c = 0; c < keyCount; c++) {
+            Block block = page.getBlock(c);
+            int valueHash = 0;
+            if (block.isNull(position) == false) {
+                int i = block.getFirstValueIndex(position);
+                valueHash = switch (block.elementType()) {
+                    case BOOLEAN -> Boolean.hashCode(((BooleanBlock) block).getBoolean(i));
+                    case INT -> BitMixer.mix(((IntBlock) block).getInt(i));
+                    case LONG -> BitMixer.mix(((LongBlock) block).getLong(i));
+                    case DOUBLE -> BitMixer.mix(Double.doubleToLongBits(((DoubleBlock) block).getDouble(i)));
+                    case BYTES_REF -> ((BytesRefBlock) block).getBytesRef(i, scratch).hashCode();
+                    default -> throw new IllegalArgumentException("unsupported grouping element type [" + block.elementType() + "]");
+                };
+            }
+            hash = 31 * hash + valueHash;
+        }
+        return hash;
+    }
+
+    private void resetGroups() {
+        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        blockHash = null;
+        aggregators.clear();
+        blockHash = blockHashSupplier.apply(groupsContext);
+        for (GroupingAggregator.Factory a : aggregatorFactories) {
+            aggregators.add(a.apply(groupsContext));
+        }
+    }
+
+    /**
+     * Finish writing the current spill files and queue them to be re-aggregated ahead
+     * of the partitions that were already pending. Re-aggregating sub-partitions first
+     * keeps the number of spill files on disk bounded by the depth of the spills.
+     */
+    private void closeSpillOutputs() {
+        for (int partition = spillPartitions.length - 1; partition >= 0; partition--) {
+            SpillPartition spilled = spillPartitions[partition];
+            if (spilled == null) {
+                continue;
+            }
+            spillPartitions[partition] = null;
+            pendingPartitions.addFirst(spilled);
+            try {
+                spilled.finishWriting();
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to spill aggregation state", e);
+            }
+        }
+    }
+
+    /**
+     * Load a single spilled partition into an empty hash and aggregators and
+     * build its output. Every group lives in a single partition so the output
+     * for the partition is final. If the partition doesn't fit in memory either
+     * it is spilled again into sub-partitions which are re-aggregated next.
+     */
+    private void reaggregateNextPartition() {
+        SpillPartition partition = pendingPartitions.poll();
+        int depth = partition.depth + 1;
+        boolean canSpillAgain = depth <= MAX_SPILL_DEPTH;
+        int spillsBefore = spillCount;
+        try {
+            partition.read(driverContext, page -> {
+                try {
+                    addPage(page);
+                } finally {
+                    page.releaseBlocks();
+                }
+                if (canSpillAgain && shouldSpill()) {
+                    spill(depth);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read spilled aggregation state", e);
+        } finally {
+            partition.close();
+        }
+        if (spillCount > spillsBefore) {
+            spill(depth);
+            closeSpillOutputs();
+            return;
+        }
+        output = buildOutput(false);
+        resetGroups();
+    }
+
     @Override
     public boolean isFinished() {
-        return finished && output == null;
+        return finished && output == null && pendingPartitions.isEmpty();
     }
 
     @Override
@@ -175,7 +540,151 @@ public class HashAggregationOperator implements Operator {
         if (output != null) {
             output.releaseBlocks();
         }
-        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        Releasables.close(blockHash, () -> Releasables.close(aggregators), () -> {
+            if (spillPartitions != null) {
+                Releasables.close(spillPartitions);
+            }
+        }, () -> Releasables.close(pendingPartitions));
+    }
+
+    /**
+     * A file containing spilled pages. Each page is prefixed with {@code true}
+     * and the file is terminated with {@code false}.
+     */
+    private static class SpillPartition implements Releasable {
+        private final Path path;
+        private final int depth;
+        private StreamOutput out;
+
+        SpillPartition(Path path, int depth) throws IOException {
+            this.path = path;
+            this.depth = depth;
+            this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        void write(Page page) throws IOException {
+            out.writeBoolean(true);
+            page.writeTo(out);
+        }
+
+        void finishWriting() throws IOException {
+            try {
+                out.writeBoolean(false);
+            } finally {
+                out.close();
+                out = null;
+            }
+        }
+
+        void read(DriverContext driverContext, Consumer<Page> consumer) throws IOException {
+            NamedWriteableRegistry registry = new NamedWriteableRegistry(Block.getNamedWriteables());
+            InputStreamStreamInput file = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path)));
+            try (
+                BlockStreamInput in = new BlockStreamInput(
+                    new NamedWriteableAwareStreamInput(file, registry),
+                    driverContext.blockFactory()
+                )
+            ) {
+                while (in.readBoolean()) {
+                    consumer.accept(new Page(in));
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeWhileHandlingException(out);
+            out = null;
+            IOUtils.deleteFilesIgnoringExceptions(path);
+        }
+    }
+
+    /**
+     * A {@link CircuitBreakerService} for the {@code BigArrays} of the hash and the aggregator states.
+     * It passes every request on to the real breakers and keeps count of the bytes that are held.
+     */
+    private static class GroupsMemoryTracker extends CircuitBreakerService {
+        private final CircuitBreakerService next;
+        private final AtomicLong used = new AtomicLong();
+
+        GroupsMemoryTracker(CircuitBreakerService next) {
+            this.next = next == null ? new NoneCircuitBreakerService() : next;
+        }
+
+        long used() {
+            return used.get();
+        }
+
+        @Override
+        public CircuitBreaker getBreaker(String name) {
+            CircuitBreaker breaker = next.getBreaker(name);
+            if (breaker == null) {
+                return null;
+            }
+            return new CircuitBreaker() {
+                @Override
+                public void circuitBreak(String fieldName, long bytesNeeded) {
+                    breaker.circuitBreak(fieldName, bytesNeeded);
+                }
+
+                @Override
+                public void addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+                    breaker.addEstimateBytesAndMaybeBreak(bytes, label);
+                    used.addAndGet(bytes);
+                }
+
+                @Override
+                public void addWithoutBreaking(long bytes) {
+                    breaker.addWithoutBreaking(bytes);
+                    used.addAndGet(bytes);
+                }
+
+                @Override
+                public long getUsed() {
+                    return breaker.getUsed();
+                }
+
+                @Override
+                public long getLimit() {
+                    return breaker.getLimit();
+                }
+
+                @Override
+                public double getOverhead() {
+                    return breaker.getOverhead();
+                }
+
+                @Override
+                public long getTrippedCount() {
+                    return breaker.getTrippedCount();
+                }
+
+                @Override
+                public String getName() {
+                    return breaker.getName();
+                }
+
+                @Override
+                public Durability getDurability() {
+                    return breaker.getDurability();
+                }
+
+                @Override
+                public void setLimitAndOverhead(long limit, double overhead) {
+                    breaker.setLimitAndOverhead(limit, overhead);
+                }
+            };
+        }
+
+        @Override
+        public AllCircuitBreakerStats stats() {
+            return next.stats();
+        }
+
+        @Override
+        public CircuitBreakerStats stats(String name) {
+            return next.stats(name);
+        }
     }
 
     protected static void checkState(boolean condition, String msg) {
@@ -188,12 +697,22 @@ public class HashAggregationOperator implements Operator {
         return page;
     }
 
+    /**
+     * The number of times groups were spilled to disk.
+     */
+    int spillCount() {
+        return spillCount;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(this.getClass().getSimpleName()).append("[");
         sb.append("blockHash=").append(blockHash).append(", ");
         sb.append("aggregators=").append(aggregators);
+        if (spillCount > 0) {
+            sb.append(", spills=").append(spillCount);
+        }
         sb.append("]");
         return sb.toString();
     }
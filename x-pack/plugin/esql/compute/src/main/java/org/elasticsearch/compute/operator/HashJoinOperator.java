@@ -0,0 +1,488 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
+import org.elasticsearch.compute.aggregation.blockhash.BlockHash;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.HashAggregationOperator.GroupSpec;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Joins each incoming "probe" page against a "build" side {@link Page} that is
+ * loaded in full when the operator is built. The build side's keys are loaded
+ * into a {@link BlockHash} and every probe row is looked up in the same hash
+ * with {@link BlockHash#lookup}, which never adds keys, so the memory used
+ * only depends on the build side. This is intended for broadcasting small
+ * tables to every driver.
+ * <p>
+ *     The output contains all of the probe columns followed by all of the build
+ *     columns. Each probe row is emitted once per matching build row. Probe rows
+ *     without a match are dropped unless this is a {@code leftJoin} in which case
+ *     they are emitted once with {@code null} build columns. {@code null} keys
+ *     never match. Multivalued keys match if any of their values match, but each
+ *     build row matches each probe row at most once.
+ * </p>
+ * <p>
+ *     A single probe page can match many build rows so the output for it is
+ *     emitted in pages of at most {@code maxPageSize} rows.
+ * </p>
+ */
+public class HashJoinOperator implements Operator {
+    private static final String BREAKER_LABEL = "hash_join";
+
+    /**
+     * Builds {@link HashJoinOperator}s.
+     * @param buildSide builds the build side page once per operator
+     * @param buildKeyChannels the channels of the keys in the build page
+     * @param probeKeys the channels and types of the keys in the probe pages,
+     *                  in the same order as {@code buildKeyChannels}
+     * @param leftJoin emit probe rows without a match with {@code null} build columns
+     */
+    public record HashJoinOperatorFactory(
+        Function<BlockFactory, Page> buildSide,
+        List<Integer> buildKeyChannels,
+        List<GroupSpec> probeKeys,
+        boolean leftJoin,
+        int maxPageSize
+    ) implements OperatorFactory {
+        public HashJoinOperatorFactory {
+            if (buildKeyChannels.size() != probeKeys.size()) {
+                throw new IllegalArgumentException(
+                    "expected the same number of build and probe keys but got " + buildKeyChannels + " and " + probeKeys
+                );
+            }
+        }
+
+        @Override
+        public Operator get(DriverContext driverContext) {
+            return new HashJoinOperator(
+                buildSide.apply(driverContext.blockFactory()),
+                buildKeyChannels.stream().mapToInt(Integer::intValue).toArray(),
+                probeKeys,
+                leftJoin,
+                maxPageSize,
+                driverContext
+            );
+        }
+
+        @Override
+        public String describe() {
+            return "HashJoinOperator[buildKeys=" + buildKeyChannels + ", probeKeys=" + probeKeys + ", leftJoin=" + leftJoin + "]";
+        }
+    }
+
+    private final Page build;
+    private final int[] probeKeyChannels;
+    private final boolean leftJoin;
+    private final int maxPageSize;
+    private final DriverContext driverContext;
+    private final BlockHash hash;
+
+    /**
+     * The first entry in the build rows linked list of each group or {@code -1}.
+     */
+    private int[] firstEntryByGroup = new int[0];
+    private int[] entryRow = new int[0];
+    private int[] entryNext = new int[0];
+    private int entryCount;
+    private long trackedBytes;
+
+    /**
+     * Whether any build row is linked into more than one group, which happens
+     * for multivalued build keys. Only then can a probe row reach the same
+     * build row through more than one of its groups.
+     */
+    private boolean buildRowsInManyGroups;
+    /**
+     * For each build row the stamp of the last probe position that matched it.
+     * Only allocated if {@link #buildRowsInManyGroups}.
+     */
+    private long[] lastMatchedProbe;
+    /**
+     * The number of probe positions in the pages processed before the current one.
+     */
+    private long probeStamp;
+
+    /**
+     * The probe page whose output is being emitted, or {@code null}.
+     */
+    private Page probe;
+    private Matches matches;
+    /**
+     * The first match in {@link #matches} that hasn't been emitted yet.
+     */
+    private int nextMatch;
+    private boolean finished;
+    private int pagesProcessed;
+
+    @SuppressWarnings("this-escape")
+    public HashJoinOperator(
+        Page build,
+        int[] buildKeyChannels,
+        List<GroupSpec> probeKeys,
+        boolean leftJoin,
+        int maxPageSize,
+        DriverContext driverContext
+    ) {
+        this.build = build;
+        this.probeKeyChannels = probeKeys.stream().mapToInt(GroupSpec::channel).toArray();
+        this.leftJoin = leftJoin;
+        this.maxPageSize = maxPageSize;
+        this.driverContext = driverContext;
+        List<GroupSpec> hashKeys = new ArrayList<>(probeKeys.size());
+        for (int k = 0; k < probeKeys.size(); k++) {
+            hashKeys.add(new GroupSpec(k, probeKeys.get(k).elementType()));
+        }
+        boolean success = false;
+        try {
+            this.hash = BlockHash.build(hashKeys, driverContext, maxPageSize, false);
+            Page keys = keys(build, buildKeyChannels);
+            hash.add(keys, new GroupingAggregatorFunction.AddInput() {
+                @Override
+                public void add(int positionOffset, IntBlock groupIds) {
+                    for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                        int row = positionOffset + p;
+                        if (groupIds.isNull(p) || anyNull(keys, row)) {
+                            continue;
+                        }
+                        int start = groupIds.getFirstValueIndex(p);
+                        int end = start + groupIds.getValueCount(p);
+                        for (int i = start; i < end; i++) {
+                            link(groupIds.getInt(i), row);
+                        }
+                    }
+                }
+
+                @Override
+                public void add(int positionOffset, IntVector groupIds) {
+                    for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                        int row = positionOffset + p;
+                        if (anyNull(keys, row) == false) {
+                            link(groupIds.getInt(p), row);
+                        }
+                    }
+                }
+            });
+            if (buildRowsInManyGroups) {
+                long bytes = (long) Long.BYTES * build.getPositionCount();
+                driverContext.breaker().addEstimateBytesAndMaybeBreak(bytes, BREAKER_LABEL);
+                trackedBytes += bytes;
+                lastMatchedProbe = new long[build.getPositionCount()];
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Link a build {@code row} into the list of rows for {@code group}.
+     */
+    private void link(int group, int row) {
+        if (group >= firstEntryByGroup.length) {
+            int oldLength = firstEntryByGroup.length;
+            firstEntryByGroup = grow(firstEntryByGroup, group + 1);
+            Arrays.fill(firstEntryByGroup, oldLength, firstEntryByGroup.length, -1);
+        }
+        if (entryCount > 0 && entryRow[entryCount - 1] == row) {
+            // Each row is linked to all of its groups one after the other
+            buildRowsInManyGroups = true;
+        }
+        if (entryCount == entryRow.length) {
+            entryRow = grow(entryRow, entryCount + 1);
+            entryNext = grow(entryNext, entryCount + 1);
+        }
+        entryRow[entryCount] = row;
+        entryNext[entryCount] = firstEntryByGroup[group];
+        firstEntryByGroup[group] = entryCount;
+        entryCount++;
+    }
+
+    private int[] grow(int[] array, int minSize) {
+        int newSize = ArrayUtil.oversize(minSize, Integer.BYTES);
+        long delta = (long) Integer.BYTES * (newSize - array.length);
+        driverContext.breaker().addEstimateBytesAndMaybeBreak(delta, BREAKER_LABEL);
+        trackedBytes += delta;
+        return ArrayUtil.growExact(array, newSize);
+    }
+
+    @Override
+    public boolean needsInput() {
+        return probe == null && finished == false;
+    }
+
+    @Override
+    public void addInput(Page page) {
+        assert probe == null : "has pending input page";
+        probe = page;
+        matches = new Matches();
+        nextMatch = 0;
+        pagesProcessed++;
+        Page keys = keys(page, probeKeyChannels);
+        hash.lookup(keys, new GroupingAggregatorFunction.AddInput() {
+            @Override
+            public void add(int positionOffset, IntBlock groupIds) {
+                for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                    int position = positionOffset + p;
+                    if (groupIds.isNull(p) || anyNull(keys, position)) {
+                        continue;
+                    }
+                    int start = groupIds.getFirstValueIndex(p);
+                    int end = start + groupIds.getValueCount(p);
+                    for (int i = start; i < end; i++) {
+                        matches.add(position, groupIds.getInt(i));
+                    }
+                }
+            }
+
+            @Override
+            public void add(int positionOffset, IntVector groupIds) {
+                for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                    int position = positionOffset + p;
+                    if (anyNull(keys, position) == false) {
+                        matches.add(position, groupIds.getInt(p));
+                    }
+                }
+            }
+        });
+        if (leftJoin) {
+            matches.addUnmatched(page.getPositionCount());
+        }
+        probeStamp += page.getPositionCount();
+    }
+
+    @Override
+    public Page getOutput() {
+        if (probe == null) {
+            return null;
+        }
+        if (nextMatch == matches.count) {
+            releaseProbe();
+            return null;
+        }
+        int length = Math.min(maxPageSize, matches.count - nextMatch);
+        Page output = buildOutput(nextMatch, length);
+        nextMatch += length;
+        if (nextMatch == matches.count) {
+            releaseProbe();
+        }
+        return output;
+    }
+
+    /**
+     * Build a page from the {@code length} matches starting at {@code offset}.
+     */
+    private Page buildOutput(int offset, int length) {
+        int[] probePositions = Arrays.copyOfRange(matches.probePositions, offset, offset + length);
+        Block[] blocks = new Block[probe.getBlockCount() + build.getBlockCount()];
+        boolean success = false;
+        try {
+            for (int b = 0; b < probe.getBlockCount(); b++) {
+                blocks[b] = probe.getBlock(b).filter(probePositions);
+            }
+            BlockFactory blockFactory = driverContext.blockFactory();
+            for (int b = 0; b < build.getBlockCount(); b++) {
+                Block buildBlock = build.getBlock(b);
+                try (Block.Builder builder = buildBlock.elementType().newBlockBuilder(length, blockFactory)) {
+                    for (int i = offset; i < offset + length; i++) {
+                        int row = matches.buildRows[i];
+                        if (row < 0) {
+                            builder.appendNull();
+                        } else {
+                            builder.copyFrom(buildBlock, row, row + 1);
+                        }
+                    }
+                    blocks[probe.getBlockCount() + b] = builder.build();
+                }
+            }
+            Page result = new Page(length, blocks);
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(blocks);
+            }
+        }
+    }
+
+    private void releaseProbe() {
+        Page page = probe;
+        Releasables.closeExpectNoException(page::releaseBlocks, matches);
+        probe = null;
+        matches = null;
+    }
+
+    @Override
+    public void finish() {
+        finished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished && probe == null;
+    }
+
+    @Override
+    public Status status() {
+        return new AbstractPageMappingOperator.Status(pagesProcessed);
+    }
+
+    /**
+     * Pairs of probe positions and matching build rows, sorted by probe position.
+     * The arrays are tracked by the circuit breaker until the matches are closed.
+     */
+    private class Matches implements Releasable {
+        private int[] probePositions = new int[0];
+        private int[] buildRows = new int[0];
+        private int count;
+        private long trackedBytes;
+
+        /**
+         * Record the build rows matching the {@code group} found at {@code position}.
+         */
+        void add(int position, int group) {
+            assert count == 0 || probePositions[count - 1] <= position : "positions must arrive in order";
+            if (group >= firstEntryByGroup.length) {
+                // Groups of build rows with null keys aren't linked to any rows
+                return;
+            }
+            for (int e = firstEntryByGroup[group]; e >= 0; e = entryNext[e]) {
+                int row = entryRow[e];
+                if (buildRowsInManyGroups) {
+                    // The position may have reached this row through another of its groups already
+                    long stamp = probeStamp + position + 1;
+                    if (lastMatchedProbe[row] == stamp) {
+                        continue;
+                    }
+                    lastMatchedProbe[row] = stamp;
+                }
+                append(position, row);
+            }
+        }
+
+        /**
+         * Add a {@code -1} build row for every position without a match, keeping the positions sorted.
+         */
+        void addUnmatched(int positionCount) {
+            int matchedPositions = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || probePositions[i - 1] != probePositions[i]) {
+                    matchedPositions++;
+                }
+            }
+            int newCount = count + positionCount - matchedPositions;
+            ensureCapacity(newCount);
+            // Merge from the back so the matches are moved in place
+            int read = count - 1;
+            int write = newCount - 1;
+            for (int position = positionCount - 1; position >= 0; position--) {
+                if (read >= 0 && probePositions[read] == position) {
+                    while (read >= 0 && probePositions[read] == position) {
+                        probePositions[write] = position;
+                        buildRows[write--] = buildRows[read--];
+                    }
+                } else {
+                    probePositions[write] = position;
+                    buildRows[write--] = -1;
+                }
+            }
+            assert write == -1 && read == -1;
+            count = newCount;
+        }
+
+        private void append(int position, int buildRow) {
+            ensureCapacity(count + 1);
+            probePositions[count] = position;
+            buildRows[count] = buildRow;
+            count++;
+        }
+
+        private void ensureCapacity(int minSize) {
+            if (minSize <= probePositions.length) {
+                return;
+            }
+            int newSize = ArrayUtil.oversize(minSize, Integer.BYTES);
+            long delta = 2L * Integer.BYTES * (newSize - probePositions.length);
+            driverContext.breaker().addEstimateBytesAndMaybeBreak(delta, BREAKER_LABEL);
+            trackedBytes += delta;
+            probePositions = ArrayUtil.growExact(probePositions, newSize);
+            buildRows = ArrayUtil.growExact(buildRows, newSize);
+        }
+
+        @Override
+        public void close() {
+            driverContext.breaker().addWithoutBreaking(-trackedBytes);
+            trackedBytes = 0;
+        }
+    }
+
+    /**
+     * A {@link Page} containing just the key columns, sharing the blocks of the input.
+     * It must not be released.
+     */
+    private static Page keys(Page page, int[] keyChannels) {
+        Block[] keys = new Block[keyChannels.length];
+        for (int k = 0; k < keyChannels.length; k++) {
+            keys[k] = page.getBlock(keyChannels[k]);
+        }
+        return new Page(page.getPositionCount(), keys);
+    }
+
+    private static boolean anyNull(Page keys, int position) {
+        for (int k = 0; k < keys.getBlockCount(); k++) {
+            if (keys.getBlock(k).isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The number of groups in the hash.
+     */
+    int hashGroupCount() {
+        try (IntVector nonEmpty = hash.nonEmpty()) {
+            return nonEmpty.getPositionCount();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HashJoinOperator[hash=" + hash + ", buildRows=" + build.getPositionCount() + ", leftJoin=" + leftJoin + "]";
+    }
+
+    @Override
+    public void close() {
+        CircuitBreaker breaker = driverContext.breaker();
+        Releasables.closeExpectNoException(
+            hash,
+            build::releaseBlocks,
+            () -> breaker.addWithoutBreaking(-trackedBytes),
+            () -> {
+                if (probe != null) {
+                    releaseProbe();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.topn;
+
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.BreakingBytesRefBuilder;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.topn.TopNOperator.Row;
+import org.elasticsearch.compute.operator.topn.TopNOperator.RowFiller;
+import org.elasticsearch.compute.operator.topn.TopNOperator.SortOrder;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An operator that sorts <strong>all</strong> of its input. Rows are encoded exactly like
+ * {@link TopNOperator} encodes them so they can be compared as bytes. Rows are buffered in
+ * memory until they take up more than {@code maxBufferBytes}, at which point they are sorted
+ * and written to a temporary file as a "run". Once all input has been received the runs are
+ * merged, emitting one page at a time, so the memory used doesn't depend on the number of rows.
+ * At most {@code maxMergeFanIn} runs are open at once. If there are more runs than that they
+ * are first merged into fewer, larger runs, so the open files and the memory used by their
+ * buffers don't depend on the number of runs either.
+ */
+public class ExternalSortOperator implements Operator {
+
+    /**
+     * The default number of runs that are merged at once.
+     */
+    public static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+
+    public record ExternalSortOperatorFactory(
+        List<ElementType> elementTypes,
+        List<TopNEncoder> encoders,
+        List<SortOrder> sortOrders,
+        int maxPageSize,
+        long maxBufferBytes,
+        int maxMergeFanIn,
+        Path tmpDirectory
+    ) implements OperatorFactory {
+        public ExternalSortOperatorFactory {
+            for (ElementType e : elementTypes) {
+                if (e == null) {
+                    throw new IllegalArgumentException("ElementType not known");
+                }
+            }
+            if (maxMergeFanIn < 2) {
+                throw new IllegalArgumentException("maxMergeFanIn must be at least 2 but was [" + maxMergeFanIn + "]");
+            }
+            requireNonNull(tmpDirectory, "tmpDirectory is null");
+        }
+
+        public ExternalSortOperatorFactory(
+            List<ElementType> elementTypes,
+            List<TopNEncoder> encoders,
+            List<SortOrder> sortOrders,
+            int maxPageSize,
+            long maxBufferBytes,
+            Path tmpDirectory
+        ) {
+            this(elementTypes, encoders, sortOrders, maxPageSize, maxBufferBytes, DEFAULT_MAX_MERGE_FAN_IN, tmpDirectory);
+        }
+
+        @Override
+        public ExternalSortOperator get(DriverContext driverContext) {
+            return new ExternalSortOperator(
+                driverContext.blockFactory(),
+                driverContext.breaker(),
+                elementTypes,
+                encoders,
+                sortOrders,
+                maxPageSize,
+                maxBufferBytes,
+                maxMergeFanIn,
+                tmpDirectory
+            );
+        }
+
+        @Override
+        public String describe() {
+            return "ExternalSortOperator[elementTypes="
+                + elementTypes
+                + ", encoders="
+                + encoders
+                + ", sortOrders="
+                + sortOrders
+                + ", maxBufferBytes="
+                + maxBufferBytes
+                + "]";
+        }
+    }
+
+    private final BlockFactory blockFactory;
+    private final CircuitBreaker breaker;
+    private final List<ElementType> elementTypes;
+    private final List<TopNEncoder> encoders;
+    private final List<SortOrder> sortOrders;
+    private final int maxPageSize;
+    private final long maxBufferBytes;
+    private final int maxMergeFanIn;
+    private final Path tmpDirectory;
+
+    /**
+     * Rows received since the last spill.
+     */
+    private final List<Row> buffer = new ArrayList<>();
+    private long bufferBytes;
+    private int nextBufferRow;
+
+    /**
+     * Sorted runs written to disk.
+     */
+    private final List<Path> runs = new ArrayList<>();
+
+    /**
+     * Merges the runs once we're finished, {@code null} if we haven't spilled.
+     */
+    private RunQueue merge;
+
+    /**
+     * The number of times runs were merged into a larger run before the final merge.
+     */
+    private int intermediateMerges;
+
+    private boolean finished;
+    private boolean outputExhausted;
+
+    public ExternalSortOperator(
+        BlockFactory blockFactory,
+        CircuitBreaker breaker,
+        List<ElementType> elementTypes,
+        List<TopNEncoder> encoders,
+        List<SortOrder> sortOrders,
+        int maxPageSize,
+        long maxBufferBytes,
+        int maxMergeFanIn,
+        Path tmpDirectory
+    ) {
+        if (maxMergeFanIn < 2) {
+            throw new IllegalArgumentException("maxMergeFanIn must be at least 2 but was [" + maxMergeFanIn + "]");
+        }
+        this.blockFactory = blockFactory;
+        this.breaker = breaker;
+        this.elementTypes = elementTypes;
+        this.encoders = encoders;
+        this.sortOrders = sortOrders;
+        this.maxPageSize = maxPageSize;
+        this.maxBufferBytes = maxBufferBytes;
+        this.maxMergeFanIn = maxMergeFanIn;
+        this.tmpDirectory = tmpDirectory;
+    }
+
+    @Override
+    public boolean needsInput() {
+        return finished == false;
+    }
+
+    @Override
+    public void addInput(Page page) {
+        try {
+            RowFiller rowFiller = new RowFiller(elementTypes, encoders, sortOrders, page);
+            for (int i = 0; i < page.getPositionCount(); i++) {
+                Row row = new Row(breaker, sortOrders, 0, 0);
+                buffer.add(row);
+                rowFiller.row(i, row);
+                bufferBytes += row.ramBytesUsed();
+                if (bufferBytes >= maxBufferBytes) {
+                    spill();
+                }
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (runs.isEmpty()) {
+            sortBuffer();
+            return;
+        }
+        spill();
+        while (runs.size() > maxMergeFanIn) {
+            mergeRuns();
+        }
+        merge = openRuns(runs);
+    }
+
+    /**
+     * Open a reader for each of the given runs, positioned on its first row.
+     */
+    private RunQueue openRuns(List<Path> toOpen) {
+        RunQueue queue = new RunQueue(toOpen.size());
+        boolean success = false;
+        try {
+            for (Path run : toOpen) {
+                RunReader reader = null;
+                try {
+                    reader = new RunReader(run);
+                    reader.advance();
+                } catch (IOException e) {
+                    Releasables.closeExpectNoException(reader);
+                    throw new UncheckedIOException("failed to read sorted run", e);
+                }
+                if (reader.current == null) {
+                    reader.close();
+                } else {
+                    queue.add(reader);
+                }
+            }
+            success = true;
+            return queue;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(Releasables.wrap(queue));
+            }
+        }
+    }
+
+    /**
+     * Merge the oldest {@link #maxMergeFanIn} runs into a single new run that
+     * goes to the back of the list. Merging the oldest runs first means every
+     * row is rewritten about {@code log(runs) / log(maxMergeFanIn)} times.
+     */
+    private void mergeRuns() {
+        List<Path> toMerge = new ArrayList<>(runs.subList(0, maxMergeFanIn));
+        try (RunQueue queue = openRuns(toMerge)) {
+            int rowCount = 0;
+            for (RunReader reader : queue) {
+                // the reader is positioned on its first row
+                rowCount += reader.remaining + 1;
+            }
+            Path merged = Files.createTempFile(tmpDirectory, "esql-sort-run-", ".bin");
+            runs.add(merged);
+            try (StreamOutput out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(merged)))) {
+                out.writeVInt(rowCount);
+                Row row;
+                while ((row = nextRow(queue)) != null) {
+                    try {
+                        writeRow(out, row);
+                    } finally {
+                        row.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write sorted run", e);
+        }
+        runs.subList(0, maxMergeFanIn).clear();
+        IOUtils.deleteFilesIgnoringExceptions(toMerge.toArray(Path[]::new));
+        intermediateMerges++;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished && outputExhausted;
+    }
+
+    @Override
+    public Page getOutput() {
+        if (finished == false || outputExhausted) {
+            return null;
+        }
+        ResultBuilder[] builders = TopNOperator.resultBuilders(blockFactory, elementTypes, encoders, sortOrders, maxPageSize);
+        try {
+            int rows = 0;
+            while (rows < maxPageSize) {
+                Row row = nextRow();
+                if (row == null) {
+                    outputExhausted = true;
+                    break;
+                }
+                try {
+                    TopNOperator.decodeRow(row, sortOrders, builders);
+                } finally {
+                    row.close();
+                }
+                rows++;
+            }
+            return rows == 0 ? null : TopNOperator.buildPage(builders);
+        } finally {
+            Releasables.closeExpectNoException(builders);
+        }
+    }
+
+    /**
+     * The next row in sort order or {@code null} if there aren't any more rows.
+     * The caller is responsible for closing the returned row.
+     */
+    private Row nextRow() {
+        if (merge == null) {
+            if (nextBufferRow == buffer.size()) {
+                return null;
+            }
+            Row row = buffer.get(nextBufferRow);
+            buffer.set(nextBufferRow++, null);
+            return row;
+        }
+        return nextRow(merge);
+    }
+
+    /**
+     * The next row in sort order from {@code queue} or {@code null} if the runs are exhausted.
+     * The caller is responsible for closing the returned row.
+     */
+    private static Row nextRow(RunQueue queue) {
+        if (queue.size() == 0) {
+            return null;
+        }
+        RunReader top = queue.top();
+        Row row = top.current;
+        top.current = null;
+        try {
+            top.advance();
+        } catch (IOException e) {
+            row.close();
+            throw new UncheckedIOException("failed to read sorted run", e);
+        }
+        if (top.current == null) {
+            queue.pop().close();
+        } else {
+            queue.updateTop();
+        }
+        return row;
+    }
+
+    /**
+     * Sort the buffered rows. {@link TopNOperator#compareRows} returns a positive
+     * number when the first row sorts before the second.
+     */
+    private void sortBuffer() {
+        buffer.sort((lhs, rhs) -> TopNOperator.compareRows(rhs, lhs));
+    }
+
+    /**
+     * Sort the buffered rows and write them to a new run, releasing their memory.
+     */
+    private void spill() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        sortBuffer();
+        try {
+            Path run = Files.createTempFile(tmpDirectory, "esql-sort-run-", ".bin");
+            runs.add(run);
+            try (StreamOutput out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                out.writeVInt(buffer.size());
+                for (Row row : buffer) {
+                    writeRow(out, row);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write sorted run", e);
+        }
+        Releasables.closeExpectNoException(Releasables.wrap(buffer));
+        buffer.clear();
+        bufferBytes = 0;
+    }
+
+    private void writeRow(StreamOutput out, Row row) throws IOException {
+        out.writeBytesRef(row.keys.bytesRefView());
+        for (int endOffset : row.bytesOrder.endOffsets) {
+            out.writeVInt(endOffset);
+        }
+        out.writeBytesRef(row.values.bytesRefView());
+    }
+
+    private Row readRow(StreamInput in) throws IOException {
+        Row row = new Row(breaker, sortOrders, 0, 0);
+        try {
+            readBytes(in, row.keys);
+            for (int i = 0; i < row.bytesOrder.endOffsets.length; i++) {
+                row.bytesOrder.endOffsets[i] = in.readVInt();
+            }
+            readBytes(in, row.values);
+            return row;
+        } catch (IOException | RuntimeException e) {
+            row.close();
+            throw e;
+        }
+    }
+
+    private static void readBytes(StreamInput in, BreakingBytesRefBuilder builder) throws IOException {
+        int length = in.readVInt();
+        builder.grow(length);
+        in.readBytes(builder.bytes(), 0, length);
+        builder.setLength(length);
+    }
+
+    @Override
+    public void close() {
+        Releasables.closeExpectNoException(
+            Releasables.wrap(buffer),
+            merge,
+            () -> IOUtils.deleteFilesIgnoringExceptions(runs.toArray(Path[]::new))
+        );
+    }
+
+    /**
+     * The number of times runs were merged into a larger run before the final merge.
+     */
+    int intermediateMerges() {
+        return intermediateMerges;
+    }
+
+    @Override
+    public String toString() {
+        return "ExternalSortOperator[elementTypes="
+            + elementTypes
+            + ", encoders="
+            + encoders
+            + ", sortOrders="
+            + sortOrders
+            + ", runs="
+            + runs.size()
+            + "]";
+    }
+
+    /**
+     * Reads the rows of a single sorted run, one at a time.
+     */
+    private class RunReader implements Releasable {
+        private final StreamInput in;
+        private int remaining;
+        private Row current;
+
+        RunReader(Path run) throws IOException {
+            this.in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(run)));
+            this.remaining = in.readVInt();
+        }
+
+        void advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return;
+            }
+            current = readRow(in);
+            remaining--;
+        }
+
+        @Override
+        public void close() {
+            Releasables.closeExpectNoException(current);
+            IOUtils.closeWhileHandlingException(in);
+        }
+    }
+
+    private static class RunQueue extends PriorityQueue<RunReader> implements Releasable {
+        RunQueue(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        public void close() {
+            Releasables.closeExpectNoException(Releasables.wrap(this));
+        }
+
+        @Override
+        protected boolean lessThan(RunReader lhs, RunReader rhs) {
+            return TopNOperator.compareRows(lhs.current, rhs.current) > 0;
+        }
+    }
+}
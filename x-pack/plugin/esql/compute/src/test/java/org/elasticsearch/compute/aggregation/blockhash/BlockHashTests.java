@@ -21,6 +21,7 @@ import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.LongBlock;
@@ -1113,6 +1114,68 @@ public class BlockHashTests extends ESTestCase {
         }, blockFactory.newLongArrayVector(values, values.length).asBlock(), blockFactory.newConstantNullBlock(values.length));
     }
 
+    public void testLookup() {
+        DriverContext driverContext = new DriverContext(bigArrays, blockFactory);
+        List<HashAggregationOperator.GroupSpec> specs = List.of(new HashAggregationOperator.GroupSpec(0, ElementType.LONG));
+        try (
+            BlockHash blockHash = forcePackedHash
+                ? new PackedValuesBlockHash(specs, driverContext, 1024)
+                : BlockHash.build(specs, driverContext, 1024, false)
+        ) {
+            int[] added = new int[3];
+            try (LongBlock keys = blockFactory.newLongArrayVector(new long[] { 1, 2, 3 }, 3).asBlock()) {
+                hash(false, blockHash, ordsAndKeys -> {
+                    for (int p = 0; p < added.length; p++) {
+                        added[p] = ordsAndKeys.ords.getInt(p);
+                    }
+                }, keys);
+            }
+            String description = blockHash.toString();
+
+            List<Set<Integer>> found = new ArrayList<>();
+            try (
+                LongBlock probe = blockFactory.newLongBlockBuilder(5)
+                    .appendLong(2)
+                    .appendLong(4)
+                    .appendNull()
+                    .beginPositionEntry()
+                    .appendLong(3)
+                    .appendLong(5)
+                    .appendLong(1)
+                    .endPositionEntry()
+                    .appendLong(1)
+                    .build()
+            ) {
+                blockHash.lookup(new Page(probe), new GroupingAggregatorFunction.AddInput() {
+                    @Override
+                    public void add(int positionOffset, IntBlock groupIds) {
+                        assertThat(positionOffset, equalTo(0));
+                        for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                            if (groupIds.isNull(p)) {
+                                found.add(null);
+                                continue;
+                            }
+                            Set<Integer> ords = new HashSet<>();
+                            int start = groupIds.getFirstValueIndex(p);
+                            for (int i = start; i < start + groupIds.getValueCount(p); i++) {
+                                ords.add(groupIds.getInt(i));
+                            }
+                            found.add(ords);
+                        }
+                    }
+
+                    @Override
+                    public void add(int positionOffset, IntVector groupIds) {
+                        add(positionOffset, groupIds.asBlock());
+                    }
+                });
+            }
+            assertThat(found, equalTo(Arrays.asList(Set.of(added[1]), null, null, Set.of(added[2], added[0]), Set.of(added[0]))));
+            // Looking up keys never adds them
+            assertThat(blockHash.toString(), equalTo(description));
+        }
+    }
+
     record OrdsAndKeys(String description, int positionOffset, IntBlock ords, Block[] keys, IntVector nonEmpty) {}
 
     /**
@@ -7,6 +7,7 @@
 
 package org.elasticsearch.compute.operator;
 
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.compute.aggregation.AggregatorMode;
 import org.elasticsearch.compute.aggregation.MaxLongAggregatorFunction;
 import org.elasticsearch.compute.aggregation.MaxLongAggregatorFunctionSupplier;
@@ -16,16 +17,22 @@ import org.elasticsearch.compute.aggregation.SumLongAggregatorFunctionSupplier;
 import org.elasticsearch.compute.aggregation.SumLongGroupingAggregatorFunctionTests;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockTestUtils;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.TestBlockFactory;
 import org.elasticsearch.core.Tuple;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.LongStream;
 
 import static java.util.stream.IntStream.range;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 
 public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
@@ -40,6 +47,10 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
 
     @Override
     protected Operator.OperatorFactory simpleWithMode(AggregatorMode mode) {
+        return simpleWithMode(mode, null);
+    }
+
+    private Operator.OperatorFactory simpleWithMode(AggregatorMode mode, HashAggregationOperator.SpillConfig spillConfig) {
         List<Integer> sumChannels, maxChannels;
         if (mode.isInputPartial()) {
             int sumChannelCount = SumLongAggregatorFunction.intermediateStateDesc().size();
@@ -56,7 +67,8 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
                 new SumLongAggregatorFunctionSupplier(sumChannels).groupingAggregatorFactory(mode),
                 new MaxLongAggregatorFunctionSupplier(maxChannels).groupingAggregatorFactory(mode)
             ),
-            randomPageSize()
+            randomPageSize(),
+            spillConfig
         );
     }
 
@@ -90,4 +102,96 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
             max.assertSimpleGroup(input, maxs, i, group);
         }
     }
+
+    public void testSpillFinal() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 10_000)));
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+        List<Page> partials = oneDriverPerPage(input, () -> List.of(simpleWithMode(AggregatorMode.INITIAL).get(driverContext)));
+
+        // Spill after every page
+        var spillConfig = new HashAggregationOperator.SpillConfig(createTempDir(), Double.MIN_VALUE, between(1, 8), 0);
+        Operator operator = simpleWithMode(AggregatorMode.FINAL, spillConfig).get(driverContext);
+        List<Page> results = drive(operator, partials.iterator(), driverContext);
+        assertSpilledResults(origInput, results);
+        assertDriverContext(driverContext);
+    }
+
+    public void testSpillRepartitionsPartitionsThatDoNotFit() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 10_000)));
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+        List<Page> partials = oneDriverPerPage(input, () -> List.of(simpleWithMode(AggregatorMode.INITIAL).get(driverContext)));
+
+        // A single partition can never fit so it is spilled again while it is re-aggregated
+        var spillConfig = new HashAggregationOperator.SpillConfig(createTempDir(), Double.MIN_VALUE, 1, 0);
+        List<Page> results = new ArrayList<>();
+        try (var operator = (HashAggregationOperator) simpleWithMode(AggregatorMode.FINAL, spillConfig).get(driverContext)) {
+            for (Page page : partials) {
+                operator.addInput(page);
+            }
+            operator.finish();
+            int spillsBeforeReaggregating = operator.spillCount();
+            assertThat(spillsBeforeReaggregating, equalTo(partials.size() + 1));
+            while (operator.isFinished() == false) {
+                Page page = operator.getOutput();
+                if (page != null) {
+                    results.add(page);
+                }
+            }
+            assertThat(operator.spillCount(), greaterThan(spillsBeforeReaggregating));
+        }
+        assertSpilledResults(origInput, results);
+        assertDriverContext(driverContext);
+    }
+
+    public void testMemoryOfOthersDoesNotSpillSmallGroups() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 10_000)));
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+        List<Page> partials = oneDriverPerPage(input, () -> List.of(simpleWithMode(AggregatorMode.INITIAL).get(driverContext)));
+
+        // Others hold more than the ratio of the breaker, but the groups stay under the minimum spill size
+        long othersBytes = driverContext.breaker().getLimit() / 2;
+        driverContext.breaker().addWithoutBreaking(othersBytes);
+        var spillConfig = new HashAggregationOperator.SpillConfig(createTempDir(), 0.25, between(1, 8), ByteSizeValue.ofMb(1).getBytes());
+        List<Page> results = new ArrayList<>();
+        try (var operator = (HashAggregationOperator) simpleWithMode(AggregatorMode.FINAL, spillConfig).get(driverContext)) {
+            for (Page page : partials) {
+                operator.addInput(page);
+            }
+            operator.finish();
+            assertThat(operator.spillCount(), equalTo(0));
+            while (operator.isFinished() == false) {
+                Page page = operator.getOutput();
+                if (page != null) {
+                    results.add(page);
+                }
+            }
+        } finally {
+            driverContext.breaker().addWithoutBreaking(-othersBytes);
+        }
+        assertSpilledResults(origInput, results);
+        assertDriverContext(driverContext);
+    }
+
+    private void assertSpilledResults(List<Page> origInput, List<Page> results) {
+        SumLongGroupingAggregatorFunctionTests sum = new SumLongGroupingAggregatorFunctionTests();
+        MaxLongGroupingAggregatorFunctionTests max = new MaxLongGroupingAggregatorFunctionTests();
+        Set<Long> seenGroups = new HashSet<>();
+        for (Page page : results) {
+            assertThat(page.getBlockCount(), equalTo(3));
+            LongBlock groups = page.getBlock(0);
+            Block sums = page.getBlock(1);
+            Block maxs = page.getBlock(2);
+            for (int i = 0; i < page.getPositionCount(); i++) {
+                long group = groups.getLong(i);
+                assertTrue("group [" + group + "] emitted twice", seenGroups.add(group));
+                sum.assertSimpleGroup(origInput, sums, i, group);
+                max.assertSimpleGroup(origInput, maxs, i, group);
+            }
+            page.releaseBlocks();
+        }
+        assertThat(seenGroups, equalTo(Set.of(0L, 1L, 2L, 3L, 4L)));
+    }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.HashAggregationOperator.GroupSpec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class HashJoinOperatorTests extends OperatorTestCase {
+    private static final int BUILD_SIZE = 10;
+
+    /**
+     * A build side with the keys {@code 0} through {@code 9} and a value ten times the key.
+     */
+    private static Page simpleBuild(BlockFactory blockFactory) {
+        long[] keys = LongStream.range(0, BUILD_SIZE).toArray();
+        long[] values = LongStream.range(0, BUILD_SIZE).map(k -> k * 10).toArray();
+        LongBlock keyBlock = blockFactory.newLongArrayVector(keys, keys.length).asBlock();
+        try {
+            return new Page(keyBlock, blockFactory.newLongArrayVector(values, values.length).asBlock());
+        } catch (Exception e) {
+            keyBlock.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected Operator.OperatorFactory simple() {
+        return new HashJoinOperator.HashJoinOperatorFactory(
+            HashJoinOperatorTests::simpleBuild,
+            List.of(0),
+            List.of(new GroupSpec(0, ElementType.LONG)),
+            false,
+            randomPageSize()
+        );
+    }
+
+    @Override
+    protected String expectedDescriptionOfSimple() {
+        return "HashJoinOperator[buildKeys=[0], probeKeys=[GroupSpec[channel=0, elementType=LONG]], leftJoin=false]";
+    }
+
+    @Override
+    protected String expectedToStringOfSimple() {
+        return "HashJoinOperator[hash=LongBlockHash{channel=0, entries=10, seenNull=false}, buildRows=10, leftJoin=false]";
+    }
+
+    @Override
+    protected SourceOperator simpleInput(BlockFactory blockFactory, int size) {
+        return new SequenceLongBlockSourceOperator(blockFactory, LongStream.range(0, size).map(l -> randomLongBetween(0, BUILD_SIZE * 2)));
+    }
+
+    @Override
+    protected void assertSimpleOutput(List<Page> input, List<Page> results) {
+        List<Long> expected = new ArrayList<>();
+        for (Page page : input) {
+            LongBlock keys = page.getBlock(0);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                if (keys.getLong(p) < BUILD_SIZE) {
+                    expected.add(keys.getLong(p));
+                }
+            }
+        }
+        List<Long> actual = new ArrayList<>();
+        for (Page page : results) {
+            assertThat(page.getBlockCount(), equalTo(3));
+            LongBlock probeKeys = page.getBlock(0);
+            LongBlock buildKeys = page.getBlock(1);
+            LongBlock buildValues = page.getBlock(2);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                assertThat(buildKeys.getLong(p), equalTo(probeKeys.getLong(p)));
+                assertThat(buildValues.getLong(p), equalTo(probeKeys.getLong(p) * 10));
+                actual.add(probeKeys.getLong(p));
+            }
+        }
+        assertThat(actual, equalTo(expected));
+    }
+
+    public void testLeftJoinWithDuplicatesAndNulls() {
+        DriverContext driverContext = driverContext();
+        BlockFactory blockFactory = driverContext.blockFactory();
+        Function<BlockFactory, Page> build = bf -> new Page(
+            bf.newLongBlockBuilder(4).appendLong(1).appendLong(2).appendLong(2).appendNull().build(),
+            bf.newLongBlockBuilder(4).appendLong(10).appendLong(20).appendLong(21).appendLong(99).build()
+        );
+        Page probe = new Page(blockFactory.newLongBlockBuilder(4).appendLong(1).appendLong(2).appendLong(3).appendNull().build());
+        var factory = new HashJoinOperator.HashJoinOperatorFactory(
+            build,
+            List.of(0),
+            List.of(new GroupSpec(0, ElementType.LONG)),
+            true,
+            randomPageSize()
+        );
+        List<List<Object>> rows = rows(drive(factory.get(driverContext), List.of(probe).iterator(), driverContext));
+        assertThat(rows.size(), equalTo(5));
+        assertThat(rows.get(0), equalTo(Arrays.asList(1L, 1L, 10L)));
+        // The order of the matches for a single probe row isn't defined
+        assertThat(
+            rows.subList(1, 3).stream().sorted((lhs, rhs) -> Long.compare((Long) lhs.get(2), (Long) rhs.get(2))).toList(),
+            equalTo(List.of(Arrays.asList(2L, 2L, 20L), Arrays.asList(2L, 2L, 21L)))
+        );
+        assertThat(rows.get(3), equalTo(Arrays.asList(3L, null, null)));
+        assertThat(rows.get(4), equalTo(Arrays.asList(null, null, null)));
+        assertDriverContext(driverContext);
+    }
+
+    public void testMultivaluedKeysMatchEachBuildRowOnce() {
+        DriverContext driverContext = driverContext();
+        BlockFactory blockFactory = driverContext.blockFactory();
+        Function<BlockFactory, Page> build = bf -> new Page(
+            bf.newLongBlockBuilder(2).beginPositionEntry().appendLong(1).appendLong(2).endPositionEntry().appendLong(3).build(),
+            bf.newLongBlockBuilder(2).appendLong(10).appendLong(30).build()
+        );
+        Page probe = new Page(
+            blockFactory.newLongBlockBuilder(2)
+                .beginPositionEntry()
+                .appendLong(1)
+                .appendLong(2)
+                .appendLong(3)
+                .endPositionEntry()
+                .beginPositionEntry()
+                .appendLong(2)
+                .appendLong(4)
+                .endPositionEntry()
+                .build()
+        );
+        var factory = new HashJoinOperator.HashJoinOperatorFactory(
+            build,
+            List.of(0),
+            List.of(new GroupSpec(0, ElementType.LONG)),
+            false,
+            randomPageSize()
+        );
+        List<List<Object>> rows = rows(drive(factory.get(driverContext), List.of(probe).iterator(), driverContext));
+        // The first probe row matches the first build row through both 1 and 2 but is only emitted once for it
+        assertThat(rows.stream().map(row -> (Long) row.get(2)).sorted().toList(), equalTo(List.of(10L, 10L, 30L)));
+        assertDriverContext(driverContext);
+    }
+
+    public void testOutputIsSplitIntoPages() {
+        DriverContext driverContext = driverContext();
+        BlockFactory blockFactory = driverContext.blockFactory();
+        int buildRows = between(10, 100);
+        Function<BlockFactory, Page> build = bf -> {
+            LongBlock keys = bf.newConstantLongBlockWith(1, buildRows);
+            try {
+                return new Page(keys, bf.newLongArrayVector(LongStream.range(0, buildRows).toArray(), buildRows).asBlock());
+            } catch (Exception e) {
+                keys.close();
+                throw e;
+            }
+        };
+        int probeRows = between(1, 10);
+        Page probe = new Page(blockFactory.newConstantLongBlockWith(1, probeRows));
+        int maxPageSize = between(1, 20);
+        var factory = new HashJoinOperator.HashJoinOperatorFactory(
+            build,
+            List.of(0),
+            List.of(new GroupSpec(0, ElementType.LONG)),
+            false,
+            maxPageSize
+        );
+        List<Page> results = drive(factory.get(driverContext), List.of(probe).iterator(), driverContext);
+        int total = 0;
+        for (Page page : results) {
+            assertThat(page.getPositionCount(), lessThanOrEqualTo(maxPageSize));
+            total += page.getPositionCount();
+        }
+        assertThat(rows(results).size(), equalTo(total));
+        assertThat(total, equalTo(buildRows * probeRows));
+        assertDriverContext(driverContext);
+    }
+
+    /**
+     * Read all rows of {@code pages}, which must only contain {@link LongBlock}s, and release them.
+     */
+    private static List<List<Object>> rows(List<Page> pages) {
+        List<List<Object>> rows = new ArrayList<>();
+        try {
+            for (Page page : pages) {
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    List<Object> row = new ArrayList<>();
+                    for (int b = 0; b < page.getBlockCount(); b++) {
+                        LongBlock block = page.getBlock(b);
+                        row.add(block.isNull(p) ? null : block.getLong(block.getFirstValueIndex(p)));
+                    }
+                    rows.add(row);
+                }
+            }
+        } finally {
+            pages.forEach(Page::releaseBlocks);
+        }
+        return rows;
+    }
+
+    public void testProbeDoesNotGrowHash() {
+        DriverContext driverContext = driverContext();
+        BlockFactory blockFactory = driverContext.blockFactory();
+        HashJoinOperator op = (HashJoinOperator) simple().get(driverContext);
+        try {
+            assertThat(op.hashGroupCount(), equalTo(BUILD_SIZE));
+            for (int page = 0; page < 10; page++) {
+                long[] keys = LongStream.range(0, 1000).map(l -> randomLongBetween(0, 10_000)).toArray();
+                op.addInput(new Page(blockFactory.newLongArrayVector(keys, keys.length).asBlock()));
+                while (op.needsInput() == false) {
+                    Page output = op.getOutput();
+                    if (output != null) {
+                        output.releaseBlocks();
+                    }
+                }
+            }
+            // The probe keys are only looked up so keys that aren't on the build side are never added
+            assertThat(op.hashGroupCount(), equalTo(BUILD_SIZE));
+        } finally {
+            op.close();
+        }
+        assertDriverContext(driverContext);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.topn;
+
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.CannedSourceOperator;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.OperatorTestCase;
+import org.elasticsearch.compute.operator.SequenceLongBlockSourceOperator;
+import org.elasticsearch.compute.operator.SourceOperator;
+import org.elasticsearch.compute.operator.TupleBlockSourceOperator;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.elasticsearch.compute.data.ElementType.LONG;
+import static org.elasticsearch.compute.operator.topn.TopNEncoder.DEFAULT_UNSORTABLE;
+import static org.elasticsearch.core.Tuple.tuple;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ExternalSortOperatorTests extends OperatorTestCase {
+    private final int pageSize = randomPageSize();
+    private final long maxBufferBytes = randomBoolean() ? Long.MAX_VALUE : between(1_000, 100_000);
+
+    @Override
+    protected ExternalSortOperator.ExternalSortOperatorFactory simple() {
+        return new ExternalSortOperator.ExternalSortOperatorFactory(
+            List.of(LONG),
+            List.of(DEFAULT_UNSORTABLE),
+            List.of(new TopNOperator.SortOrder(0, true, false)),
+            pageSize,
+            maxBufferBytes,
+            createTempDir()
+        );
+    }
+
+    @Override
+    protected String expectedDescriptionOfSimple() {
+        return "ExternalSortOperator[elementTypes=[LONG], encoders=[DefaultUnsortable], "
+            + "sortOrders=[SortOrder[channel=0, asc=true, nullsFirst=false]], maxBufferBytes="
+            + maxBufferBytes
+            + "]";
+    }
+
+    @Override
+    protected String expectedToStringOfSimple() {
+        return "ExternalSortOperator[elementTypes=[LONG], encoders=[DefaultUnsortable], "
+            + "sortOrders=[SortOrder[channel=0, asc=true, nullsFirst=false]], runs=0]";
+    }
+
+    @Override
+    protected SourceOperator simpleInput(BlockFactory blockFactory, int size) {
+        return new SequenceLongBlockSourceOperator(
+            blockFactory,
+            LongStream.range(0, size).map(l -> ESTestCase.randomLong()),
+            between(1, size * 2)
+        );
+    }
+
+    @Override
+    protected void assertSimpleOutput(List<Page> input, List<Page> results) {
+        for (int i = 0; i < results.size() - 1; i++) {
+            assertThat(results.get(i).getPositionCount(), equalTo(pageSize));
+        }
+        assertThat(results.get(results.size() - 1).getPositionCount(), lessThanOrEqualTo(pageSize));
+        long[] sorted = input.stream()
+            .flatMapToLong(
+                page -> IntStream.range(0, page.getPositionCount()).mapToLong(p -> ((LongBlock) page.getBlock(0)).getLong(p))
+            )
+            .sorted()
+            .toArray();
+        assertThat(
+            results.stream()
+                .flatMapToLong(page -> IntStream.range(0, page.getPositionCount()).mapToLong(i -> page.<LongBlock>getBlock(0).getLong(i)))
+                .toArray(),
+            equalTo(sorted)
+        );
+    }
+
+    public void testSortWithSpills() {
+        for (boolean asc : List.of(true, false)) {
+            DriverContext driverContext = driverContext();
+            List<Tuple<Long, Long>> values = randomList(0, 5000, () -> tuple(randomLongBetween(-100, 100), randomLong()));
+            List<Page> input = CannedSourceOperator.collectPages(
+                new TupleBlockSourceOperator(driverContext.blockFactory(), values, between(1, 100))
+            );
+            ExternalSortOperator.ExternalSortOperatorFactory factory = new ExternalSortOperator.ExternalSortOperatorFactory(
+                List.of(LONG, LONG),
+                List.of(DEFAULT_UNSORTABLE, DEFAULT_UNSORTABLE),
+                List.of(new TopNOperator.SortOrder(0, asc, false)),
+                pageSize,
+                between(100, 10_000),
+                createTempDir()
+            );
+            List<Page> results = drive(factory.get(driverContext), input.iterator(), driverContext);
+
+            List<Tuple<Long, Long>> actual = new ArrayList<>();
+            for (Page page : results) {
+                LongBlock keys = page.getBlock(0);
+                LongBlock others = page.getBlock(1);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    actual.add(tuple(keys.getLong(p), others.getLong(p)));
+                }
+                page.releaseBlocks();
+            }
+            Comparator<Long> keyOrder = asc ? Comparator.naturalOrder() : Comparator.reverseOrder();
+            for (int i = 1; i < actual.size(); i++) {
+                assertThat(keyOrder.compare(actual.get(i - 1).v1(), actual.get(i).v1()), lessThanOrEqualTo(0));
+            }
+            // Rows with the same key may come out in any order
+            Comparator<Tuple<Long, Long>> byBoth = Comparator.<Tuple<Long, Long>, Long>comparing(Tuple::v1).thenComparing(Tuple::v2);
+            assertThat(actual.stream().sorted(byBoth).toList(), equalTo(values.stream().sorted(byBoth).toList()));
+            assertDriverContext(driverContext);
+        }
+    }
+
+    public void testMultiPassMerge() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1_000, 5_000)));
+        List<Long> expected = new ArrayList<>();
+        for (Page page : input) {
+            LongBlock block = page.getBlock(0);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                expected.add(block.getLong(p));
+            }
+        }
+        expected.sort(Comparator.naturalOrder());
+        int maxMergeFanIn = between(2, 4);
+        ExternalSortOperator operator = new ExternalSortOperator.ExternalSortOperatorFactory(
+            List.of(LONG),
+            List.of(DEFAULT_UNSORTABLE),
+            List.of(new TopNOperator.SortOrder(0, true, false)),
+            pageSize,
+            between(100, 1_000),
+            maxMergeFanIn,
+            createTempDir()
+        ).get(driverContext);
+        List<Long> actual = new ArrayList<>();
+        try (operator) {
+            for (Page page : input) {
+                operator.addInput(page);
+            }
+            operator.finish();
+            assertThat(operator.intermediateMerges(), greaterThan(0));
+            while (operator.isFinished() == false) {
+                Page page = operator.getOutput();
+                if (page == null) {
+                    continue;
+                }
+                LongBlock block = page.getBlock(0);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    actual.add(block.getLong(p));
+                }
+                page.releaseBlocks();
+            }
+        }
+        assertThat(actual, equalTo(expected));
+        assertDriverContext(driverContext);
+    }
+}
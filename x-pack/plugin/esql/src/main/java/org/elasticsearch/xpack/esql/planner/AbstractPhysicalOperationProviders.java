@@ -155,7 +155,8 @@ public abstract class AbstractPhysicalOperationProviders implements PhysicalOper
                 operatorFactory = new HashAggregationOperatorFactory(
                     groupSpecs.stream().map(GroupSpec::toHashGroupSpec).toList(),
                     aggregatorFactories,
-                    context.pageSize(aggregateExec.estimatedRowSize())
+                    context.pageSize(aggregateExec.estimatedRowSize()),
+                    mode == AggregateExec.Mode.FINAL ? context.aggregationSpillConfig() : null
                 );
             }
         }
@@ -22,6 +22,7 @@ import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.EvalOperator.EvalOperatorFactory;
 import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
 import org.elasticsearch.compute.operator.FilterOperator.FilterOperatorFactory;
+import org.elasticsearch.compute.operator.HashAggregationOperator;
 import org.elasticsearch.compute.operator.LocalSourceOperator;
 import org.elasticsearch.compute.operator.LocalSourceOperator.LocalSourceFactory;
 import org.elasticsearch.compute.operator.MvExpandOperator;
@@ -85,6 +86,7 @@ import org.elasticsearch.xpack.ql.expression.NamedExpression;
 import org.elasticsearch.xpack.ql.expression.Order;
 import org.elasticsearch.xpack.ql.util.Holder;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -118,6 +120,7 @@ public class LocalExecutionPlanner {
     private final ExchangeSinkHandler exchangeSinkHandler;
     private final EnrichLookupService enrichLookupService;
     private final PhysicalOperationProviders physicalOperationProviders;
+    private final Path tmpDirectory;
 
     public LocalExecutionPlanner(
         String sessionId,
@@ -130,7 +133,8 @@ public class LocalExecutionPlanner {
         ExchangeSourceHandler exchangeSourceHandler,
         ExchangeSinkHandler exchangeSinkHandler,
         EnrichLookupService enrichLookupService,
-        PhysicalOperationProviders physicalOperationProviders
+        PhysicalOperationProviders physicalOperationProviders,
+        Path tmpDirectory
     ) {
         this.sessionId = sessionId;
         this.clusterAlias = clusterAlias;
@@ -143,6 +147,7 @@ public class LocalExecutionPlanner {
         this.enrichLookupService = enrichLookupService;
         this.physicalOperationProviders = physicalOperationProviders;
         this.configuration = configuration;
+        this.tmpDirectory = tmpDirectory;
     }
 
     /**
@@ -155,7 +160,8 @@ public class LocalExecutionPlanner {
             configuration.pragmas(),
             bigArrays,
             blockFactory,
-            settings
+            settings,
+            tmpDirectory
         );
 
         // workaround for https://github.com/elastic/elasticsearch/issues/99782
@@ -665,7 +671,8 @@ public class LocalExecutionPlanner {
         QueryPragmas queryPragmas,
         BigArrays bigArrays,
         BlockFactory blockFactory,
-        Settings settings
+        Settings settings,
+        Path tmpDirectory
     ) {
         void addDriverFactory(DriverFactory driverFactory) {
             driverFactories.add(driverFactory);
@@ -687,6 +694,23 @@ public class LocalExecutionPlanner {
             }
             return Math.max(SourceOperator.MIN_TARGET_PAGE_SIZE, SourceOperator.TARGET_PAGE_SIZE / estimatedRowSize);
         }
+
+        /**
+         * Configuration for spilling grouping aggregations to disk or {@code null}
+         * if spilling is disabled.
+         */
+        HashAggregationOperator.SpillConfig aggregationSpillConfig() {
+            double ratio = queryPragmas.aggregationSpillBreakerRatio();
+            if (ratio <= 0 || tmpDirectory == null) {
+                return null;
+            }
+            return new HashAggregationOperator.SpillConfig(
+                tmpDirectory,
+                ratio,
+                queryPragmas.aggregationSpillPartitions(),
+                queryPragmas.aggregationSpillMinSize().getBytes()
+            );
+        }
     }
 
     record DriverSupplier(
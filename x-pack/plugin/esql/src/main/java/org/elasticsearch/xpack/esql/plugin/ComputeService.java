@@ -71,6 +71,7 @@ import org.elasticsearch.xpack.esql.planner.LocalExecutionPlanner;
 import org.elasticsearch.xpack.esql.planner.PlannerUtils;
 import org.elasticsearch.xpack.esql.session.EsqlConfiguration;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -101,6 +102,7 @@ public class ComputeService {
     private final ExchangeService exchangeService;
     private final EnrichLookupService enrichLookupService;
     private final ClusterService clusterService;
+    private final Path tmpDirectory;
 
     public ComputeService(
         SearchService searchService,
@@ -110,7 +112,8 @@ public class ComputeService {
         ClusterService clusterService,
         ThreadPool threadPool,
         BigArrays bigArrays,
-        BlockFactory blockFactory
+        BlockFactory blockFactory,
+        Path tmpDirectory
     ) {
         this.searchService = searchService;
         this.transportService = transportService;
@@ -128,6 +131,7 @@ public class ComputeService {
         this.exchangeService = exchangeService;
         this.enrichLookupService = enrichLookupService;
         this.clusterService = clusterService;
+        this.tmpDirectory = tmpDirectory;
     }
 
     public void execute(
@@ -405,7 +409,8 @@ public class ComputeService {
                 context.exchangeSource(),
                 context.exchangeSink(),
                 enrichLookupService,
-                new EsPhysicalOperationProviders(contexts)
+                new EsPhysicalOperationProviders(contexts),
+                tmpDirectory
             );
 
             LOGGER.debug("Received physical plan:\n{}", plan);
@@ -12,6 +12,7 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.compute.lucene.DataPartitioning;
 import org.elasticsearch.compute.operator.Driver;
@@ -55,6 +56,32 @@ public final class QueryPragmas implements Writeable {
 
     public static final Setting<Integer> MAX_CONCURRENT_SHARDS_PER_NODE = Setting.intSetting("max_concurrent_shards_per_node", 10, 1, 100);
 
+    /**
+     * The ratio of the breaker's limit at which the final grouping aggregation
+     * spills its groups to disk. {@code 0} disables spilling.
+     */
+    public static final Setting<Double> AGGREGATION_SPILL_BREAKER_RATIO = Setting.doubleSetting(
+        "aggregation_spill_breaker_ratio",
+        0.0,
+        0.0,
+        1.0
+    );
+
+    /**
+     * The number of partitions spilled groups are hashed into. Each partition
+     * is aggregated on its own after all input has been received.
+     */
+    public static final Setting<Integer> AGGREGATION_SPILL_PARTITIONS = Setting.intSetting("aggregation_spill_partitions", 16, 1, 1024);
+
+    /**
+     * The memory the groups of the final grouping aggregation must hold before
+     * they are spilled to disk because the breaker nears its limit.
+     */
+    public static final Setting<ByteSizeValue> AGGREGATION_SPILL_MIN_SIZE = Setting.byteSizeSetting(
+        "aggregation_spill_min_size",
+        ByteSizeValue.ofMb(1)
+    );
+
     public static final QueryPragmas EMPTY = new QueryPragmas(Settings.EMPTY);
 
     private final Settings settings;
@@ -124,6 +151,28 @@ public final class QueryPragmas implements Writeable {
         return MAX_CONCURRENT_SHARDS_PER_NODE.get(settings);
     }
 
+    /**
+     * The ratio of the breaker's limit at which the final grouping aggregation
+     * spills its groups to disk. {@code 0} disables spilling.
+     */
+    public double aggregationSpillBreakerRatio() {
+        return AGGREGATION_SPILL_BREAKER_RATIO.get(settings);
+    }
+
+    /**
+     * The number of partitions spilled groups are hashed into.
+     */
+    public int aggregationSpillPartitions() {
+        return AGGREGATION_SPILL_PARTITIONS.get(settings);
+    }
+
+    /**
+     * The memory the groups must hold before they are spilled to disk.
+     */
+    public ByteSizeValue aggregationSpillMinSize() {
+        return AGGREGATION_SPILL_MIN_SIZE.get(settings);
+    }
+
     public boolean isEmpty() {
         return settings.isEmpty();
     }
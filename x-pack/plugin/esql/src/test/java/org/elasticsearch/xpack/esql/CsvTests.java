@@ -356,7 +356,8 @@ public class CsvTests extends ESTestCase {
             exchangeSource,
             exchangeSink,
             Mockito.mock(EnrichLookupService.class),
-            testOperationProviders(testDataset)
+            testOperationProviders(testDataset),
+            createTempDir()
         );
         //
         // Keep in sync with ComputeService#execute
@@ -50,6 +50,11 @@ public class RestMonitoringBulkActionTests extends ESTestCase {
         assertThat(action.supportsContentStream(), is(true));
     }
 
+    public void testDoesNotSupportHttpContentStream() {
+        // the body is read in full with content(), so the http transport must not stream it even though the path ends in _bulk
+        assertThat(action.supportsHttpContentStream(), is(false));
+    }
+
     public void testMissingSystemId() {
         final RestRequest restRequest = createRestRequest(null, TEMPLATE_VERSION, "10s");
 
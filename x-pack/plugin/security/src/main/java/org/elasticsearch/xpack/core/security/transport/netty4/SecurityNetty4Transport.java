@@ -41,6 +41,7 @@ import org.elasticsearch.transport.RemoteClusterPortSettings;
 import org.elasticsearch.transport.TcpChannel;
 import org.elasticsearch.transport.TransportSettings;
 import org.elasticsearch.transport.netty4.Netty4Transport;
+import org.elasticsearch.transport.netty4.NettyIoTransport;
 import org.elasticsearch.transport.netty4.SharedGroupFactory;
 import org.elasticsearch.xpack.core.XPackSettings;
 import org.elasticsearch.xpack.core.security.transport.ProfileConfigurations;
@@ -78,6 +79,7 @@ public class SecurityNetty4Transport extends Netty4Transport {
     private final boolean remoteClusterServerSslEnabled;
     private final SslConfiguration remoteClusterClientSslConfiguration;
     private final RemoteClusterClientBootstrapOptions remoteClusterClientBootstrapOptions;
+    private final NettyIoTransport ioTransport;
     private final CrossClusterAccessAuthenticationService crossClusterAccessAuthenticationService;
 
     public SecurityNetty4Transport(
@@ -119,6 +121,7 @@ public class SecurityNetty4Transport extends Netty4Transport {
             this.remoteClusterClientSslConfiguration = null;
         }
         this.remoteClusterClientBootstrapOptions = RemoteClusterClientBootstrapOptions.fromSettings(settings);
+        this.ioTransport = sharedGroupFactory.getIoTransport();
     }
 
     @Override
@@ -217,7 +220,7 @@ public class SecurityNetty4Transport extends Netty4Transport {
         logger.trace("reconfiguring client bootstrap for remote cluster client connection");
         // Only client connections to a new RCS remote cluster can have transport profile of _remote_cluster
         // All other client connections use the default transport profile regardless of the transport profile used on the server side.
-        remoteClusterClientBootstrapOptions.configure(bootstrap);
+        remoteClusterClientBootstrapOptions.configure(bootstrap, ioTransport);
         return bootstrap;
     }
 
@@ -383,7 +386,7 @@ public class SecurityNetty4Transport extends Netty4Transport {
                 && tcpReuseAddress == null;
         }
 
-        void configure(Bootstrap bootstrap) {
+        void configure(Bootstrap bootstrap, NettyIoTransport ioTransport) {
             if (tcpNoDelay != null) {
                 bootstrap.option(ChannelOption.TCP_NODELAY, tcpNoDelay);
             }
@@ -394,29 +397,29 @@ public class SecurityNetty4Transport extends Netty4Transport {
                     // Note that Netty logs a warning if it can't set the option
                     if (tcpKeepIdle != null) {
                         if (tcpKeepIdle >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_IDLE, tcpKeepIdle);
+                            bootstrap.option(ioTransport.tcpKeepIdleOption(), tcpKeepIdle);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_IDLE, null);
+                            bootstrap.option(ioTransport.tcpKeepIdleOption(), null);
                         }
                     }
                     if (tcpKeepInterval != null) {
                         if (tcpKeepInterval >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_INTERVAL, tcpKeepInterval);
+                            bootstrap.option(ioTransport.tcpKeepIntervalOption(), tcpKeepInterval);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_INTERVAL, null);
+                            bootstrap.option(ioTransport.tcpKeepIntervalOption(), null);
                         }
                     }
                     if (tcpKeepCount != null) {
                         if (tcpKeepCount >= 0) {
-                            bootstrap.option(OPTION_TCP_KEEP_COUNT, tcpKeepCount);
+                            bootstrap.option(ioTransport.tcpKeepCountOption(), tcpKeepCount);
                         } else {
-                            bootstrap.option(OPTION_TCP_KEEP_COUNT, null);
+                            bootstrap.option(ioTransport.tcpKeepCountOption(), null);
                         }
                     }
                 } else {
-                    bootstrap.option(OPTION_TCP_KEEP_IDLE, null);
-                    bootstrap.option(OPTION_TCP_KEEP_INTERVAL, null);
-                    bootstrap.option(OPTION_TCP_KEEP_COUNT, null);
+                    bootstrap.option(ioTransport.tcpKeepIdleOption(), null);
+                    bootstrap.option(ioTransport.tcpKeepIntervalOption(), null);
+                    bootstrap.option(ioTransport.tcpKeepCountOption(), null);
                 }
             }
 